@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.configuration;
+
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Compares {@link java.util.Properties} and {@link CompactProperties} as the storage of {@link State}.
+ *
+ * <p>
+ *   {@link #createWorkUnitStates} mimics a job creating many work unit states from a shared job state and is best run
+ *   with the GC profiler ({@code -prof gc}) to compare allocated bytes per state. {@link #lookup} measures
+ *   {@link State#getProp(String)} on a mix of common and spec keys.
+ * </p>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@org.openjdk.jmh.annotations.Fork(value = 3)
+@BenchmarkMode(value = Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StateStorageBenchmark {
+
+  private static final int NUM_COMMON_PROPS = 200;
+  private static final int NUM_SPEC_PROPS = 30;
+
+  @org.openjdk.jmh.annotations.State(value = Scope.Thread)
+  public static class StorageState {
+    @Param({"properties", "compact"})
+    public String storage;
+
+    @Param({"1000"})
+    public int numStates;
+
+    private Properties commonProperties;
+    private State[] states;
+    private String[] lookupKeys;
+    private final Random random = new Random();
+
+    @Setup
+    public void setup() {
+      this.commonProperties = newProperties();
+      for (int i = 0; i < NUM_COMMON_PROPS; i++) {
+        this.commonProperties.setProperty("job.common.property." + i, "value" + i);
+      }
+      this.states = new State[this.numStates];
+      for (int i = 0; i < this.numStates; i++) {
+        this.states[i] = newState(this, i);
+      }
+      this.lookupKeys = new String[NUM_COMMON_PROPS + NUM_SPEC_PROPS];
+      for (int i = 0; i < NUM_COMMON_PROPS; i++) {
+        this.lookupKeys[i] = "job.common.property." + i;
+      }
+      for (int i = 0; i < NUM_SPEC_PROPS; i++) {
+        this.lookupKeys[NUM_COMMON_PROPS + i] = "workunit.spec.property." + i;
+      }
+    }
+
+    Properties newProperties() {
+      return "compact".equals(this.storage) ? new CompactProperties() : new Properties();
+    }
+  }
+
+  private static State newState(StorageState storageState, int index) {
+    Properties specProperties = storageState.newProperties();
+    for (int i = 0; i < NUM_SPEC_PROPS; i++) {
+      specProperties.setProperty("workunit.spec.property." + i, "value" + index + "-" + i);
+    }
+    State state = new State();
+    state.setProps(storageState.commonProperties, specProperties);
+    return state;
+  }
+
+  @Benchmark
+  public void createWorkUnitStates(StorageState storageState, Blackhole blackhole) {
+    for (int i = 0; i < storageState.numStates; i++) {
+      blackhole.consume(newState(storageState, i));
+    }
+  }
+
+  @Benchmark
+  public void lookup(StorageState storageState, Blackhole blackhole) {
+    State state = storageState.states[storageState.random.nextInt(storageState.numStates)];
+    for (String key : storageState.lookupKeys) {
+      blackhole.consume(state.getProp(key));
+    }
+  }
+
+  @Benchmark
+  public void getProperties(StorageState storageState, Blackhole blackhole) {
+    blackhole.consume(storageState.states[storageState.random.nextInt(storageState.numStates)].getProperties());
+  }
+}
@@ -0,0 +1,730 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.configuration;
+
+import java.io.ObjectStreamException;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Sets;
+
+
+/**
+ * A memory efficient drop-in replacement for {@link Properties} used as the storage engine of {@link State}.
+ *
+ * <p>
+ *   Entries are kept in a single open-addressed (linear probing) slot array instead of the chained
+ *   {@link java.util.Hashtable} entries of {@link Properties}, which roughly halves the per-entry overhead. String keys
+ *   are interned through a JVM-wide weak dictionary so that the hundreds of thousands of {@link State}s of a large job
+ *   share one copy of each property name.
+ * </p>
+ *
+ * <p>
+ *   Reads ({@link #get(Object)}, {@link #getProperty(String)}, {@link #containsKey(Object)}, ...) never lock: the slot
+ *   array is published through volatile semantics and a key is only made visible after its value. Writes are
+ *   synchronized on the instance, as in {@link java.util.Hashtable}. {@link #CompactProperties(CompactProperties)}
+ *   shares the slot array with the source and both instances copy it lazily on their next write, which makes copying
+ *   the common part of a {@link State} essentially free.
+ * </p>
+ *
+ * <p>
+ *   Iterators over the views are weakly consistent: they never throw {@link java.util.ConcurrentModificationException}
+ *   and may or may not reflect concurrent writes.
+ * </p>
+ */
+public class CompactProperties extends Properties {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Interner<String> KEY_INTERNER = Interners.newWeakInterner();
+  private static final Object TOMBSTONE = new Object();
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 29;
+
+  // Keys at even positions, values at the following odd positions
+  private transient volatile AtomicReferenceArray<Object> slots;
+  private transient volatile int size;
+  // Number of live entries plus tombstones, used to decide when to rehash
+  private transient int used;
+  // Whether the slot array may be referenced by another instance and must be copied before the next write
+  private transient boolean shared;
+
+  public CompactProperties() {
+    this.slots = new AtomicReferenceArray<>(2 * DEFAULT_CAPACITY);
+  }
+
+  public CompactProperties(Map<?, ?> other) {
+    this();
+    putAll(other);
+  }
+
+  /**
+   * Creates a copy of another {@link CompactProperties} that shares its storage until either instance is modified.
+   */
+  public CompactProperties(CompactProperties other) {
+    synchronized (other) {
+      other.shared = true;
+      this.slots = other.slots;
+      this.size = other.size;
+      this.used = other.used;
+      this.shared = true;
+    }
+  }
+
+  /**
+   * Interns a property name in the dictionary shared by all {@link CompactProperties} instances.
+   */
+  public static String internKey(String key) {
+    return KEY_INTERNER.intern(key);
+  }
+
+  private static int capacity(AtomicReferenceArray<Object> slots) {
+    return slots.length() >> 1;
+  }
+
+  private static int indexFor(Object key, int capacity) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return h & (capacity - 1);
+  }
+
+  /**
+   * @return the slot index of the key in the given slot array or -1 if it is absent.
+   */
+  private static int find(AtomicReferenceArray<Object> slots, Object key) {
+    int capacity = capacity(slots);
+    int index = indexFor(key, capacity);
+    for (int probes = 0; probes < capacity; probes++) {
+      Object k = slots.get(2 * index);
+      if (k == null) {
+        return -1;
+      }
+      if (k == key || (k != TOMBSTONE && k.equals(key))) {
+        return index;
+      }
+      index = (index + 1) & (capacity - 1);
+    }
+    return -1;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    AtomicReferenceArray<Object> current = this.slots;
+    int index = find(current, key);
+    return index < 0 ? null : current.get(2 * index + 1);
+  }
+
+  @Override
+  public String getProperty(String key) {
+    Object value = get(key);
+    return value instanceof String ? (String) value : null;
+  }
+
+  @Override
+  public String getProperty(String key, String defaultValue) {
+    String value = getProperty(key);
+    return value == null ? defaultValue : value;
+  }
+
+  @Override
+  public Object getOrDefault(Object key, Object defaultValue) {
+    Object value = get(key);
+    return value == null ? defaultValue : value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    AtomicReferenceArray<Object> current = this.slots;
+    for (int i = 0; i < capacity(current); i++) {
+      Object k = current.get(2 * i);
+      if (k != null && k != TOMBSTONE && value.equals(current.get(2 * i + 1))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean contains(Object value) {
+    return containsValue(value);
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  @Override
+  public synchronized Object setProperty(String key, String value) {
+    return put(key, value);
+  }
+
+  @Override
+  public synchronized Object put(Object key, Object value) {
+    if (key == null || value == null) {
+      throw new NullPointerException();
+    }
+    prepareForWrite();
+    AtomicReferenceArray<Object> current = this.slots;
+    int existing = find(current, key);
+    if (existing >= 0) {
+      Object previous = current.get(2 * existing + 1);
+      current.set(2 * existing + 1, value);
+      return previous;
+    }
+
+    if (this.used + 1 > capacity(current) - (capacity(current) >> 2)) {
+      current = rehash(this.size + 1);
+    }
+    Object storedKey = key instanceof String ? internKey((String) key) : key;
+    insert(current, storedKey, value);
+    this.used++;
+    this.size++;
+    return null;
+  }
+
+  /**
+   * Inserts a key that is known to be absent. The value is published before the key so that lock-free readers that
+   * observe the key always observe its value.
+   */
+  private static void insert(AtomicReferenceArray<Object> slots, Object key, Object value) {
+    int capacity = capacity(slots);
+    int index = indexFor(key, capacity);
+    while (slots.get(2 * index) != null) {
+      index = (index + 1) & (capacity - 1);
+    }
+    slots.set(2 * index + 1, value);
+    slots.set(2 * index, key);
+  }
+
+  @Override
+  public synchronized Object remove(Object key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    int index = find(this.slots, key);
+    if (index < 0) {
+      return null;
+    }
+    prepareForWrite();
+    AtomicReferenceArray<Object> current = this.slots;
+    Object previous = current.get(2 * index + 1);
+    // Tombstone the key first so that readers never see a live key without its value
+    current.set(2 * index, TOMBSTONE);
+    current.set(2 * index + 1, null);
+    this.size--;
+    return previous;
+  }
+
+  @Override
+  public synchronized void putAll(Map<?, ?> t) {
+    for (Map.Entry<?, ?> entry : t.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    this.slots = new AtomicReferenceArray<>(2 * DEFAULT_CAPACITY);
+    this.size = 0;
+    this.used = 0;
+    this.shared = false;
+  }
+
+  /**
+   * Copies the slot array if it is shared with another instance.
+   */
+  private void prepareForWrite() {
+    if (this.shared) {
+      AtomicReferenceArray<Object> current = this.slots;
+      AtomicReferenceArray<Object> copy = new AtomicReferenceArray<>(current.length());
+      for (int i = 0; i < current.length(); i++) {
+        copy.set(i, current.get(i));
+      }
+      this.slots = copy;
+      this.shared = false;
+    }
+  }
+
+  /**
+   * Moves all live entries to a new slot array large enough for the expected size, dropping tombstones.
+   */
+  private AtomicReferenceArray<Object> rehash(int expectedSize) {
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity - (capacity >> 2) < expectedSize && capacity < MAX_CAPACITY) {
+      capacity <<= 1;
+    }
+    AtomicReferenceArray<Object> current = this.slots;
+    AtomicReferenceArray<Object> rehashed = new AtomicReferenceArray<>(2 * capacity);
+    for (int i = 0; i < capacity(current); i++) {
+      Object k = current.get(2 * i);
+      if (k != null && k != TOMBSTONE) {
+        insert(rehashed, k, current.get(2 * i + 1));
+      }
+    }
+    this.slots = rehashed;
+    this.used = this.size;
+    this.shared = false;
+    return rehashed;
+  }
+
+  @Override
+  public synchronized Object putIfAbsent(Object key, Object value) {
+    Object current = get(key);
+    return current == null ? put(key, value) : current;
+  }
+
+  @Override
+  public synchronized boolean remove(Object key, Object value) {
+    Object current = get(key);
+    if (current != null && current.equals(value)) {
+      remove(key);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+    Object current = get(key);
+    if (current != null && current.equals(oldValue)) {
+      put(key, newValue);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized Object replace(Object key, Object value) {
+    return containsKey(key) ? put(key, value) : null;
+  }
+
+  @Override
+  public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+    Object current = get(key);
+    if (current == null) {
+      Object value = mappingFunction.apply(key);
+      if (value != null) {
+        put(key, value);
+      }
+      return value;
+    }
+    return current;
+  }
+
+  @Override
+  public synchronized Object computeIfPresent(Object key,
+      BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    Object current = get(key);
+    if (current == null) {
+      return null;
+    }
+    Object value = remappingFunction.apply(key, current);
+    if (value == null) {
+      remove(key);
+    } else {
+      put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public synchronized Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    Object value = remappingFunction.apply(key, get(key));
+    if (value == null) {
+      remove(key);
+    } else {
+      put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public synchronized Object merge(Object key, Object value,
+      BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    Object current = get(key);
+    Object merged = current == null ? value : remappingFunction.apply(current, value);
+    if (merged == null) {
+      remove(key);
+    } else {
+      put(key, merged);
+    }
+    return merged;
+  }
+
+  @Override
+  public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+    for (Map.Entry<Object, Object> entry : entrySet()) {
+      put(entry.getKey(), function.apply(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super Object, ? super Object> action) {
+    for (Map.Entry<Object, Object> entry : entrySet()) {
+      action.accept(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public Set<String> stringPropertyNames() {
+    Set<String> names = Sets.newHashSetWithExpectedSize(this.size);
+    for (Map.Entry<Object, Object> entry : entrySet()) {
+      if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
+        names.add((String) entry.getKey());
+      }
+    }
+    return Collections.unmodifiableSet(names);
+  }
+
+  @Override
+  public Enumeration<?> propertyNames() {
+    return keys();
+  }
+
+  @Override
+  public Enumeration<Object> keys() {
+    return Iterators.asEnumeration(keySet().iterator());
+  }
+
+  @Override
+  public Enumeration<Object> elements() {
+    return Iterators.asEnumeration(values().iterator());
+  }
+
+  @Override
+  public Set<Object> keySet() {
+    return new AbstractSet<Object>() {
+      @Override
+      public Iterator<Object> iterator() {
+        final Iterator<Map.Entry<Object, Object>> entries = new EntryIterator();
+        return new Iterator<Object>() {
+          @Override
+          public boolean hasNext() {
+            return entries.hasNext();
+          }
+
+          @Override
+          public Object next() {
+            return entries.next().getKey();
+          }
+
+          @Override
+          public void remove() {
+            entries.remove();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return CompactProperties.this.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return CompactProperties.this.containsKey(o);
+      }
+
+      @Override
+      public boolean remove(Object o) {
+        return CompactProperties.this.remove(o) != null;
+      }
+
+      @Override
+      public void clear() {
+        CompactProperties.this.clear();
+      }
+    };
+  }
+
+  @Override
+  public Collection<Object> values() {
+    return new AbstractCollection<Object>() {
+      @Override
+      public Iterator<Object> iterator() {
+        final Iterator<Map.Entry<Object, Object>> entries = new EntryIterator();
+        return new Iterator<Object>() {
+          @Override
+          public boolean hasNext() {
+            return entries.hasNext();
+          }
+
+          @Override
+          public Object next() {
+            return entries.next().getValue();
+          }
+
+          @Override
+          public void remove() {
+            entries.remove();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return CompactProperties.this.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return CompactProperties.this.containsValue(o);
+      }
+
+      @Override
+      public void clear() {
+        CompactProperties.this.clear();
+      }
+    };
+  }
+
+  @Override
+  public Set<Map.Entry<Object, Object>> entrySet() {
+    return new AbstractSet<Map.Entry<Object, Object>>() {
+      @Override
+      public Iterator<Map.Entry<Object, Object>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return CompactProperties.this.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        if (!(o instanceof Map.Entry)) {
+          return false;
+        }
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+        Object value = entry.getKey() == null ? null : CompactProperties.this.get(entry.getKey());
+        return value != null && value.equals(entry.getValue());
+      }
+
+      @Override
+      public boolean remove(Object o) {
+        if (!(o instanceof Map.Entry)) {
+          return false;
+        }
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+        return CompactProperties.this.remove(entry.getKey(), entry.getValue());
+      }
+
+      @Override
+      public void clear() {
+        CompactProperties.this.clear();
+      }
+    };
+  }
+
+  /**
+   * A weakly consistent iterator over a snapshot of the slot array.
+   */
+  private class EntryIterator implements Iterator<Map.Entry<Object, Object>> {
+    private final AtomicReferenceArray<Object> snapshot = CompactProperties.this.slots;
+    private int nextIndex = -1;
+    private Entry lastReturned;
+
+    EntryIterator() {
+      advance();
+    }
+
+    private void advance() {
+      int capacity = capacity(this.snapshot);
+      do {
+        this.nextIndex++;
+      } while (this.nextIndex < capacity && !isLive(this.nextIndex));
+    }
+
+    private boolean isLive(int index) {
+      Object k = this.snapshot.get(2 * index);
+      return k != null && k != TOMBSTONE && this.snapshot.get(2 * index + 1) != null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.nextIndex < capacity(this.snapshot);
+    }
+
+    @Override
+    public Map.Entry<Object, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      this.lastReturned = new Entry(this.snapshot.get(2 * this.nextIndex), this.snapshot.get(2 * this.nextIndex + 1));
+      advance();
+      return this.lastReturned;
+    }
+
+    @Override
+    public void remove() {
+      if (this.lastReturned == null) {
+        throw new IllegalStateException();
+      }
+      CompactProperties.this.remove(this.lastReturned.getKey());
+      this.lastReturned = null;
+    }
+  }
+
+  /**
+   * A map entry whose {@link #setValue(Object)} writes through to the owning {@link CompactProperties}.
+   */
+  private class Entry implements Map.Entry<Object, Object> {
+    private final Object key;
+    private Object value;
+
+    Entry(Object key, Object value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public Object getKey() {
+      return this.key;
+    }
+
+    @Override
+    public Object getValue() {
+      return this.value;
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      Object previous = this.value;
+      CompactProperties.this.put(this.key, value);
+      this.value = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+      return this.key.equals(other.getKey()) && this.value.equals(other.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return this.key.hashCode() ^ this.value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return this.key + "=" + this.value;
+    }
+  }
+
+  @Override
+  public synchronized Object clone() {
+    return new CompactProperties(this);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof Map)) {
+      return false;
+    }
+    Map<?, ?> other = (Map<?, ?>) o;
+    if (other.size() != size()) {
+      return false;
+    }
+    for (Map.Entry<Object, Object> entry : entrySet()) {
+      if (!entry.getValue().equals(other.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (Map.Entry<Object, Object> entry : entrySet()) {
+      hashCode += entry.hashCode();
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("{");
+    Iterator<Map.Entry<Object, Object>> iterator = entrySet().iterator();
+    while (iterator.hasNext()) {
+      builder.append(iterator.next());
+      if (iterator.hasNext()) {
+        builder.append(", ");
+      }
+    }
+    return builder.append('}').toString();
+  }
+
+  /**
+   * Java serialization falls back to a plain {@link Properties} since the slot array is transient.
+   */
+  private Object writeReplace() throws ObjectStreamException {
+    Properties properties = new Properties();
+    for (Map.Entry<Object, Object> entry : entrySet()) {
+      properties.put(entry.getKey(), entry.getValue());
+    }
+    return properties;
+  }
+
+  /**
+   * @return whether the two instances currently share the same storage, for testing.
+   */
+  boolean sharesStorageWith(CompactProperties other) {
+    return this.slots == other.slots;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.configuration;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+
+import com.google.common.collect.Lists;
+
+
+/**
+ * A {@link DataInputStream} that {@link State#readFields(java.io.DataInput)} recognizes and reads properties written
+ * by a {@link CompactStateOutput} from.
+ *
+ * <p>
+ *   Keys and repeated values are resolved against the dictionaries built while reading the stream, so all the states
+ *   read from the same stream share {@link String} instances for equal keys and for values that did not change from one
+ *   state to the next, without the cost of {@link String#intern()}.
+ * </p>
+ */
+public class CompactStateInput extends DataInputStream {
+
+  private final List<String> keys = Lists.newArrayList();
+  private final List<String> lastValues = Lists.newArrayList();
+
+  public CompactStateInput(InputStream in) {
+    super(in);
+  }
+
+  /**
+   * Read the properties of a {@link State} into the given {@link Properties}.
+   */
+  void readProperties(Properties properties) throws IOException {
+    int numEntries = readVarInt();
+    while (numEntries-- > 0) {
+      int keyRef = readVarInt();
+      int id;
+      if (keyRef == 0) {
+        this.keys.add(CompactProperties.internKey(readString()));
+        this.lastValues.add(null);
+        id = this.keys.size() - 1;
+      } else {
+        id = keyRef - 1;
+        if (id >= this.keys.size()) {
+          throw new IOException("Unknown key id " + id + " in compact state encoding");
+        }
+      }
+
+      int valueRef = readVarInt();
+      String value;
+      if (valueRef == 0) {
+        value = this.lastValues.get(id);
+        if (value == null) {
+          throw new IOException("No previous value for key " + this.keys.get(id) + " in compact state encoding");
+        }
+      } else {
+        value = readUtf8(valueRef - 1);
+        this.lastValues.set(id, value);
+      }
+      properties.put(this.keys.get(id), value);
+    }
+  }
+
+  /**
+   * Read a string written by {@link CompactStateOutput#writeString(String)}.
+   */
+  public String readString() throws IOException {
+    return readUtf8(readVarInt());
+  }
+
+  private String readUtf8(int length) throws IOException {
+    byte[] bytes = new byte[length];
+    readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read an int written by {@link CompactStateOutput#writeVarInt(int)}.
+   */
+  public int readVarInt() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint in compact state encoding");
+  }
+}
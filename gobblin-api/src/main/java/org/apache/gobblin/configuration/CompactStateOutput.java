@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.configuration;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+
+/**
+ * A {@link DataOutputStream} that {@link State#write(java.io.DataOutput)} recognizes and writes properties to in a
+ * dictionary-encoded form instead of the legacy {@code Text} key/value pairs.
+ *
+ * <p>
+ *   Every distinct property name is written once per stream and referenced by a varint id afterwards, and a value that
+ *   is equal to the last value written for the same key (typically job-level properties repeated in every work unit)
+ *   is written as a single byte. The encoding is only readable through a {@link CompactStateInput} that sees exactly
+ *   the same sequence of states.
+ * </p>
+ *
+ * <p>
+ *   Encoding of one {@link State}: {@code varint numEntries} followed by the entries. Each entry is
+ *   {@code varint keyRef} where {@code keyRef = id + 1} for a known key and {@code 0} introduces a new key written as a
+ *   string, followed by {@code varint valueRef} where {@code 0} means "same as the previous value of this key" and
+ *   {@code n > 0} introduces a new value of {@code n - 1} UTF-8 bytes.
+ * </p>
+ */
+public class CompactStateOutput extends DataOutputStream {
+
+  private final Map<String, Integer> keyIds = Maps.newHashMap();
+  private final List<String> lastValues = Lists.newArrayList();
+
+  public CompactStateOutput(OutputStream out) {
+    super(out);
+  }
+
+  /**
+   * Write the properties of a {@link State}. Entries of the spec properties override entries of the common properties
+   * with the same key.
+   */
+  void writeProperties(Properties commonProperties, Properties specProperties) throws IOException {
+    int numEntries = specProperties.size();
+    for (Object key : commonProperties.keySet()) {
+      if (!specProperties.containsKey(key)) {
+        numEntries++;
+      }
+    }
+    writeVarInt(numEntries);
+    for (Map.Entry<Object, Object> entry : commonProperties.entrySet()) {
+      if (!specProperties.containsKey(entry.getKey())) {
+        writeEntry((String) entry.getKey(), (String) entry.getValue());
+      }
+    }
+    for (Map.Entry<Object, Object> entry : specProperties.entrySet()) {
+      writeEntry((String) entry.getKey(), (String) entry.getValue());
+    }
+  }
+
+  private void writeEntry(String key, String value) throws IOException {
+    Integer id = this.keyIds.get(key);
+    if (id == null) {
+      writeVarInt(0);
+      writeString(key);
+      this.keyIds.put(key, this.lastValues.size());
+      this.lastValues.add(null);
+      id = this.lastValues.size() - 1;
+    } else {
+      writeVarInt(id + 1);
+    }
+
+    if (value.equals(this.lastValues.get(id))) {
+      writeVarInt(0);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length + 1);
+      write(bytes);
+      this.lastValues.set(id, value);
+    }
+  }
+
+  /**
+   * Write a string as a varint byte length followed by its UTF-8 bytes.
+   */
+  public void writeString(String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(bytes.length);
+    write(bytes);
+  }
+
+  /**
+   * Write a non-negative int using 7 bits per byte, least significant group first.
+   */
+  public void writeVarInt(int value) throws IOException {
+    if (value < 0) {
+      throw new IllegalArgumentException("Negative varint " + value);
+    }
+    while ((value & ~0x7F) != 0) {
+      write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    write(value);
+  }
+}
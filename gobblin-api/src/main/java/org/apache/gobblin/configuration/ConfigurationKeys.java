@@ -43,6 +43,13 @@ public class ConfigurationKeys {
 
   public static final String PST_TIMEZONE_NAME = "America/Los_Angeles";
 
+  /**
+   * {@link State} storage configuration properties. These are read from JVM system properties because a {@link State}
+   * is created before any job configuration is available.
+   */
+  // Back State instances with the array-based CompactProperties instead of java.util.Properties
+  public static final String STATE_COMPACT_STORAGE_ENABLED_KEY = "gobblin.state.compactStorage.enabled";
+
   /**
    * State store configuration properties.
    */
@@ -68,6 +75,9 @@ public class ConfigurationKeys {
   public static final String THREADPOOL_SIZE_OF_LISTING_FS_DATASET_STATESTORE =
       "state.store.threadpoolSizeOfListingFsDatasetStateStore";
   public static final int DEFAULT_THREADPOOL_SIZE_OF_LISTING_FS_DATASET_STATESTORE = 10;
+  // Number of segment files a store of the log-structured file system state store may have before it is compacted
+  public static final String STATE_STORE_LOG_COMPACTION_THRESHOLD_KEY = "state.store.log.compactionThreshold";
+  public static final int DEFAULT_STATE_STORE_LOG_COMPACTION_THRESHOLD = 32;
   // Enable / disable state store
   public static final String STATE_STORE_ENABLED = "state.store.enabled";
   public static final String STATE_STORE_COMPRESSED_VALUES_KEY = "state.store.compressedValues";
@@ -80,11 +90,26 @@ public class ConfigurationKeys {
   public static final String STATE_STORE_DB_PASSWORD_KEY = "state.store.db.password";
   public static final String STATE_STORE_DB_TABLE_KEY = "state.store.db.table";
   public static final String DEFAULT_STATE_STORE_DB_TABLE = "gobblin_job_state";
+  // Codec of the compressed values of a DB state store table: gzip, or the name of a Hadoop compression codec (e.g.
+  // lz4 or zstd, which need the native Hadoop library) to write values in the compact state format with that codec
+  public static final String STATE_STORE_DB_COMPRESSION_CODEC_KEY = "state.store.db.compressionCodec";
+  public static final String DEFAULT_STATE_STORE_DB_COMPRESSION_CODEC = "gzip";
   public static final String MYSQL_GET_MAX_RETRIES = "mysql.get.max.retries";
   public static final int DEFAULT_MYSQL_GET_MAX_RETRIES = 3;
 
   public static final String DATASETURN_STATESTORE_NAME_PARSER = "state.store.datasetUrnStateStoreNameParser";
 
+  /**
+   * State serialization configuration properties.
+   */
+  // Write work unit files and file-based state stores in the dictionary-encoded compact format
+  public static final String STATE_SERIALIZATION_COMPACT_ENABLED_KEY = "state.serialization.compact.enabled";
+  public static final boolean DEFAULT_STATE_SERIALIZATION_COMPACT_ENABLED = false;
+  // Name of the Hadoop compression codec for compact blocks, e.g. lz4, zstd, snappy, deflate or none
+  public static final String STATE_SERIALIZATION_COMPACT_CODEC_KEY = "state.serialization.compact.codec";
+  public static final String DEFAULT_STATE_SERIALIZATION_COMPACT_CODEC = "none";
+  public static final String STATE_SERIALIZATION_COMPACT_BLOCK_SIZE_KEY = "state.serialization.compact.blockSize";
+
   /**
    * Job scheduler configuration properties.
    */
@@ -156,6 +181,12 @@ public class ConfigurationKeys {
   public static final int DEFAULT_TASK_EXECUTOR_THREADPOOL_SIZE = 2;
   public static final int DEFAULT_TASK_STATE_TRACKER_THREAD_POOL_CORE_SIZE = 1;
   public static final int DEFAULT_TASK_RETRY_THREAD_POOL_CORE_SIZE = 1;
+  // Run tasks and forks on virtual threads (JDK 21 or later), falling back to thread pools on older JDKs
+  public static final String TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED_KEY = "taskexecutor.virtualThreads.enabled";
+  public static final boolean DEFAULT_TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED = false;
+  // Maximum number of tasks running concurrently on virtual threads, defaults to the task executor thread pool size
+  public static final String TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENCY_KEY =
+      "taskexecutor.virtualThreads.maxConcurrency";
 
   /**
    * Common flow configuration properties.
@@ -409,6 +440,17 @@ public class ConfigurationKeys {
   public static final long DEFAULT_FORK_RECORD_QUEUE_TIMEOUT = 1000;
   public static final String FORK_RECORD_QUEUE_TIMEOUT_UNIT_KEY = "fork.record.queue.timeout.unit";
   public static final String DEFAULT_FORK_RECORD_QUEUE_TIMEOUT_UNIT = TimeUnit.MILLISECONDS.name();
+  // Type of the fork record queue: "blocking" (ArrayBlockingQueue) or "ringBuffer" (single-producer/single-consumer)
+  public static final String FORK_RECORD_QUEUE_TYPE_KEY = "fork.record.queue.type";
+  public static final String FORK_RECORD_QUEUE_TYPE_BLOCKING = "blocking";
+  public static final String FORK_RECORD_QUEUE_TYPE_RING_BUFFER = "ringBuffer";
+  public static final String DEFAULT_FORK_RECORD_QUEUE_TYPE = FORK_RECORD_QUEUE_TYPE_BLOCKING;
+  // Wait strategy of the ring buffer fork record queue: SPIN, YIELD or PARK
+  public static final String FORK_RECORD_QUEUE_WAIT_STRATEGY_KEY = "fork.record.queue.waitStrategy";
+  public static final String DEFAULT_FORK_RECORD_QUEUE_WAIT_STRATEGY = "PARK";
+  // Maximum number of records a fork takes off its record queue at once
+  public static final String FORK_RECORD_QUEUE_DRAIN_BATCH_SIZE_KEY = "fork.record.queue.drainBatchSize";
+  public static final int DEFAULT_FORK_RECORD_QUEUE_DRAIN_BATCH_SIZE = 1;
   public static final String FORK_MAX_WAIT_MININUTES = "fork.max.wait.minutes";
   public static final long DEFAULT_FORK_MAX_WAIT_MININUTES = 60;
   public static final String FORK_FINISHED_CHECK_INTERVAL = "fork.finished.check.interval";
@@ -548,6 +590,17 @@ public class ConfigurationKeys {
   public static final String DATA_PUBLISHER_REPLACE_FINAL_DIR = DATA_PUBLISHER_PREFIX + ".replace.final.dir";
   public static final String DATA_PUBLISHER_FINAL_NAME = DATA_PUBLISHER_PREFIX + ".final.name";
   public static final String DATA_PUBLISHER_OVERWRITE_ENABLED = DATA_PUBLISHER_PREFIX + ".overwrite.enabled";
+  // If true, writers write to a job attempt directory under the final directory, and the publisher commits their
+  // output by writing a manifest instead of moving each file. Readers that ignore manifests (e.g. Hive) do not see
+  // the output, as job attempt directories are hidden
+  public static final String DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED =
+      DATA_PUBLISHER_PREFIX + ".manifest.commit.enabled";
+  public static final boolean DEFAULT_DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED = false;
+  // Job attempt directories without a manifest are deleted by later publishes once they are older than this, and the
+  // files that committed job attempt directories do not list in their manifests are deleted
+  public static final String DATA_PUBLISHER_MANIFEST_UNCOMMITTED_ATTEMPT_RETENTION_HOURS =
+      DATA_PUBLISHER_PREFIX + ".manifest.uncommittedAttempt.retention.hours";
+  public static final long DEFAULT_DATA_PUBLISHER_MANIFEST_UNCOMMITTED_ATTEMPT_RETENTION_HOURS = 24;
   // @DATA_PUBLISHER_FINAL_DIR is the final publishing root directory
   // @DATA_PUBLISHER_FINAL_DIR_GROUP is set at the leaf level (DATA_PUBLISHER_FINAL_DIR/EXTRACT/file.xxx) which is incorrect
   // Use @DATA_PUBLISHER_OUTPUT_DIR_GROUP to set group at output dir level @DATA_PUBLISHER_FINAL_DIR/EXTRACT
@@ -730,6 +783,9 @@ public class ConfigurationKeys {
   public static final String MR_JOB_MAPPER_FAILURE_IS_FATAL_KEY = "mr.job.map.failure.is.fatal";
   public static final String MR_PERSIST_WORK_UNITS_THEN_CANCEL_KEY = "mr.persist.workunits.then.cancel";
   public static final String MR_TARGET_MAPPER_SIZE = "mr.target.mapper.size";
+  // Stream work units into a few packed container files in the compact state format, instead of one file per work unit
+  public static final String MR_JOB_PACKED_INPUT_ENABLED_KEY = "mr.job.packed.input.enabled";
+  public static final boolean DEFAULT_MR_JOB_PACKED_INPUT_ENABLED = false;
   public static final String MR_REPORT_METRICS_AS_COUNTERS_KEY = "mr.report.metrics.as.counters";
   public static final boolean DEFAULT_MR_REPORT_METRICS_AS_COUNTERS = false;
   public static final int DEFAULT_MR_JOB_MAX_MAPPERS = 100;
@@ -747,6 +803,19 @@ public class ConfigurationKeys {
   public static final boolean DEFAULT_REPORT_JOB_PROGRESS = false;
   public static final double DEFAULT_PROGRESS_REPORTING_THRESHOLD = 0.05;
 
+  /**
+   * Set to true so that task attempts append their task states to a few rolling log files per container, which the
+   * TaskStateCollectorService tails, instead of writing one task state store table per task. Only applies to task
+   * state stores backed by a file system.
+   */
+  public static final String TASK_STATE_LOG_ENABLED = "task.state.collector.log.enabled";
+  public static final boolean DEFAULT_TASK_STATE_LOG_ENABLED = false;
+  public static final String TASK_STATE_LOG_MAX_FILE_SIZE_BYTES = "task.state.collector.log.maxFileSizeBytes";
+  public static final long DEFAULT_TASK_STATE_LOG_MAX_FILE_SIZE_BYTES = 128 * 1024 * 1024L;
+  // Task state log files are closed after being idle for this long, and a new one is started on the next append
+  public static final String TASK_STATE_LOG_IDLE_TIMEOUT_SECONDS = "task.state.collector.log.idleTimeoutSecs";
+  public static final long DEFAULT_TASK_STATE_LOG_IDLE_TIMEOUT_SECONDS = 60;
+
   /**
    * Set to true so that job still proceed if TaskStateCollectorService failed.
    */
@@ -772,6 +841,9 @@ public class ConfigurationKeys {
   public static final String METRICS_CONFIGURATIONS_PREFIX = "metrics.";
   public static final String METRICS_ENABLED_KEY = METRICS_CONFIGURATIONS_PREFIX + "enabled";
   public static final String DEFAULT_METRICS_ENABLED = Boolean.toString(true);
+  // Use striped counters and HdrHistogram recorders for the meters, histograms and timers of the record path
+  public static final String METRICS_LOW_OVERHEAD_ENABLED_KEY = METRICS_CONFIGURATIONS_PREFIX + "lowOverhead.enabled";
+  public static final boolean DEFAULT_METRICS_LOW_OVERHEAD_ENABLED = false;
   public static final String METRICS_REPORT_INTERVAL_KEY = METRICS_CONFIGURATIONS_PREFIX + "report.interval";
   public static final String DEFAULT_METRICS_REPORT_INTERVAL = Long.toString(TimeUnit.SECONDS.toMillis(30));
   public static final String METRIC_CONTEXT_NAME_KEY = "metrics.context.name";
@@ -54,6 +54,8 @@ public class State implements WritableShim {
   private static final Joiner LIST_JOINER = Joiner.on(",");
   private static final Splitter LIST_SPLITTER = Splitter.on(",").trimResults().omitEmptyStrings();
   private static final JsonParser JSON_PARSER = new JsonParser();
+  private static final boolean COMPACT_STORAGE_ENABLED =
+      Boolean.getBoolean(ConfigurationKeys.STATE_COMPACT_STORAGE_ENABLED_KEY);
 
   private String id;
 
@@ -64,18 +66,18 @@ public class State implements WritableShim {
   private Properties specProperties;
 
   public State() {
-    this.specProperties = new Properties();
-    this.commonProperties = new Properties();
+    this.specProperties = newProperties();
+    this.commonProperties = newProperties();
   }
 
   public State(Properties properties) {
     this.specProperties = properties;
-    this.commonProperties = new Properties();
+    this.commonProperties = newProperties();
   }
 
   public State(State otherState) {
     this.commonProperties = otherState.getCommonProperties();
-    this.specProperties = new Properties();
+    this.specProperties = newProperties();
     this.specProperties.putAll(otherState.getProperties());
     for (Object key : this.commonProperties.keySet()) {
       if (this.specProperties.containsKey(key) && this.commonProperties.get(key).equals(this.specProperties.get(key))) {
@@ -84,6 +86,36 @@ public class State implements WritableShim {
     }
   }
 
+  /**
+   * Create an empty {@link Properties} instance for storing properties of a {@link State}.
+   *
+   * <p>
+   *   This is a {@link CompactProperties} if {@link ConfigurationKeys#STATE_COMPACT_STORAGE_ENABLED_KEY} is set to true
+   *   as a JVM system property and a plain {@link Properties} otherwise.
+   * </p>
+   *
+   * @return an empty {@link Properties} instance
+   */
+  protected static Properties newProperties() {
+    return COMPACT_STORAGE_ENABLED ? new CompactProperties() : new Properties();
+  }
+
+  /**
+   * Create a modifiable copy of the given {@link Properties}. Copies of a {@link CompactProperties} share its storage
+   * until one of them is modified.
+   *
+   * @param properties the {@link Properties} to copy
+   * @return a copy of the given {@link Properties}
+   */
+  protected static Properties copyOf(Properties properties) {
+    if (properties instanceof CompactProperties) {
+      return new CompactProperties((CompactProperties) properties);
+    }
+    Properties copy = newProperties();
+    copy.putAll(properties);
+    return copy;
+  }
+
   /**
    * Return a copy of the underlying {@link Properties} object.
    *
@@ -92,10 +124,7 @@ public class State implements WritableShim {
   public Properties getProperties() {
     // a.putAll(b) iterates over the entries of b. Synchronizing on b prevents concurrent modification on b.
     synchronized (this.specProperties) {
-      Properties props = new Properties();
-      if (this.commonProperties != null) {
-        props.putAll(this.commonProperties);
-      }
+      Properties props = this.commonProperties != null ? copyOf(this.commonProperties) : newProperties();
       props.putAll(this.specProperties);
       return props;
     }
@@ -490,8 +519,7 @@ public class State implements WritableShim {
     this.specProperties.remove(key);
     if (this.commonProperties.containsKey(key)) {
       // This case should not happen.
-      Properties commonPropsCopy = new Properties();
-      commonPropsCopy.putAll(this.commonProperties);
+      Properties commonPropsCopy = copyOf(this.commonProperties);
       commonPropsCopy.remove(key);
       this.commonProperties = commonPropsCopy;
     }
@@ -509,8 +537,7 @@ public class State implements WritableShim {
     for (Object key: this.commonProperties.keySet()) {
       if (((String)key).startsWith(prefix)) {
         if (newCommonProperties == null) {
-          newCommonProperties = new Properties();
-          newCommonProperties.putAll(this.commonProperties);
+          newCommonProperties = copyOf(this.commonProperties);
         }
         newCommonProperties.remove(key);
       }
@@ -560,6 +587,10 @@ public class State implements WritableShim {
   @Override
   public void readFields(DataInput in)
       throws IOException {
+    if (in instanceof CompactStateInput) {
+      ((CompactStateInput) in).readProperties(this.specProperties);
+      return;
+    }
     int numEntries = in.readInt();
     while (numEntries-- > 0) {
       String key = TextSerializer.readTextAsString(in).intern();
@@ -571,6 +602,10 @@ public class State implements WritableShim {
   @Override
   public void write(DataOutput out)
       throws IOException {
+    if (out instanceof CompactStateOutput) {
+      ((CompactStateOutput) out).writeProperties(this.commonProperties, this.specProperties);
+      return;
+    }
     out.writeInt(this.commonProperties.size() + this.specProperties.size());
     for (Object key : this.commonProperties.keySet()) {
       TextSerializer.writeStringAsText(out, (String) key);
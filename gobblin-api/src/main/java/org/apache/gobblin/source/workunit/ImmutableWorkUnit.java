@@ -34,8 +34,7 @@ public class ImmutableWorkUnit extends WorkUnit {
   public ImmutableWorkUnit(WorkUnit workUnit) {
     super(workUnit.getExtract());
     // Only copy the specProperties from the given workUnit.
-    Properties specificPropertiesCopy = new Properties();
-    specificPropertiesCopy.putAll(workUnit.getSpecProperties());
+    Properties specificPropertiesCopy = copyOf(workUnit.getSpecProperties());
     super.setProps(workUnit.getCommonProperties(), specificPropertiesCopy);
   }
 
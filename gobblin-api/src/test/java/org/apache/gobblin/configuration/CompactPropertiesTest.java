@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.configuration;
+
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit tests for {@link CompactProperties}.
+ */
+@Test(groups = {"gobblin.configuration"})
+public class CompactPropertiesTest {
+
+  @Test
+  public void testPutGetRemove() {
+    CompactProperties properties = new CompactProperties();
+    for (int i = 0; i < 1000; i++) {
+      properties.setProperty("key" + i, "value" + i);
+    }
+    Assert.assertEquals(properties.size(), 1000);
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertEquals(properties.getProperty("key" + i), "value" + i);
+    }
+
+    Assert.assertEquals(properties.put("key1", "newValue"), "value1");
+    Assert.assertEquals(properties.getProperty("key1"), "newValue");
+
+    for (int i = 0; i < 1000; i += 2) {
+      Assert.assertNotNull(properties.remove("key" + i));
+    }
+    Assert.assertEquals(properties.size(), 500);
+    Assert.assertFalse(properties.containsKey("key0"));
+    Assert.assertTrue(properties.containsKey("key999"));
+    Assert.assertEquals(properties.getProperty("key0", "default"), "default");
+
+    // Re-adding removed keys must reuse the table correctly
+    properties.setProperty("key0", "value0");
+    Assert.assertEquals(properties.getProperty("key0"), "value0");
+    Assert.assertEquals(properties.size(), 501);
+    Assert.assertEquals(properties.stringPropertyNames().size(), 501);
+  }
+
+  @Test
+  public void testEqualsPlainProperties() {
+    Properties plain = new Properties();
+    CompactProperties compact = new CompactProperties();
+    for (int i = 0; i < 50; i++) {
+      plain.setProperty("key" + i, "value" + i);
+      compact.setProperty("key" + i, "value" + i);
+    }
+    Assert.assertEquals(compact, plain);
+    Assert.assertEquals(plain, compact);
+    Assert.assertEquals(compact.hashCode(), plain.hashCode());
+
+    Properties copy = new Properties();
+    copy.putAll(compact);
+    Assert.assertEquals(copy, plain);
+  }
+
+  @Test
+  public void testCopyOnWrite() {
+    CompactProperties original = new CompactProperties();
+    original.setProperty("a", "1");
+    original.setProperty("b", "2");
+
+    CompactProperties copy = new CompactProperties(original);
+    Assert.assertTrue(copy.sharesStorageWith(original));
+
+    copy.setProperty("a", "3");
+    Assert.assertFalse(copy.sharesStorageWith(original));
+    Assert.assertEquals(original.getProperty("a"), "1");
+    Assert.assertEquals(copy.getProperty("a"), "3");
+
+    original.remove("b");
+    Assert.assertFalse(original.containsKey("b"));
+    Assert.assertEquals(copy.getProperty("b"), "2");
+  }
+
+  @Test
+  public void testKeysAreInterned() {
+    CompactProperties first = new CompactProperties();
+    CompactProperties second = new CompactProperties();
+    first.setProperty(new String("some.key"), "1");
+    second.setProperty(new String("some.key"), "2");
+    Assert.assertSame(first.stringPropertyNames().iterator().next(), second.stringPropertyNames().iterator().next());
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    CompactProperties properties = new CompactProperties();
+    for (int i = 0; i < 20; i++) {
+      properties.setProperty("prefix." + i, "v");
+      properties.setProperty("other." + i, "v");
+    }
+    properties.entrySet().removeIf(entry -> ((String) entry.getKey()).startsWith("prefix"));
+    Assert.assertEquals(properties.size(), 20);
+    for (Object key : properties.keySet()) {
+      Assert.assertTrue(((String) key).startsWith("other"));
+    }
+  }
+
+  @Test
+  public void testStateBackedByCompactProperties() {
+    State state = new State();
+    CompactProperties common = new CompactProperties();
+    common.setProperty("common", "c");
+    state.setProps(common, new CompactProperties());
+    state.setProp("spec", "s");
+
+    Assert.assertEquals(state.getProp("common"), "c");
+    Assert.assertEquals(state.getProp("spec"), "s");
+    Assert.assertEquals(state.getPropertyNames().size(), 2);
+
+    Properties merged = state.getProperties();
+    Assert.assertTrue(merged instanceof CompactProperties);
+    merged.setProperty("common", "changed");
+    Assert.assertEquals(state.getProp("common"), "c");
+
+    state.removeProp("common");
+    Assert.assertFalse(state.contains("common"));
+    Assert.assertEquals(common.getProperty("common"), "c");
+  }
+}
@@ -18,6 +18,7 @@
 package org.apache.gobblin.writer;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
 import java.util.concurrent.ScheduledExecutorService;
@@ -30,6 +31,7 @@ import org.openjdk.jmh.annotations.Group;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -42,11 +44,16 @@ import com.google.common.base.Optional;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
+import org.apache.gobblin.source.extractor.CheckpointableWatermark;
 import org.apache.gobblin.source.extractor.DefaultCheckpointableWatermark;
 import org.apache.gobblin.source.extractor.extract.LongWatermark;
 import org.apache.gobblin.util.ExecutorsUtils;
 
 
+/**
+ * Measures tracking and acknowledging watermarks with the {@link FineGrainedWatermarkTracker} implementations
+ * available from {@link WatermarkTrackerFactory#getFineGrainedInstance(Config)}.
+ */
 @Warmup(iterations = 3)
 @Measurement(iterations = 10)
 @org.openjdk.jmh.annotations.Fork(value = 3)
@@ -55,6 +62,9 @@ import org.apache.gobblin.util.ExecutorsUtils;
 public class FineGrainedWatermarkTrackerBenchmark {
   @State(value = Scope.Group)
   public static class TrackerState {
+    @Param({"fineGrained", "striped"})
+    public String trackerType;
+
     private FineGrainedWatermarkTracker _watermarkTracker;
     private ScheduledExecutorService _executorService;
     private long _index;
@@ -63,8 +73,9 @@ public class FineGrainedWatermarkTrackerBenchmark {
     @Setup
     public void setup() throws Exception {
       Properties properties = new Properties();
+      properties.setProperty(WatermarkTrackerFactory.FINE_GRAINED_TRACKER_TYPE, trackerType);
       Config config = ConfigFactory.parseProperties(properties);
-      _watermarkTracker = new FineGrainedWatermarkTracker(config);
+      _watermarkTracker = WatermarkTrackerFactory.getFineGrainedInstance(config);
       _index = 0;
       _executorService = new ScheduledThreadPoolExecutor(40,
           ExecutorsUtils.newThreadFactory(Optional.of(LoggerFactory.getLogger(FineGrainedWatermarkTrackerBenchmark.class))));
@@ -89,6 +100,24 @@ public class FineGrainedWatermarkTrackerBenchmark {
     }
   }
 
+  @Benchmark
+  @Group("trackAndCommit")
+  public void trackWhileCommitting(Control control, TrackerState trackerState) throws Exception {
+    if (!control.stopMeasurement) {
+      AcknowledgableWatermark wmark = new AcknowledgableWatermark(new DefaultCheckpointableWatermark(
+          "0", new LongWatermark(trackerState._index)));
+      trackerState._watermarkTracker.track(wmark);
+      trackerState._index++;
+      wmark.ack();
+    }
+  }
+
+  @Benchmark
+  @Group("trackAndCommit")
+  public Map<String, CheckpointableWatermark> commitWhileTracking(Control control, TrackerState trackerState) {
+    return trackerState._watermarkTracker.getCommittableWatermarks();
+  }
+
   @Benchmark
   @Group("trackDelayed")
   public void trackWithDelayedAcks(Control control, TrackerState trackerState) throws Exception {
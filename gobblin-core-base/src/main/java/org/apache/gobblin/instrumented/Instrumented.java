@@ -145,7 +145,10 @@ public class Instrumented implements Instrumentable, Closeable {
     MetricContext.Builder builder = gobblinMetrics.isPresent()
         ? gobblinMetrics.get().getMetricContext().childBuilder(klazz.getCanonicalName() + "." + randomId)
         : MetricContext.builder(klazz.getCanonicalName() + "." + randomId);
-    return builder.addTags(generatedTags).addTags(tags).build();
+    return builder.addTags(generatedTags).addTags(tags)
+        .lowOverhead(state.getPropAsBoolean(ConfigurationKeys.METRICS_LOW_OVERHEAD_ENABLED_KEY,
+            ConfigurationKeys.DEFAULT_METRICS_LOW_OVERHEAD_ENABLED))
+        .build();
   }
 
   /**
@@ -181,7 +184,7 @@ public class Instrumented implements Instrumentable, Closeable {
 
     MetricContext.Builder builder = context.getParent().isPresent() ? context.getParent().get().childBuilder(newName)
         : MetricContext.builder(newName);
-    return builder.addTags(context.getTags()).addTags(newTags).build();
+    return builder.addTags(context.getTags()).addTags(newTags).lowOverhead(context.isLowOverhead()).build();
   }
 
   /**
@@ -239,17 +242,13 @@ public class Instrumented implements Instrumentable, Closeable {
    * @param unit
    */
   public static void updateTimer(Optional<Timer> timer, final long duration, final TimeUnit unit) {
-    timer.transform(new Function<Timer, Timer>() {
-      @Override
-      public Timer apply(@Nonnull Timer input) {
-        input.update(duration, unit);
-        return input;
-      }
-    });
+    if (timer.isPresent()) {
+      timer.get().update(duration, unit);
+    }
   }
 
   public static void updateTimer(Timer timer, final long duration, final TimeUnit unit) {
-    updateTimer(Optional.of(timer), duration, unit);
+    timer.update(duration, unit);
   }
 
   /**
@@ -261,7 +260,7 @@ public class Instrumented implements Instrumentable, Closeable {
   }
 
   public static void markMeter(Meter meter) {
-    markMeter(Optional.of(meter), 1);
+    meter.mark();
   }
 
   /**
@@ -270,13 +269,9 @@ public class Instrumented implements Instrumentable, Closeable {
    * @param value value to mark
    */
   public static void markMeter(Optional<Meter> meter, final long value) {
-    meter.transform(new Function<Meter, Meter>() {
-      @Override
-      public Meter apply(@Nonnull Meter input) {
-        input.mark(value);
-        return input;
-      }
-    });
+    if (meter.isPresent()) {
+      meter.get().mark(value);
+    }
   }
 
   /**
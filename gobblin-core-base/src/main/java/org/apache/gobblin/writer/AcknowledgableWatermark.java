@@ -16,7 +16,7 @@
  */
 package org.apache.gobblin.writer;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.apache.gobblin.ack.Ackable;
 import org.apache.gobblin.source.extractor.CheckpointableWatermark;
@@ -27,29 +27,33 @@ import org.apache.gobblin.source.extractor.CheckpointableWatermark;
  */
 public class AcknowledgableWatermark implements Comparable<AcknowledgableWatermark>, Ackable {
 
+  // A field updater rather than an AtomicInteger, as one of these is allocated per record in streaming mode
+  private static final AtomicIntegerFieldUpdater<AcknowledgableWatermark> ACKED_UPDATER =
+      AtomicIntegerFieldUpdater.newUpdater(AcknowledgableWatermark.class, "_acked");
+
   private final CheckpointableWatermark _checkpointableWatermark;
-  private final AtomicInteger _acked;
+  private volatile int _acked;
 
   public AcknowledgableWatermark(CheckpointableWatermark watermark) {
-    _acked = new AtomicInteger(1); // default number of acks needed is 1
+    _acked = 1; // default number of acks needed is 1
     _checkpointableWatermark = watermark;
   }
 
   @Override
   public void ack() {
-    int ackValue = _acked.decrementAndGet();
+    int ackValue = ACKED_UPDATER.decrementAndGet(this);
     if (ackValue < 0) {
       throw new AssertionError("The acknowledgement counter for this watermark went negative. Please file a bug!");
     }
   }
 
   public AcknowledgableWatermark incrementAck() {
-    _acked.incrementAndGet();
+    ACKED_UPDATER.incrementAndGet(this);
     return this;
   }
 
   public boolean isAcked() {
-    return (_acked.get() == 0);
+    return (_acked == 0);
   }
 
   public CheckpointableWatermark getCheckpointableWatermark() {
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.writer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+import org.apache.gobblin.annotation.Alpha;
+
+
+/**
+ * An additive-increase / multiplicative-decrease (AIMD) controller for a limit of a writer, such as its number of
+ * outstanding writes or its batch size, driven by the observed latency and failures of its writes.
+ *
+ * <p>
+ *   Samples are aggregated over fixed intervals. At the end of an interval, the limit is multiplied by the decrease
+ *   factor if any write failed or if the average latency of the successful writes exceeded the latency target, and it
+ *   is increased by the increment otherwise. The limit always stays between the minimum and the maximum, and starts at
+ *   the maximum. A latency target of 0 disables the latency check, so that only failures decrease the limit.
+ * </p>
+ *
+ * <p>
+ *   This class is thread safe. Recording a sample takes a short lock, {@link #getLimit()} does not.
+ * </p>
+ */
+@Alpha
+public class AimdController {
+
+  public static final double DECREASE_FACTOR_DEFAULT = 0.5;
+  // Fraction of the maximum added to the limit on each increase
+  public static final double INCREMENT_RATIO_DEFAULT = 0.05;
+
+  private final long minLimit;
+  private final long maxLimit;
+  private final long increment;
+  private final double decreaseFactor;
+  private final long latencyTargetNanos;
+  private final long intervalNanos;
+
+  private volatile long limit;
+
+  // Samples of the current interval, guarded by this
+  private long intervalStartNanos;
+  private long numSuccesses = 0;
+  private long totalLatencyNanos = 0;
+  private boolean failed = false;
+
+  /**
+   * Create a controller which increases its limit by {@link #INCREMENT_RATIO_DEFAULT} of the maximum and halves it on
+   * decrease.
+   */
+  public AimdController(long minLimit, long maxLimit, long latencyTargetNanos, long intervalNanos) {
+    this(minLimit, maxLimit, Math.max(1, (long) (maxLimit * INCREMENT_RATIO_DEFAULT)), DECREASE_FACTOR_DEFAULT,
+        latencyTargetNanos, intervalNanos);
+  }
+
+  public AimdController(long minLimit, long maxLimit, long increment, double decreaseFactor, long latencyTargetNanos,
+      long intervalNanos) {
+    Preconditions.checkArgument(minLimit > 0, "Min limit must be greater than 0");
+    Preconditions.checkArgument(minLimit <= maxLimit, "Min limit must not be greater than max limit");
+    Preconditions.checkArgument(increment > 0, "Increment must be greater than 0");
+    Preconditions.checkArgument(decreaseFactor > 0 && decreaseFactor < 1, "Decrease factor must be between 0 and 1");
+    Preconditions.checkArgument(latencyTargetNanos >= 0, "Latency target must not be negative");
+    Preconditions.checkArgument(intervalNanos >= 0, "Interval must not be negative");
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.increment = increment;
+    this.decreaseFactor = decreaseFactor;
+    this.latencyTargetNanos = latencyTargetNanos;
+    this.intervalNanos = intervalNanos;
+    this.limit = maxLimit;
+    this.intervalStartNanos = System.nanoTime();
+  }
+
+  public long getLimit() {
+    return this.limit;
+  }
+
+  /**
+   * Record a successful write.
+   * @return true if the limit changed.
+   */
+  public boolean onSuccess(long latencyNanos) {
+    return onSuccess(latencyNanos, System.nanoTime());
+  }
+
+  /**
+   * Record a failed write.
+   * @return true if the limit changed.
+   */
+  public boolean onFailure() {
+    return onFailure(System.nanoTime());
+  }
+
+  @VisibleForTesting
+  synchronized boolean onSuccess(long latencyNanos, long nowNanos) {
+    this.numSuccesses++;
+    this.totalLatencyNanos += latencyNanos;
+    return maybeAdjust(nowNanos);
+  }
+
+  @VisibleForTesting
+  synchronized boolean onFailure(long nowNanos) {
+    this.failed = true;
+    return maybeAdjust(nowNanos);
+  }
+
+  private boolean maybeAdjust(long nowNanos) {
+    if (nowNanos - this.intervalStartNanos < this.intervalNanos) {
+      return false;
+    }
+    long newLimit;
+    if (this.failed || (this.latencyTargetNanos > 0 && this.numSuccesses > 0
+        && this.totalLatencyNanos / this.numSuccesses > this.latencyTargetNanos)) {
+      newLimit = Math.max(this.minLimit, (long) (this.limit * this.decreaseFactor));
+    } else {
+      newLimit = Math.min(this.maxLimit, this.limit + this.increment);
+    }
+    this.intervalStartNanos = nowNanos;
+    this.numSuccesses = 0;
+    this.totalLatencyNanos = 0;
+    this.failed = false;
+
+    if (newLimit == this.limit) {
+      return false;
+    }
+    this.limit = newLimit;
+    return true;
+  }
+}
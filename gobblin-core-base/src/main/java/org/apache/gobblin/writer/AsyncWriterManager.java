@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
@@ -64,7 +65,9 @@ import org.apache.gobblin.util.FinalState;
  * 2. Wait for a specified amount of time on commit for all pending writes to complete.
  * 3. Do not proceed if a certain failure threshold is exceeded.
  * 4. Support a fixed number of retries on failure of individual records (TODO: retry strategies)
- * 5. Support a max number of outstanding / unacknowledged writes
+ * 5. Support a max number of outstanding / unacknowledged writes, optionally tuned at runtime between
+ *    {@link #ADAPTIVE_MIN_OUTSTANDING_WRITES} and the max by an {@link AimdController} fed with the write latency and
+ *    failures, if {@link #ADAPTIVE_OUTSTANDING_WRITES_ENABLED} is set
  * 6. TODO: Support ordered / unordered write semantics
  *
  *
@@ -78,6 +81,14 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
   public static final int NUM_RETRIES_DEFAULT = 5;
   public static final int MIN_RETRY_INTERVAL_MILLIS_DEFAULT = 3;
   public static final int MAX_OUTSTANDING_WRITES_DEFAULT = 1000;
+  public static final String ADAPTIVE_OUTSTANDING_WRITES_ENABLED = "writer.async.adaptive.enabled";
+  public static final boolean ADAPTIVE_OUTSTANDING_WRITES_ENABLED_DEFAULT = false;
+  public static final String ADAPTIVE_MIN_OUTSTANDING_WRITES = "writer.async.adaptive.minOutstandingWrites";
+  public static final int ADAPTIVE_MIN_OUTSTANDING_WRITES_DEFAULT = 10;
+  public static final String ADAPTIVE_LATENCY_TARGET_MILLIS = "writer.async.adaptive.latencyTargetMillis";
+  public static final long ADAPTIVE_LATENCY_TARGET_MILLIS_DEFAULT = 0; // only shrink the window on failures
+  public static final String ADAPTIVE_INTERVAL_MILLIS = "writer.async.adaptive.intervalMillis";
+  public static final long ADAPTIVE_INTERVAL_MILLIS_DEFAULT = 100;
 
   private final boolean instrumentationEnabled;
 
@@ -106,8 +117,8 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
   private final Logger log;
   @VisibleForTesting
   final Optional<LinkedBlockingQueue<Attempt>> retryQueue;
-  private final int maxOutstandingWrites;
-  private final Semaphore writePermits;
+  private final AdjustableSemaphore writePermits;
+  private final Optional<AimdController> outstandingWritesController;
   private volatile Throwable cachedWriteException = null;
 
   @Override
@@ -198,6 +209,21 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
     } else {
       this.dataWriterTimer = Optional.absent();
     }
+
+    registerGauge(MetricNames.DataWriterMetrics.OUTSTANDING_WRITES_LIMIT_GAUGE, this.writePermits::getMaxPermits);
+    if (this.asyncDataWriter instanceof BufferedAsyncDataWriter && ((BufferedAsyncDataWriter) this.asyncDataWriter)
+        .getAccumulator() instanceof SequentialBasedBatchAccumulator) {
+      SequentialBasedBatchAccumulator accumulator =
+          (SequentialBasedBatchAccumulator) ((BufferedAsyncDataWriter) this.asyncDataWriter).getAccumulator();
+      registerGauge(MetricNames.DataWriterMetrics.BATCH_SIZE_LIMIT_GAUGE, accumulator::getCurrentBatchSizeLimit);
+      registerGauge(MetricNames.DataWriterMetrics.BATCH_LINGER_GAUGE, accumulator::getCurrentExpireInMilliSecond);
+    }
+  }
+
+  private <T> void registerGauge(String name, Gauge<T> gauge) {
+    if (!this.metricContext.getGauges().containsKey(name)) {
+      this.metricContext.register(name, this.metricContext.newContextAwareGauge(name, gauge));
+    }
   }
 
   protected AsyncWriterManager(Config config, long commitTimeoutMillis, long commitStepWaitTimeMillis,
@@ -218,6 +244,11 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
     this.instrumentationEnabled = GobblinMetrics.isEnabled(state);
     this.metricContext = this.closer.register(Instrumented.getMetricContext(state, asyncDataWriter.getClass()));
 
+    this.outstandingWritesController = createOutstandingWritesController(config, maxOutstandingWrites);
+    this.writePermits = new AdjustableSemaphore(maxOutstandingWrites);
+    this.asyncDataWriter = asyncDataWriter;
+    this.closer.register(asyncDataWriter);
+
     regenerateMetrics();
 
     this.commitTimeoutMillis = commitTimeoutMillis;
@@ -235,10 +266,19 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
       this.retryQueue = Optional.absent();
       this.retryThreadPool = Optional.absent();
     }
-    this.maxOutstandingWrites = maxOutstandingWrites;
-    this.writePermits = new Semaphore(maxOutstandingWrites);
-    this.asyncDataWriter = asyncDataWriter;
-    this.closer.register(asyncDataWriter);
+  }
+
+  private static Optional<AimdController> createOutstandingWritesController(Config config, int maxOutstandingWrites) {
+    if (!ConfigUtils.getBoolean(config, ADAPTIVE_OUTSTANDING_WRITES_ENABLED,
+        ADAPTIVE_OUTSTANDING_WRITES_ENABLED_DEFAULT)) {
+      return Optional.absent();
+    }
+    int minOutstandingWrites = Math.min(maxOutstandingWrites,
+        ConfigUtils.getInt(config, ADAPTIVE_MIN_OUTSTANDING_WRITES, ADAPTIVE_MIN_OUTSTANDING_WRITES_DEFAULT));
+    return Optional.of(new AimdController(minOutstandingWrites, maxOutstandingWrites,
+        ConfigUtils.getLong(config, ADAPTIVE_LATENCY_TARGET_MILLIS, ADAPTIVE_LATENCY_TARGET_MILLIS_DEFAULT)
+            * MILLIS_TO_NANOS,
+        ConfigUtils.getLong(config, ADAPTIVE_INTERVAL_MILLIS, ADAPTIVE_INTERVAL_MILLIS_DEFAULT) * MILLIS_TO_NANOS));
   }
 
   @Override
@@ -264,7 +304,7 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
         if (spinNum % 50 == 0) {
           log.info("Spinning due to pending writes, in = " + this.recordsIn.getCount() +
               ", success = " + this.recordsSuccess.getCount() + ", failed = " + this.recordsFailed.getCount() +
-              ", maxOutstandingWrites = " + this.maxOutstandingWrites);
+              ", maxOutstandingWrites = " + this.writePermits.getMaxPermits());
         }
       }
     } catch (InterruptedException e) {
@@ -311,9 +351,13 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
           if (writeResponse.bytesWritten() > 0) {
             AsyncWriterManager.this.bytesWritten.mark(writeResponse.bytesWritten());
           }
+          long latencyNanos = System.nanoTime() - attempt.getPrevAttemptTimestampNanos();
           if (AsyncWriterManager.this.dataWriterTimer.isPresent()) {
-            AsyncWriterManager.this.dataWriterTimer.get()
-                .update(System.nanoTime() - attempt.getPrevAttemptTimestampNanos(), TimeUnit.NANOSECONDS);
+            AsyncWriterManager.this.dataWriterTimer.get().update(latencyNanos, TimeUnit.NANOSECONDS);
+          }
+          if (AsyncWriterManager.this.outstandingWritesController.isPresent()
+              && AsyncWriterManager.this.outstandingWritesController.get().onSuccess(latencyNanos)) {
+            updateMaxOutstandingWrites();
           }
         } finally {
           AsyncWriterManager.this.writePermits.release();
@@ -327,6 +371,10 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
           AsyncWriterManager.this.dataWriterTimer.get()
               .update(currTime - attempt.getPrevAttemptTimestampNanos(), TimeUnit.NANOSECONDS);
         }
+        if (AsyncWriterManager.this.outstandingWritesController.isPresent()
+            && AsyncWriterManager.this.outstandingWritesController.get().onFailure()) {
+          updateMaxOutstandingWrites();
+        }
         if (attempt.attemptNum <= AsyncWriterManager.this.numRetries) { // attempts must == numRetries + 1
           log.debug("Attempt {} had failure: {}; re-enqueueing record: {}", attempt.attemptNum, throwable.getMessage(),
               attempt.getRecord().toString());
@@ -352,6 +400,39 @@ public class AsyncWriterManager<D> implements WatermarkAwareWriter<D>, DataWrite
     });
   }
 
+  private void updateMaxOutstandingWrites() {
+    int maxPermits = (int) this.outstandingWritesController.get().getLimit();
+    this.writePermits.setMaxPermits(maxPermits);
+    log.debug("Max outstanding writes set to {}", maxPermits);
+  }
+
+  /**
+   * A {@link Semaphore} whose number of permits can be changed while permits are acquired. When the number of permits
+   * is lowered below the number of acquired permits, new acquisitions block until enough permits are released.
+   */
+  private static class AdjustableSemaphore extends Semaphore {
+    private volatile int maxPermits;
+
+    AdjustableSemaphore(int maxPermits) {
+      super(maxPermits);
+      this.maxPermits = maxPermits;
+    }
+
+    int getMaxPermits() {
+      return this.maxPermits;
+    }
+
+    synchronized void setMaxPermits(int maxPermits) {
+      int delta = maxPermits - this.maxPermits;
+      if (delta > 0) {
+        release(delta);
+      } else if (delta < 0) {
+        reducePermits(-delta);
+      }
+      this.maxPermits = maxPermits;
+    }
+  }
+
   private class RetryRunner implements Runnable {
 
     private final LinkedBlockingQueue<Attempt> retryQueue;
@@ -43,6 +43,15 @@ public abstract class Batch<D>{
   public static final long   BATCH_SIZE_DEFAULT = 256 * 1024; // 256KB
   public static final String BATCH_QUEUE_CAPACITY = "writer.batch.queue.capacity";
   public static final long   BATCH_QUEUE_CAPACITY_DEFAULT = 100;
+  // Adapt the batch size and linger time to the latency and failures of the batch writes, see AimdController
+  public static final String BATCH_ADAPTIVE_ENABLED = "writer.batch.adaptive.enabled";
+  public static final boolean BATCH_ADAPTIVE_ENABLED_DEFAULT = false;
+  public static final String BATCH_ADAPTIVE_MIN_SIZE = "writer.batch.adaptive.minSize";
+  public static final long   BATCH_ADAPTIVE_MIN_SIZE_DEFAULT = 16 * 1024; // 16KB
+  public static final String BATCH_ADAPTIVE_LATENCY_TARGET = "writer.batch.adaptive.latencyTarget";
+  public static final long   BATCH_ADAPTIVE_LATENCY_TARGET_DEFAULT = 0; // only shrink batches on failures
+  public static final String BATCH_ADAPTIVE_INTERVAL = "writer.batch.adaptive.interval";
+  public static final long   BATCH_ADAPTIVE_INTERVAL_DEFAULT = 1000; // 1 second
 
   private final List<Thunk> thunks;
 
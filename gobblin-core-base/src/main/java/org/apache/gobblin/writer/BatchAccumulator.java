@@ -128,4 +128,21 @@ public abstract class BatchAccumulator<D> implements Closeable {
 
   public abstract Batch<D> getNextAvailableBatch();
 
+  /**
+   * Like {@link #getNextAvailableBatch()}, but if a batch is pending without being available yet, wait up to
+   * maxWaitMillis for it to become available instead of returning null right away. By default this does not wait.
+   */
+  public Batch<D> getNextAvailableBatch(long maxWaitMillis) {
+    return getNextAvailableBatch();
+  }
+
+  /**
+   * Called when a batch returned by {@link #getNextAvailableBatch()} has been written or has failed, before it is
+   * deallocated. Implementations can use it to adapt their batching to the write latency. By default this does nothing.
+   *
+   * @param latencyNanos time between sending the batch and receiving its response
+   */
+  public void onBatchCompletion(Batch<D> batch, long latencyNanos, boolean success) {
+  }
+
 }
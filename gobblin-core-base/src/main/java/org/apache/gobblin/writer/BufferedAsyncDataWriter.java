@@ -47,6 +47,8 @@ public class BufferedAsyncDataWriter<D> implements AsyncDataWriter<D> {
   private volatile boolean running;
   private final long startTime;
   private static final Logger LOG = LoggerFactory.getLogger(BufferedAsyncDataWriter.class);
+  // How long the processor waits for a pending batch before checking whether it is still running
+  private static final long BATCH_WAIT_MILLIS = 100;
   private static final WriteResponseMapper<RecordMetadata> WRITE_RESPONSE_WRAPPER =
       new WriteResponseMapper<RecordMetadata>() {
 
@@ -106,7 +108,7 @@ public class BufferedAsyncDataWriter<D> implements AsyncDataWriter<D> {
        * A main loop to process available batches
        */
       while (running) {
-        Batch<D> batch = this.accumulator.getNextAvailableBatch();
+        Batch<D> batch = this.accumulator.getNextAvailableBatch(BATCH_WAIT_MILLIS);
         if (batch != null) {
           this.writer.write(batch, this.createBatchCallback(batch));
         }
@@ -133,11 +135,13 @@ public class BufferedAsyncDataWriter<D> implements AsyncDataWriter<D> {
      * receives the result
      */
     private WriteCallback createBatchCallback (final Batch<D> batch) {
+      final long sendTimestampNanos = System.nanoTime();
       return new WriteCallback<Object>() {
         @Override
         public void onSuccess(WriteResponse writeResponse) {
           LOG.debug ("Batch " + batch.getId() + " is on success with size " + batch.getCurrentSizeInByte() + " num of record " + batch.getRecords().size());
           batch.onSuccess(writeResponse);
+          accumulator.onBatchCompletion(batch, System.nanoTime() - sendTimestampNanos, true);
           batch.done();
           accumulator.deallocate(batch);
         }
@@ -146,6 +150,7 @@ public class BufferedAsyncDataWriter<D> implements AsyncDataWriter<D> {
         public void onFailure(Throwable throwable) {
           LOG.info ("Batch " + batch.getId() + " is on failure");
           batch.onFailure(throwable);
+          accumulator.onBatchCompletion(batch, System.nanoTime() - sendTimestampNanos, false);
           batch.done();
           accumulator.deallocate(batch);
         }
@@ -153,6 +158,10 @@ public class BufferedAsyncDataWriter<D> implements AsyncDataWriter<D> {
     }
   }
 
+  BatchAccumulator<D> getAccumulator() {
+    return this.accumulator;
+  }
+
   /**
    * Asynchronously write a record, execute the callback on success/failure
    */
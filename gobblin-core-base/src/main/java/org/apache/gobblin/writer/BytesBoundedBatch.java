@@ -17,7 +17,7 @@
 package org.apache.gobblin.writer;
 import org.apache.gobblin.annotation.Alpha;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -44,6 +44,13 @@ public class BytesBoundedBatch<D> extends Batch<D>{
     return (System.currentTimeMillis() - creationTimestamp) >= ttlInMilliSeconds;
   }
 
+  /**
+   * @return milliseconds until the TTL of this batch expires, 0 if it has already expired.
+   */
+  public long getTimeToExpireInMilliSeconds() {
+    return Math.max(0, creationTimestamp + ttlInMilliSeconds - System.currentTimeMillis());
+  }
+
   private long getInternalSize(D record) {
     return (record).toString().length() + this.OVERHEAD_SIZE_IN_BYTES;
   }
@@ -54,7 +61,7 @@ public class BytesBoundedBatch<D> extends Batch<D>{
 
     public RecordMemory () {
       byteSize = 0;
-      records = new LinkedList<>();
+      records = new ArrayList<>();
     }
 
     void append (D record) {
@@ -86,8 +86,8 @@ public class FineGrainedWatermarkTracker implements Instrumentable, Closeable {
 
   private MetricContext _metricContext;
   protected final Closer _closer;
-  private Meter _watermarksInserted;
-  private Meter _watermarksSwept;
+  protected Meter _watermarksInserted;
+  protected Meter _watermarksSwept;
 
   private final AtomicBoolean _started;
   private final AtomicBoolean _abort;
@@ -150,6 +150,14 @@ public class FineGrainedWatermarkTracker implements Instrumentable, Closeable {
       start();
     }
     maybeAbort();
+    addWatermark(acknowledgableWatermark);
+    _watermarksInserted.mark();
+  }
+
+  /**
+   * Add a watermark to the tracked watermarks of its source.
+   */
+  protected void addWatermark(AcknowledgableWatermark acknowledgableWatermark) {
     String source = acknowledgableWatermark.getCheckpointableWatermark().getSource();
     Deque<AcknowledgableWatermark> sourceWatermarks = _watermarksMap.get(source);
     if (sourceWatermarks == null) {
@@ -157,7 +165,6 @@ public class FineGrainedWatermarkTracker implements Instrumentable, Closeable {
       _watermarksMap.put(source, sourceWatermarks);
     }
     sourceWatermarks.add(acknowledgableWatermark);
-    _watermarksInserted.mark();
   }
 
   private void maybeAbort() throws RuntimeException {
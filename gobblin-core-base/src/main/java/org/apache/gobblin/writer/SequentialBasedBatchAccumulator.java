@@ -16,19 +16,21 @@
  */
 package org.apache.gobblin.writer;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Optional;
 import com.google.common.util.concurrent.Futures;
 import com.typesafe.config.Config;
 
@@ -40,18 +42,29 @@ import org.apache.gobblin.util.ConfigUtils;
  * A producer can add a record to this accumulator. It generates a batch on the first record arrival. All subsequent records
  * are added to the same batch until a batch size limit is reached. {@link BufferedAsyncDataWriter} keeps iterating available
  * batches from this accumulator, all completed batches (full sized) will be popped out one by one but an incomplete batch
- * keeps in the deque until a TTL is expired.
+ * keeps in the deque until a TTL is expired, or until a flush is requested.
+ *
+ * <p>
+ *   If {@link Batch#BATCH_ADAPTIVE_ENABLED} is set, the batch size limit is tuned between
+ *   {@link Batch#BATCH_ADAPTIVE_MIN_SIZE} and {@link Batch#BATCH_SIZE} by an {@link AimdController} fed with the
+ *   latency and failures of the batch writes (see {@link #onBatchCompletion(Batch, long, boolean)}). The TTL of new
+ *   batches shrinks in proportion to their size limit, so that smaller batches are not held longer than needed.
+ * </p>
  */
 
 public class SequentialBasedBatchAccumulator<D> extends BatchAccumulator<D> {
 
   private static final LargeMessagePolicy DEFAULT_LARGE_MESSAGE_POLICY = LargeMessagePolicy.FAIL;
-  private Deque<BytesBoundedBatch<D>> dq = new LinkedList<>();
+  private Deque<BytesBoundedBatch<D>> dq = new ArrayDeque<>();
   private IncompleteRecordBatches incomplete = new IncompleteRecordBatches();
   private final long batchSizeLimit;
-  private final long memSizeLimit;
   private final double tolerance = 0.95;
   private final long expireInMilliSecond;
+  private final Optional<AimdController> batchSizeController;
+  // Limits of new batches, only changed by the batch size controller
+  private volatile long currentBatchSizeLimit;
+  private volatile long memSizeLimit;
+  private volatile long currentExpireInMilliSecond;
   private final LargeMessagePolicy largeMessagePolicy;
   private static final Logger LOG = LoggerFactory.getLogger(SequentialBasedBatchAccumulator.class);
 
@@ -59,6 +72,7 @@ public class SequentialBasedBatchAccumulator<D> extends BatchAccumulator<D> {
   private final Condition notEmpty = dqLock.newCondition();
   private final Condition notFull = dqLock.newCondition();
   private final long capacity;
+  private int flushesInProgress = 0;
 
   public SequentialBasedBatchAccumulator() {
     this (1024 * 256, 1000, 100);
@@ -74,7 +88,9 @@ public class SequentialBasedBatchAccumulator<D> extends BatchAccumulator<D> {
         ConfigUtils.getLong(config, Batch.BATCH_TTL,
             Batch.BATCH_TTL_DEFAULT),
         ConfigUtils.getLong(config, Batch.BATCH_QUEUE_CAPACITY,
-            Batch.BATCH_QUEUE_CAPACITY_DEFAULT));
+            Batch.BATCH_QUEUE_CAPACITY_DEFAULT),
+        DEFAULT_LARGE_MESSAGE_POLICY,
+        createBatchSizeController(config));
   }
 
   public SequentialBasedBatchAccumulator(long batchSizeLimit, long expireInMilliSecond, long capacity) {
@@ -85,11 +101,57 @@ public class SequentialBasedBatchAccumulator<D> extends BatchAccumulator<D> {
       long expireInMilliSecond,
       long capacity,
       LargeMessagePolicy largeMessagePolicy) {
+    this(batchSizeLimit, expireInMilliSecond, capacity, largeMessagePolicy, Optional.<AimdController>absent());
+  }
+
+  /**
+   * @param batchSizeController if present, tunes the batch size limit up to batchSizeLimit.
+   */
+  public SequentialBasedBatchAccumulator(long batchSizeLimit,
+      long expireInMilliSecond,
+      long capacity,
+      LargeMessagePolicy largeMessagePolicy,
+      Optional<AimdController> batchSizeController) {
     this.batchSizeLimit = batchSizeLimit;
     this.expireInMilliSecond = expireInMilliSecond;
     this.capacity = capacity;
-    this.memSizeLimit = (long) (this.tolerance * this.batchSizeLimit);
     this.largeMessagePolicy = largeMessagePolicy;
+    this.batchSizeController = batchSizeController;
+    setCurrentBatchSizeLimit(batchSizeController.isPresent() ? batchSizeController.get().getLimit() : batchSizeLimit);
+  }
+
+  private static Optional<AimdController> createBatchSizeController(Config config) {
+    if (!ConfigUtils.getBoolean(config, Batch.BATCH_ADAPTIVE_ENABLED, Batch.BATCH_ADAPTIVE_ENABLED_DEFAULT)) {
+      return Optional.absent();
+    }
+    long batchSizeLimit = ConfigUtils.getLong(config, Batch.BATCH_SIZE, Batch.BATCH_SIZE_DEFAULT);
+    long minBatchSize = Math.min(batchSizeLimit,
+        ConfigUtils.getLong(config, Batch.BATCH_ADAPTIVE_MIN_SIZE, Batch.BATCH_ADAPTIVE_MIN_SIZE_DEFAULT));
+    return Optional.of(new AimdController(minBatchSize, batchSizeLimit,
+        TimeUnit.MILLISECONDS.toNanos(ConfigUtils.getLong(config, Batch.BATCH_ADAPTIVE_LATENCY_TARGET,
+            Batch.BATCH_ADAPTIVE_LATENCY_TARGET_DEFAULT)),
+        TimeUnit.MILLISECONDS.toNanos(ConfigUtils.getLong(config, Batch.BATCH_ADAPTIVE_INTERVAL,
+            Batch.BATCH_ADAPTIVE_INTERVAL_DEFAULT))));
+  }
+
+  private void setCurrentBatchSizeLimit(long currentBatchSizeLimit) {
+    this.memSizeLimit = (long) (this.tolerance * currentBatchSizeLimit);
+    this.currentExpireInMilliSecond = this.expireInMilliSecond * currentBatchSizeLimit / this.batchSizeLimit;
+    this.currentBatchSizeLimit = currentBatchSizeLimit;
+  }
+
+  /**
+   * @return the size limit in bytes of new batches.
+   */
+  public long getCurrentBatchSizeLimit() {
+    return this.currentBatchSizeLimit;
+  }
+
+  /**
+   * @return the TTL in milliseconds of new batches.
+   */
+  public long getCurrentExpireInMilliSecond() {
+    return this.currentExpireInMilliSecond;
   }
 
   public long getNumOfBatches () {
@@ -122,7 +184,7 @@ public class SequentialBasedBatchAccumulator<D> extends BatchAccumulator<D> {
       }
 
       // Create a new batch because previous one has no space
-      BytesBoundedBatch batch = new BytesBoundedBatch(this.memSizeLimit, this.expireInMilliSecond);
+      BytesBoundedBatch batch = new BytesBoundedBatch(this.memSizeLimit, this.currentExpireInMilliSecond);
       LOG.debug("Batch " + batch.getId() + " is generated");
       Future<RecordMetadata> future = null;
       try {
@@ -197,45 +259,49 @@ public class SequentialBasedBatchAccumulator<D> extends BatchAccumulator<D> {
    *    2) return null if queue is empty.
    * If accumulator has not been closed, below actions are performed:
    *    1) if queue.size == 0, block current thread until more batches are available or accumulator is closed.
-   *    2) if queue size == 1, remove and return the first batch if TTL has expired, else return null.
+   *    2) if queue size == 1, remove and return the first batch if TTL has expired or a flush is in progress,
+   *       else return null.
    *    3) if queue size > 1, remove and return the first batch element.
    */
   public Batch<D> getNextAvailableBatch () {
+    return getNextAvailableBatch(0);
+  }
+
+  /**
+   * Same as {@link #getNextAvailableBatch()}, except that if queue size == 1 and the first batch can not be returned
+   * yet, wait up to maxWaitMillis for its TTL to expire, for another batch or for a flush before returning null.
+   */
+  @Override
+  public Batch<D> getNextAvailableBatch (long maxWaitMillis) {
     final ReentrantLock lock = SequentialBasedBatchAccumulator.this.dqLock;
+    long deadline = System.currentTimeMillis() + maxWaitMillis;
     try {
       lock.lock();
-      if (SequentialBasedBatchAccumulator.this.isClosed()) {
-        return dq.poll();
-      } else {
-          while (dq.size() == 0) {
-            LOG.debug ("ready to sleep because of queue is empty");
-            SequentialBasedBatchAccumulator.this.notEmpty.await();
-            if (SequentialBasedBatchAccumulator.this.isClosed()) {
-              return dq.poll();
-            }
-          }
-
-          if (dq.size() > 1) {
-            BytesBoundedBatch candidate = dq.poll();
-            SequentialBasedBatchAccumulator.this.notFull.signal();
-            LOG.debug ("retrieve batch " + candidate.getId());
-            return candidate;
-          }
-
-          if (dq.size() == 1) {
-            if (dq.peekFirst().isTTLExpire()) {
-              LOG.debug ("Batch " + dq.peekFirst().getId() + " is expired");
-              BytesBoundedBatch candidate = dq.poll();
-              SequentialBasedBatchAccumulator.this.notFull.signal();
-              return candidate;
-            } else {
-              return null;
-            }
-          } else {
-            throw new RuntimeException("Should never get to here");
-          }
-      }
+      while (true) {
+        if (SequentialBasedBatchAccumulator.this.isClosed()) {
+          return dq.poll();
+        }
+
+        if (dq.size() == 0) {
+          LOG.debug ("ready to sleep because of queue is empty");
+          SequentialBasedBatchAccumulator.this.notEmpty.await();
+          continue;
+        }
+
+        if (dq.size() > 1 || this.flushesInProgress > 0 || dq.peekFirst().isTTLExpire()) {
+          BytesBoundedBatch candidate = dq.poll();
+          SequentialBasedBatchAccumulator.this.notFull.signal();
+          LOG.debug ("retrieve batch " + candidate.getId());
+          return candidate;
+        }
 
+        long timeToWait = Math.min(dq.peekFirst().getTimeToExpireInMilliSeconds(),
+            deadline - System.currentTimeMillis());
+        if (timeToWait <= 0) {
+          return null;
+        }
+        SequentialBasedBatchAccumulator.this.notEmpty.await(timeToWait, TimeUnit.MILLISECONDS);
+      }
     } catch (InterruptedException e) {
       LOG.error("Wait for next batch is interrupted. " + e.toString());
     } finally {
@@ -256,9 +322,18 @@ public class SequentialBasedBatchAccumulator<D> extends BatchAccumulator<D> {
   }
 
   /**
-   * This will block until all the incomplete batches are acknowledged
+   * This will block until all the incomplete batches are acknowledged. The last batch is made available right away
+   * instead of waiting for its TTL to expire.
    */
   public void flush() {
+    this.dqLock.lock();
+    try {
+      this.flushesInProgress++;
+      this.notEmpty.signal();
+    } finally {
+      this.dqLock.unlock();
+    }
+
     try {
       ArrayList<Batch> batches = this.incomplete.all();
       int numOutstandingRecords = 0;
@@ -271,6 +346,27 @@ public class SequentialBasedBatchAccumulator<D> extends BatchAccumulator<D> {
       }
     } catch (Exception e) {
       LOG.error ("Error happened while flushing batches");
+    } finally {
+      this.dqLock.lock();
+      try {
+        this.flushesInProgress--;
+      } finally {
+        this.dqLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Feed the batch size controller, if any, with the outcome of the batch
+   */
+  @Override
+  public void onBatchCompletion(Batch<D> batch, long latencyNanos, boolean success) {
+    if (this.batchSizeController.isPresent()) {
+      AimdController controller = this.batchSizeController.get();
+      if (success ? controller.onSuccess(latencyNanos) : controller.onFailure()) {
+        setCurrentBatchSizeLimit(controller.getLimit());
+        LOG.debug("Batch size limit set to {} bytes", controller.getLimit());
+      }
     }
   }
 
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.writer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.typesafe.config.Config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.source.extractor.CheckpointableWatermark;
+import org.apache.gobblin.util.ConfigUtils;
+
+
+/**
+ * A {@link FineGrainedWatermarkTracker} that keeps the watermarks of each source in its own ring buffer.
+ *
+ * <p>
+ *   Watermarks are appended to the ring of their source without locking and without allocating a node per watermark.
+ *   Acks do not touch the tracker at all. Each source has its own lock, only taken to sweep the acked watermarks at
+ *   the head of its ring, to get its committable or unacknowledged watermark, or to grow its ring. A sweep only visits
+ *   the watermarks it releases plus one, so it is O(1) amortized per watermark, and it never blocks other sources.
+ *   Committable watermarks are computed by sweeping, so they do not wait for the scheduled sweeper.
+ * </p>
+ *
+ * <p>
+ *   Like {@link FineGrainedWatermarkTracker}, this expects {@link #track(AcknowledgableWatermark)} to be called
+ *   sequentially for the watermarks of a given source. Different sources may be tracked from different threads.
+ * </p>
+ */
+@Slf4j
+public class StripedWatermarkTracker extends FineGrainedWatermarkTracker {
+
+  public static final String WATERMARK_TRACKER_INITIAL_CAPACITY = "watermark.tracker.striped.initialCapacity";
+  public static final int WATERMARK_TRACKER_INITIAL_CAPACITY_DEFAULT = 1024; // watermarks per source
+
+  private final Map<String, SourceWatermarks> _sources;
+  private final int _initialCapacity;
+
+  public StripedWatermarkTracker(Config config) {
+    super(config);
+    _sources = new ConcurrentHashMap<>();
+    int initialCapacity = ConfigUtils.getInt(config, WATERMARK_TRACKER_INITIAL_CAPACITY,
+        WATERMARK_TRACKER_INITIAL_CAPACITY_DEFAULT);
+    _initialCapacity = Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1;
+  }
+
+  @Override
+  protected void addWatermark(AcknowledgableWatermark acknowledgableWatermark) {
+    String source = acknowledgableWatermark.getCheckpointableWatermark().getSource();
+    SourceWatermarks sourceWatermarks = _sources.get(source);
+    if (sourceWatermarks == null) {
+      sourceWatermarks = new SourceWatermarks(_initialCapacity);
+      SourceWatermarks existing = _sources.putIfAbsent(source, sourceWatermarks);
+      if (existing != null) {
+        sourceWatermarks = existing;
+      }
+    }
+    sourceWatermarks.add(acknowledgableWatermark);
+  }
+
+  @Override
+  public Map<String, CheckpointableWatermark> getCommittableWatermarks() {
+    Map<String, CheckpointableWatermark> commitableWatermarks = new HashMap<>(_sources.size());
+    int swept = 0;
+    for (Map.Entry<String, SourceWatermarks> entry : _sources.entrySet()) {
+      SourceWatermarks sourceWatermarks = entry.getValue();
+      synchronized (sourceWatermarks) {
+        swept += sourceWatermarks.sweep();
+        if (sourceWatermarks._lastAcked != null) {
+          commitableWatermarks.put(entry.getKey(), sourceWatermarks._lastAcked);
+        }
+      }
+    }
+    _watermarksSwept.mark(swept);
+    return commitableWatermarks;
+  }
+
+  @Override
+  public Map<String, CheckpointableWatermark> getUnacknowledgedWatermarks() {
+    Map<String, CheckpointableWatermark> unackedWatermarks = new HashMap<>(_sources.size());
+    for (Map.Entry<String, SourceWatermarks> entry : _sources.entrySet()) {
+      CheckpointableWatermark lowestUnacked = entry.getValue().getLowestUnacked();
+      if (lowestUnacked != null) {
+        unackedWatermarks.put(entry.getKey(), lowestUnacked);
+      }
+    }
+    return unackedWatermarks;
+  }
+
+  /**
+   * Release the acked watermarks at the head of each source.
+   * @return number of watermarks released
+   */
+  @Override
+  @VisibleForTesting
+  int sweep() {
+    int swept = 0;
+    for (SourceWatermarks sourceWatermarks : _sources.values()) {
+      synchronized (sourceWatermarks) {
+        swept += sourceWatermarks.sweep();
+      }
+    }
+    log.debug("Swept {} watermarks", swept);
+    _watermarksSwept.mark(swept);
+    return swept;
+  }
+
+  /**
+   * The watermarks of a single source, in a ring buffer indexed by the sequence number of the watermark.
+   *
+   * <p>
+   *   {@link #_tail} is only written by the tracking thread, which publishes a watermark by writing its slot and then
+   *   {@link #_tail}. {@link #_head} and {@link #_lastAcked} are only written by sweeps, which hold the monitor of
+   *   this object. The ring is only replaced while holding the monitor as well, by the tracking thread when it is full.
+   * </p>
+   */
+  private static class SourceWatermarks {
+    private AcknowledgableWatermark[] _ring;
+    private volatile long _head = 0;
+    private volatile long _tail = 0;
+    private volatile CheckpointableWatermark _lastAcked;
+
+    SourceWatermarks(int capacity) {
+      _ring = new AcknowledgableWatermark[capacity];
+    }
+
+    void add(AcknowledgableWatermark watermark) {
+      long tail = _tail;
+      if (tail - _head == _ring.length) {
+        synchronized (this) {
+          sweep();
+          if (tail - _head == _ring.length) {
+            grow();
+          }
+        }
+      }
+      AcknowledgableWatermark[] ring = _ring;
+      ring[(int) tail & (ring.length - 1)] = watermark;
+      _tail = tail + 1;
+    }
+
+    /**
+     * Must be called while holding the monitor of this object.
+     */
+    int sweep() {
+      AcknowledgableWatermark[] ring = _ring;
+      int mask = ring.length - 1;
+      long head = _head;
+      long tail = _tail;
+      AcknowledgableWatermark lastAcked = null;
+      while (head < tail) {
+        int slot = (int) head & mask;
+        AcknowledgableWatermark watermark = ring[slot];
+        if (!watermark.isAcked()) {
+          break;
+        }
+        lastAcked = watermark;
+        ring[slot] = null;
+        head++;
+      }
+      int swept = (int) (head - _head);
+      if (lastAcked != null) {
+        _lastAcked = lastAcked.getCheckpointableWatermark();
+        _head = head;
+      }
+      return swept;
+    }
+
+    synchronized CheckpointableWatermark getLowestUnacked() {
+      sweep();
+      AcknowledgableWatermark[] ring = _ring;
+      return _head < _tail ? ring[(int) _head & (ring.length - 1)].getCheckpointableWatermark() : null;
+    }
+
+    /**
+     * Must be called while holding the monitor of this object.
+     */
+    private void grow() {
+      AcknowledgableWatermark[] ring = _ring;
+      AcknowledgableWatermark[] newRing = new AcknowledgableWatermark[ring.length * 2];
+      for (long i = _head; i < _tail; i++) {
+        newRing[(int) i & (newRing.length - 1)] = ring[(int) i & (ring.length - 1)];
+      }
+      _ring = newRing;
+    }
+  }
+}
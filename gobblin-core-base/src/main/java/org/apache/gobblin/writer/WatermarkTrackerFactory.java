@@ -17,6 +17,9 @@
 package org.apache.gobblin.writer;
 
 import com.google.common.base.Preconditions;
+import com.typesafe.config.Config;
+
+import org.apache.gobblin.util.ConfigUtils;
 
 
 /**
@@ -24,6 +27,11 @@ import com.google.common.base.Preconditions;
  */
 public class WatermarkTrackerFactory {
 
+  // The FineGrainedWatermarkTracker implementation used by streaming tasks: "fineGrained" or "striped"
+  public static final String FINE_GRAINED_TRACKER_TYPE = "watermark.tracker.type";
+  public static final String FINE_GRAINED_TRACKER_TYPE_DEFAULT = "fineGrained";
+  public static final String STRIPED_TRACKER_TYPE = "striped";
+
   public static class TrackerBehavior {
     boolean trackAll = true;
     boolean trackLast = false;
@@ -86,4 +94,18 @@ public class WatermarkTrackerFactory {
         + trackerBehavior.toString());
   }
 
+  /**
+   * Get a {@link FineGrainedWatermarkTracker} for the type configured with {@link #FINE_GRAINED_TRACKER_TYPE}.
+   */
+  public static FineGrainedWatermarkTracker getFineGrainedInstance(Config config) {
+    String type = ConfigUtils.getString(config, FINE_GRAINED_TRACKER_TYPE, FINE_GRAINED_TRACKER_TYPE_DEFAULT);
+    if (type.equalsIgnoreCase(STRIPED_TRACKER_TYPE)) {
+      return new StripedWatermarkTracker(config);
+    }
+    if (type.equalsIgnoreCase(FINE_GRAINED_TRACKER_TYPE_DEFAULT)) {
+      return new FineGrainedWatermarkTracker(config);
+    }
+    throw new IllegalArgumentException("Unknown watermark tracker type: " + type);
+  }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.writer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+@Test
+public class AimdControllerTest {
+
+  // Long enough for the test to run within the first interval
+  private static final long INTERVAL = TimeUnit.HOURS.toNanos(1);
+
+  @Test
+  public void testFailuresDecreaseLimit() {
+    AimdController controller = new AimdController(10, 100, 10, 0.5, 0, INTERVAL);
+    Assert.assertEquals(controller.getLimit(), 100);
+    long now = System.nanoTime() + INTERVAL;
+
+    // At most one adjustment per interval
+    Assert.assertTrue(controller.onFailure(now));
+    Assert.assertEquals(controller.getLimit(), 50);
+    Assert.assertFalse(controller.onFailure(now + 1));
+    Assert.assertEquals(controller.getLimit(), 50);
+
+    // A failure anywhere in the interval decreases the limit
+    Assert.assertFalse(controller.onSuccess(1, now + INTERVAL - 1));
+    Assert.assertTrue(controller.onSuccess(1, now + INTERVAL));
+    Assert.assertEquals(controller.getLimit(), 25);
+
+    // Never below the minimum
+    now += INTERVAL;
+    for (int i = 1; i <= 10; i++) {
+      controller.onFailure(now + i * INTERVAL);
+    }
+    Assert.assertEquals(controller.getLimit(), 10);
+  }
+
+  @Test
+  public void testSuccessesIncreaseLimit() {
+    AimdController controller = new AimdController(10, 100, 10, 0.5, 0, INTERVAL);
+    long now = System.nanoTime() + INTERVAL;
+    controller.onFailure(now);
+    controller.onFailure(now + INTERVAL);
+    Assert.assertEquals(controller.getLimit(), 25);
+
+    // Additive increase, up to the maximum. Without a latency target, latency does not matter
+    for (int i = 2; i <= 20; i++) {
+      controller.onSuccess(Long.MAX_VALUE / 100, now + i * INTERVAL);
+      Assert.assertEquals(controller.getLimit(), Math.min(100, 25 + 10 * (i - 1)));
+    }
+  }
+
+  @Test
+  public void testLatencyTarget() {
+    AimdController controller = new AimdController(10, 100, 10, 0.5, 1000, INTERVAL);
+
+    // Average latency above the target decreases the limit
+    Assert.assertFalse(controller.onSuccess(500, System.nanoTime()));
+    long now = System.nanoTime() + INTERVAL;
+    Assert.assertTrue(controller.onSuccess(2000, now));
+    Assert.assertEquals(controller.getLimit(), 50);
+
+    // Average latency within the target increases it
+    controller.onSuccess(1500, now + INTERVAL - 1);
+    controller.onSuccess(400, now + INTERVAL);
+    Assert.assertEquals(controller.getLimit(), 60);
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.writer;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+
+
+@Test
+public class SequentialBasedBatchAccumulatorTest {
+
+  // 55 bytes in a batch with the record overhead, so that 17 records fit in a batch of 1000 bytes
+  private static final String RECORD = Strings.repeat("a", 40);
+
+  /**
+   * Failed batch writes shrink new batches and successful ones grow them again. Existing batches keep their size.
+   */
+  @Test
+  public void testAdaptiveBatchSize() throws Exception {
+    SequentialBasedBatchAccumulator<String> accumulator = new SequentialBasedBatchAccumulator<>(1000, 60000, 100,
+        LargeMessagePolicy.FAIL, Optional.of(new AimdController(100, 1000, 0, 0)));
+    appendRecords(accumulator, 20);
+    Assert.assertEquals(accumulator.getNumOfBatches(), 2);
+
+    // Halved to 500 bytes, so that new batches hold 8 records
+    accumulator.onBatchCompletion(null, 1, false);
+    Assert.assertEquals(accumulator.getCurrentBatchSizeLimit(), 500);
+    appendRecords(accumulator, 14 + 8 + 8);
+    Assert.assertEquals(accumulator.getNumOfBatches(), 4);
+
+    // Increased by 5% of the max to 550 bytes, so that new batches hold 9 records
+    accumulator.onBatchCompletion(null, 1, true);
+    Assert.assertEquals(accumulator.getCurrentBatchSizeLimit(), 550);
+    appendRecords(accumulator, 9 + 1);
+    Assert.assertEquals(accumulator.getNumOfBatches(), 6);
+
+    int[] expectedBatchSizes = new int[] { 17, 17, 8, 8, 9 };
+    for (int expectedBatchSize : expectedBatchSizes) {
+      Assert.assertEquals(accumulator.getNextAvailableBatch().getRecords().size(), expectedBatchSize);
+    }
+    // The last batch is incomplete and its TTL has not expired
+    Assert.assertNull(accumulator.getNextAvailableBatch());
+  }
+
+  /**
+   * The TTL of new batches shrinks along with their size limit.
+   */
+  @Test
+  public void testAdaptiveBatchTtl() throws Exception {
+    SequentialBasedBatchAccumulator<String> accumulator = new SequentialBasedBatchAccumulator<>(1000, 6000, 10,
+        LargeMessagePolicy.FAIL, Optional.of(new AimdController(10, 1000, 0, 0)));
+    Assert.assertEquals(accumulator.getCurrentExpireInMilliSecond(), 6000);
+
+    // 1000 -> 500 -> 250 -> 125 -> 62 bytes
+    for (int i = 0; i < 4; i++) {
+      accumulator.onBatchCompletion(null, 1, false);
+    }
+    Assert.assertEquals(accumulator.getCurrentBatchSizeLimit(), 62);
+    Assert.assertEquals(accumulator.getCurrentExpireInMilliSecond(), 372);
+
+    accumulator.append("a", WriteCallback.EMPTY);
+    Assert.assertNull(accumulator.getNextAvailableBatch());
+    Assert.assertNotNull(accumulator.getNextAvailableBatch(30000));
+  }
+
+  /**
+   * Without a batch size controller, batch completions do not change the limits.
+   */
+  @Test
+  public void testFixedBatchSize() {
+    SequentialBasedBatchAccumulator<String> accumulator = new SequentialBasedBatchAccumulator<>(1000, 2000, 10);
+    accumulator.onBatchCompletion(null, 1, false);
+    Assert.assertEquals(accumulator.getCurrentBatchSizeLimit(), 1000);
+    Assert.assertEquals(accumulator.getCurrentExpireInMilliSecond(), 2000);
+  }
+
+  /**
+   * Waiting for the next batch returns the last batch as soon as its TTL expires.
+   */
+  @Test
+  public void testWaitForExpiredBatch() throws Exception {
+    SequentialBasedBatchAccumulator<String> accumulator = new SequentialBasedBatchAccumulator<>(1000, 500, 10);
+    accumulator.append(RECORD, WriteCallback.EMPTY);
+    Assert.assertNull(accumulator.getNextAvailableBatch(0));
+
+    Batch<String> batch = accumulator.getNextAvailableBatch(30000);
+    Assert.assertNotNull(batch);
+    Assert.assertEquals(batch.getRecords().get(0), RECORD);
+  }
+
+  /**
+   * A flush makes an incomplete batch available before its TTL expires.
+   */
+  @Test
+  public void testFlushSendsIncompleteBatch() throws Exception {
+    SequentialBasedBatchAccumulator<String> accumulator = new SequentialBasedBatchAccumulator<>(1000, 60000, 10);
+    accumulator.append("record", WriteCallback.EMPTY);
+    Assert.assertNull(accumulator.getNextAvailableBatch(10));
+
+    Thread flusher = new Thread(accumulator::flush);
+    flusher.start();
+    Batch<String> batch = accumulator.getNextAvailableBatch(10000);
+    Assert.assertNotNull(batch);
+    Assert.assertEquals(batch.getRecords().get(0), "record");
+
+    batch.done();
+    accumulator.deallocate(batch);
+    flusher.join(10000);
+    Assert.assertFalse(flusher.isAlive());
+  }
+
+  /**
+   * A flush returns once all the batches are done, after which incomplete batches wait for their TTL again.
+   */
+  @Test
+  public void testFlushWaitsForAllBatches() throws Exception {
+    SequentialBasedBatchAccumulator<String> accumulator = new SequentialBasedBatchAccumulator<>(1000, 60000, 10);
+    appendRecords(accumulator, 20);
+    Assert.assertEquals(accumulator.getNumOfBatches(), 2);
+
+    Thread flusher = new Thread(accumulator::flush);
+    flusher.start();
+    Batch<String> fullBatch = accumulator.getNextAvailableBatch(10000);
+    Batch<String> incompleteBatch = accumulator.getNextAvailableBatch(10000);
+    Assert.assertEquals(fullBatch.getRecords().size(), 17);
+    Assert.assertEquals(incompleteBatch.getRecords().size(), 3);
+
+    fullBatch.done();
+    accumulator.deallocate(fullBatch);
+    flusher.join(500);
+    Assert.assertTrue(flusher.isAlive());
+
+    incompleteBatch.done();
+    accumulator.deallocate(incompleteBatch);
+    flusher.join(10000);
+    Assert.assertFalse(flusher.isAlive());
+
+    accumulator.append(RECORD, WriteCallback.EMPTY);
+    Assert.assertNull(accumulator.getNextAvailableBatch(10));
+  }
+
+  private static void appendRecords(SequentialBasedBatchAccumulator<String> accumulator, int numRecords)
+      throws InterruptedException {
+    for (int i = 0; i < numRecords; i++) {
+      accumulator.append(RECORD, WriteCallback.EMPTY);
+    }
+  }
+}
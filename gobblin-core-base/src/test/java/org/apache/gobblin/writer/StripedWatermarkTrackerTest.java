@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.writer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import org.apache.gobblin.source.extractor.CheckpointableWatermark;
+import org.apache.gobblin.source.extractor.DefaultCheckpointableWatermark;
+import org.apache.gobblin.source.extractor.extract.LongWatermark;
+
+
+@Test
+public class StripedWatermarkTrackerTest {
+
+  // A small ring so that the tests exercise its growth
+  private static final Config CONFIG = ConfigFactory.parseMap(
+      ImmutableMap.of(StripedWatermarkTracker.WATERMARK_TRACKER_INITIAL_CAPACITY, 4));
+
+  @Test
+  public void testFactory() {
+    Assert.assertEquals(WatermarkTrackerFactory.getFineGrainedInstance(ConfigFactory.empty()).getClass(),
+        FineGrainedWatermarkTracker.class);
+    Assert.assertEquals(WatermarkTrackerFactory.getFineGrainedInstance(ConfigFactory.parseMap(ImmutableMap.of(
+        WatermarkTrackerFactory.FINE_GRAINED_TRACKER_TYPE, WatermarkTrackerFactory.STRIPED_TRACKER_TYPE))).getClass(),
+        StripedWatermarkTracker.class);
+  }
+
+  /**
+   * Acknowledges watermarks at random, then checks the committable and unacknowledged watermarks and the number of
+   * watermarks swept.
+   */
+  @Test
+  public void testWatermarkTracker() {
+    Random random = new Random();
+
+    for (int j = 0; j < 100; ++j) {
+      StripedWatermarkTracker tracker = new StripedWatermarkTracker(CONFIG);
+      tracker.setAutoStart(false);
+
+      int numWatermarks = 1 + random.nextInt(1000);
+      AcknowledgableWatermark[] acknowledgableWatermarks = new AcknowledgableWatermark[numWatermarks];
+      for (int i = 0; i < numWatermarks; ++i) {
+        acknowledgableWatermarks[i] =
+            new AcknowledgableWatermark(new DefaultCheckpointableWatermark("default", new LongWatermark(i)));
+        tracker.track(acknowledgableWatermarks[i]);
+      }
+
+      int numMissingAcks = random.nextInt(numWatermarks);
+      SortedSet<Integer> holes = new TreeSet<>();
+      for (int i = 0; i < numMissingAcks; ++i) {
+        holes.add(random.nextInt(numWatermarks));
+      }
+      for (int i = 0; i < numWatermarks; ++i) {
+        if (!holes.contains(i)) {
+          acknowledgableWatermarks[i].ack();
+        }
+      }
+
+      int swept = tracker.sweep();
+      Assert.assertEquals(swept, holes.isEmpty() ? numWatermarks : holes.first());
+      FineGrainedWatermarkTrackerTest.verifyCommitables(tracker, holes, numWatermarks - 1);
+
+      // Acknowledging the holes makes everything committable
+      for (int hole : holes) {
+        acknowledgableWatermarks[hole].ack();
+      }
+      FineGrainedWatermarkTrackerTest.verifyCommitables(tracker, new TreeSet<>(), numWatermarks - 1);
+      Assert.assertEquals(tracker.sweep(), 0);
+    }
+  }
+
+  /**
+   * Tracks the watermarks of several sources from several threads while they are acknowledged by other threads.
+   */
+  @Test
+  public void testConcurrentSources() throws Exception {
+    int numSources = 8;
+    int numWatermarks = 10000;
+    StripedWatermarkTracker tracker = new StripedWatermarkTracker(CONFIG);
+    tracker.start();
+    ExecutorService trackingService = Executors.newFixedThreadPool(numSources);
+    ExecutorService ackingService = Executors.newFixedThreadPool(4);
+
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int s = 0; s < numSources; s++) {
+        String source = "source" + s;
+        futures.add(trackingService.submit(() -> {
+          for (int i = 0; i < numWatermarks; i++) {
+            AcknowledgableWatermark watermark =
+                new AcknowledgableWatermark(new DefaultCheckpointableWatermark(source, new LongWatermark(i)));
+            tracker.track(watermark);
+            if (ThreadLocalRandom.current().nextInt(10) == 0) {
+              watermark.ack();
+            } else {
+              ackingService.submit(watermark::ack);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      ackingService.shutdown();
+      Assert.assertTrue(ackingService.awaitTermination(1, TimeUnit.MINUTES));
+
+      Map<String, CheckpointableWatermark> committable = tracker.getCommittableWatermarks();
+      Assert.assertEquals(committable.size(), numSources);
+      for (CheckpointableWatermark watermark : committable.values()) {
+        Assert.assertEquals(((LongWatermark) watermark.getWatermark()).getValue(), numWatermarks - 1);
+      }
+      Assert.assertTrue(tracker.getUnacknowledgedWatermarks().isEmpty());
+    } finally {
+      trackingService.shutdownNow();
+      ackingService.shutdownNow();
+      tracker.close();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.publisher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.util.WriterUtils;
+
+
+/**
+ * Compares the throughput of {@link BaseDataPublisher} publishing the output files of a job to an existing final
+ * output directory with the default rename based commits, which move each file, and with manifest based commits, which
+ * write a single {@link DataPublisherManifest}.
+ *
+ * <p>
+ *   Files are published on the local file system, where renames are much cheaper than on HDFS or object stores, so
+ *   the gap is a lower bound of the one to expect in production.
+ * </p>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@org.openjdk.jmh.annotations.Fork(value = 1)
+@BenchmarkMode(value = Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DataPublisherBenchmark {
+
+  private static final int FILES_PER_TASK = 10;
+
+  @State(value = Scope.Thread)
+  public static class PublishState {
+    @Param({"rename", "manifest"})
+    public String commitMode;
+
+    @Param({"100", "1000"})
+    public int numFiles;
+
+    private File tmpDir;
+    private FileSystem fs;
+    private int jobNumber = 0;
+    private List<WorkUnitState> taskStates;
+
+    @Setup
+    public void setup() throws IOException {
+      this.tmpDir = Files.createTempDir();
+      this.fs = FileSystem.getLocal(new Configuration());
+    }
+
+    /**
+     * Write the output files of a new job.
+     */
+    @Setup(Level.Invocation)
+    public void writeJobOutput() throws IOException {
+      String jobId = "job_DataPublisherBenchmark_" + this.jobNumber++;
+      Path root = new Path(this.tmpDir.getAbsolutePath());
+      this.taskStates = Lists.newArrayList();
+      for (int i = 0; i < this.numFiles / FILES_PER_TASK; i++) {
+        WorkUnitState taskState = new WorkUnitState();
+        taskState.setProp(ConfigurationKeys.JOB_ID_KEY, jobId);
+        taskState.setProp(ConfigurationKeys.WRITER_FILE_PATH, "namespace/table");
+        taskState.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, new Path(root, "output/" + jobId));
+        taskState.setProp(ConfigurationKeys.DATA_PUBLISHER_FINAL_DIR, new Path(root, "final"));
+        taskState.setProp(ConfigurationKeys.DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED, this.commitMode.equals("manifest"));
+
+        Path writerOutputDir = WriterUtils.getWriterOutputDir(taskState, 1, 0);
+        for (int j = 0; j < FILES_PER_TASK; j++) {
+          Path outputFile = new Path(writerOutputDir, "part." + i + "." + j + ".avro");
+          this.fs.create(outputFile).close();
+          taskState.appendToSetProp(ConfigurationKeys.WRITER_FINAL_OUTPUT_FILE_PATHS, outputFile.toString());
+        }
+        this.taskStates.add(taskState);
+      }
+      this.fs.mkdirs(WriterUtils.getDataPublisherFinalDir(this.taskStates.get(0), 1, 0));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+      FileUtils.deleteDirectory(this.tmpDir);
+    }
+  }
+
+  @Benchmark
+  public void publish(PublishState state) throws IOException {
+    try (BaseDataPublisher publisher = new BaseDataPublisher(state.taskStates.get(0))) {
+      publisher.publishData(state.taskStates);
+    }
+  }
+}
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
@@ -37,12 +38,15 @@ import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.fs.permission.FsPermission;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
@@ -96,11 +100,24 @@ import static org.apache.gobblin.util.retry.RetryerFactory.*;
  * parent directory of the path. To change this behavior one may override
  * {@link #recordPublisherOutputDirs(Path, Path, int)}.
  * </p>
+ *
+ * <p>
+ * If {@link ConfigurationKeys#DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED} is set, writers write their output to a job
+ * attempt directory in the final output directory (see {@link WriterUtils#getManifestAttemptDir(State, int, int)}).
+ * Instead of moving each output file, this publisher then commits the output of a job to each final output directory
+ * by moving a single {@link DataPublisherManifest} in place. Stale job attempt directories are deleted if they were
+ * never committed, and stripped of the files their manifests do not list (e.g. the output of failed or retried tasks)
+ * otherwise. Since the names of job attempt directories start with {@code _}, readers that do not read the manifests,
+ * such as Hadoop input formats and Hive, skip the output committed this way.
+ * </p>
  */
 public class BaseDataPublisher extends SingleTaskDataPublisher {
 
   private static final Logger LOG = LoggerFactory.getLogger(BaseDataPublisher.class);
 
+  // Marks committed job attempt directories that no longer contain uncommitted files
+  private static final String CLEANED_ATTEMPT_MARKER = "_cleaned";
+
   protected final int numBranches;
   protected final List<FileSystem> writerFileSystemByBranches;
   protected final List<FileSystem> publisherFileSystemByBranches;
@@ -114,6 +131,9 @@ public class BaseDataPublisher extends SingleTaskDataPublisher {
   protected final Map<String, ParallelRunner> parallelRunners = Maps.newHashMap();
   protected final Set<Path> publisherOutputDirs = Sets.newHashSet();
   protected final Optional<LineageInfo> lineageInfo;
+  protected final boolean manifestCommitEnabled;
+  // Output files to add to the manifest of each publisher output directory, by branch
+  protected final List<Map<Path, Set<String>>> manifestFilesByBranches;
 
   /* Each partition in each branch may have separate metadata. The metadata mergers are responsible
    * for aggregating this information from all workunits so it can be published.
@@ -160,6 +180,8 @@ public class BaseDataPublisher extends SingleTaskDataPublisher {
 
     this.numBranches = this.getState().getPropAsInt(ConfigurationKeys.FORK_BRANCHES_KEY, 1);
     this.shouldRetry = this.getState().getPropAsBoolean(PUBLISH_RETRY_ENABLED, false);
+    this.manifestCommitEnabled = WriterUtils.isManifestCommitEnabled(this.getState());
+    this.manifestFilesByBranches = Lists.newArrayListWithCapacity(this.numBranches);
 
     this.writerFileSystemByBranches = Lists.newArrayListWithCapacity(this.numBranches);
     this.publisherFileSystemByBranches = Lists.newArrayListWithCapacity(this.numBranches);
@@ -194,6 +216,17 @@ public class BaseDataPublisher extends SingleTaskDataPublisher {
       this.permissions.add(new FsPermission(state.getPropAsShortWithRadix(
           ForkOperatorUtils.getPropertyNameForBranch(ConfigurationKeys.DATA_PUBLISHER_PERMISSIONS, this.numBranches, i),
           FsPermission.getDefault().toShort(), ConfigurationKeys.PERMISSION_PARSING_RADIX)));
+
+      this.manifestFilesByBranches.add(new HashMap<>());
+      if (this.manifestCommitEnabled) {
+        Preconditions.checkArgument(
+            this.writerFileSystemByBranches.get(i).getUri().equals(this.publisherFileSystemByBranches.get(i).getUri()),
+            "Manifest based commits require writers to use the file system of the publisher");
+      }
+    }
+    if (this.manifestCommitEnabled
+        && this.getState().getPropAsBoolean(ConfigurationKeys.DATA_PUBLISHER_REPLACE_FINAL_DIR, false)) {
+      LOG.warn(ConfigurationKeys.DATA_PUBLISHER_REPLACE_FINAL_DIR + " is ignored with manifest based commits");
     }
 
     if (this.shouldRetry) {
@@ -340,6 +373,7 @@ public class BaseDataPublisher extends SingleTaskDataPublisher {
     for (int branchId = 0; branchId < this.numBranches; branchId++) {
       publishSingleTaskData(state, branchId);
     }
+    commitManifests();
     this.parallelRunnerCloser.close();
   }
 
@@ -367,6 +401,7 @@ public class BaseDataPublisher extends SingleTaskDataPublisher {
       }
     }
 
+    commitManifests();
     this.parallelRunnerCloser.close();
   }
 
@@ -383,6 +418,12 @@ public class BaseDataPublisher extends SingleTaskDataPublisher {
   protected void publishData(WorkUnitState state, int branchId, boolean publishSingleTaskData,
       Set<Path> writerOutputPathsMoved)
       throws IOException {
+    if (this.manifestCommitEnabled) {
+      // The output is already in place, it only needs to be committed
+      addToManifest(state, branchId);
+      return;
+    }
+
     // Get a ParallelRunner instance for moving files in parallel
     ParallelRunner parallelRunner = this.getParallelRunner(this.writerFileSystemByBranches.get(branchId));
 
@@ -507,6 +548,143 @@ public class BaseDataPublisher extends SingleTaskDataPublisher {
     }
   }
 
+  /**
+   * Add the output files of a task to the manifest of its publisher output directory, to be committed by
+   * {@link #commitManifests()}.
+   */
+  protected void addToManifest(WorkUnitState state, int branchId) {
+    String outputFilePropName = ForkOperatorUtils
+        .getPropertyNameForBranch(ConfigurationKeys.WRITER_FINAL_OUTPUT_FILE_PATHS, this.numBranches, branchId);
+    if (!state.contains(outputFilePropName)) {
+      LOG.warn("Missing property " + outputFilePropName + ". This task may have pulled no data.");
+      return;
+    }
+
+    Path publisherOutputDir = getPublisherOutputDir(state, branchId);
+    Set<String> manifestFiles =
+        this.manifestFilesByBranches.get(branchId).computeIfAbsent(publisherOutputDir, k -> new HashSet<>());
+    String publisherOutputDirPrefix = Path.getPathWithoutSchemeAndAuthority(publisherOutputDir) + Path.SEPARATOR;
+    for (String taskOutputFile : state.getPropAsSet(outputFilePropName)) {
+      // List files relative to the publisher output directory, so that it can be moved as a whole
+      String taskOutputPath = Path.getPathWithoutSchemeAndAuthority(new Path(taskOutputFile)).toString();
+      manifestFiles.add(taskOutputPath.startsWith(publisherOutputDirPrefix)
+          ? taskOutputPath.substring(publisherOutputDirPrefix.length()) : taskOutputFile);
+    }
+  }
+
+  /**
+   * Commit the output files added by {@link #addToManifest(WorkUnitState, int)}. For each publisher output directory,
+   * this writes a {@link DataPublisherManifest} to the job attempt directory, and moves it to the output directory
+   * with {@link #commitManifest(ParallelRunner, Path, Path, int)}.
+   * Job attempt directories of other jobs are cleaned up once they are older than
+   * {@link ConfigurationKeys#DATA_PUBLISHER_MANIFEST_UNCOMMITTED_ATTEMPT_RETENTION_HOURS}, see
+   * {@link #cleanUpStaleAttempts(FileSystem, Path, String)}.
+   */
+  protected void commitManifests()
+      throws IOException {
+    String jobId = this.getState().getProp(ConfigurationKeys.JOB_ID_KEY);
+    for (int branchId = 0; branchId < this.numBranches; branchId++) {
+      FileSystem fs = this.publisherFileSystemByBranches.get(branchId);
+      ParallelRunner parallelRunner = this.getParallelRunner(this.writerFileSystemByBranches.get(branchId));
+
+      for (Map.Entry<Path, Set<String>> entry : this.manifestFilesByBranches.get(branchId).entrySet()) {
+        Path publisherOutputDir = entry.getKey();
+        cleanUpStaleAttempts(fs, publisherOutputDir, jobId);
+
+        // Several datasets of a job may share a publisher output directory
+        String manifestName = DataPublisherManifest.getManifestFilePrefix(jobId)
+            + UUID.randomUUID().toString().substring(0, 8) + DataPublisherManifest.MANIFEST_FILE_SUFFIX;
+        Path tmpManifestPath =
+            new Path(new Path(publisherOutputDir, WriterUtils.MANIFEST_ATTEMPT_DIR_PREFIX + jobId), manifestName);
+        LOG.info(String.format("Committing %d files to %s", entry.getValue().size(), publisherOutputDir));
+        new DataPublisherManifest(jobId, new ArrayList<>(entry.getValue())).write(fs, tmpManifestPath);
+        this.publisherOutputDirs.add(publisherOutputDir);
+        commitManifest(parallelRunner, tmpManifestPath, new Path(publisherOutputDir, manifestName), branchId);
+      }
+      this.manifestFilesByBranches.get(branchId).clear();
+    }
+  }
+
+  /**
+   * Move a {@link DataPublisherManifest} from the job attempt directory to the publisher output directory, which
+   * commits the files it lists. Manifests are not moved with {@link #movePath(ParallelRunner, State, Path, Path, int)},
+   * which subclasses override to rewrite the destination of data files.
+   */
+  protected void commitManifest(ParallelRunner parallelRunner, Path tmpManifestPath, Path manifestPath, int branchId)
+      throws IOException {
+    LOG.info(String.format("Moving %s to %s", tmpManifestPath, manifestPath));
+    parallelRunner.movePath(tmpManifestPath, this.publisherFileSystemByBranches.get(branchId), manifestPath, false,
+        this.publisherFinalDirOwnerGroupsByBranches.get(branchId));
+  }
+
+  /**
+   * Clean up the job attempt directories of other jobs in a publisher output directory that are older than
+   * {@link ConfigurationKeys#DATA_PUBLISHER_MANIFEST_UNCOMMITTED_ATTEMPT_RETENTION_HOURS}. Directories without a
+   * manifest are deleted. Committed directories are stripped once of the files their job did not commit, as those
+   * jobs are finished by then.
+   */
+  private void cleanUpStaleAttempts(FileSystem fs, Path publisherOutputDir, String jobId)
+      throws IOException {
+    long minModificationTime = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(this.getState().getPropAsLong(
+        ConfigurationKeys.DATA_PUBLISHER_MANIFEST_UNCOMMITTED_ATTEMPT_RETENTION_HOURS,
+        ConfigurationKeys.DEFAULT_DATA_PUBLISHER_MANIFEST_UNCOMMITTED_ATTEMPT_RETENTION_HOURS));
+    FileStatus[] statuses = fs.listStatus(publisherOutputDir);
+
+    for (FileStatus status : statuses) {
+      String name = status.getPath().getName();
+      if (!status.isDirectory() || !name.startsWith(WriterUtils.MANIFEST_ATTEMPT_DIR_PREFIX)
+          || status.getModificationTime() >= minModificationTime) {
+        continue;
+      }
+      String attemptJobId = name.substring(WriterUtils.MANIFEST_ATTEMPT_DIR_PREFIX.length());
+      if (attemptJobId.equals(jobId)) {
+        continue;
+      }
+      String manifestFilePrefix = DataPublisherManifest.getManifestFilePrefix(attemptJobId);
+      List<Path> manifests = new ArrayList<>();
+      for (FileStatus other : statuses) {
+        if (other.getPath().getName().startsWith(manifestFilePrefix)) {
+          manifests.add(other.getPath());
+        }
+      }
+      if (manifests.isEmpty()) {
+        LOG.info("Deleting uncommitted job attempt directory " + status.getPath());
+        HadoopUtils.deletePath(fs, status.getPath(), true);
+      } else {
+        deleteUncommittedFiles(fs, publisherOutputDir, status.getPath(), manifests);
+      }
+    }
+  }
+
+  private static void deleteUncommittedFiles(FileSystem fs, Path publisherOutputDir, Path attemptDir,
+      List<Path> manifests)
+      throws IOException {
+    Path cleanedMarker = new Path(attemptDir, CLEANED_ATTEMPT_MARKER);
+    if (fs.exists(cleanedMarker)) {
+      return;
+    }
+    Set<String> committedFiles = Sets.newHashSet();
+    for (Path manifest : manifests) {
+      committedFiles.addAll(DataPublisherManifest.read(fs, manifest).getFiles());
+    }
+    String publisherOutputDirPrefix = Path.getPathWithoutSchemeAndAuthority(publisherOutputDir).toString() + "/";
+    RemoteIterator<LocatedFileStatus> files = fs.listFiles(attemptDir, true);
+    List<Path> uncommittedFiles = new ArrayList<>();
+    while (files.hasNext()) {
+      Path file = files.next().getPath();
+      String relativePath = Path.getPathWithoutSchemeAndAuthority(file).toString();
+      if (relativePath.startsWith(publisherOutputDirPrefix)
+          && !committedFiles.contains(relativePath.substring(publisherOutputDirPrefix.length()))) {
+        uncommittedFiles.add(file);
+      }
+    }
+    for (Path file : uncommittedFiles) {
+      LOG.info("Deleting uncommitted file " + file);
+      HadoopUtils.deletePath(fs, file, false);
+    }
+    fs.create(cleanedMarker, true).close();
+  }
+
   protected void movePath(ParallelRunner parallelRunner, State state, Path src, Path dst, int branchId)
       throws IOException {
     LOG.info(String.format("Moving %s to %s", src, dst));
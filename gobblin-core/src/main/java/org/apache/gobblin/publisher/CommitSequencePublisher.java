@@ -91,4 +91,17 @@ public class CommitSequencePublisher extends BaseDataPublisher {
     builder.endStep();
   }
 
+  /**
+   * This method does not actually move the manifest, but it creates an {@link FsRenameCommitStep}, so the output is
+   * only committed when the {@link CommitSequence} is executed.
+   */
+  @Override
+  protected void commitManifest(ParallelRunner parallelRunner, Path tmpManifestPath, Path manifestPath, int branchId)
+      throws IOException {
+    log.info(String.format("Creating CommitStep for moving %s to %s", tmpManifestPath, manifestPath));
+    this.commitSequenceBuilder.get().beginStep(FsRenameCommitStep.Builder.class).withProps(this.state)
+        .from(tmpManifestPath).withSrcFs(this.publisherFileSystemByBranches.get(branchId)).to(manifestPath)
+        .withDstFs(this.publisherFileSystemByBranches.get(branchId)).endStep();
+  }
+
 }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.publisher;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.apache.gobblin.annotation.Alpha;
+import org.apache.gobblin.configuration.ConfigurationKeys;
+
+
+/**
+ * A manifest of the output files a job committed to a publisher output directory, written by
+ * {@link BaseDataPublisher} if {@link ConfigurationKeys#DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED} is set.
+ *
+ * <p>
+ *   Each committed job adds manifest files named {@link #MANIFEST_FILE_PREFIX}{@code <job id>_<suffix>}
+ *   {@link #MANIFEST_FILE_SUFFIX} to the output directory, which list its files relative to the directory. A
+ *   manifest file only appears in the output directory once it is complete, so the data of the directory are the
+ *   files listed by its manifests, see {@link #getCommittedFiles(FileSystem, Path)}. Other files in the directory
+ *   belong to jobs that are still running or failed.
+ * </p>
+ */
+@Alpha
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataPublisherManifest {
+
+  public static final String MANIFEST_FILE_PREFIX = "_manifest_";
+  public static final String MANIFEST_FILE_SUFFIX = ".json";
+
+  private static final Gson GSON = new Gson();
+
+  private String jobId;
+  private List<String> files;
+
+  /**
+   * Get the prefix of the names of the manifest files of a job.
+   */
+  public static String getManifestFilePrefix(String jobId) {
+    return MANIFEST_FILE_PREFIX + jobId + "_";
+  }
+
+  public static boolean isManifestFile(Path path) {
+    return path.getName().startsWith(MANIFEST_FILE_PREFIX) && path.getName().endsWith(MANIFEST_FILE_SUFFIX);
+  }
+
+  public void write(FileSystem fs, Path path) throws IOException {
+    try (FSDataOutputStream out = fs.create(path, false)) {
+      out.write(GSON.toJson(this).getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  public static DataPublisherManifest read(FileSystem fs, Path path) throws IOException {
+    try (Reader reader = new InputStreamReader(fs.open(path), StandardCharsets.UTF_8)) {
+      return GSON.fromJson(reader, DataPublisherManifest.class);
+    }
+  }
+
+  /**
+   * Get the files committed to a publisher output directory, i.e. the files listed by its manifests.
+   */
+  public static List<Path> getCommittedFiles(FileSystem fs, Path outputDir) throws IOException {
+    List<Path> committedFiles = Lists.newArrayList();
+    if (!fs.exists(outputDir)) {
+      return committedFiles;
+    }
+    for (FileStatus status : fs.listStatus(outputDir, DataPublisherManifest::isManifestFile)) {
+      for (String file : read(fs, status.getPath()).getFiles()) {
+        committedFiles.add(new Path(outputDir, file));
+      }
+    }
+    return committedFiles;
+  }
+}
@@ -40,6 +40,9 @@ import org.apache.gobblin.util.AvroUtils;
  *
  * NOTE: This class assumes field names never contain a '.'; it assumes they are always
  * nested.
+ *
+ * The getters of single fields do not decode an {@link org.apache.gobblin.util.EncodedGenericRecord} as long as the
+ * fields are only nested in records, see {@link AvroUtils#getFieldValue(GenericRecord, String)}. Setters decode it.
  */
 public class AvroGenericRecordAccessor implements RecordAccessor {
   private final GenericRecord record;
@@ -19,6 +19,7 @@ package org.apache.gobblin.writer;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.avro.Schema;
@@ -34,6 +35,7 @@ import com.google.common.base.Preconditions;
 
 import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.util.EncodedGenericRecord;
 import org.apache.gobblin.util.ForkOperatorUtils;
 import org.apache.gobblin.util.WriterUtils;
 
@@ -46,6 +48,11 @@ import org.apache.gobblin.util.WriterUtils;
  *   property {@link ConfigurationKeys#WRITER_CODEC_TYPE}. By default, the deflate codec is used.
  * </p>
  *
+ * <p>
+ *   {@link EncodedGenericRecord}s that have not been decoded and have the schema of this writer are appended without
+ *   re-encoding them.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
@@ -55,6 +62,8 @@ public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
   private final DatumWriter<GenericRecord> datumWriter;
   private final DataFileWriter<GenericRecord> writer;
   private final boolean skipNullRecord;
+  // Last record schema found to be equal to the schema of this writer
+  private Schema lastWriterSchema;
 
   // Number of records successfully written
   protected final AtomicLong count = new AtomicLong(0);
@@ -69,6 +78,7 @@ public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
             .getPropertyNameForBranch(ConfigurationKeys.WRITER_DEFLATE_LEVEL, this.numBranches, this.branchId))));
 
     this.schema = builder.getSchema();
+    this.lastWriterSchema = this.schema;
     this.stagingFileOutputStream = createStagingFileOutputStream();
     this.datumWriter = new GenericDatumWriter<>();
     this.writer = this.closer.register(createDataFileWriter(codecFactory));
@@ -88,11 +98,28 @@ public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
 
     Preconditions.checkNotNull(record);
 
-    this.writer.append(record);
+    Optional<ByteBuffer> encoded = record instanceof EncodedGenericRecord && isWriterSchema(record.getSchema())
+        ? ((EncodedGenericRecord) record).getEncoded() : Optional.<ByteBuffer>absent();
+    if (encoded.isPresent()) {
+      this.writer.appendEncoded(encoded.get());
+    } else {
+      this.writer.append(record);
+    }
     // Only increment when write is successful
     this.count.incrementAndGet();
   }
 
+  private boolean isWriterSchema(Schema recordSchema) {
+    // Records of the same source usually share their schema object, so only compare a new schema object
+    if (recordSchema != this.lastWriterSchema) {
+      if (!recordSchema.equals(this.schema)) {
+        return false;
+      }
+      this.lastWriterSchema = recordSchema;
+    }
+    return true;
+  }
+
   @Override
   public long recordsWritten() {
     return this.count.get();
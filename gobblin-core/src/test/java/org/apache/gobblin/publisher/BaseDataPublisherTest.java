@@ -17,6 +17,7 @@
 package org.apache.gobblin.publisher;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Files;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -34,9 +35,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -57,10 +60,15 @@ import org.apache.gobblin.metrics.event.lineage.LineageEventBuilder;
 import org.apache.gobblin.metrics.event.lineage.LineageInfo;
 import org.apache.gobblin.source.workunit.WorkUnit;
 import org.apache.gobblin.util.ForkOperatorUtils;
+import org.apache.gobblin.util.ParallelRunner;
+import org.apache.gobblin.util.WriterUtils;
 import org.apache.gobblin.util.io.GsonInterfaceAdapter;
 import org.apache.gobblin.writer.FsDataWriter;
 import org.apache.gobblin.writer.FsWriterMetrics;
 import org.apache.gobblin.writer.PartitionIdentifier;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -628,6 +636,70 @@ public class BaseDataPublisherTest {
     }
   }
 
+  /**
+   * Test that manifest based commits publish the output of tasks in place, delete stale uncommitted attempts, and
+   * delete the files stale committed attempts did not commit
+   */
+  @Test
+  public void testManifestCommit()
+      throws IOException {
+    File tmpDir = Files.createTempDir();
+    try {
+      FileSystem fs = FileSystem.getLocal(new Configuration());
+      Path outputDir = new Path(tmpDir.getAbsolutePath(), "output/namespace/table");
+
+      List<WorkUnitState> states = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        WorkUnitState state = buildTaskState(1);
+        state.setProp(ConfigurationKeys.JOB_ID_KEY, "job_test_1");
+        state.setProp(ConfigurationKeys.DATA_PUBLISHER_FINAL_DIR, new Path(tmpDir.getAbsolutePath(), "output"));
+        state.setProp(ConfigurationKeys.DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED, true);
+        Path outputFile = new Path(WriterUtils.getWriterOutputDir(state, 1, 0), "part" + i + ".avro");
+        fs.create(outputFile).close();
+        state.appendToSetProp(ConfigurationKeys.WRITER_FINAL_OUTPUT_FILE_PATHS, outputFile.toString());
+        states.add(state);
+      }
+
+      // Attempts of earlier jobs, the first of which failed
+      long twoDaysAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2);
+      Path uncommittedAttemptDir = new Path(outputDir, WriterUtils.MANIFEST_ATTEMPT_DIR_PREFIX + "job_test_0");
+      fs.create(new Path(uncommittedAttemptDir, "part0.avro")).close();
+      fs.setTimes(uncommittedAttemptDir, twoDaysAgo, -1);
+      Path committedAttemptDir = new Path(outputDir, WriterUtils.MANIFEST_ATTEMPT_DIR_PREFIX + "job_test_00");
+      fs.create(new Path(committedAttemptDir, "part0.avro")).close();
+      // Output of a failed task attempt
+      fs.create(new Path(committedAttemptDir, "part0_retry.avro")).close();
+      fs.create(new Path(committedAttemptDir, "subdir/part1.avro")).close();
+      fs.setTimes(committedAttemptDir, twoDaysAgo, -1);
+      new DataPublisherManifest("job_test_00", ImmutableList.of(committedAttemptDir.getName() + "/part0.avro"))
+          .write(fs, new Path(outputDir, DataPublisherManifest.getManifestFilePrefix("job_test_00") + "0.json"));
+
+      // Subclasses may rewrite the destination of data files, which must not apply to manifests
+      BaseDataPublisher publisher = new BaseDataPublisher(states.get(0)) {
+        @Override
+        protected void movePath(ParallelRunner parallelRunner, State state, Path src, Path dst, int branchId) {
+          throw new UnsupportedOperationException();
+        }
+      };
+      publisher.publishData(states);
+      publisher.close();
+
+      Path attemptDir = new Path(outputDir, WriterUtils.MANIFEST_ATTEMPT_DIR_PREFIX + "job_test_1");
+      Assert.assertEquals(new HashSet<>(DataPublisherManifest.getCommittedFiles(fs, outputDir)),
+          ImmutableSet.of(new Path(attemptDir, "part0.avro"), new Path(attemptDir, "part1.avro"),
+              new Path(committedAttemptDir, "part0.avro")));
+      // Only the output files remain in the attempt directory
+      Assert.assertEquals(fs.listStatus(attemptDir).length, 2);
+      Assert.assertFalse(fs.exists(uncommittedAttemptDir));
+      Assert.assertTrue(fs.exists(new Path(committedAttemptDir, "part0.avro")));
+      Assert.assertFalse(fs.exists(new Path(committedAttemptDir, "part0_retry.avro")));
+      Assert.assertFalse(fs.exists(new Path(committedAttemptDir, "subdir/part1.avro")));
+      Assert.assertTrue(states.get(0).getPropAsSet(ConfigurationKeys.PUBLISHER_DIRS).contains(outputDir.toString()));
+    } finally {
+      FileUtils.deleteDirectory(tmpDir);
+    }
+  }
+
   private static LineageEventBuilder find(Collection<LineageEventBuilder> events, String partitionName) {
     for (LineageEventBuilder event : events) {
       if (event.getDestination().getName().equals(partitionName)) {
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.publisher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.util.WriterUtils;
+
+
+/**
+ * Tests for {@link CommitSequencePublisher}.
+ */
+public class CommitSequencePublisherTest {
+
+  /**
+   * Test that manifest based commits only move the manifest in place when the commit sequence is executed
+   */
+  @Test
+  public void testManifestCommit()
+      throws IOException {
+    File tmpDir = Files.createTempDir();
+    try {
+      FileSystem fs = FileSystem.getLocal(new Configuration());
+      Path outputDir = new Path(tmpDir.getAbsolutePath(), "output/namespace/table");
+
+      List<WorkUnitState> states = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        WorkUnitState state = new WorkUnitState();
+        state.setProp(ConfigurationKeys.EXTRACT_NAMESPACE_NAME_KEY, "namespace");
+        state.setProp(ConfigurationKeys.EXTRACT_TABLE_NAME_KEY, "table");
+        state.setProp(ConfigurationKeys.WRITER_FILE_PATH_TYPE, "namespace_table");
+        state.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, new Path(tmpDir.getAbsolutePath(), "working"));
+        state.setProp(ConfigurationKeys.DATA_PUBLISHER_FINAL_DIR, new Path(tmpDir.getAbsolutePath(), "output"));
+        state.setProp(ConfigurationKeys.DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED, true);
+        state.setProp(ConfigurationKeys.JOB_ID_KEY, "job_test_1");
+        Path outputFile = new Path(WriterUtils.getWriterOutputDir(state, 1, 0), "part" + i + ".avro");
+        fs.create(outputFile).close();
+        state.appendToSetProp(ConfigurationKeys.WRITER_FINAL_OUTPUT_FILE_PATHS, outputFile.toString());
+        states.add(state);
+      }
+
+      CommitSequencePublisher publisher = new CommitSequencePublisher(states.get(0));
+      publisher.publishData(states);
+      publisher.close();
+
+      // Nothing is committed until the commit sequence is executed
+      Assert.assertTrue(DataPublisherManifest.getCommittedFiles(fs, outputDir).isEmpty());
+
+      publisher.getCommitSequenceBuilder().get().withJobName("job").withDatasetUrn("dataset").build().execute();
+
+      Path attemptDir = new Path(outputDir, WriterUtils.MANIFEST_ATTEMPT_DIR_PREFIX + "job_test_1");
+      Assert.assertEquals(new HashSet<>(DataPublisherManifest.getCommittedFiles(fs, outputDir)),
+          ImmutableSet.of(new Path(attemptDir, "part0.avro"), new Path(attemptDir, "part1.avro")));
+      // Only the output files remain in the attempt directory
+      Assert.assertEquals(fs.listStatus(attemptDir).length, 2);
+    } finally {
+      FileUtils.deleteDirectory(tmpDir);
+    }
+  }
+}
@@ -16,15 +16,22 @@
  */
 package org.apache.gobblin.recordaccess;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
 import org.junit.Assert;
 import org.testng.annotations.Test;
 
+import org.apache.gobblin.util.EncodedGenericRecord;
+
 
 public class RecordAccessorProviderFactoryTest {
 
@@ -43,6 +50,38 @@ public class RecordAccessorProviderFactoryTest {
     Assert.assertEquals(accessor.getAsString("name"), "foo");
   }
 
+  @Test
+  public void testWithEncodedAvroRecord()
+      throws IOException {
+    Schema recordSchema =
+        new Schema.Parser().parse(getClass().getClassLoader().getResourceAsStream("converter/fieldPickInput.avsc"));
+
+    GenericData.Record record = new GenericData.Record(recordSchema);
+    record.put("name", "foo");
+    record.put("favorite_number", 7);
+    record.put("date_of_birth", 1L);
+    record.put("last_modified", 2L);
+    record.put("created", 3L);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericData.Record>(recordSchema).write(record, encoder);
+    encoder.flush();
+    EncodedGenericRecord encodedRecord = new EncodedGenericRecord(recordSchema, ByteBuffer.wrap(out.toByteArray()));
+
+    RecordAccessor accessor = RecordAccessorProviderFactory.getRecordAccessorForObject(encodedRecord);
+
+    // Reading fields does not decode the record
+    Assert.assertEquals(accessor.getAsString("name"), "foo");
+    Assert.assertEquals(accessor.getAsInt("favorite_number"), Integer.valueOf(7));
+    Assert.assertEquals(accessor.getAsLong("created"), Long.valueOf(3L));
+    Assert.assertNull(accessor.getAsString("favorite_color"));
+    Assert.assertFalse(encodedRecord.isDecoded());
+
+    accessor.set("favorite_color", "red");
+    Assert.assertTrue(encodedRecord.isDecoded());
+    Assert.assertEquals(accessor.getAsString("favorite_color"), "red");
+  }
+
   @Test
   public void testFactoryRegistration() {
     // TestAccessorBuilder should be invoked
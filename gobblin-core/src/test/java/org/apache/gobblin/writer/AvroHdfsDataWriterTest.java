@@ -17,16 +17,21 @@
 
 package org.apache.gobblin.writer;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import org.apache.avro.Schema;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
 import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.Path;
 import org.testng.Assert;
@@ -41,6 +46,7 @@ import com.google.gson.reflect.TypeToken;
 
 import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.util.EncodedGenericRecord;
 
 
 /**
@@ -145,6 +151,50 @@ public class AvroHdfsDataWriterTest {
     Assert.assertEquals(metrics.partitionInfo.branchId, 0);
   }
 
+  /**
+   * Encoded records are written as is, unless they have been decoded.
+   */
+  @Test(dependsOnMethods = "testWrite")
+  public void testWriteEncodedRecords() throws IOException {
+    properties.setProp(ConfigurationKeys.WRITER_CODEC_TYPE, "deflate");
+    DataWriter<GenericRecord> writer = new AvroDataWriterBuilder()
+        .writeTo(Destination.of(Destination.DestinationType.HDFS, properties))
+        .writeInFormat(WriterOutputFormat.AVRO).withWriterId(TestConstants.TEST_WRITER_ID)
+        .withSchema(this.schema).withBranches(1).forBranch(0).build();
+
+    GenericDatumWriter<GenericRecord> datumWriter = new GenericDatumWriter<>(this.schema);
+    for (int i = 0; i < TestConstants.JSON_RECORDS.length; i++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+      datumWriter.write(convertRecord(TestConstants.JSON_RECORDS[i]), encoder);
+      encoder.flush();
+      EncodedGenericRecord record = new EncodedGenericRecord(this.schema, ByteBuffer.wrap(out.toByteArray()));
+      if (i == 1) {
+        record.put("favorite_color", "green");
+        Assert.assertFalse(record.getEncoded().isPresent());
+      }
+      writer.write(record);
+    }
+    Assert.assertEquals(writer.recordsWritten(), 3);
+
+    writer.close();
+    writer.commit();
+
+    File outputFile =
+        new File(TestConstants.TEST_OUTPUT_DIR + Path.SEPARATOR + this.filePath, TestConstants.TEST_FILE_NAME);
+    try (DataFileReader<GenericRecord> reader =
+        new DataFileReader<>(outputFile, new GenericDatumReader<GenericRecord>())) {
+      Assert.assertEquals(reader.next().get("name").toString(), "Alyssa");
+      GenericRecord user2 = reader.next();
+      Assert.assertEquals(user2.get("name").toString(), "Ben");
+      Assert.assertEquals(user2.get("favorite_color").toString(), "green");
+      GenericRecord user3 = reader.next();
+      Assert.assertEquals(user3.get("name").toString(), "Charlie");
+      Assert.assertEquals(user3.get("favorite_number"), 68);
+      Assert.assertFalse(reader.hasNext());
+    }
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     // Clean up the staging and/or output directories if necessary
@@ -17,22 +17,30 @@
 
 package org.apache.gobblin.data.management.copy;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -40,6 +48,8 @@ import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import javax.annotation.Nullable;
 import lombok.AllArgsConstructor;
@@ -74,11 +84,14 @@ import org.apache.gobblin.metrics.Tag;
 import org.apache.gobblin.metrics.event.EventSubmitter;
 import org.apache.gobblin.metrics.event.lineage.LineageInfo;
 import org.apache.gobblin.metrics.event.sla.SlaEventKeys;
+import org.apache.gobblin.source.WorkUnitStreamSource;
 import org.apache.gobblin.source.extractor.Extractor;
 import org.apache.gobblin.source.extractor.WatermarkInterval;
 import org.apache.gobblin.source.extractor.extract.AbstractSource;
+import org.apache.gobblin.source.workunit.BasicWorkUnitStream;
 import org.apache.gobblin.source.workunit.Extract;
 import org.apache.gobblin.source.workunit.WorkUnit;
+import org.apache.gobblin.source.workunit.WorkUnitStream;
 import org.apache.gobblin.source.workunit.WorkUnitWeighter;
 import org.apache.gobblin.util.ClassAliasResolver;
 import org.apache.gobblin.util.ExecutorsUtils;
@@ -90,6 +103,7 @@ import org.apache.gobblin.util.deprecation.DeprecationUtils;
 import org.apache.gobblin.util.executors.IteratorExecutor;
 import org.apache.gobblin.util.guid.Guid;
 import org.apache.gobblin.util.reflection.GobblinConstructorUtils;
+import org.apache.gobblin.util.request_allocation.AllocatedRequestsIterator;
 import org.apache.gobblin.util.request_allocation.GreedyAllocator;
 import org.apache.gobblin.util.request_allocation.HierarchicalAllocator;
 import org.apache.gobblin.util.request_allocation.HierarchicalPrioritizer;
@@ -97,6 +111,7 @@ import org.apache.gobblin.util.request_allocation.PriorityIterableBasedRequestAl
 import org.apache.gobblin.util.request_allocation.RequestAllocator;
 import org.apache.gobblin.util.request_allocation.RequestAllocatorConfig;
 import org.apache.gobblin.util.request_allocation.RequestAllocatorUtils;
+import org.apache.gobblin.util.request_allocation.ResourcePool;
 import org.apache.gobblin.service.ServiceConfigKeys;
 
 
@@ -105,7 +120,8 @@ import org.apache.gobblin.service.ServiceConfigKeys;
  *
  */
 @Slf4j
-public class CopySource extends AbstractSource<String, FileAwareInputStream> {
+public class CopySource extends AbstractSource<String, FileAwareInputStream>
+    implements WorkUnitStreamSource<String, FileAwareInputStream> {
 
   public static final String DEFAULT_DATASET_PROFILE_CLASS_KEY = CopyableGlobDatasetFinder.class.getCanonicalName();
   public static final String SERIALIZED_COPYABLE_FILE = CopyConfiguration.COPY_PREFIX + ".serialized.copyable.file";
@@ -131,9 +147,21 @@ public class CopySource extends AbstractSource<String, FileAwareInputStream> {
   public static final String FILESET_TOTAL_SIZE_IN_BYTES = "fileset.total.size";
   public static final String SCHEMA_CHECK_ENABLED = "shcema.check.enabled";
   public final static boolean DEFAULT_SCHEMA_CHECK_ENABLED = false;
+  public static final String WORK_UNIT_STREAM_ENABLED = CopyConfiguration.COPY_PREFIX + ".workUnitStream.enabled";
+  public static final boolean DEFAULT_WORK_UNIT_STREAM_ENABLED = false;
+  // Number of datasets allocated, listed and bin packed together when streaming work units
+  public static final String WORK_UNIT_STREAM_WINDOW_SIZE =
+      CopyConfiguration.COPY_PREFIX + ".workUnitStream.windowSize";
+  public static final int DEFAULT_WORK_UNIT_STREAM_WINDOW_SIZE = 100;
+  // Number of listed windows buffered ahead of the launcher before listing blocks
+  public static final String WORK_UNIT_STREAM_BUFFERED_WINDOWS =
+      CopyConfiguration.COPY_PREFIX + ".workUnitStream.bufferedWindows";
+  public static final int DEFAULT_WORK_UNIT_STREAM_BUFFERED_WINDOWS = 1;
 
   private static final String WORK_UNIT_WEIGHT = CopyConfiguration.COPY_PREFIX + ".workUnitWeight";
   private final WorkUnitWeighter weighter = new FieldWeighter(WORK_UNIT_WEIGHT);
+  // Closes the work unit streams of this source when it is shut down, in case the launcher did not consume them
+  private final Closer closer = Closer.create();
 
   public MetricContext metricContext;
   public EventSubmitter eventSubmitter;
@@ -159,100 +187,27 @@ public class CopySource extends AbstractSource<String, FileAwareInputStream> {
    */
   @Override
   public List<WorkUnit> getWorkunits(final SourceState state) {
-
-    this.metricContext = Instrumented.getMetricContext(state, CopySource.class);
-    this.lineageInfo = LineageInfo.getLineageInfo(state.getBroker());
-
     try {
+      CopyListingContext context = createListingContext(state);
 
-      DeprecationUtils
-          .renameDeprecatedKeys(state, CopyConfiguration.MAX_COPY_PREFIX + "." + CopyResourcePool.ENTITIES_KEY,
-              Lists.newArrayList(MAX_FILES_COPIED_KEY));
-
-      final FileSystem sourceFs = HadoopUtils.getSourceFileSystem(state);
-      final FileSystem targetFs = HadoopUtils.getWriterFileSystem(state, 1, 0);
-      state.setProp(SlaEventKeys.SOURCE_URI, sourceFs.getUri());
-      state.setProp(SlaEventKeys.DESTINATION_URI, targetFs.getUri());
-
-      log.info("Identified source file system at {} and target file system at {}.", sourceFs.getUri(),
-          targetFs.getUri());
-
-      long maxSizePerBin = state.getPropAsLong(MAX_SIZE_MULTI_WORKUNITS, 0);
-      long maxWorkUnitsPerMultiWorkUnit = state.getPropAsLong(MAX_WORK_UNITS_PER_BIN, 50);
-      final long minWorkUnitWeight = Math.max(1, maxSizePerBin / maxWorkUnitsPerMultiWorkUnit);
-      final Optional<CopyableFileWatermarkGenerator> watermarkGenerator =
-          CopyableFileWatermarkHelper.getCopyableFileWatermarkGenerator(state);
-      int maxThreads = state.getPropAsInt(MAX_CONCURRENT_LISTING_SERVICES, DEFAULT_MAX_CONCURRENT_LISTING_SERVICES);
-
-      final CopyConfiguration copyConfiguration = CopyConfiguration.builder(targetFs, state.getProperties()).build();
+      final SetMultimap<FileSet<CopyEntity>, WorkUnit> workUnitsMap = createWorkUnitsMap();
 
-      this.eventSubmitter = new EventSubmitter.Builder(this.metricContext, CopyConfiguration.COPY_PREFIX).build();
-      DatasetsFinder<CopyableDatasetBase> datasetFinder = DatasetUtils
-          .instantiateDatasetFinder(state.getProperties(), sourceFs, DEFAULT_DATASET_PROFILE_CLASS_KEY,
-              this.eventSubmitter, state);
-
-      IterableDatasetFinder<CopyableDatasetBase> iterableDatasetFinder =
-          datasetFinder instanceof IterableDatasetFinder ? (IterableDatasetFinder<CopyableDatasetBase>) datasetFinder
-              : new IterableDatasetFinderImpl<>(datasetFinder);
-
-      Iterator<CopyableDatasetRequestor> requestorIteratorWithNulls = Iterators
-          .transform(iterableDatasetFinder.getDatasetsIterator(),
-              new CopyableDatasetRequestor.Factory(targetFs, copyConfiguration, log));
-      Iterator<CopyableDatasetRequestor> requestorIterator =
-          Iterators.filter(requestorIteratorWithNulls, Predicates.<CopyableDatasetRequestor>notNull());
-
-      final SetMultimap<FileSet<CopyEntity>, WorkUnit> workUnitsMap =
-          Multimaps.<FileSet<CopyEntity>, WorkUnit>synchronizedSetMultimap(
-              HashMultimap.<FileSet<CopyEntity>, WorkUnit>create());
-
-      RequestAllocator<FileSet<CopyEntity>> allocator = createRequestAllocator(copyConfiguration, maxThreads);
+      RequestAllocator<FileSet<CopyEntity>> allocator =
+          createRequestAllocator(context.copyConfiguration, context.maxThreads);
       Iterator<FileSet<CopyEntity>> prioritizedFileSets =
-          allocator.allocateRequests(requestorIterator, copyConfiguration.getMaxToCopy());
+          allocator.allocateRequests(context.requestorIterator, context.copyConfiguration.getMaxToCopy());
 
       //Submit alertable events for unfulfilled requests and fail if all of the allocated requests were rejected due to size
       submitUnfulfilledRequestEvents(allocator);
       failJobIfAllRequestsRejected(allocator, prioritizedFileSets);
 
-      String filesetWuGeneratorAlias = state.getProp(ConfigurationKeys.COPY_SOURCE_FILESET_WU_GENERATOR_CLASS, FileSetWorkUnitGenerator.class.getName());
-      boolean shouldWuGeneratorFailureBeFatal = state.getPropAsBoolean(ConfigurationKeys.WORK_UNIT_GENERATOR_FAILURE_IS_FATAL, ConfigurationKeys.DEFAULT_WORK_UNIT_FAST_FAIL_ENABLED);
-      Iterator<Callable<Void>> callableIterator =
-          Iterators.transform(prioritizedFileSets, new Function<FileSet<CopyEntity>, Callable<Void>>() {
-            @Nullable
-            @Override
-            public Callable<Void> apply(FileSet<CopyEntity> input) {
-              try {
-                return GobblinConstructorUtils.<FileSetWorkUnitGenerator>invokeLongestConstructor(
-                    new ClassAliasResolver(FileSetWorkUnitGenerator.class).resolveClass(filesetWuGeneratorAlias),
-                    input.getDataset(), input, state, targetFs, workUnitsMap, watermarkGenerator, minWorkUnitWeight, lineageInfo);
-              } catch (Exception e) {
-                throw new RuntimeException("Cannot create workunits generator", e);
-              }
-            }
-          });
-
-      try {
-        List<Future<Void>> futures = new IteratorExecutor<>(callableIterator, maxThreads,
-            ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("Copy-file-listing-pool-%d")))
-            .execute();
-
-        for (Future<Void> future : futures) {
-          try {
-            future.get();
-          } catch (ExecutionException exc) {
-            log.error("Failed to get work units for dataset.", exc.getCause());
-            if (shouldWuGeneratorFailureBeFatal) {
-              throw new RuntimeException("Failed to get work units for dataset.", exc.getCause());
-            }
-          }
-        }
-      } catch (InterruptedException ie) {
-        log.error("Retrieval of work units was interrupted. Aborting.");
+      if (!generateWorkUnits(context, prioritizedFileSets, workUnitsMap)) {
         return Lists.newArrayList();
       }
 
       log.info(String.format("Created %s workunits ", workUnitsMap.size()));
 
-      copyConfiguration.getCopyContext().logCacheStatistics();
+      context.copyConfiguration.getCopyContext().logCacheStatistics();
 
       if (state.contains(SIMULATE) && state.getPropAsBoolean(SIMULATE)) {
         log.info("Simulate mode enabled. Will not execute the copy.");
@@ -271,18 +226,319 @@ public class CopySource extends AbstractSource<String, FileAwareInputStream> {
         return Lists.newArrayList();
       }
 
-      List<? extends WorkUnit> workUnits = new WorstFitDecreasingBinPacking(maxSizePerBin)
-          .pack(Lists.newArrayList(workUnitsMap.values()), this.weighter);
-      log.info(String.format(
-          "Bin packed work units. Initial work units: %d, packed work units: %d, max weight per bin: %d, "
-              + "max work units per bin: %d.", workUnitsMap.size(), workUnits.size(), maxSizePerBin,
-          maxWorkUnitsPerMultiWorkUnit));
-      return ImmutableList.copyOf(workUnits);
+      return ImmutableList.copyOf(binPack(context, workUnitsMap));
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Same as {@link #getWorkunits(SourceState)}, but if {@link #WORK_UNIT_STREAM_ENABLED} is set, work units are
+   * generated on a background thread as datasets are discovered instead of all up front.
+   *
+   * <p>
+   *   Datasets are processed in windows of {@link #WORK_UNIT_STREAM_WINDOW_SIZE} datasets. Each window is allocated,
+   *   listed and bin packed as a unit, so prioritization ({@link FileSetComparator},
+   *   {@link org.apache.gobblin.data.management.copy.prioritization.PrioritizedCopyableDataset}) applies within a
+   *   window, and the max copy resource pool left over by a window is carried over to the next one. At most
+   *   {@link #WORK_UNIT_STREAM_BUFFERED_WINDOWS} windows are buffered ahead of the consumer, after which listing blocks
+   *   until the launcher catches up. Listing stops when the source is shut down, even if the launcher did not consume
+   *   the whole stream.
+   * </p>
+   *
+   * <p>
+   *   Simulate mode is not supported in streaming mode and falls back to {@link #getWorkunits(SourceState)}.
+   * </p>
+   */
+  @Override
+  public WorkUnitStream getWorkunitStream(SourceState state) {
+    boolean simulate = state.contains(SIMULATE) && state.getPropAsBoolean(SIMULATE);
+    if (!state.getPropAsBoolean(WORK_UNIT_STREAM_ENABLED, DEFAULT_WORK_UNIT_STREAM_ENABLED) || simulate) {
+      return new BasicWorkUnitStream.Builder(getWorkunits(state)).build();
+    }
+
+    try {
+      CopyListingContext context = createListingContext(state);
+      int windowSize = state.getPropAsInt(WORK_UNIT_STREAM_WINDOW_SIZE, DEFAULT_WORK_UNIT_STREAM_WINDOW_SIZE);
+      int bufferedWindows =
+          state.getPropAsInt(WORK_UNIT_STREAM_BUFFERED_WINDOWS, DEFAULT_WORK_UNIT_STREAM_BUFFERED_WINDOWS);
+      Preconditions.checkArgument(windowSize > 0, WORK_UNIT_STREAM_WINDOW_SIZE + " must be positive.");
+      Preconditions.checkArgument(bufferedWindows > 0, WORK_UNIT_STREAM_BUFFERED_WINDOWS + " must be positive.");
+
+      WindowedWorkUnitIterator workUnitIterator =
+          this.closer.register(new WindowedWorkUnitIterator(context, windowSize, bufferedWindows));
+      Thread producer = ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("Copy-work-unit-stream-%d"))
+          .newThread(workUnitIterator);
+      producer.start();
+
+      return new BasicWorkUnitStream.Builder(workUnitIterator).setFiniteStream(true).setSafeToMaterialize(false)
+          .build();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private CopyListingContext createListingContext(SourceState state) throws IOException {
+    this.metricContext = Instrumented.getMetricContext(state, CopySource.class);
+    this.lineageInfo = LineageInfo.getLineageInfo(state.getBroker());
+
+    DeprecationUtils
+        .renameDeprecatedKeys(state, CopyConfiguration.MAX_COPY_PREFIX + "." + CopyResourcePool.ENTITIES_KEY,
+            Lists.newArrayList(MAX_FILES_COPIED_KEY));
+
+    final FileSystem sourceFs = HadoopUtils.getSourceFileSystem(state);
+    final FileSystem targetFs = HadoopUtils.getWriterFileSystem(state, 1, 0);
+    state.setProp(SlaEventKeys.SOURCE_URI, sourceFs.getUri());
+    state.setProp(SlaEventKeys.DESTINATION_URI, targetFs.getUri());
+
+    log.info("Identified source file system at {} and target file system at {}.", sourceFs.getUri(),
+        targetFs.getUri());
+
+    long maxSizePerBin = state.getPropAsLong(MAX_SIZE_MULTI_WORKUNITS, 0);
+    long maxWorkUnitsPerMultiWorkUnit = state.getPropAsLong(MAX_WORK_UNITS_PER_BIN, 50);
+    final long minWorkUnitWeight = Math.max(1, maxSizePerBin / maxWorkUnitsPerMultiWorkUnit);
+    final Optional<CopyableFileWatermarkGenerator> watermarkGenerator =
+        CopyableFileWatermarkHelper.getCopyableFileWatermarkGenerator(state);
+    int maxThreads = state.getPropAsInt(MAX_CONCURRENT_LISTING_SERVICES, DEFAULT_MAX_CONCURRENT_LISTING_SERVICES);
+
+    final CopyConfiguration copyConfiguration = CopyConfiguration.builder(targetFs, state.getProperties()).build();
+
+    this.eventSubmitter = new EventSubmitter.Builder(this.metricContext, CopyConfiguration.COPY_PREFIX).build();
+    DatasetsFinder<CopyableDatasetBase> datasetFinder = DatasetUtils
+        .instantiateDatasetFinder(state.getProperties(), sourceFs, DEFAULT_DATASET_PROFILE_CLASS_KEY,
+            this.eventSubmitter, state);
+
+    IterableDatasetFinder<CopyableDatasetBase> iterableDatasetFinder =
+        datasetFinder instanceof IterableDatasetFinder ? (IterableDatasetFinder<CopyableDatasetBase>) datasetFinder
+            : new IterableDatasetFinderImpl<>(datasetFinder);
+
+    Iterator<CopyableDatasetRequestor> requestorIteratorWithNulls = Iterators
+        .transform(iterableDatasetFinder.getDatasetsIterator(),
+            new CopyableDatasetRequestor.Factory(targetFs, copyConfiguration, log));
+    Iterator<CopyableDatasetRequestor> requestorIterator =
+        Iterators.filter(requestorIteratorWithNulls, Predicates.<CopyableDatasetRequestor>notNull());
+
+    return new CopyListingContext(state, targetFs, copyConfiguration, requestorIterator, watermarkGenerator,
+        maxSizePerBin, maxWorkUnitsPerMultiWorkUnit, minWorkUnitWeight, maxThreads);
+  }
+
+  private static SetMultimap<FileSet<CopyEntity>, WorkUnit> createWorkUnitsMap() {
+    return Multimaps.<FileSet<CopyEntity>, WorkUnit>synchronizedSetMultimap(
+        HashMultimap.<FileSet<CopyEntity>, WorkUnit>create());
+  }
+
+  /**
+   * Run a {@link FileSetWorkUnitGenerator} for each of the input {@link FileSet}s in parallel, adding the generated
+   * {@link WorkUnit}s to workUnitsMap.
+   * @return false if generation was interrupted.
+   */
+  private boolean generateWorkUnits(final CopyListingContext context, Iterator<FileSet<CopyEntity>> fileSets,
+      final SetMultimap<FileSet<CopyEntity>, WorkUnit> workUnitsMap) {
+    final String filesetWuGeneratorAlias = context.state.getProp(ConfigurationKeys.COPY_SOURCE_FILESET_WU_GENERATOR_CLASS, FileSetWorkUnitGenerator.class.getName());
+    boolean shouldWuGeneratorFailureBeFatal = context.state.getPropAsBoolean(ConfigurationKeys.WORK_UNIT_GENERATOR_FAILURE_IS_FATAL, ConfigurationKeys.DEFAULT_WORK_UNIT_FAST_FAIL_ENABLED);
+    Iterator<Callable<Void>> callableIterator =
+        Iterators.transform(fileSets, new Function<FileSet<CopyEntity>, Callable<Void>>() {
+          @Nullable
+          @Override
+          public Callable<Void> apply(FileSet<CopyEntity> input) {
+            try {
+              return GobblinConstructorUtils.<FileSetWorkUnitGenerator>invokeLongestConstructor(
+                  new ClassAliasResolver(FileSetWorkUnitGenerator.class).resolveClass(filesetWuGeneratorAlias),
+                  input.getDataset(), input, context.state, context.targetFs, workUnitsMap, context.watermarkGenerator,
+                  context.minWorkUnitWeight, lineageInfo);
+            } catch (Exception e) {
+              throw new RuntimeException("Cannot create workunits generator", e);
+            }
+          }
+        });
+
+    try {
+      List<Future<Void>> futures = new IteratorExecutor<>(callableIterator, context.maxThreads,
+          ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("Copy-file-listing-pool-%d")))
+          .execute();
+
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException exc) {
+          log.error("Failed to get work units for dataset.", exc.getCause());
+          if (shouldWuGeneratorFailureBeFatal) {
+            throw new RuntimeException("Failed to get work units for dataset.", exc.getCause());
+          }
+        }
+      }
+    } catch (InterruptedException ie) {
+      log.error("Retrieval of work units was interrupted. Aborting.");
+      return false;
+    }
+    return true;
+  }
+
+  private List<? extends WorkUnit> binPack(CopyListingContext context,
+      SetMultimap<FileSet<CopyEntity>, WorkUnit> workUnitsMap) {
+    List<? extends WorkUnit> workUnits = new WorstFitDecreasingBinPacking(context.maxSizePerBin)
+        .pack(Lists.newArrayList(workUnitsMap.values()), this.weighter);
+    log.info(String.format(
+        "Bin packed work units. Initial work units: %d, packed work units: %d, max weight per bin: %d, "
+            + "max work units per bin: %d.", workUnitsMap.size(), workUnits.size(), context.maxSizePerBin,
+        context.maxWorkUnitsPerMultiWorkUnit));
+    return workUnits;
+  }
+
+  /**
+   * Values shared by all steps of a single work unit listing.
+   */
+  @AllArgsConstructor
+  private static class CopyListingContext {
+    private final SourceState state;
+    private final FileSystem targetFs;
+    private final CopyConfiguration copyConfiguration;
+    private final Iterator<CopyableDatasetRequestor> requestorIterator;
+    private final Optional<CopyableFileWatermarkGenerator> watermarkGenerator;
+    private final long maxSizePerBin;
+    private final long maxWorkUnitsPerMultiWorkUnit;
+    private final long minWorkUnitWeight;
+    private final int maxThreads;
+  }
+
+  /**
+   * An {@link Iterator} of {@link WorkUnit}s for {@link #getWorkunitStream(SourceState)}. When run, lists windows of
+   * datasets and hands the bin packed {@link WorkUnit}s of each window to the consumer through a bounded queue. Once
+   * closed, the iterator ends and listing stops instead of waiting for the consumer to make room in the queue.
+   */
+  private class WindowedWorkUnitIterator extends AbstractIterator<WorkUnit> implements Runnable, Closeable {
+    private static final long OFFER_TIMEOUT_SECONDS = 1;
+
+    private final List<WorkUnit> endOfStream = Lists.newArrayList();
+
+    private final CopyListingContext context;
+    private final int windowSize;
+    private final BlockingQueue<List<WorkUnit>> windows;
+    private volatile Throwable failure;
+    private volatile boolean closed = false;
+    private Iterator<WorkUnit> currentWindow = Collections.emptyIterator();
+
+    WindowedWorkUnitIterator(CopyListingContext context, int windowSize, int bufferedWindows) {
+      this.context = context;
+      this.windowSize = windowSize;
+      this.windows = new ArrayBlockingQueue<>(bufferedWindows);
+    }
+
+    @Override
+    public void run() {
+      try {
+        ResourcePool remainingPool = this.context.copyConfiguration.getMaxToCopy();
+        boolean anyAllocated = false;
+        boolean anyExceedingPool = false;
+        int workUnitCount = 0;
+
+        Iterator<List<CopyableDatasetRequestor>> requestorWindows =
+            Iterators.partition(this.context.requestorIterator, this.windowSize);
+        while (!this.closed && requestorWindows.hasNext()) {
+          List<CopyableDatasetRequestor> requestors = requestorWindows.next();
+
+          RequestAllocator<FileSet<CopyEntity>> allocator =
+              createRequestAllocator(this.context.copyConfiguration, this.context.maxThreads);
+          AllocatedRequestsIterator<FileSet<CopyEntity>> allocatedIterator =
+              allocator.allocateRequests(requestors.iterator(), remainingPool);
+          List<FileSet<CopyEntity>> allocated = Lists.newArrayList(allocatedIterator);
+
+          submitUnfulfilledRequestEvents(allocator);
+          anyExceedingPool |= allocator instanceof PriorityIterableBasedRequestAllocator
+              && !((PriorityIterableBasedRequestAllocator<FileSet<CopyEntity>>) allocator)
+              .getRequestsExceedingAvailableResourcePool().isEmpty();
+          if (allocated.isEmpty()) {
+            continue;
+          }
+          anyAllocated = true;
+          remainingPool = ((CopyResourcePool) remainingPool).contractPool(allocatedIterator.totalResourcesUsed());
+
+          SetMultimap<FileSet<CopyEntity>, WorkUnit> workUnitsMap = createWorkUnitsMap();
+          if (!generateWorkUnits(this.context, allocated.iterator(), workUnitsMap)) {
+            throw new InterruptedException("Retrieval of work units was interrupted.");
+          }
+          workUnitCount += workUnitsMap.size();
+
+          List<? extends WorkUnit> workUnits = binPack(this.context, workUnitsMap);
+          if (!workUnits.isEmpty() && !offer(ImmutableList.copyOf(workUnits))) {
+            break;
+          }
+        }
+        if (this.closed) {
+          log.info("Work unit stream was closed, stopped listing after {} workunits.", workUnitCount);
+          return;
+        }
+
+        if (!anyAllocated && anyExceedingPool) {
+          throw allRequestsExceedPoolException();
+        }
+        log.info(String.format("Created %s workunits ", workUnitCount));
+        this.context.copyConfiguration.getCopyContext().logCacheStatistics();
+      } catch (Throwable t) {
+        log.error("Failed to generate work unit stream.", t);
+        this.failure = t;
+      } finally {
+        offerEndOfStream();
+      }
+    }
+
+    /**
+     * Hand a window to the consumer, waiting for room in the queue until the iterator is closed.
+     *
+     * @return false if the iterator was closed before the window could be queued
+     */
+    private boolean offer(List<WorkUnit> window) throws InterruptedException {
+      do {
+        if (this.windows.offer(window, OFFER_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          return true;
+        }
+      } while (!this.closed);
+      return false;
+    }
+
+    private void offerEndOfStream() {
+      boolean interrupted = false;
+      try {
+        while (true) {
+          try {
+            offer(this.endOfStream);
+            return;
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    @Override
+    protected WorkUnit computeNext() {
+      if (this.closed) {
+        return endOfData();
+      }
+      while (!this.currentWindow.hasNext()) {
+        List<WorkUnit> window = Uninterruptibles.takeUninterruptibly(this.windows);
+        if (window == this.endOfStream) {
+          if (this.failure != null) {
+            Throwables.throwIfUnchecked(this.failure);
+            throw new RuntimeException(this.failure);
+          }
+          return endOfData();
+        }
+        this.currentWindow = window.iterator();
+      }
+      return this.currentWindow.next();
+    }
+
+    @Override
+    public void close() {
+      this.closed = true;
+    }
+  }
+
   private void submitUnfulfilledRequestEventsHelper(List<FileSet<CopyEntity>> fileSetList, String eventName) {
     for (FileSet<CopyEntity> fileSet : fileSetList) {
       GobblinTrackingEvent event =
@@ -304,12 +560,16 @@ public class CopySource extends AbstractSource<String, FileAwareInputStream> {
           (PriorityIterableBasedRequestAllocator<FileSet<CopyEntity>>) allocator;
       // If there are no allocated items and are there items exceeding the available resources, then we can infer all items exceed resources
       if (!allocatedRequests.hasNext() && priorityIterableBasedRequestAllocator.getRequestsExceedingAvailableResourcePool().size() > 0) {
-        throw new IOException(String.format("Requested copy datasets are all larger than the available resource pool. Try increasing %s and/or %s",
-            CopyConfiguration.MAX_COPY_PREFIX + "." + CopyResourcePool.ENTITIES_KEY, CopyConfiguration.MAX_COPY_PREFIX + ".size"));
+        throw allRequestsExceedPoolException();
       }
     }
   }
 
+  private static IOException allRequestsExceedPoolException() {
+    return new IOException(String.format("Requested copy datasets are all larger than the available resource pool. Try increasing %s and/or %s",
+        CopyConfiguration.MAX_COPY_PREFIX + "." + CopyResourcePool.ENTITIES_KEY, CopyConfiguration.MAX_COPY_PREFIX + ".size"));
+  }
+
   private void submitUnfulfilledRequestEvents(RequestAllocator<FileSet<CopyEntity>> allocator) {
     if (PriorityIterableBasedRequestAllocator.class.isAssignableFrom(allocator.getClass())) {
       PriorityIterableBasedRequestAllocator<FileSet<CopyEntity>> priorityIterableBasedRequestAllocator =
@@ -482,6 +742,11 @@ public class CopySource extends AbstractSource<String, FileAwareInputStream> {
 
   @Override
   public void shutdown(SourceState state) {
+    try {
+      this.closer.close();
+    } catch (IOException e) {
+      log.warn("Failed to close work unit streams.", e);
+    }
   }
 
   /**
@@ -20,7 +20,6 @@ package org.apache.gobblin.data.management.copy.splitter;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Set;
 
 import lombok.Data;
@@ -40,7 +39,6 @@ import com.google.gson.Gson;
 import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.configuration.State;
 import org.apache.gobblin.configuration.WorkUnitState;
-import org.apache.gobblin.converter.IdentityConverter;
 import org.apache.gobblin.data.management.copy.CopyableFile;
 import org.apache.gobblin.data.management.copy.CopyConfiguration;
 import org.apache.gobblin.data.management.copy.CopyEntity;
@@ -228,16 +226,11 @@ public class DistcpFileSplitter {
    */
   public static boolean allowSplit(State state, FileSystem targetFs) {
     // Don't allow distcp jobs that use decrypt/ungzip converters or tararchive/encrypt writers to split work units
-    Collection<String> converterClassNames = Collections.emptyList();
-    if (state.contains(ConfigurationKeys.CONVERTER_CLASSES_KEY)) {
-      converterClassNames = state.getPropAsList(ConfigurationKeys.CONVERTER_CLASSES_KEY);
-    }
-
     return state.getPropAsBoolean(SPLIT_ENABLED, false) &&
         KNOWN_SCHEMES_SUPPORTING_CONCAT.contains(targetFs.getUri().getScheme()) &&
         state.getProp(ConfigurationKeys.WRITER_BUILDER_CLASS, "")
             .equals(FileAwareInputStreamDataWriterBuilder.class.getName()) &&
-        converterClassNames.stream().noneMatch(s -> !s.equals(IdentityConverter.class.getName()));
+        FileAwareInputStreamDataWriter.hasOnlyIdentityConverters(state);
   }
 
 }
@@ -21,11 +21,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -53,6 +57,7 @@ import org.apache.gobblin.commit.SpeculativeAttemptAwareConstruct;
 import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.configuration.State;
 import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.converter.IdentityConverter;
 import org.apache.gobblin.crypto.EncryptionConfigParser;
 import org.apache.gobblin.crypto.EncryptionFactory;
 import org.apache.gobblin.data.management.copy.CopyConfiguration;
@@ -66,11 +71,13 @@ import org.apache.gobblin.data.management.copy.recovery.RecoveryHelper;
 import org.apache.gobblin.data.management.copy.splitter.DistcpFileSplitter;
 import org.apache.gobblin.instrumented.writer.InstrumentedDataWriter;
 import org.apache.gobblin.state.ConstructState;
+import org.apache.gobblin.util.ExecutorsUtils;
 import org.apache.gobblin.util.FileListUtils;
 import org.apache.gobblin.util.FinalState;
 import org.apache.gobblin.util.ForkOperatorUtils;
 import org.apache.gobblin.util.PathUtils;
 import org.apache.gobblin.util.WriterUtils;
+import org.apache.gobblin.util.io.NioStreamCopier;
 import org.apache.gobblin.util.io.StreamCopier;
 import org.apache.gobblin.util.io.StreamThrottler;
 import org.apache.gobblin.util.io.ThrottledInputStream;
@@ -90,6 +97,21 @@ public class FileAwareInputStreamDataWriter extends InstrumentedDataWriter<FileA
   public static final boolean DEFAULT_GOBBLIN_COPY_CHECK_FILESIZE = false;
   public static final String GOBBLIN_COPY_TASK_OVERWRITE_ON_COMMIT = "gobblin.copy.task.overwrite.on.commit";
   public static final boolean DEFAULT_GOBBLIN_COPY_TASK_OVERWRITE_ON_COMMIT = false;
+  // Copy file bytes with a NioStreamCopier, which reads HDFS and local file sources directly into its copy buffer,
+  // instead of a StreamCopier. Files are always written through an FSDataOutputStream, so bytes are not transferred
+  // between file channels.
+  public static final String GOBBLIN_COPY_BUFFERED_NIO_COPY_ENABLED = "gobblin.copy.bufferedNioCopy.enabled";
+  public static final boolean DEFAULT_GOBBLIN_COPY_BUFFERED_NIO_COPY_ENABLED = false;
+  // Copy files larger than one part as several parts in parallel, see MultiPartFileCopier
+  public static final String GOBBLIN_COPY_PARALLEL_PARTS_ENABLED = "gobblin.copy.parallelParts.enabled";
+  public static final boolean DEFAULT_GOBBLIN_COPY_PARALLEL_PARTS_ENABLED = false;
+  public static final String GOBBLIN_COPY_PARALLEL_PARTS_THREADS = "gobblin.copy.parallelParts.threads";
+  public static final int DEFAULT_GOBBLIN_COPY_PARALLEL_PARTS_THREADS = 4;
+  // Rounded down to a multiple of the target block size
+  public static final String GOBBLIN_COPY_PARALLEL_PARTS_PART_SIZE = "gobblin.copy.parallelParts.partSize";
+  public static final long DEFAULT_GOBBLIN_COPY_PARALLEL_PARTS_PART_SIZE = 4L * 1024 * 1024 * 1024;
+  public static final String GOBBLIN_COPY_PARALLEL_PARTS_VERIFY_CHECKSUM = "gobblin.copy.parallelParts.verifyChecksum";
+  public static final boolean DEFAULT_GOBBLIN_COPY_PARALLEL_PARTS_VERIFY_CHECKSUM = true;
 
   protected final AtomicLong bytesWritten = new AtomicLong();
   protected final AtomicLong filesWritten = new AtomicLong();
@@ -103,6 +125,8 @@ public class FileAwareInputStreamDataWriter extends InstrumentedDataWriter<FileA
   protected final SharedResourcesBroker<GobblinScopeTypes> taskBroker;
   protected final int bufferSize;
   private final boolean checkFileSize;
+  private final boolean bufferedNioCopyEnabled;
+  private final boolean parallelPartsEnabled;
   private final Options.Rename renameOptions;
   private final URI uri;
   private final Configuration conf;
@@ -175,6 +199,11 @@ public class FileAwareInputStreamDataWriter extends InstrumentedDataWriter<FileA
         .getConfigForBranch(EncryptionConfigParser.EntityType.WRITER, this.state, numBranches, branchId);
 
     this.checkFileSize = state.getPropAsBoolean(GOBBLIN_COPY_CHECK_FILESIZE, DEFAULT_GOBBLIN_COPY_CHECK_FILESIZE);
+    this.bufferedNioCopyEnabled =
+        state.getPropAsBoolean(GOBBLIN_COPY_BUFFERED_NIO_COPY_ENABLED, DEFAULT_GOBBLIN_COPY_BUFFERED_NIO_COPY_ENABLED);
+    this.parallelPartsEnabled =
+        state.getPropAsBoolean(GOBBLIN_COPY_PARALLEL_PARTS_ENABLED, DEFAULT_GOBBLIN_COPY_PARALLEL_PARTS_ENABLED)
+            && hasOnlyIdentityConverters(state);
     boolean taskOverwriteOnCommit = state.getPropAsBoolean(GOBBLIN_COPY_TASK_OVERWRITE_ON_COMMIT, DEFAULT_GOBBLIN_COPY_TASK_OVERWRITE_ON_COMMIT);
     if (taskOverwriteOnCommit) {
       this.renameOptions = Options.Rename.OVERWRITE;
@@ -267,6 +296,33 @@ public class FileAwareInputStreamDataWriter extends InstrumentedDataWriter<FileA
         return;
       }
 
+      long partSize = this.state.getPropAsLong(GOBBLIN_COPY_PARALLEL_PARTS_PART_SIZE,
+          DEFAULT_GOBBLIN_COPY_PARALLEL_PARTS_PART_SIZE);
+      if (this.parallelPartsEnabled && !record.getSplit().isPresent() && encryptionConfig == null
+          && fileSize > MultiPartFileCopier.getAlignedPartSize(partSize, blockSize)) {
+        int threads =
+            this.state.getPropAsInt(GOBBLIN_COPY_PARALLEL_PARTS_THREADS, DEFAULT_GOBBLIN_COPY_PARALLEL_PARTS_THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+            ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("Copy-part-%d")));
+        try {
+          MultiPartFileCopier multiPartFileCopier =
+              createMultiPartFileCopier(copyableFile, writeAt, executor, partSize);
+          // Parts are read from the origin file directly
+          inputStream.close();
+          long numBytes =
+              multiPartFileCopier.copy(copyableFile.getOrigin().getPath(), fileSize, writeAt, replication, blockSize);
+          if (numBytes != fileSize) {
+            throw new IOException(String.format("Incomplete write: expected %d, wrote %d bytes.",
+                fileSize, numBytes));
+          }
+          this.bytesWritten.addAndGet(numBytes);
+          log.info("File {} copied in parts.", copyableFile.getOrigin().getPath());
+          return;
+        } finally {
+          executor.shutdownNow();
+        }
+      }
+
       OutputStream os =
           this.fs.create(writeAt, true, this.fs.getConf().getInt("io.file.buffer.size", 4096), replication, blockSize);
       if (encryptionConfig != null) {
@@ -279,14 +335,10 @@ public class FileAwareInputStreamDataWriter extends InstrumentedDataWriter<FileA
         ThrottledInputStream throttledInputStream = throttler.throttleInputStream().inputStream(inputStream)
             .sourceURI(copyableFile.getOrigin().getPath().makeQualified(defaultFS.getUri(), defaultFS.getWorkingDirectory()).toUri())
             .targetURI(this.fs.makeQualified(writeAt).toUri()).build();
-        StreamCopier copier = new StreamCopier(throttledInputStream, os, maxBytes).withBufferSize(this.bufferSize);
 
         log.info("File {}: Starting copy", copyableFile.getOrigin().getPath());
 
-        if (isInstrumentationEnabled()) {
-          copier.withCopySpeedMeter(this.copySpeedMeter);
-        }
-        long numBytes = copier.copy();
+        long numBytes = copyStream(throttledInputStream, os, maxBytes);
         if ((this.checkFileSize || mustMatchMaxBytes) && numBytes != expectedBytes) {
           throw new IOException(String.format("Incomplete write: expected %d, wrote %d bytes.",
               expectedBytes, numBytes));
@@ -308,6 +360,56 @@ public class FileAwareInputStreamDataWriter extends InstrumentedDataWriter<FileA
     }
   }
 
+  /**
+   * Copy the bytes of a file with a {@link NioStreamCopier} if {@link #GOBBLIN_COPY_BUFFERED_NIO_COPY_ENABLED} is set,
+   * or a {@link StreamCopier} otherwise.
+   * @return number of bytes copied.
+   */
+  private long copyStream(InputStream inputStream, OutputStream os, Long maxBytes) throws IOException {
+    Meter copySpeedMeter = isInstrumentationEnabled() ? this.copySpeedMeter : null;
+    if (this.bufferedNioCopyEnabled) {
+      return new NioStreamCopier(inputStream, os, maxBytes).withBufferSize(this.bufferSize)
+          .withCopySpeedMeter(copySpeedMeter).copy();
+    }
+    return new StreamCopier(inputStream, os, maxBytes).withBufferSize(this.bufferSize)
+        .withCopySpeedMeter(copySpeedMeter).copy();
+  }
+
+  private MultiPartFileCopier createMultiPartFileCopier(CopyableFile copyableFile, Path writeAt,
+      ExecutorService executor, long partSize) throws IOException {
+    FileSystem sourceFs = copyableFile.getOrigin().getPath().getFileSystem(this.conf);
+    URI sourceUri = sourceFs.makeQualified(copyableFile.getOrigin().getPath()).toUri();
+    URI targetUri = this.fs.makeQualified(writeAt).toUri();
+
+    Function<InputStream, InputStream> throttle;
+    try {
+      StreamThrottler<GobblinScopeTypes> throttler =
+          this.taskBroker.getSharedResource(new StreamThrottler.Factory<GobblinScopeTypes>(), new EmptyKey());
+      throttle = is -> throttler.throttleInputStream().inputStream(is).sourceURI(sourceUri).targetURI(targetUri)
+          .build();
+    } catch (NotConfiguredException nce) {
+      log.warn("Broker error. Parts will not be throttled.", nce);
+      throttle = Function.identity();
+    }
+
+    return new MultiPartFileCopier(sourceFs, this.fs, executor, partSize, this.bufferSize,
+        this.state.getPropAsBoolean(GOBBLIN_COPY_PARALLEL_PARTS_VERIFY_CHECKSUM,
+            DEFAULT_GOBBLIN_COPY_PARALLEL_PARTS_VERIFY_CHECKSUM), throttle,
+        isInstrumentationEnabled() ? this.copySpeedMeter : null);
+  }
+
+  /**
+   * @return whether the bytes of the origin files are written as is, i.e. there are no converters other than
+   * {@link IdentityConverter}.
+   */
+  public static boolean hasOnlyIdentityConverters(State state) {
+    Collection<String> converterClassNames = Collections.emptyList();
+    if (state.contains(ConfigurationKeys.CONVERTER_CLASSES_KEY)) {
+      converterClassNames = state.getPropAsList(ConfigurationKeys.CONVERTER_CLASSES_KEY);
+    }
+    return converterClassNames.stream().allMatch(s -> s.equals(IdentityConverter.class.getName()));
+  }
+
   /**
    * Sets the owner/group and permission for the file in the task staging directory
    */
@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.data.management.copy.writer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.codahale.metrics.Meter;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.data.management.copy.splitter.DistcpFileSplitter;
+import org.apache.gobblin.util.io.StreamCopier;
+
+
+/**
+ * Copies a single file as several parts in parallel.
+ *
+ * <p>
+ *   The file is divided in parts whose size is a multiple of the target block size. Each part is copied by its own
+ *   task, which opens the source, seeks to the start of the part and writes it to a part file next to the target.
+ *   When all parts are copied, the part files are merged into the target with {@link FileSystem#concat(Path, Path[])}
+ *   if the target {@link FileSystem} is known to support it (see
+ *   {@link DistcpFileSplitter#KNOWN_SCHEMES_SUPPORTING_CONCAT}), or by sequentially copying the parts into the target
+ *   otherwise.
+ * </p>
+ *
+ * <p>
+ *   If checksum verification is enabled, a CRC32 of the bytes read from the source is computed for each part, and
+ *   compared to the CRC32 of the part file read back from the target before merging.
+ * </p>
+ *
+ * <p>
+ *   If any part fails, the other parts are cancelled as soon as the failure is seen, and all part files are deleted
+ *   once the tasks copying them have stopped.
+ * </p>
+ */
+@Slf4j
+public class MultiPartFileCopier {
+
+  private final FileSystem sourceFs;
+  private final FileSystem targetFs;
+  private final ExecutorService executor;
+  private final long partSize;
+  private final int bufferSize;
+  private final boolean verifyChecksums;
+  private final Function<InputStream, InputStream> sourceStreamDecorator;
+  private final Meter copySpeedMeter;
+
+  /**
+   * @param partSize desired part size, rounded down to a multiple of the target block size.
+   * @param sourceStreamDecorator applied to the source stream of each part, e.g. to throttle it.
+   * @param copySpeedMeter if not null, a {@link Meter} where copy speed will be reported.
+   */
+  public MultiPartFileCopier(FileSystem sourceFs, FileSystem targetFs, ExecutorService executor, long partSize,
+      int bufferSize, boolean verifyChecksums, Function<InputStream, InputStream> sourceStreamDecorator,
+      Meter copySpeedMeter) {
+    this.sourceFs = sourceFs;
+    this.targetFs = targetFs;
+    this.executor = executor;
+    this.partSize = partSize;
+    this.bufferSize = bufferSize;
+    this.verifyChecksums = verifyChecksums;
+    this.sourceStreamDecorator = sourceStreamDecorator;
+    this.copySpeedMeter = copySpeedMeter;
+  }
+
+  /**
+   * @return the size of the parts a file would be copied in for the given target block size.
+   */
+  public long getAlignedPartSize(long blockSize) {
+    return getAlignedPartSize(this.partSize, blockSize);
+  }
+
+  /**
+   * @return the size of the parts a file would be copied in for the given desired part size and target block size.
+   */
+  public static long getAlignedPartSize(long partSize, long blockSize) {
+    return Math.max(blockSize, (partSize / blockSize) * blockSize);
+  }
+
+  /**
+   * Copy length bytes of source to target.
+   * @return number of bytes copied.
+   */
+  public long copy(Path source, long length, Path target, short replication, long blockSize) throws IOException {
+    long alignedPartSize = getAlignedPartSize(blockSize);
+    int numParts = (int) Math.max(1, (length + alignedPartSize - 1) / alignedPartSize);
+    log.info(String.format("Copying %s to %s in %d parts of %d bytes.", source, target, numParts, alignedPartSize));
+
+    Path[] parts = new Path[numParts];
+    List<PartCopier> partCopiers = Lists.newArrayListWithCapacity(numParts);
+    List<Future<Long>> futures = Lists.newArrayListWithCapacity(numParts);
+    // Futures complete in any order, so that the first failure is seen without waiting for the preceding parts
+    CompletionService<Long> completionService = new ExecutorCompletionService<>(this.executor);
+    for (int i = 0; i < numParts; i++) {
+      long lowPosition = alignedPartSize * i;
+      long partLength = Math.min(alignedPartSize, length - lowPosition);
+      parts[i] = new Path(target.getParent(), String.format("%s.__PPART%d__", target.getName(), i));
+      PartCopier partCopier = new PartCopier(source, lowPosition, partLength, parts[i], replication, blockSize);
+      partCopiers.add(partCopier);
+      futures.add(completionService.submit(partCopier));
+    }
+
+    long totalBytes = 0;
+    try {
+      for (int i = 0; i < numParts; i++) {
+        totalBytes += completionService.take().get();
+      }
+    } catch (ExecutionException ee) {
+      cancelAndDelete(futures, partCopiers, parts);
+      if (ee.getCause() instanceof IOException) {
+        throw (IOException) ee.getCause();
+      }
+      throw new IOException("Failed to copy " + source, ee.getCause());
+    } catch (InterruptedException ie) {
+      cancelAndDelete(futures, partCopiers, parts);
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while copying " + source, ie);
+    }
+
+    try {
+      merge(parts, target, replication, blockSize);
+    } catch (IOException ioe) {
+      deleteParts(parts);
+      throw ioe;
+    }
+    return totalBytes;
+  }
+
+  private void merge(Path[] parts, Path target, short replication, long blockSize) throws IOException {
+    if (parts.length > 1 && !concat(parts)) {
+      log.info("{} does not support concat, merging {} parts of {} sequentially.",
+          this.targetFs.getUri(), parts.length, target);
+      try (OutputStream os = this.targetFs.create(target, true, this.bufferSize, replication, blockSize)) {
+        for (Path part : parts) {
+          try (InputStream is = this.targetFs.open(part, this.bufferSize)) {
+            new StreamCopier(is, os).withBufferSize(this.bufferSize).copy();
+          }
+        }
+      } catch (IOException ioe) {
+        // Do not leave a partially merged target behind
+        this.targetFs.delete(target, false);
+        throw ioe;
+      }
+      deleteParts(parts);
+      return;
+    }
+    // Overwrite an existing target, e.g. of a retried task, as a single stream copy does. A rename does not on HDFS.
+    if (this.targetFs.exists(target) && !this.targetFs.delete(target, false)) {
+      throw new IOException("Failed to delete existing target " + target);
+    }
+    if (!this.targetFs.rename(parts[0], target)) {
+      throw new IOException(String.format("Failed to rename %s to %s.", parts[0], target));
+    }
+  }
+
+  /**
+   * Concatenate all parts into the first one.
+   * @return false if the target {@link FileSystem} does not support concat.
+   */
+  private boolean concat(Path[] parts) throws IOException {
+    if (!DistcpFileSplitter.KNOWN_SCHEMES_SUPPORTING_CONCAT.contains(this.targetFs.getUri().getScheme())) {
+      return false;
+    }
+    try {
+      this.targetFs.concat(parts[0], Arrays.copyOfRange(parts, 1, parts.length));
+      return true;
+    } catch (UnsupportedOperationException uoe) {
+      return false;
+    }
+  }
+
+  /**
+   * Cancel all parts, and delete their files once the tasks copying them have stopped, so that they cannot be
+   * re-created or written to after being deleted.
+   */
+  private void cancelAndDelete(List<Future<Long>> futures, List<PartCopier> partCopiers, Path[] parts) {
+    for (Future<Long> future : futures) {
+      future.cancel(true);
+    }
+    for (PartCopier partCopier : partCopiers) {
+      partCopier.awaitTermination();
+    }
+    deleteParts(parts);
+  }
+
+  private void deleteParts(Path[] parts) {
+    for (Path part : parts) {
+      try {
+        this.targetFs.delete(part, false);
+      } catch (IOException ioe) {
+        log.warn("Failed to delete part file " + part, ioe);
+      }
+    }
+  }
+
+  /**
+   * Copies a single part of the file.
+   */
+  private class PartCopier implements Callable<Long> {
+    private final Path source;
+    private final long lowPosition;
+    private final long length;
+    private final Path part;
+    private final short replication;
+    private final long blockSize;
+    /** Set when the copy starts, or when it is abandoned before starting. */
+    private final AtomicBoolean claimed = new AtomicBoolean(false);
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    PartCopier(Path source, long lowPosition, long length, Path part, short replication, long blockSize) {
+      this.source = source;
+      this.lowPosition = lowPosition;
+      this.length = length;
+      this.part = part;
+      this.replication = replication;
+      this.blockSize = blockSize;
+    }
+
+    @Override
+    public Long call() throws IOException {
+      if (!this.claimed.compareAndSet(false, true)) {
+        throw new IOException("Copy of " + this.part + " was cancelled.");
+      }
+      try {
+        return copyPart();
+      } finally {
+        this.terminated.countDown();
+      }
+    }
+
+    /**
+     * Wait until this part is not being copied, and will never be.
+     */
+    void awaitTermination() {
+      if (!this.claimed.compareAndSet(false, true)) {
+        Uninterruptibles.awaitUninterruptibly(this.terminated);
+      }
+    }
+
+    private long copyPart() throws IOException {
+      CRC32 sourceChecksum = new CRC32();
+      long numBytes;
+      try (FSDataInputStream fsDataInputStream = MultiPartFileCopier.this.sourceFs.open(this.source)) {
+        fsDataInputStream.seek(this.lowPosition);
+        InputStream is = new CheckedInputStream(ByteStreams.limit(
+            MultiPartFileCopier.this.sourceStreamDecorator.apply(fsDataInputStream), this.length), sourceChecksum);
+        try (OutputStream os = MultiPartFileCopier.this.targetFs.create(this.part, true,
+            MultiPartFileCopier.this.bufferSize, this.replication, this.blockSize)) {
+          StreamCopier copier = new StreamCopier(is, os).withBufferSize(MultiPartFileCopier.this.bufferSize);
+          if (MultiPartFileCopier.this.copySpeedMeter != null) {
+            copier.withCopySpeedMeter(MultiPartFileCopier.this.copySpeedMeter);
+          }
+          numBytes = copier.copy();
+        }
+      }
+
+      if (numBytes != this.length) {
+        throw new IOException(String.format("Incomplete write of %s: expected %d, wrote %d bytes.", this.part,
+            this.length, numBytes));
+      }
+      if (MultiPartFileCopier.this.verifyChecksums) {
+        verifyChecksum(sourceChecksum.getValue());
+      }
+      return numBytes;
+    }
+
+    private void verifyChecksum(long expected) throws IOException {
+      CRC32 targetChecksum = new CRC32();
+      try (InputStream is = new CheckedInputStream(
+          MultiPartFileCopier.this.targetFs.open(this.part, MultiPartFileCopier.this.bufferSize), targetChecksum)) {
+        ByteStreams.exhaust(is);
+      }
+      if (targetChecksum.getValue() != expected) {
+        throw new IOException(String.format("Checksum mismatch for part %s of %s: source %d, target %d.", this.part,
+            this.source, expected, targetChecksum.getValue()));
+      }
+    }
+  }
+}
@@ -43,6 +43,7 @@ import org.apache.gobblin.data.management.partition.FileSet;
 import org.apache.gobblin.dataset.Dataset;
 import org.apache.gobblin.dataset.IterableDatasetFinder;
 import org.apache.gobblin.source.workunit.WorkUnit;
+import org.apache.gobblin.source.workunit.WorkUnitStream;
 import org.apache.gobblin.util.JobLauncherUtils;
 
 
@@ -136,6 +137,93 @@ public class CopySourcePrioritizationTest {
     Assert.assertTrue(paths.contains("d1.fs1.f2"));
   }
 
+  @Test
+  public void testWorkUnitStream() throws Exception {
+    SourceState state = new SourceState();
+
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_FS_URI, "file:///");
+    state.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, "file:///");
+    state.setProp(ConfigurationKeys.DATA_PUBLISHER_FINAL_DIR, "/target/dir");
+    state.setProp(DatasetUtils.DATASET_PROFILE_CLASS_KEY,
+        MyFinder.class.getName());
+    state.setProp(CopySource.WORK_UNIT_STREAM_ENABLED, true);
+    state.setProp(CopySource.WORK_UNIT_STREAM_WINDOW_SIZE, 1);
+
+    CopySource source = new CopySource();
+
+    WorkUnitStream workUnitStream = source.getWorkunitStream(state);
+    Assert.assertTrue(workUnitStream.isFiniteStream());
+    Assert.assertFalse(workUnitStream.isSafeToMaterialize());
+
+    List<WorkUnit> workunits = JobLauncherUtils.flattenWorkUnits(Lists.newArrayList(workUnitStream.getWorkUnits()));
+
+    Assert.assertEquals(workunits.size(), MyFinder.DATASETS * MyDataset.FILE_SETS * MyFileSet.FILES);
+  }
+
+  @Test
+  public void testAbandonedWorkUnitStream() throws Exception {
+    SourceState state = new SourceState();
+
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_FS_URI, "file:///");
+    state.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, "file:///");
+    state.setProp(ConfigurationKeys.DATA_PUBLISHER_FINAL_DIR, "/target/dir");
+    state.setProp(DatasetUtils.DATASET_PROFILE_CLASS_KEY,
+        MyFinder.class.getName());
+    state.setProp(CopySource.WORK_UNIT_STREAM_ENABLED, true);
+    state.setProp(CopySource.WORK_UNIT_STREAM_WINDOW_SIZE, 1);
+    state.setProp(CopySource.WORK_UNIT_STREAM_BUFFERED_WINDOWS, 1);
+
+    CopySource source = new CopySource();
+
+    Iterator<WorkUnit> workUnits = source.getWorkunitStream(state).getWorkUnits();
+    Assert.assertNotNull(workUnits.next());
+
+    // The producer is blocked on the full queue until the source is shut down
+    source.shutdown(state);
+    Assert.assertFalse(workUnits.hasNext());
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().startsWith("Copy-work-unit-stream")) {
+        thread.join(10000);
+        Assert.assertFalse(thread.isAlive());
+      }
+    }
+  }
+
+  // Prioritization applies within a window of datasets, so with a single window the result matches getWorkunits
+  @Test
+  public void testWorkUnitStreamPrioritization() throws Exception {
+    SourceState state = new SourceState();
+
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_FS_URI, "file:///");
+    state.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, "file:///");
+    state.setProp(ConfigurationKeys.DATA_PUBLISHER_FINAL_DIR, "/target/dir");
+    state.setProp(DatasetUtils.DATASET_PROFILE_CLASS_KEY,
+        MyFinder.class.getName());
+    state.setProp(CopyConfiguration.PRIORITIZER_ALIAS_KEY, MyPrioritizer.class.getName());
+    state.setProp(CopyConfiguration.MAX_COPY_PREFIX + "." + CopyResourcePool.ENTITIES_KEY, 8);
+    state.setProp(CopyConfiguration.MAX_COPY_PREFIX + "." + CopyResourcePool.TOLERANCE_KEY, 1);
+    state.setProp(CopySource.WORK_UNIT_STREAM_ENABLED, true);
+    state.setProp(CopySource.WORK_UNIT_STREAM_WINDOW_SIZE, MyFinder.DATASETS);
+
+    CopySource source = new CopySource();
+
+    List<WorkUnit> workunits =
+        JobLauncherUtils.flattenWorkUnits(Lists.newArrayList(source.getWorkunitStream(state).getWorkUnits()));
+
+    Assert.assertEquals(workunits.size(), 8);
+
+    List<String> paths = extractPaths(workunits);
+
+    Assert.assertTrue(paths.contains("d0.fs0.f1"));
+    Assert.assertTrue(paths.contains("d0.fs0.f2"));
+    Assert.assertTrue(paths.contains("d0.fs1.f1"));
+    Assert.assertTrue(paths.contains("d0.fs1.f2"));
+    Assert.assertTrue(paths.contains("d1.fs0.f1"));
+    Assert.assertTrue(paths.contains("d1.fs0.f2"));
+    Assert.assertTrue(paths.contains("d1.fs1.f1"));
+    Assert.assertTrue(paths.contains("d1.fs1.f2"));
+  }
+
   private List<String> extractPaths(List<WorkUnit> workUnits) {
     List<String> paths = Lists.newArrayList();
     for (WorkUnit wu : workUnits) {
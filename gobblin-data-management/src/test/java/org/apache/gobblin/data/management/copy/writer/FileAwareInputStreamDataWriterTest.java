@@ -137,6 +137,41 @@ public class FileAwareInputStreamDataWriterTest {
     Assert.assertEquals(IOUtils.toString(new FileInputStream(writtenFilePath.toString())), streamString2);
   }
 
+  @Test
+  public void testWriteWithBufferedNioCopy() throws Exception {
+    String streamString = RandomStringUtils.randomAlphanumeric(1000);
+    Path sourcePath = new Path(testTempPath, "bufferedNioCopySource");
+    Files.write(streamString.getBytes(StandardCharsets.UTF_8), new File(sourcePath.toString()));
+
+    FileStatus status = fs.getFileStatus(testTempPath);
+    OwnerAndPermission ownerAndPermission = new OwnerAndPermission(status.getOwner(), status.getGroup(),
+        new FsPermission(FsAction.ALL, FsAction.ALL, FsAction.ALL));
+    CopyableFile cf = CopyableFileUtils.getTestCopyableFile((long) streamString.length(), ownerAndPermission);
+    CopyableDatasetMetadata metadata = new CopyableDatasetMetadata(new TestCopyableDataset(new Path("/source")));
+    WorkUnitState state = TestUtils.createTestWorkUnitState();
+    state.setProp(ConfigurationKeys.WRITER_STAGING_DIR, new Path(testTempPath, "staging").toString());
+    state.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, new Path(testTempPath, "output").toString());
+    state.setProp(ConfigurationKeys.WRITER_FILE_PATH, RandomStringUtils.randomAlphabetic(5));
+    state.setProp(FileAwareInputStreamDataWriter.GOBBLIN_COPY_BUFFERED_NIO_COPY_ENABLED, true);
+    // Copy in several buffers
+    state.setProp(CopyConfiguration.BUFFER_SIZE, 64);
+    CopySource.serializeCopyEntity(state, cf);
+    CopySource.serializeCopyableDataset(state, metadata);
+    FileAwareInputStreamDataWriter dataWriter = new FileAwareInputStreamDataWriter(state, 1, 0);
+
+    // The source is read directly into the copy buffer through the descriptor of the raw local file
+    FSDataInputStream inputStream = fs.getRawFileSystem().open(sourcePath);
+    Assert.assertNotNull(inputStream.getFileDescriptor());
+    FileAwareInputStream fileAwareInputStream =
+        FileAwareInputStream.builder().file(cf).inputStream(inputStream).build();
+    dataWriter.write(fileAwareInputStream);
+    dataWriter.commit();
+    Path writtenFilePath = new Path(new Path(state.getProp(ConfigurationKeys.WRITER_OUTPUT_DIR),
+        cf.getDatasetAndPartition(metadata).identifier()), cf.getDestination());
+    Assert.assertEquals(IOUtils.toString(new FileInputStream(writtenFilePath.toString())), streamString);
+    Assert.assertEquals(dataWriter.bytesWritten(), streamString.length());
+  }
+
   @Test
   public void testBlockWrite() throws Exception {
     String streamString = "testContents";
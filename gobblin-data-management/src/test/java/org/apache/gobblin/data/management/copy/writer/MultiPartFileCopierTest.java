@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.data.management.copy.writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.io.FileWriteMode;
+import com.google.common.io.Files;
+
+
+public class MultiPartFileCopierTest {
+
+  private static final long BLOCK_SIZE = 1024;
+
+  private File tmpDir;
+  private FileSystem fs;
+  private ExecutorService executor;
+  private Path source;
+  private byte[] content;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    this.tmpDir = Files.createTempDir();
+    this.fs = FileSystem.getLocal(new Configuration());
+    this.executor = Executors.newFixedThreadPool(3);
+    this.content = new byte[(int) (BLOCK_SIZE * 10 + 100)];
+    new Random().nextBytes(this.content);
+    File sourceFile = new File(this.tmpDir, "source");
+    Files.write(this.content, sourceFile);
+    this.source = new Path(sourceFile.getAbsolutePath());
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    this.executor.shutdownNow();
+    FileUtils.deleteDirectory(this.tmpDir);
+  }
+
+  @Test
+  public void testCopyInParts() throws IOException {
+    // Part size is rounded down to 3 blocks, so the file is copied in 4 parts
+    MultiPartFileCopier copier = new MultiPartFileCopier(this.fs, this.fs, this.executor, BLOCK_SIZE * 3 + 10, 100,
+        true, Function.<InputStream>identity(), null);
+    Assert.assertEquals(copier.getAlignedPartSize(BLOCK_SIZE), BLOCK_SIZE * 3);
+
+    Path target = new Path(new Path(this.tmpDir.getAbsolutePath(), "target"), "file");
+    this.fs.mkdirs(target.getParent());
+    long numBytes = copier.copy(this.source, this.content.length, target, (short) 1, BLOCK_SIZE);
+
+    Assert.assertEquals(numBytes, this.content.length);
+    Assert.assertEquals(Files.toByteArray(new File(target.toUri().getPath())), this.content);
+    // Only the merged file is left in the target directory
+    Assert.assertEquals(this.fs.listStatus(target.getParent(), p -> !p.getName().endsWith(".crc")).length, 1);
+  }
+
+  @Test
+  public void testConcat() throws IOException {
+    ConcatLocalFileSystem concatFs = new ConcatLocalFileSystem();
+    concatFs.initialize(this.fs.getUri(), new Configuration());
+    MultiPartFileCopier copier = new MultiPartFileCopier(this.fs, concatFs, this.executor, BLOCK_SIZE * 3, 100,
+        true, Function.<InputStream>identity(), null);
+
+    Path target = new Path(new Path(this.tmpDir.getAbsolutePath(), "concatTarget"), "file");
+    this.fs.mkdirs(target.getParent());
+    long numBytes = copier.copy(this.source, this.content.length, target, (short) 1, BLOCK_SIZE);
+
+    Assert.assertEquals(numBytes, this.content.length);
+    Assert.assertEquals(concatFs.concatCalls, 1);
+    Assert.assertEquals(Files.toByteArray(new File(target.toUri().getPath())), this.content);
+    Assert.assertEquals(this.fs.listStatus(target.getParent(), p -> !p.getName().endsWith(".crc")).length, 1);
+  }
+
+  @Test
+  public void testOverwriteExistingTarget() throws IOException {
+    ConcatLocalFileSystem concatFs = new ConcatLocalFileSystem();
+    concatFs.initialize(this.fs.getUri(), new Configuration());
+    MultiPartFileCopier copier = new MultiPartFileCopier(this.fs, concatFs, this.executor, BLOCK_SIZE * 3, 100,
+        true, Function.<InputStream>identity(), null);
+
+    // The target was written by an earlier attempt of the task
+    Path target = new Path(new Path(this.tmpDir.getAbsolutePath(), "existingTarget"), "file");
+    Files.createParentDirs(new File(target.toUri().getPath()));
+    Files.write(new byte[] {1, 2, 3}, new File(target.toUri().getPath()));
+    long numBytes = copier.copy(this.source, this.content.length, target, (short) 1, BLOCK_SIZE);
+
+    Assert.assertEquals(numBytes, this.content.length);
+    Assert.assertEquals(Files.toByteArray(new File(target.toUri().getPath())), this.content);
+  }
+
+  @Test
+  public void testFailedPartIsCleanedUp() throws IOException {
+    Path target = new Path(new Path(this.tmpDir.getAbsolutePath(), "failedTarget"), "file");
+    this.fs.mkdirs(target.getParent());
+    int numParts = (int) (this.content.length / BLOCK_SIZE) + 1;
+
+    // The last part only fails once all the other parts are written
+    Function<InputStream, InputStream> failingDecorator = is -> {
+      if (getPosition(is) < (numParts - 1) * BLOCK_SIZE) {
+        return is;
+      }
+      long deadline = System.currentTimeMillis() + 10000;
+      while (countWrittenParts(target) < numParts - 1 && System.currentTimeMillis() < deadline) {
+        sleep(10);
+      }
+      throw new RuntimeException("Failed to open part");
+    };
+    MultiPartFileCopier copier =
+        new MultiPartFileCopier(this.fs, this.fs, this.executor, BLOCK_SIZE, 100, true, failingDecorator, null);
+
+    try {
+      copier.copy(this.source, this.content.length, target, (short) 1, BLOCK_SIZE);
+      Assert.fail();
+    } catch (IOException ioe) {
+      Assert.assertEquals(ioe.getCause().getMessage(), "Failed to open part");
+    }
+    Assert.assertEquals(this.fs.listStatus(target.getParent()).length, 0);
+  }
+
+  @Test
+  public void testFirstFailureCancelsOtherParts() throws IOException {
+    Path target = new Path(new Path(this.tmpDir.getAbsolutePath(), "cancelledTarget"), "file");
+    this.fs.mkdirs(target.getParent());
+
+    // The first part blocks until it is cancelled, the second one fails
+    Function<InputStream, InputStream> decorator = is -> {
+      long position = getPosition(is);
+      if (position == 0) {
+        sleep(30000);
+        throw new RuntimeException("Not cancelled");
+      }
+      if (position == BLOCK_SIZE) {
+        throw new RuntimeException("Failed to open part");
+      }
+      return is;
+    };
+    MultiPartFileCopier copier =
+        new MultiPartFileCopier(this.fs, this.fs, this.executor, BLOCK_SIZE, 100, true, decorator, null);
+
+    long startTime = System.currentTimeMillis();
+    try {
+      copier.copy(this.source, this.content.length, target, (short) 1, BLOCK_SIZE);
+      Assert.fail();
+    } catch (IOException ioe) {
+      Assert.assertEquals(ioe.getCause().getMessage(), "Failed to open part");
+    }
+    Assert.assertTrue(System.currentTimeMillis() - startTime < 10000);
+    Assert.assertEquals(this.fs.listStatus(target.getParent()).length, 0);
+  }
+
+  private static long getPosition(InputStream is) {
+    try {
+      return ((FSDataInputStream) is).getPos();
+    } catch (IOException ioe) {
+      throw new RuntimeException(ioe);
+    }
+  }
+
+  private int countWrittenParts(Path target) {
+    try {
+      int written = 0;
+      for (FileStatus status : this.fs.listStatus(target.getParent())) {
+        if (status.getPath().getName().contains("__PPART") && !status.getPath().getName().endsWith(".crc")
+            && status.getLen() == BLOCK_SIZE) {
+          written++;
+        }
+      }
+      return written;
+    } catch (IOException ioe) {
+      throw new RuntimeException(ioe);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ie) {
+      throw new RuntimeException(ie);
+    }
+  }
+
+  /**
+   * A {@link LocalFileSystem} with an "hdfs" scheme, which concatenates files by appending them.
+   */
+  private static class ConcatLocalFileSystem extends LocalFileSystem {
+    private int concatCalls = 0;
+
+    @Override
+    public URI getUri() {
+      return URI.create("hdfs:///");
+    }
+
+    /**
+     * Like HDFS, do not rename onto an existing file.
+     */
+    @Override
+    public boolean rename(Path src, Path dst) throws IOException {
+      return !exists(dst) && super.rename(src, dst);
+    }
+
+    @Override
+    public void concat(Path trg, Path[] psrcs) throws IOException {
+      this.concatCalls++;
+      File target = new File(trg.toUri().getPath());
+      for (Path src : psrcs) {
+        Files.asByteSink(target, FileWriteMode.APPEND).write(Files.toByteArray(new File(src.toUri().getPath())));
+        delete(src, false);
+      }
+    }
+  }
+}
@@ -18,10 +18,16 @@
 package org.apache.gobblin.hive.metastore;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 
 import org.apache.avro.Schema;
@@ -29,6 +35,7 @@ import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
@@ -46,6 +53,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.SettableFuture;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -85,6 +93,11 @@ import org.apache.gobblin.util.AvroUtils;
  *   thread pool whose size is controlled by {@link HiveRegProps#HIVE_REGISTER_THREADS}.
  * </p>
  *
+ * <p>
+ *   If {@link #BATCH_PARTITION_REGISTRATION_ENABLED} is set, partitions being registered concurrently in the same
+ *   table are grouped and registered with bulk metastore calls, see {@link #registerPartitionInBatch}.
+ * </p>
+ *
  * @author Ziyang Liu
  */
 @Slf4j
@@ -119,6 +132,24 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
    * We make this optimization configurable by setting {@link #OPTIMIZED_CHECK_ENABLED} to be true.
    */
   public static final String OPTIMIZED_CHECK_ENABLED = "hiveRegister.cacheDbTableExistence";
+  /**
+   * When enabled, the partitions of the same table are registered in batches: a single
+   * {@link IMetaStoreClient#getPartitionsByNames} call fetches the existing partitions of a batch, then the missing
+   * ones are added with a single {@link IMetaStoreClient#add_partitions} call and the changed ones are altered with a
+   * single {@link IMetaStoreClient#alter_partitions} call. Batches of different tables are registered in parallel.
+   */
+  public static final String BATCH_PARTITION_REGISTRATION_ENABLED =
+      HIVE_REGISTER_METRICS_PREFIX + "batchPartitionRegistration.enabled";
+  public static final String BATCH_PARTITION_REGISTRATION_MAX_SIZE =
+      HIVE_REGISTER_METRICS_PREFIX + "batchPartitionRegistration.maxSize";
+  public static final int DEFAULT_BATCH_PARTITION_REGISTRATION_MAX_SIZE = 500;
+  // Max number of partitions whose registered descriptor is cached to skip no-op alters, in batch registration mode
+  public static final String PARTITION_CACHE_MAX_SIZE = HIVE_REGISTER_METRICS_PREFIX + "partitionCache.maxSize";
+  public static final long DEFAULT_PARTITION_CACHE_MAX_SIZE = 10000;
+  public static final String GET_HIVE_PARTITIONS = HIVE_REGISTER_METRICS_PREFIX + "getPartitionsTimer";
+  public static final String ADD_PARTITIONS_TIMER = HIVE_REGISTER_METRICS_PREFIX + "addPartitionsTimer";
+  public static final String ALTER_PARTITIONS = HIVE_REGISTER_METRICS_PREFIX + "alterPartitionsTimer";
+  public static final String PARTITION_CACHE_HITS = HIVE_REGISTER_METRICS_PREFIX + "partitionCacheHits";
 
   private final HiveMetastoreClientPool clientPool;
   private final HiveLock locks;
@@ -152,6 +183,19 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
   //for a partition is immutable
   private final boolean skipDiffComputation;
 
+  private final boolean batchPartitionRegistration;
+  private final int batchPartitionRegistrationMaxSize;
+  /**
+   * Partitions of each table waiting to be registered in batch, keyed by <databaseName>:<tableName>.
+   */
+  private final ConcurrentMap<String, PartitionBatcher> partitionBatchers = new ConcurrentHashMap<>();
+  /**
+   * The last descriptor registered or found for each partition in batch registration mode, keyed by
+   * <databaseName>:<tableName>:<partitionValues>. A partition whose descriptor does not differ from the cached one
+   * is not sent to the metastore.
+   */
+  private final Cache<String, HivePartition> registeredPartitionCache;
+
   @VisibleForTesting
   protected Optional<KafkaSchemaRegistry> schemaRegistry = Optional.absent();
   private String topicName = "";
@@ -164,6 +208,11 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
     this.skipDiffComputation = state.getPropAsBoolean(SKIP_PARTITION_DIFF_COMPUTATION, false);
     this.shouldUpdateLatestSchema = state.getPropAsBoolean(FETCH_LATEST_SCHEMA, false);
     this.registerPartitionWithPullMode = state.getPropAsBoolean(REGISTER_PARTITION_WITH_PULL_MODE, false);
+    this.batchPartitionRegistration = state.getPropAsBoolean(BATCH_PARTITION_REGISTRATION_ENABLED, false);
+    this.batchPartitionRegistrationMaxSize =
+        state.getPropAsInt(BATCH_PARTITION_REGISTRATION_MAX_SIZE, DEFAULT_BATCH_PARTITION_REGISTRATION_MAX_SIZE);
+    this.registeredPartitionCache = CacheBuilder.newBuilder()
+        .maximumSize(state.getPropAsLong(PARTITION_CACHE_MAX_SIZE, DEFAULT_PARTITION_CACHE_MAX_SIZE)).build();
     if(this.shouldUpdateLatestSchema) {
       this.schemaRegistry = Optional.of(KafkaSchemaRegistry.get(state.getProperties()));
       topicName = state.getProp(KafkaSource.TOPIC_NAME);
@@ -200,7 +249,11 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
 
       Optional<HivePartition> partition = spec.getPartition();
       if (partition.isPresent()) {
-        addOrAlterPartition(client.get(), table, partition.get());
+        if (this.batchPartitionRegistration) {
+          registerPartitionInBatch(client.get(), table, partition.get());
+        } else {
+          addOrAlterPartition(client.get(), table, partition.get());
+        }
       }
       HiveMetaStoreEventHelper.submitSuccessfulPathRegistration(eventSubmitter, spec);
     } catch (TException e) {
@@ -529,6 +582,8 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
         try (Timer.Context context = this.metricContext.timer(DROP_TABLE).time()) {
           client.get().dropTable(dbName, tableName, false, false);
         }
+        String cacheKeyPrefix = getPartitionCacheKeyPrefix(dbName, tableName);
+        this.registeredPartitionCache.asMap().keySet().removeIf(key -> key.startsWith(cacheKeyPrefix));
         String metastoreURI = this.clientPool.getHiveConf().get(HiveMetaStoreClientFactory.HIVE_METASTORE_TOKEN_SIGNATURE, "null");
         HiveMetaStoreEventHelper.submitSuccessfulTableDrop(eventSubmitter, dbName, tableName, metastoreURI);
         log.info("Dropped table " + tableName + " in db " + dbName);
@@ -550,6 +605,7 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
       try (Timer.Context context = this.metricContext.timer(DROP_TABLE).time()) {
         client.get().dropPartition(dbName, tableName, partitionValues, false);
       }
+      this.registeredPartitionCache.invalidate(getPartitionCacheKey(dbName, tableName, partitionValues));
       String metastoreURI = this.clientPool.getHiveConf().get(HiveMetaStoreClientFactory.HIVE_METASTORE_TOKEN_SIGNATURE, "null");
       HiveMetaStoreEventHelper.submitSuccessfulPartitionDrop(eventSubmitter, dbName, tableName, partitionValues, metastoreURI);
       log.info("Dropped partition " + partitionValues + " in table " + tableName + " in db " + dbName);
@@ -652,6 +708,204 @@ public class HiveMetaStoreBasedRegister extends HiveRegister {
     }
   }
 
+  /**
+   * Register a partition along with the other partitions of the same table being registered concurrently.
+   *
+   * <p>
+   *   The partition is queued for its table. If no batch of the table is being registered, the calling thread
+   *   registers the queued partitions of the table in batches, using its own client, until the queue is empty.
+   *   Otherwise the partition will be registered in the next batch by the thread already registering the table.
+   *   In both cases, this method returns once the partition is registered.
+   * </p>
+   */
+  private void registerPartitionInBatch(IMetaStoreClient client, Table table, HivePartition partition)
+      throws TException, IOException {
+    PendingPartition pendingPartition = new PendingPartition(table, partition);
+    PartitionBatcher batcher = this.partitionBatchers.computeIfAbsent(table.getDbName() + ":" + table.getTableName(),
+        key -> new PartitionBatcher());
+    if (batcher.enqueue(pendingPartition)) {
+      batcher.registerAll(client);
+    }
+
+    try {
+      pendingPartition.future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while registering partition " + partition.getValues(), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof TException) {
+        throw (TException) e.getCause();
+      }
+      throw new IOException("Failed to register partition " + partition.getValues(), e.getCause());
+    }
+  }
+
+  /**
+   * Register a batch of partitions of a single table with bulk metastore calls.
+   */
+  @VisibleForTesting
+  void registerPartitions(IMetaStoreClient client, List<PendingPartition> batch) throws TException, IOException {
+    Table table = batch.get(0).table;
+    String dbName = table.getDbName();
+    String tableName = table.getTableName();
+
+    // Partitions to register by values, skipping those whose descriptor is known to be registered already
+    Map<List<String>, PendingPartition> toRegister = new LinkedHashMap<>();
+    for (PendingPartition pendingPartition : batch) {
+      HivePartition registeredPartition = this.registeredPartitionCache.getIfPresent(pendingPartition.cacheKey);
+      if (registeredPartition != null
+          && (this.skipDiffComputation || !needToUpdatePartition(registeredPartition, pendingPartition.partition))) {
+        this.metricContext.counter(PARTITION_CACHE_HITS).inc();
+        continue;
+      }
+      toRegister.put(pendingPartition.nativePartition.getValues(), pendingPartition);
+    }
+    if (toRegister.isEmpty()) {
+      return;
+    }
+
+    try (AutoCloseableHiveLock lock = this.locks.getTableLock(dbName, tableName)) {
+      List<String> partitionNames = new ArrayList<>(toRegister.size());
+      for (List<String> values : toRegister.keySet()) {
+        partitionNames.add(Warehouse.makePartName(table.getPartitionKeys(), values));
+      }
+      List<Partition> existingPartitions;
+      try (Timer.Context context = this.metricContext.timer(GET_HIVE_PARTITIONS).time()) {
+        existingPartitions = client.getPartitionsByNames(dbName, tableName, partitionNames);
+      }
+
+      List<Partition> partitionsToAlter = new ArrayList<>();
+      List<PendingPartition> pendingPartitionsToAlter = new ArrayList<>();
+      for (Partition existingPartition : existingPartitions) {
+        PendingPartition pendingPartition = toRegister.remove(existingPartition.getValues());
+        if (pendingPartition == null) {
+          continue;
+        }
+        HivePartition existingHivePartition = HiveMetaStoreUtils.getHivePartition(existingPartition);
+        if (!this.skipDiffComputation && needToUpdatePartition(existingHivePartition, pendingPartition.partition)) {
+          partitionsToAlter.add(getPartitionWithCreateTime(pendingPartition.nativePartition, existingHivePartition));
+          pendingPartitionsToAlter.add(pendingPartition);
+        } else {
+          this.registeredPartitionCache.put(pendingPartition.cacheKey, existingHivePartition);
+        }
+      }
+
+      if (!toRegister.isEmpty()) {
+        List<Partition> partitionsToAdd = new ArrayList<>(toRegister.size());
+        for (PendingPartition pendingPartition : toRegister.values()) {
+          partitionsToAdd.add(getPartitionWithCreateTimeNow(pendingPartition.nativePartition));
+        }
+        List<Partition> addedPartitions;
+        try (Timer.Context context = this.metricContext.timer(ADD_PARTITIONS_TIMER).time()) {
+          // Partitions added since they were fetched, e.g. by another job, are left as they are
+          addedPartitions = client.add_partitions(partitionsToAdd, true, true);
+        }
+        // Only cache the partitions actually added, the skipped ones may differ from the pending ones
+        if (addedPartitions != null) {
+          for (Partition addedPartition : addedPartitions) {
+            PendingPartition pendingPartition = toRegister.get(addedPartition.getValues());
+            if (pendingPartition != null) {
+              this.registeredPartitionCache.put(pendingPartition.cacheKey, pendingPartition.partition);
+            }
+          }
+        }
+        log.info(String.format("Added %d partitions to table %s in db %s", partitionsToAdd.size(), tableName, dbName));
+      }
+
+      if (!partitionsToAlter.isEmpty()) {
+        try (Timer.Context context = this.metricContext.timer(ALTER_PARTITIONS).time()) {
+          client.alter_partitions(dbName, tableName, partitionsToAlter);
+        }
+        for (PendingPartition pendingPartition : pendingPartitionsToAlter) {
+          this.registeredPartitionCache.put(pendingPartition.cacheKey, pendingPartition.partition);
+        }
+        log.info(String.format("Updated %d partitions in table %s in db %s", partitionsToAlter.size(), tableName,
+            dbName));
+      }
+    } catch (TException e) {
+      log.error(String.format("Unable to add or alter %d partitions in table %s in db %s: " + e.getMessage(),
+          batch.size(), tableName, dbName), e);
+      throw e;
+    }
+  }
+
+  /**
+   * A partition waiting to be registered in batch.
+   */
+  @VisibleForTesting
+  static class PendingPartition {
+    private final Table table;
+    private final HivePartition partition;
+    private final Partition nativePartition;
+    private final String cacheKey;
+    private final SettableFuture<Void> future = SettableFuture.create();
+
+    PendingPartition(Table table, HivePartition partition) {
+      this.table = table;
+      this.partition = partition;
+      this.nativePartition = HiveMetaStoreUtils.getPartition(partition);
+      Preconditions.checkArgument(table.getPartitionKeysSize() == this.nativePartition.getValues().size(),
+          String.format("Partition key size is %s but partition value size is %s", table.getPartitionKeysSize(),
+              this.nativePartition.getValues().size()));
+      this.cacheKey = getPartitionCacheKey(table.getDbName(), table.getTableName(), this.nativePartition.getValues());
+    }
+  }
+
+  private static String getPartitionCacheKey(String dbName, String tableName, List<String> partitionValues) {
+    return getPartitionCacheKeyPrefix(dbName, tableName) + partitionValues;
+  }
+
+  private static String getPartitionCacheKeyPrefix(String dbName, String tableName) {
+    return dbName + ":" + tableName + ":";
+  }
+
+  /**
+   * The queue of partitions of a table waiting to be registered in batch.
+   */
+  private class PartitionBatcher {
+    private final Queue<PendingPartition> pendingPartitions = new ArrayDeque<>();
+    private boolean registering = false;
+
+    /**
+     * @return true if the caller should register the queued partitions with {@link #registerAll(IMetaStoreClient)}.
+     */
+    synchronized boolean enqueue(PendingPartition pendingPartition) {
+      this.pendingPartitions.add(pendingPartition);
+      if (this.registering) {
+        return false;
+      }
+      this.registering = true;
+      return true;
+    }
+
+    private synchronized List<PendingPartition> nextBatch() {
+      List<PendingPartition> batch = new ArrayList<>();
+      while (!this.pendingPartitions.isEmpty() && batch.size() < batchPartitionRegistrationMaxSize) {
+        batch.add(this.pendingPartitions.poll());
+      }
+      if (batch.isEmpty()) {
+        this.registering = false;
+      }
+      return batch;
+    }
+
+    void registerAll(IMetaStoreClient client) {
+      List<PendingPartition> batch;
+      while (!(batch = nextBatch()).isEmpty()) {
+        try {
+          registerPartitions(client, batch);
+          for (PendingPartition pendingPartition : batch) {
+            pendingPartition.future.set(null);
+          }
+        } catch (Throwable t) {
+          for (PendingPartition pendingPartition : batch) {
+            pendingPartition.future.setException(t);
+          }
+        }
+      }
+    }
+  }
+
   private void onPartitionExist(IMetaStoreClient client, Table table, HivePartition partition, Partition nativePartition, Partition existedPartition) throws TException {
     HivePartition existingPartition;
     if(existedPartition == null) {
@@ -47,6 +47,22 @@ public interface MetadataWriter extends Closeable {
    */
   void flush(String dbName, String tableName) throws IOException;
 
+  /**
+   * Register the metadata of specific table in the middle of a flush interval, e.g. because the operation type of the
+   * table changes. Unlike {@link #flush(String, String)}, the registration may only be staged in memory, as long as
+   * the metadata of later operations is registered after it and the next {@link #flush(String, String)} registers all
+   * of it. By default, this is the same as {@link #flush(String, String)}.
+   *
+   * @param dbName The db name of metadata-registration target.
+   * @param tableName The table name of metadata-registration target.
+   * @return true if the registration was completed as by {@link #flush(String, String)}, false if it is only staged
+   * @throws IOException
+   */
+  default boolean intermediateFlush(String dbName, String tableName) throws IOException {
+    flush(dbName, tableName);
+    return true;
+  }
+
   /**
    * If something wrong happens, we want to clean up in-memory state for the table inside the writer so that we can continue
    * registration for this table without affect correctness
@@ -17,16 +17,27 @@
 package org.apache.gobblin.hive.metastore;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import org.apache.avro.Schema;
 import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.hive.HivePartition;
+import org.apache.gobblin.hive.HiveRegistrationUnit.Column;
 import org.apache.gobblin.hive.HiveTable;
 import org.apache.gobblin.hive.spec.SimpleHiveSpec;
 import org.apache.gobblin.metrics.kafka.KafkaSchemaRegistry;
 import org.apache.gobblin.metrics.kafka.SchemaRegistryException;
 import org.apache.gobblin.util.AvroUtils;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hadoop.hive.ql.io.avro.AvroContainerInputFormat;
 import org.apache.hadoop.hive.ql.io.avro.AvroContainerOutputFormat;
@@ -102,6 +113,119 @@ public class HiveMetaStoreBasedRegisterTest {
 
   }
 
+  @Test
+  public void testRegisterPartitionsInBatch() throws Exception {
+    State state = new State();
+    state.setProp(HiveMetaStoreBasedRegister.BATCH_PARTITION_REGISTRATION_ENABLED, true);
+    HiveMetaStoreBasedRegister register = new HiveMetaStoreBasedRegister(state, Optional.absent());
+    Table table = HiveMetaStoreUtils.getTable(new HiveTable.Builder().withDbName("testdb").withTableName("testtable")
+        .withPartitionKeys(ImmutableList.of(new Column("datepartition", "string", ""))).build());
+    InMemoryPartitions partitions = new InMemoryPartitions();
+    IMetaStoreClient client = partitions.getClient();
+
+    // All partitions are added with a single call
+    register.registerPartitions(client, getPendingPartitions(table, "/data", "2020-01-01", "2020-01-02", "2020-01-03"));
+    Assert.assertEquals(partitions.calls, ImmutableList.of("getPartitionsByNames", "add_partitions"));
+    Assert.assertEquals(partitions.partitions.size(), 3);
+
+    // Partitions already registered are skipped without calling the metastore
+    partitions.calls.clear();
+    register.registerPartitions(client, getPendingPartitions(table, "/data", "2020-01-01", "2020-01-02", "2020-01-03"));
+    Assert.assertTrue(partitions.calls.isEmpty());
+
+    // Changed partitions are altered and new ones added, unchanged ones are left as they are
+    register = new HiveMetaStoreBasedRegister(state, Optional.absent());
+    partitions.calls.clear();
+    List<HiveMetaStoreBasedRegister.PendingPartition> batch = getPendingPartitions(table, "/data", "2020-01-01");
+    batch.addAll(getPendingPartitions(table, "/newData", "2020-01-02", "2020-01-04"));
+    register.registerPartitions(client, batch);
+    Assert.assertEquals(partitions.calls, ImmutableList.of("getPartitionsByNames", "add_partitions",
+        "alter_partitions"));
+    Assert.assertEquals(partitions.partitions.size(), 4);
+    Assert.assertEquals(partitions.partitions.get(ImmutableList.of("2020-01-01")).getSd().getLocation(),
+        "/data/2020-01-01");
+    Assert.assertEquals(partitions.partitions.get(ImmutableList.of("2020-01-02")).getSd().getLocation(),
+        "/newData/2020-01-02");
+  }
+
+  @Test
+  public void testConcurrentlyAddedPartitionsAreNotCached() throws Exception {
+    State state = new State();
+    state.setProp(HiveMetaStoreBasedRegister.BATCH_PARTITION_REGISTRATION_ENABLED, true);
+    HiveMetaStoreBasedRegister register = new HiveMetaStoreBasedRegister(state, Optional.absent());
+    Table table = HiveMetaStoreUtils.getTable(new HiveTable.Builder().withDbName("testdb").withTableName("testtable")
+        .withPartitionKeys(ImmutableList.of(new Column("datepartition", "string", ""))).build());
+    InMemoryPartitions partitions = new InMemoryPartitions();
+    IMetaStoreClient client = partitions.getClient();
+
+    // Another writer adds the partition after it is fetched, so it is skipped by add_partitions
+    register.registerPartitions(client, getPendingPartitions(table, "/other", "2020-01-01"));
+    partitions.hideExistingPartitions = true;
+    partitions.calls.clear();
+    register = new HiveMetaStoreBasedRegister(state, Optional.absent());
+    register.registerPartitions(client, getPendingPartitions(table, "/data", "2020-01-01"));
+    Assert.assertEquals(partitions.calls, ImmutableList.of("getPartitionsByNames", "add_partitions"));
+    Assert.assertEquals(partitions.partitions.get(ImmutableList.of("2020-01-01")).getSd().getLocation(),
+        "/other/2020-01-01");
+
+    // The skipped partition is not cached as registered, so it is altered by the next registration
+    partitions.hideExistingPartitions = false;
+    partitions.calls.clear();
+    register.registerPartitions(client, getPendingPartitions(table, "/data", "2020-01-01"));
+    Assert.assertEquals(partitions.calls, ImmutableList.of("getPartitionsByNames", "alter_partitions"));
+    Assert.assertEquals(partitions.partitions.get(ImmutableList.of("2020-01-01")).getSd().getLocation(),
+        "/data/2020-01-01");
+  }
+
+  private static List<HiveMetaStoreBasedRegister.PendingPartition> getPendingPartitions(Table table, String root,
+      String... values) {
+    List<HiveMetaStoreBasedRegister.PendingPartition> pendingPartitions = new ArrayList<>();
+    for (String value : values) {
+      HivePartition partition = new HivePartition.Builder().withDbName(table.getDbName())
+          .withTableName(table.getTableName()).withPartitionValues(ImmutableList.of(value)).build();
+      partition.setLocation(root + "/" + value);
+      pendingPartitions.add(new HiveMetaStoreBasedRegister.PendingPartition(table, partition));
+    }
+    return pendingPartitions;
+  }
+
+  /**
+   * The partitions of a single table, behind an {@link IMetaStoreClient} which records the calls made to it.
+   */
+  private static class InMemoryPartitions {
+    private final Map<List<String>, Partition> partitions = Maps.newHashMap();
+    private final List<String> calls = Lists.newArrayList();
+    // Simulates partitions added by another writer between the fetch and the add
+    private boolean hideExistingPartitions = false;
+
+    @SuppressWarnings("unchecked")
+    IMetaStoreClient getClient() {
+      return (IMetaStoreClient) Proxy.newProxyInstance(IMetaStoreClient.class.getClassLoader(),
+          new Class<?>[] {IMetaStoreClient.class}, (proxy, method, args) -> {
+            this.calls.add(method.getName());
+            switch (method.getName()) {
+              case "getPartitionsByNames":
+                return this.hideExistingPartitions ? new ArrayList<>() : new ArrayList<>(this.partitions.values());
+              case "add_partitions":
+                List<Partition> added = new ArrayList<>();
+                for (Partition partition : (List<Partition>) args[0]) {
+                  if (this.partitions.putIfAbsent(partition.getValues(), partition.deepCopy()) == null) {
+                    added.add(partition);
+                  }
+                }
+                return (Boolean) args[2] ? added : null;
+              case "alter_partitions":
+                for (Partition partition : (List<Partition>) args[2]) {
+                  this.partitions.put(partition.getValues(), partition.deepCopy());
+                }
+                return null;
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          });
+    }
+  }
+
   public static class MockSchemaRegistry extends KafkaSchemaRegistry<String, Schema> {
     static Schema latestSchema = Schema.create(Schema.Type.STRING);
 
@@ -311,17 +311,7 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
       String tableName = spec.getTable().getTableName();
       String tableString = Joiner.on(TABLE_NAME_DELIMITER).join(dbName, tableName);
       partitionKeysMap.put(tableString, spec.getTable().getPartitionKeys());
-      if (!tableOperationTypeMap.containsKey(tableString)) {
-        tableOperationTypeMap.put(tableString, new TableStatus(gmce.getOperationType(),
-            gmce.getDatasetIdentifier().getNativeName(), watermark.getSource(),
-            ((LongWatermark)watermark.getWatermark()).getValue()-1, ((LongWatermark)watermark.getWatermark()).getValue()));
-      } else if (tableOperationTypeMap.get(tableString).operationType != gmce.getOperationType() && gmce.getOperationType() != OperationType.change_property) {
-        flush(dbName, tableName);
-        tableOperationTypeMap.put(tableString, new TableStatus(gmce.getOperationType(),
-            gmce.getDatasetIdentifier().getNativeName(), watermark.getSource(),
-            ((LongWatermark)watermark.getWatermark()).getValue()-1, ((LongWatermark)watermark.getWatermark()).getValue()));
-      }
-      tableOperationTypeMap.get(tableString).gmceHighWatermark = ((LongWatermark)watermark.getWatermark()).getValue();
+      updateTableStatus(dbName, tableName, gmce, watermark);
 
       List<MetadataWriter> allowedWriters = getAllowedMetadataWriters(gmce, metadataWriters);
       writeWithMetadataWriters(recordEnvelope, allowedWriters, newSpecsMap, oldSpecsMap, spec);
@@ -427,13 +417,40 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
     }
   }
 
+  /**
+   * Track the operation type and the GMCE watermarks of a table, flushing it first if the operation type changes.
+   */
+  @VisibleForTesting
+  void updateTableStatus(String dbName, String tableName, GobblinMetadataChangeEvent gmce,
+      CheckpointableWatermark watermark) throws IOException {
+    String tableString = Joiner.on(TABLE_NAME_DELIMITER).join(dbName, tableName);
+    if (!tableOperationTypeMap.containsKey(tableString)) {
+      tableOperationTypeMap.put(tableString, new TableStatus(gmce.getOperationType(),
+          gmce.getDatasetIdentifier().getNativeName(), watermark.getSource(),
+          ((LongWatermark)watermark.getWatermark()).getValue()-1, ((LongWatermark)watermark.getWatermark()).getValue()));
+    } else if (tableOperationTypeMap.get(tableString).operationType != gmce.getOperationType() && gmce.getOperationType() != OperationType.change_property) {
+      long lowWatermark = ((LongWatermark)watermark.getWatermark()).getValue()-1;
+      // In group-commit mode, the metadata of the previous operations may only be staged by the writers, so a failure
+      // of the next flush must cover their GMCEs as well. Once committed, only the new GMCEs are pending
+      if (flush(dbName, tableName, true)) {
+        lowWatermark = tableOperationTypeMap.get(tableString).gmceLowWatermark;
+      }
+      tableOperationTypeMap.put(tableString, new TableStatus(gmce.getOperationType(),
+          gmce.getDatasetIdentifier().getNativeName(), watermark.getSource(),
+          lowWatermark, ((LongWatermark)watermark.getWatermark()).getValue()));
+    }
+    tableOperationTypeMap.get(tableString).gmceHighWatermark = ((LongWatermark)watermark.getWatermark()).getValue();
+  }
+
   // Add fault tolerant ability and make sure we can emit GTE as desired
-  private void flush(String dbName, String tableName) throws IOException {
+  // Returns whether the table was flushed successfully, but some metadata writers only staged its metadata
+  private boolean flush(String dbName, String tableName, boolean intermediate) throws IOException {
     boolean meetException = false;
+    boolean staged = false;
     String tableString = Joiner.on(TABLE_NAME_DELIMITER).join(dbName, tableName);
     if (tableOperationTypeMap.get(tableString).gmceLowWatermark == tableOperationTypeMap.get(tableString).gmceHighWatermark) {
       // No need to flush
-      return;
+      return false;
     }
     for (MetadataWriter writer : metadataWriters) {
       if(meetException) {
@@ -444,7 +461,11 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
           Timer datasetTimer = datasetTimers.computeIfAbsent(tableName, k -> metricContext.contextAwareTimer(k, 1, TimeUnit.HOURS));
           try (Timer.Context flushContext = flushTimer.time();
               Timer.Context datasetContext = datasetTimer.time()) {
-            writer.flush(dbName, tableName);
+            if (intermediate) {
+              staged |= !writer.intermediateFlush(dbName, tableName);
+            } else {
+              writer.flush(dbName, tableName);
+            }
           }
         } catch (IOException e) {
           if (exceptionMatches(e, transientExceptionMessages)) {
@@ -467,6 +488,7 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
         this.datasetErrorMap.get(datasetPath).remove(tableString);
       }
     }
+    return staged && !meetException;
   }
 
   /**
@@ -495,7 +517,7 @@ public class GobblinMCEWriter implements DataWriter<GenericRecord> {
     log.info(String.format("begin flushing %s records", String.valueOf(recordCount.get())));
     for (String tableString : tableOperationTypeMap.keySet()) {
       List<String> tid = Splitter.on(TABLE_NAME_DELIMITER).splitToList(tableString);
-      flush(tid.get(0), tid.get(1));
+      flush(tid.get(0), tid.get(1), false);
     }
     tableOperationTypeMap.clear();
     recordCount.lazySet(0L);
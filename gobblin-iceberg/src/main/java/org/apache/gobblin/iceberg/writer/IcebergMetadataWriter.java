@@ -113,6 +113,8 @@ import org.apache.gobblin.hive.writer.MetadataWriterKeys;
 import org.apache.gobblin.iceberg.Utils.IcebergUtils;
 import org.apache.gobblin.metadata.GobblinMetadataChangeEvent;
 import org.apache.gobblin.metadata.OperationType;
+import org.apache.gobblin.metrics.ContextAwareHistogram;
+import org.apache.gobblin.metrics.ContextAwareTimer;
 import org.apache.gobblin.metrics.GobblinMetricsRegistry;
 import org.apache.gobblin.metrics.MetricContext;
 import org.apache.gobblin.metrics.Tag;
@@ -162,6 +164,8 @@ public class IcebergMetadataWriter implements MetadataWriter {
   private static final String DEFAULT_CREATION_TIME = "0";
   private static final String SNAPSHOT_EXPIRE_THREADS = "snapshot.expire.threads";
   private static final long DEFAULT_WATERMARK = -1L;
+  public static final String COMMIT_TIMER = "iceberg.commit";
+  public static final String FILES_PER_COMMIT_HISTOGRAM = "iceberg.commit.files";
 
   /* one of the fields in DataFile entry to describe the location URI of a data file with FS Scheme */
   private static final String ICEBERG_FILE_PATH_COLUMN = DataFile.FILE_PATH.name();
@@ -201,6 +205,11 @@ public class IcebergMetadataWriter implements MetadataWriter {
   private final ParallelRunner parallelRunner;
   private FsPermission permission;
   protected State state;
+  private final boolean groupCommitEnabled;
+  private final int groupCommitMaxFiles;
+  private final long groupCommitMaxDelayMillis;
+  private final ContextAwareTimer commitTimer;
+  private final ContextAwareHistogram filesPerCommitHistogram;
 
   public IcebergMetadataWriter(State state) throws IOException {
     this.state = state;
@@ -252,6 +261,12 @@ public class IcebergMetadataWriter implements MetadataWriter {
     this.newPartitionTableWhitelistBlacklist = new WhitelistBlacklist(state.getProp(ICEBERG_NEW_PARTITION_WHITELIST, ""),
         state.getProp(ICEBERG_NEW_PARTITION_BLACKLIST, ""));
     this.auditCheckGranularity = state.getProp(AUDIT_CHECK_GRANULARITY, DEFAULT_AUDIT_CHECK_GRANULARITY);
+    this.groupCommitEnabled = state.getPropAsBoolean(ICEBERG_GROUP_COMMIT_ENABLED, DEFAULT_ICEBERG_GROUP_COMMIT_ENABLED);
+    this.groupCommitMaxFiles = state.getPropAsInt(ICEBERG_GROUP_COMMIT_MAX_FILES, DEFAULT_ICEBERG_GROUP_COMMIT_MAX_FILES);
+    this.groupCommitMaxDelayMillis =
+        state.getPropAsLong(ICEBERG_GROUP_COMMIT_MAX_DELAY_MILLIS, DEFAULT_ICEBERG_GROUP_COMMIT_MAX_DELAY_MILLIS);
+    this.commitTimer = this.metricContext.contextAwareTimer(COMMIT_TIMER, 1, TimeUnit.HOURS);
+    this.filesPerCommitHistogram = this.metricContext.contextAwareHistogram(FILES_PER_COMMIT_HISTOGRAM, 1, TimeUnit.HOURS);
   }
 
   @VisibleForTesting
@@ -577,10 +592,12 @@ public class IcebergMetadataWriter implements MetadataWriter {
       // where the commit will be called at once to save memory footprints.
       AppendFiles appendFiles = tableMetadata.getOrInitAppendFiles();
       newDataFiles.forEach(appendFiles::appendFile);
+      tableMetadata.pendingFileCount += newDataFiles.size();
       return;
     }
 
     tableMetadata.transaction.get().newRewrite().rewriteFiles(oldDataFiles, newDataFiles).commit();
+    tableMetadata.pendingFileCount += oldDataFiles.size() + newDataFiles.size();
   }
 
   /**
@@ -612,6 +629,7 @@ public class IcebergMetadataWriter implements MetadataWriter {
     Set<DataFile> oldDataFiles =
         getIcebergDataFilesToBeDeleted(gmce, table, new HashMap<>(), oldSpecsMap, partitionSpec);
     oldDataFiles.forEach(deleteFiles::deleteFile);
+    tableMetadata.pendingFileCount += oldDataFiles.size();
 
     // Update ExpireSnapshots and commit the updates at once: This is for expiring snapshots that are
     // beyond look-back allowance for time-travel.
@@ -668,6 +686,7 @@ public class IcebergMetadataWriter implements MetadataWriter {
         .forEach(dataFile -> {
           appendFiles.appendFile(dataFile);
           tableMetadata.addedFiles.put(dataFile.path(), "");
+          tableMetadata.pendingFileCount++;
         });
   }
 
@@ -849,12 +868,14 @@ public class IcebergMetadataWriter implements MetadataWriter {
       //Set data offset range
       setDatasetOffsetRange(tableMetadata, props);
       String topicName = getTopicName(tid, tableMetadata);
+      boolean filesAppended = tableMetadata.appendFiles.isPresent() || tableMetadata.appendFilesStaged;
+      boolean filesDeleted = tableMetadata.deleteFiles.isPresent() || tableMetadata.deleteFilesStaged;
       if (tableMetadata.appendFiles.isPresent()) {
         tableMetadata.appendFiles.get().commit();
-        if (tableMetadata.completenessEnabled) {
-          updateWatermarkWithFilesRegistered(topicName, tableMetadata, props,
-              tableMetadata.totalCountCompletenessEnabled);
-        }
+      }
+      if (filesAppended && tableMetadata.completenessEnabled) {
+        updateWatermarkWithFilesRegistered(topicName, tableMetadata, props,
+            tableMetadata.totalCountCompletenessEnabled);
       }
 
       if (tableMetadata.deleteFiles.isPresent()) {
@@ -862,8 +883,7 @@ public class IcebergMetadataWriter implements MetadataWriter {
       }
       // Check and update completion watermark when there are no files to be registered, typically for quiet topics
       // The logic is to check the window [currentHour-1,currentHour] and update the watermark if there are no audit counts
-      if(!tableMetadata.appendFiles.isPresent() && !tableMetadata.deleteFiles.isPresent()
-          && tableMetadata.completenessEnabled) {
+      if(!filesAppended && !filesDeleted && tableMetadata.completenessEnabled) {
         updateWatermarkWithNoFilesRegistered(topicName, tableMetadata, props,
             tableMetadata.totalCountCompletenessEnabled);
       }
@@ -887,10 +907,14 @@ public class IcebergMetadataWriter implements MetadataWriter {
       UpdateProperties updateProperties = transaction.updateProperties();
       props.forEach(updateProperties::set);
       updateProperties.commit();
-      try (AutoCloseableHiveLock lock = this.locks.getTableLock(dbName, tableName);
-          Timer.Context context = new Timer().time()) {
+      try (AutoCloseableHiveLock lock = this.locks.getTableLock(dbName, tableName)) {
+        long startTime = System.nanoTime();
         transaction.commitTransaction();
-        log.info("Committing transaction for table {} took {} ms", tid, TimeUnit.NANOSECONDS.toMillis(context.stop()));
+        long commitNanos = System.nanoTime() - startTime;
+        this.commitTimer.update(commitNanos, TimeUnit.NANOSECONDS);
+        this.filesPerCommitHistogram.update(tableMetadata.pendingFileCount);
+        log.info("Committing transaction with {} files for table {} took {} ms", tableMetadata.pendingFileCount, tid,
+            TimeUnit.NANOSECONDS.toMillis(commitNanos));
         transactionCommitted = true;
       }
 
@@ -911,6 +935,36 @@ public class IcebergMetadataWriter implements MetadataWriter {
     }
   }
 
+  /**
+   * In group-commit mode, the pending file operations of the table are staged in its open {@link Transaction} instead
+   * of committed, so that the next {@link #flush(String, String)} commits the operations of the whole flush interval
+   * at once. The transaction is still committed right away once it holds {@link
+   * IcebergMetadataWriterConfigKeys#ICEBERG_GROUP_COMMIT_MAX_FILES} file operations, or once it has been open for
+   * {@link IcebergMetadataWriterConfigKeys#ICEBERG_GROUP_COMMIT_MAX_DELAY_MILLIS}.
+   */
+  @Override
+  public boolean intermediateFlush(String dbName, String tableName) throws IOException {
+    Lock writeLock = readWriteLock.writeLock();
+    writeLock.lock();
+    try {
+      TableMetadata tableMetadata = tableMetadataMap.get(TableIdentifier.of(dbName, tableName));
+      if (!this.groupCommitEnabled || tableMetadata == null || !tableMetadata.transaction.isPresent()
+          || tableMetadata.pendingFileCount >= this.groupCommitMaxFiles
+          || System.currentTimeMillis() - tableMetadata.transactionStartTime >= this.groupCommitMaxDelayMillis) {
+        flush(dbName, tableName);
+        return true;
+      }
+      tableMetadata.stageFileOperations();
+      log.info("Staged {} file operations for table {}.{} until the next commit", tableMetadata.pendingFileCount,
+          dbName, tableName);
+      return false;
+    } catch (RuntimeException e) {
+      throw new IOException(String.format("Failed to stage file operations of table %s %s", dbName, tableName), e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
   /**
    * PostCommit operation that executes after the transaction is committed to the Iceberg table. Operations in this
    * method are considered non-critical to the transaction and will not cause the transaction to fail if they fail,
@@ -1181,6 +1235,13 @@ public class IcebergMetadataWriter implements MetadataWriter {
     Cache<CharSequence, String> addedFiles;
     long lowestGMCEEmittedTime = Long.MAX_VALUE;
 
+    // Group-commit mode: files are fast-appended, and file operations may be staged in the transaction across flushes
+    boolean fastAppend;
+    boolean appendFilesStaged;
+    boolean deleteFilesStaged;
+    int pendingFileCount;
+    long transactionStartTime;
+
     /**
      * Always use this method to obtain {@link AppendFiles} object within flush interval
      * if clients want to have the {@link AppendFiles} committed along with other updates in a txn.
@@ -1188,7 +1249,8 @@ public class IcebergMetadataWriter implements MetadataWriter {
     AppendFiles getOrInitAppendFiles() {
       ensureTxnInit();
       if (!this.appendFiles.isPresent()) {
-        this.appendFiles = Optional.of(this.transaction.get().newAppend());
+        this.appendFiles = Optional.of(this.fastAppend ? this.transaction.get().newFastAppend()
+            : this.transaction.get().newAppend());
       }
 
       return this.appendFiles.get();
@@ -1209,6 +1271,24 @@ public class IcebergMetadataWriter implements MetadataWriter {
     void ensureTxnInit() {
       if (!this.transaction.isPresent()) {
         this.transaction = Optional.of(table.get().newTransaction());
+        this.transactionStartTime = System.currentTimeMillis();
+      }
+    }
+
+    /**
+     * Stage the pending {@link AppendFiles} and {@link DeleteFiles} in the {@link Transaction} without committing it,
+     * so that later operations of the transaction apply after them.
+     */
+    void stageFileOperations() {
+      if (this.appendFiles.isPresent()) {
+        this.appendFiles.get().commit();
+        this.appendFiles = Optional.absent();
+        this.appendFilesStaged = true;
+      }
+      if (this.deleteFiles.isPresent()) {
+        this.deleteFiles.get().commit();
+        this.deleteFiles = Optional.absent();
+        this.deleteFilesStaged = true;
       }
     }
 
@@ -1218,6 +1298,9 @@ public class IcebergMetadataWriter implements MetadataWriter {
       this.transaction = Optional.absent();
       this.deleteFiles = Optional.absent();
       this.appendFiles = Optional.absent();
+      this.appendFilesStaged = false;
+      this.deleteFilesStaged = false;
+      this.pendingFileCount = 0;
 
       // Clean cache and reset to eagerly release unreferenced objects.
       if (this.candidateSchemas.isPresent()) {
@@ -1235,6 +1318,7 @@ public class IcebergMetadataWriter implements MetadataWriter {
 
     TableMetadata(Configuration conf) {
       this.conf = conf;
+      this.fastAppend = conf.getBoolean(ICEBERG_GROUP_COMMIT_ENABLED, DEFAULT_ICEBERG_GROUP_COMMIT_ENABLED);
       addedFiles = CacheBuilder.newBuilder()
           .expireAfterAccess(this.conf.getInt(ADDED_FILES_CACHE_EXPIRING_TIME, DEFAULT_ADDED_FILES_CACHE_EXPIRING_TIME),
               TimeUnit.HOURS)
@@ -17,6 +17,9 @@
 
 package org.apache.gobblin.iceberg.writer;
 
+import java.util.concurrent.TimeUnit;
+
+
 public class IcebergMetadataWriterConfigKeys {
 
   public static final String ICEBERG_COMPLETENESS_ENABLED = "iceberg.completeness.enabled";
@@ -49,4 +52,13 @@ public class IcebergMetadataWriterConfigKeys {
   public static final String STATE_TOTAL_COUNT_COMPLETION_WATERMARK_KEY_OF_TABLE = "totalCount.completion.watermark.%s";
   public static final String ICEBERG_ENABLE_CUSTOM_METADATA_RETENTION_POLICY = "iceberg.enable.custom.metadata.retention.policy";
   public static final boolean DEFAULT_ICEBERG_ENABLE_CUSTOM_METADATA_RETENTION_POLICY = true;
+  // Keep the transaction of a table open across the flushes caused by operation type changes, and fast-append files
+  public static final String ICEBERG_GROUP_COMMIT_ENABLED = "iceberg.group.commit.enabled";
+  public static final boolean DEFAULT_ICEBERG_GROUP_COMMIT_ENABLED = false;
+  // Commit the open transaction anyway once it holds this many file operations
+  public static final String ICEBERG_GROUP_COMMIT_MAX_FILES = "iceberg.group.commit.max.files";
+  public static final int DEFAULT_ICEBERG_GROUP_COMMIT_MAX_FILES = 10000;
+  // Commit the open transaction anyway once it has been open for this long
+  public static final String ICEBERG_GROUP_COMMIT_MAX_DELAY_MILLIS = "iceberg.group.commit.max.delay.millis";
+  public static final long DEFAULT_ICEBERG_GROUP_COMMIT_MAX_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(10);
 }
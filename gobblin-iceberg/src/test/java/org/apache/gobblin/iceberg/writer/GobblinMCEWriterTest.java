@@ -195,6 +195,36 @@ public class GobblinMCEWriterTest {
         .build()).build()));
   }
 
+  @Test
+  public void testGroupCommitLowWatermark() throws IOException {
+    gobblinMCEWriter.metadataWriters = Arrays.asList(mockWriter);
+    gobblinMCEWriter.tableOperationTypeMap = new HashMap<>();
+    String tableString = dbName + "." + tableName;
+
+    gobblinMCEWriter.updateTableStatus(dbName, tableName, gmceBuilder.build(), watermarkAt(10));
+    gobblinMCEWriter.updateTableStatus(dbName, tableName, gmceBuilder.build(), watermarkAt(11));
+    Assert.assertEquals(gobblinMCEWriter.tableOperationTypeMap.get(tableString).gmceLowWatermark, 9);
+
+    // The writer only stages the add_files operations, so the low watermark still covers their GMCEs
+    when(mockWriter.intermediateFlush(dbName, tableName)).thenReturn(false);
+    gobblinMCEWriter.updateTableStatus(dbName, tableName,
+        gmceBuilder.setOperationType(OperationType.drop_files).build(), watermarkAt(12));
+    Mockito.verify(mockWriter, Mockito.times(1)).intermediateFlush(dbName, tableName);
+    Assert.assertEquals(gobblinMCEWriter.tableOperationTypeMap.get(tableString).operationType,
+        OperationType.drop_files);
+    Assert.assertEquals(gobblinMCEWriter.tableOperationTypeMap.get(tableString).gmceLowWatermark, 9);
+    Assert.assertEquals(gobblinMCEWriter.tableOperationTypeMap.get(tableString).gmceHighWatermark, 12);
+
+    // Once the writer commits, only the GMCEs from the new operation type are pending
+    when(mockWriter.intermediateFlush(dbName, tableName)).thenReturn(true);
+    gobblinMCEWriter.updateTableStatus(dbName, tableName,
+        gmceBuilder.setOperationType(OperationType.add_files).build(), watermarkAt(13));
+    Mockito.verify(mockWriter, Mockito.times(2)).intermediateFlush(dbName, tableName);
+    Assert.assertEquals(gobblinMCEWriter.tableOperationTypeMap.get(tableString).gmceLowWatermark, 12);
+    Assert.assertEquals(gobblinMCEWriter.tableOperationTypeMap.get(tableString).gmceHighWatermark, 13);
+    Mockito.verify(mockWriter, never()).flush(dbName, tableName);
+  }
+
   @Test(dataProvider = "AllowMockMetadataWriter")
   public void testGetAllowedMetadataWriters(List<String> metadataWriters) {
     Assert.assertNotEquals(mockWriter.getClass().getName(), exceptionWriter.getClass().getName());
@@ -247,6 +277,12 @@ public class GobblinMCEWriterTest {
         new ConcurrentHashMap(), new ConcurrentHashMap(), mockHiveSpec);
   }
 
+  private KafkaStreamingExtractor.KafkaWatermark watermarkAt(long offset) {
+    return new KafkaStreamingExtractor.KafkaWatermark(
+        new KafkaPartition.Builder().withTopicName("GobblinMetadataChangeEvent_test").withId(1).build(),
+        new LongWatermark(offset));
+  }
+
   private void addTableStatus(String dbName, String datasetPath) {
     gobblinMCEWriter.tableOperationTypeMap.put(dbName + "." + tableName, new GobblinMCEWriter.TableStatus(
         OperationType.add_files, datasetPath, "GobblinMetadataChangeEvent_test-1", 0, 50));
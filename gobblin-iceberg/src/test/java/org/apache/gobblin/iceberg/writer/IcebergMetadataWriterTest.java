@@ -606,6 +606,70 @@ public class IcebergMetadataWriterTest extends HiveMetastoreTest {
     Assert.assertEquals(spyIcebergMetadataWriter.methodsCalledCounter.get("submitSnapshotCommitEvent"), null);
   }
 
+  @Test(dependsOnMethods={"testKafkaAuditAndGTEEmittedAfterIcebergCommitDuringFlush"},
+      groups={"icebergMetadataWriterTest"})
+  public void testIntermediateFlushWithGroupCommit() throws IOException {
+    State state = getState();
+    state.setProp(ICEBERG_GROUP_COMMIT_ENABLED, true);
+    state.setProp(ICEBERG_GROUP_COMMIT_MAX_FILES, 2);
+    GobblinMCEWriter gobblinMCEWriterWithGroupCommit = new GobblinMCEWriter(new GobblinMCEWriterBuilder(), state);
+    IcebergMetadataWriter icebergMetadataWriter =
+        (IcebergMetadataWriter) gobblinMCEWriterWithGroupCommit.getMetadataWriters().iterator().next();
+    icebergMetadataWriter.setCatalog(HiveMetastoreTest.catalog);
+
+    List<String> groupCommitFiles = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      File hourlyFile = new File(tmpDir, "testDB/testTopic/hourly/2021/09/16/11/groupCommit_" + i + ".avro");
+      groupCommitFiles.add(writeRecord(hourlyFile));
+    }
+    gmce.setOldFilePrefixes(null);
+    gmce.setOperationType(OperationType.add_files);
+    gmce.setTopicPartitionOffsetsRange(null);
+
+    // The first file is only staged in the open transaction
+    writeNewFile(gobblinMCEWriterWithGroupCommit, groupCommitFiles.get(0), 80L);
+    Assert.assertFalse(icebergMetadataWriter.intermediateFlush(dbName, "testTopic"));
+    Table table = catalog.loadTable(catalog.listTables(Namespace.of(dbName)).get(0));
+    Assert.assertFalse(FindFiles.in(table)
+        .withMetadataMatching(Expressions.startsWith("file_path", groupCommitFiles.get(0)))
+        .collect().iterator().hasNext());
+
+    // Reaching the maximum number of staged files commits the transaction with both files
+    writeNewFile(gobblinMCEWriterWithGroupCommit, groupCommitFiles.get(1), 81L);
+    Assert.assertTrue(icebergMetadataWriter.intermediateFlush(dbName, "testTopic"));
+    table = catalog.loadTable(catalog.listTables(Namespace.of(dbName)).get(0));
+    for (String file : groupCommitFiles.subList(0, 2)) {
+      Assert.assertTrue(FindFiles.in(table)
+          .withMetadataMatching(Expressions.startsWith("file_path", file)).collect().iterator().hasNext());
+    }
+    Assert.assertEquals(table.properties().get("gmce.low.watermark.GobblinMetadataChangeEvent_test-1"), "79");
+    Assert.assertEquals(table.properties().get("gmce.high.watermark.GobblinMetadataChangeEvent_test-1"), "81");
+
+    // The next commit only covers the GMCEs since the last one
+    writeNewFile(gobblinMCEWriterWithGroupCommit, groupCommitFiles.get(2), 82L);
+    gobblinMCEWriterWithGroupCommit.flush();
+    table = catalog.loadTable(catalog.listTables(Namespace.of(dbName)).get(0));
+    Assert.assertTrue(FindFiles.in(table)
+        .withMetadataMatching(Expressions.startsWith("file_path", groupCommitFiles.get(2)))
+        .collect().iterator().hasNext());
+    Assert.assertEquals(table.properties().get("gmce.low.watermark.GobblinMetadataChangeEvent_test-1"), "81");
+    Assert.assertEquals(table.properties().get("gmce.high.watermark.GobblinMetadataChangeEvent_test-1"), "82");
+    gobblinMCEWriterWithGroupCommit.close();
+  }
+
+  private void writeNewFile(GobblinMCEWriter writer, String filePath, long offset) throws IOException {
+    gmce.setNewFiles(Lists.newArrayList(DataFile.newBuilder()
+        .setFilePath(filePath)
+        .setFileFormat("avro")
+        .setFileMetrics(DataMetrics.newBuilder().setRecordCount(10L).build())
+        .build()));
+    GenericRecord genericGmce = GenericData.get().deepCopy(gmce.getSchema(), gmce);
+    writer.writeEnvelope(new RecordEnvelope<>(genericGmce,
+        new KafkaStreamingExtractor.KafkaWatermark(
+            new KafkaPartition.Builder().withTopicName("GobblinMetadataChangeEvent_test").withId(1).build(),
+            new LongWatermark(offset))));
+  }
+
   private String writeRecord(File file) throws IOException {
     GenericData.Record record = new GenericData.Record(avroDataSchema);
     record.put("id", 1L);
@@ -53,6 +53,16 @@ public interface DatasetStateStore<T extends State> extends StateStore<T> {
 
   public void persistDatasetState(String datasetUrn, T datasetState) throws IOException;
 
+  /**
+   * Persist the states of many datasets. By default, they are persisted one at a time with
+   * {@link #persistDatasetState(String, State)}.
+   */
+  default void persistDatasetStates(Map<String, T> datasetStatesByUrns) throws IOException {
+    for (Map.Entry<String, T> entry : datasetStatesByUrns.entrySet()) {
+      persistDatasetState(entry.getKey(), entry.getValue());
+    }
+  }
+
   public void persistDatasetURNs(String storeName, Collection<String> datasetUrns) throws IOException;
 
   @Override
@@ -17,7 +17,9 @@
 
 package org.apache.gobblin.metastore;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.Collection;
 import java.util.List;
@@ -31,12 +33,14 @@ import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.compress.DefaultCodec;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.io.Closer;
 
 import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.util.CompactStateFormat;
 import org.apache.gobblin.util.HadoopUtils;
 import org.apache.gobblin.util.WritableShimSerialization;
 import org.apache.gobblin.util.hadoop.GobblinSequenceFileReader;
@@ -58,6 +62,11 @@ import static org.apache.gobblin.util.HadoopUtils.FS_SCHEMES_NON_ATOMIC;
  *     {@link FsStateStore#get(String, String, String)} method may not work.
  * </p>
  *
+ * <p>
+ *     If a {@link CompactStateFormat} is set, tables are written in that format instead. Reads detect the format of
+ *     each table, so stores can be switched between the two formats without migration.
+ * </p>
+ *
  * @param <T> state object type
  *
  * @author Yinan Li
@@ -76,6 +85,9 @@ public class FsStateStore<T extends State> implements StateStore<T> {
   // Class of the state objects to be put into the store
   protected final Class<T> stateClass;
 
+  // Format used to write new tables, or absent to write Hadoop SequenceFiles
+  protected Optional<CompactStateFormat> compactStateFormat = Optional.absent();
+
   public FsStateStore(String fsUri, String storeRootDir, Class<T> stateClass) throws IOException {
     this.conf = getConf(null);
     this.fs = FileSystem.get(URI.create(fsUri), this.conf);
@@ -117,6 +129,24 @@ public class FsStateStore<T extends State> implements StateStore<T> {
     this.stateClass = stateClass;
   }
 
+  /**
+   * Set the {@link CompactStateFormat} used to write tables. Tables are always readable in both formats.
+   */
+  public void setCompactStateFormat(Optional<CompactStateFormat> compactStateFormat) {
+    this.compactStateFormat = compactStateFormat;
+  }
+
+  public FileSystem getFileSystem() {
+    return this.fs;
+  }
+
+  /**
+   * Get the directory of a store, which holds one file per table.
+   */
+  public Path getStorePath(String storeName) {
+    return new Path(this.storeRootDir, storeName);
+  }
+
   @Override
   public boolean create(String storeName) throws IOException {
     Path storePath = new Path(this.storeRootDir, storeName);
@@ -163,10 +193,16 @@ public class FsStateStore<T extends State> implements StateStore<T> {
 
     Closer closer = Closer.create();
     try {
-      @SuppressWarnings("deprecation")
-      SequenceFile.Writer writer = closer.register(SequenceFile.createWriter(this.fs, this.conf, tmpTablePath,
-          Text.class, this.stateClass, SequenceFile.CompressionType.BLOCK, new DefaultCodec()));
-      writer.append(new Text(Strings.nullToEmpty(state.getId())), state);
+      if (this.compactStateFormat.isPresent()) {
+        CompactStateFormat.Writer writer =
+            closer.register(this.compactStateFormat.get().createWriter(this.fs.create(tmpTablePath, true)));
+        writer.append(state.getId(), state);
+      } else {
+        @SuppressWarnings("deprecation")
+        SequenceFile.Writer writer = closer.register(SequenceFile.createWriter(this.fs, this.conf, tmpTablePath,
+            Text.class, this.stateClass, SequenceFile.CompressionType.BLOCK, new DefaultCodec()));
+        writer.append(new Text(Strings.nullToEmpty(state.getId())), state);
+      }
     } catch (Throwable t) {
       throw closer.rethrow(t);
     } finally {
@@ -198,11 +234,19 @@ public class FsStateStore<T extends State> implements StateStore<T> {
 
     Closer closer = Closer.create();
     try {
-      @SuppressWarnings("deprecation")
-      SequenceFile.Writer writer = closer.register(SequenceFile.createWriter(this.fs, this.conf, tmpTablePath,
-          Text.class, this.stateClass, SequenceFile.CompressionType.BLOCK, new DefaultCodec()));
-      for (T state : states) {
-        writer.append(new Text(Strings.nullToEmpty(state.getId())), state);
+      if (this.compactStateFormat.isPresent()) {
+        CompactStateFormat.Writer writer =
+            closer.register(this.compactStateFormat.get().createWriter(this.fs.create(tmpTablePath, true)));
+        for (T state : states) {
+          writer.append(state.getId(), state);
+        }
+      } else {
+        @SuppressWarnings("deprecation")
+        SequenceFile.Writer writer = closer.register(SequenceFile.createWriter(this.fs, this.conf, tmpTablePath,
+            Text.class, this.stateClass, SequenceFile.CompressionType.BLOCK, new DefaultCodec()));
+        for (T state : states) {
+          writer.append(new Text(Strings.nullToEmpty(state.getId())), state);
+        }
       }
     } catch (Throwable t) {
       throw closer.rethrow(t);
@@ -216,6 +260,35 @@ public class FsStateStore<T extends State> implements StateStore<T> {
     }
   }
 
+  /**
+   * Check whether a table file was written in the {@link CompactStateFormat} rather than as a Hadoop SequenceFile.
+   */
+  protected boolean isCompactStateFile(Path tablePath) throws IOException {
+    try (InputStream in = new BufferedInputStream(this.fs.open(tablePath))) {
+      return CompactStateFormat.isCompactFormat(in);
+    }
+  }
+
+  /**
+   * Read all the states of a table file written in the {@link CompactStateFormat}.
+   */
+  protected <S extends State> List<S> readCompactStateFile(Path tablePath, Class<S> clazz) throws IOException {
+    List<S> states = Lists.newArrayList();
+    try (CompactStateFormat.Reader reader =
+        CompactStateFormat.createReader(new BufferedInputStream(this.fs.open(tablePath)), this.conf)) {
+      S state = clazz.newInstance();
+      String id;
+      while ((id = reader.next(state)) != null) {
+        state.setId(id);
+        states.add(state);
+        state = clazz.newInstance();
+      }
+    } catch (ReflectiveOperationException e) {
+      throw new IOException("Failed to instantiate " + clazz.getName(), e);
+    }
+    return states;
+  }
+
   protected void renamePath(Path tmpTablePath, Path tablePath) throws IOException {
     HadoopUtils.renamePath(this.fs, tmpTablePath, tablePath);
   }
@@ -228,6 +301,15 @@ public class FsStateStore<T extends State> implements StateStore<T> {
       return null;
     }
 
+    if (isCompactStateFile(tablePath)) {
+      for (T state : readCompactStateFile(tablePath, this.stateClass)) {
+        if (state.getId().equals(stateId)) {
+          return state;
+        }
+      }
+      return null;
+    }
+
     Closer closer = Closer.create();
     try {
       @SuppressWarnings("deprecation")
@@ -264,6 +346,10 @@ public class FsStateStore<T extends State> implements StateStore<T> {
       return states;
     }
 
+    if (isCompactStateFile(tablePath)) {
+      return readCompactStateFile(tablePath, this.stateClass);
+    }
+
     Closer closer = Closer.create();
     try {
       @SuppressWarnings("deprecation")
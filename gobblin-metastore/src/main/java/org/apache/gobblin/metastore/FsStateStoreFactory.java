@@ -29,6 +29,7 @@ import com.typesafe.config.ConfigValue;
 import org.apache.gobblin.annotation.Alias;
 import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.util.CompactStateFormat;
 import org.apache.gobblin.util.ConfigUtils;
 
 @Alias("fs")
@@ -47,7 +48,9 @@ public class FsStateStoreFactory implements StateStore.Factory {
       FileSystem stateStoreFs = FileSystem.get(URI.create(stateStoreFsUri), conf);
       String stateStoreRootDir = config.getString(ConfigurationKeys.STATE_STORE_ROOT_DIR_KEY);
 
-      return new FsStateStore(stateStoreFs, stateStoreRootDir, stateClass);
+      FsStateStore<T> stateStore = new FsStateStore<>(stateStoreFs, stateStoreRootDir, stateClass);
+      stateStore.setCompactStateFormat(CompactStateFormat.fromState(ConfigUtils.configToState(config)));
+      return stateStore;
     } catch (IOException e) {
       throw new RuntimeException("Failed to create FsStateStore with factory", e);
     }
@@ -0,0 +1,761 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.metastore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.hadoop.fs.FileAlreadyExistsException;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Striped;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.State;
+
+
+/**
+ * A log-structured implementation of {@link StateStore} backed by a {@link FileSystem}.
+ *
+ * <p>
+ *   {@link FsStateStore} keeps one file per table and rewrites it on every update, and copies it to create an alias.
+ *   This implementation instead keeps all tables of a store in a sequence of segment files in the store directory.
+ *   Every update ({@link #put}, {@link #putAll}, {@link #createAlias} and {@link #delete}) writes one small delta
+ *   segment holding only the changed tables, named after a sequence number that grows with every update. Once a
+ *   store has more than {@link #getCompactionThreshold()} segments they are compacted into a single base segment
+ *   holding the live tables only, and the segments it covers are deleted.
+ * </p>
+ *
+ * <p>
+ *   Reads are served from an in-memory index of the tables of each store, built by replaying the latest base segment
+ *   and the delta segments following it. Each read lists the store directory and only replays segments that were
+ *   added since the last read, so a store is read in full at most once per compaction.
+ * </p>
+ *
+ * <p>
+ *   A store must be written by a single process at a time, as is the case for the state store of a job. Any number of
+ *   processes may read it concurrently. The segment files are not readable by {@link FsStateStore}, use
+ *   {@code StateStoreMigrationCli} to move existing dataset states to this store.
+ * </p>
+ *
+ * @param <T> state object type
+ */
+@Slf4j
+public class LogStructuredFsStateStore<T extends State> extends FsStateStore<T> {
+
+  public static final String SEGMENT_FILE_EXTENSION = ".seg";
+
+  private static final String DELTA_SEGMENT_SUFFIX = ".delta" + SEGMENT_FILE_EXTENSION;
+  private static final String BASE_SEGMENT_SUFFIX = ".base" + SEGMENT_FILE_EXTENSION;
+  private static final byte[] MAGIC = new byte[] {'G', 'L', 'S', 'S'};
+  private static final int VERSION = 1;
+  private static final byte PUT = 0;
+  private static final byte DELETE = 1;
+  private static final byte ALIAS = 2;
+  private static final int MAX_ATTEMPTS = 3;
+  private static final long INDEX_CACHE_SIZE = 100;
+
+  private static final PathFilter SEGMENT_FILTER = new PathFilter() {
+    @Override
+    public boolean accept(Path path) {
+      return path.getName().endsWith(SEGMENT_FILE_EXTENSION) && !path.getName().startsWith(TMP_FILE_PREFIX);
+    }
+  };
+
+  private int compactionThreshold = ConfigurationKeys.DEFAULT_STATE_STORE_LOG_COMPACTION_THRESHOLD;
+
+  // Store path -> index of the store
+  private final Cache<Path, StoreIndex> indexes = CacheBuilder.newBuilder().maximumSize(INDEX_CACHE_SIZE).build();
+  // Store path -> lock of the store. Indexes are not locked themselves, because an index evicted from the cache may
+  // still be in use when the next operation on the store creates a new index.
+  private final Striped<Lock> storeLocks = Striped.lazyWeakLock(Integer.MAX_VALUE);
+
+  public LogStructuredFsStateStore(String fsUri, String storeRootDir, Class<T> stateClass) throws IOException {
+    super(fsUri, storeRootDir, stateClass);
+  }
+
+  public LogStructuredFsStateStore(FileSystem fs, String storeRootDir, Class<T> stateClass) {
+    super(fs, storeRootDir, stateClass);
+  }
+
+  public LogStructuredFsStateStore(String storeUrl, Class<T> stateClass) throws IOException {
+    super(storeUrl, stateClass);
+  }
+
+  public int getCompactionThreshold() {
+    return this.compactionThreshold;
+  }
+
+  /**
+   * Set the number of segments a store may have before it is compacted.
+   */
+  public void setCompactionThreshold(int compactionThreshold) {
+    Preconditions.checkArgument(compactionThreshold > 1, "Invalid compaction threshold " + compactionThreshold);
+    this.compactionThreshold = compactionThreshold;
+  }
+
+  @Override
+  public boolean create(String storeName, String tableName) throws IOException {
+    if (exists(storeName, tableName)) {
+      throw new IOException(String.format("Table %s already exists in store %s", tableName, storeName));
+    }
+    append(storeName, Collections.singletonList(Record.put(tableName, ImmutableList.<SerializedState>of())));
+    return true;
+  }
+
+  @Override
+  public boolean exists(String storeName, String tableName) throws IOException {
+    return getIndex(storeName).getTables().containsKey(tableName);
+  }
+
+  @Override
+  public void put(String storeName, String tableName, T state) throws IOException {
+    putAll(storeName, tableName, Collections.singletonList(state));
+  }
+
+  @Override
+  public void putAll(String storeName, String tableName, Collection<T> states) throws IOException {
+    append(storeName, Collections.singletonList(Record.put(tableName, serialize(states))));
+  }
+
+  /**
+   * Put a state into a table and create an alias of the table with a single delta segment.
+   */
+  protected void putAndCreateAlias(String storeName, String tableName, T state, String alias) throws IOException {
+    putAndCreateAliases(storeName, Collections.singletonMap(tableName, state),
+        Collections.singletonMap(tableName, alias));
+  }
+
+  /**
+   * Put states into tables and create aliases of the tables with a single delta segment.
+   *
+   * @param statesByTableNames the state to put into each table
+   * @param aliasesByTableNames the alias to create of each table, if any
+   */
+  protected void putAndCreateAliases(String storeName, Map<String, T> statesByTableNames,
+      Map<String, String> aliasesByTableNames) throws IOException {
+    List<Record> records = Lists.newArrayListWithCapacity(statesByTableNames.size() * 2);
+    for (Map.Entry<String, T> entry : statesByTableNames.entrySet()) {
+      records.add(Record.put(entry.getKey(), serialize(Collections.singletonList(entry.getValue()))));
+      String alias = aliasesByTableNames.get(entry.getKey());
+      if (alias != null) {
+        records.add(Record.alias(entry.getKey(), alias));
+      }
+    }
+    if (!records.isEmpty()) {
+      append(storeName, records);
+    }
+  }
+
+  @Override
+  public T get(String storeName, String tableName, String stateId) throws IOException {
+    List<SerializedState> table = getIndex(storeName).getTables().get(tableName);
+    if (table == null) {
+      return null;
+    }
+    for (SerializedState serializedState : table) {
+      if (serializedState.id.equals(stateId)) {
+        return deserialize(serializedState);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public List<T> getAll(String storeName, String tableName) throws IOException {
+    List<SerializedState> table = getIndex(storeName).getTables().get(tableName);
+    return table == null ? Lists.<T>newArrayList() : deserialize(table);
+  }
+
+  @Override
+  public List<T> getAll(String storeName) throws IOException {
+    List<T> states = Lists.newArrayList();
+    for (List<SerializedState> table : getIndex(storeName).getTables().values()) {
+      states.addAll(deserialize(table));
+    }
+    return states;
+  }
+
+  /**
+   * Get the states of all tables of a store whose names are accepted by the given {@link Predicate}, reading the
+   * store only once.
+   *
+   * @return a {@link Map} from table names to the states of the tables
+   */
+  protected Map<String, List<T>> getAllByTable(String storeName, Predicate<String> tablePredicate)
+      throws IOException {
+    Map<String, List<T>> statesByTable = Maps.newLinkedHashMap();
+    for (Map.Entry<String, List<SerializedState>> table : getIndex(storeName).getTables().entrySet()) {
+      if (tablePredicate.apply(table.getKey())) {
+        statesByTable.put(table.getKey(), deserialize(table.getValue()));
+      }
+    }
+    return statesByTable;
+  }
+
+  @Override
+  public List<String> getTableNames(String storeName, Predicate<String> predicate) throws IOException {
+    List<String> names = Lists.newArrayList();
+    for (String tableName : getIndex(storeName).getTables().keySet()) {
+      if (predicate.apply(tableName)) {
+        names.add(tableName);
+      }
+    }
+    return names;
+  }
+
+  @Override
+  public void createAlias(String storeName, String original, String alias) throws IOException {
+    if (!exists(storeName, original)) {
+      throw new IOException(String.format("Table %s does not exist in store %s", original, storeName));
+    }
+    append(storeName, Collections.singletonList(Record.alias(original, alias)));
+  }
+
+  @Override
+  public void delete(String storeName, String tableName) throws IOException {
+    delete(storeName, Collections.singletonList(tableName));
+  }
+
+  @Override
+  public void delete(String storeName, List<String> tableNames) throws IOException {
+    Map<String, List<SerializedState>> tables = getIndex(storeName).getTables();
+    List<Record> records = Lists.newArrayList();
+    for (String tableName : tableNames) {
+      if (tables.containsKey(tableName)) {
+        records.add(Record.delete(tableName));
+      }
+    }
+    if (!records.isEmpty()) {
+      append(storeName, records);
+    }
+  }
+
+  @Override
+  public void delete(String storeName) throws IOException {
+    Path storePath = getStorePath(storeName);
+    Lock lock = this.storeLocks.get(storePath);
+    lock.lock();
+    try {
+      super.delete(storeName);
+      getIndexUnlocked(storePath).reset();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Compact all segments of a store into a single base segment, regardless of the number of segments.
+   */
+  public void compact(String storeName) throws IOException {
+    Path storePath = getStorePath(storeName);
+    Lock lock = this.storeLocks.get(storePath);
+    lock.lock();
+    try {
+      StoreIndex index = getIndexUnlocked(storePath);
+      index.refresh();
+      if (index.segments.size() > 1) {
+        index.compact();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private StoreIndex getIndex(String storeName) throws IOException {
+    Path storePath = getStorePath(storeName);
+    Lock lock = this.storeLocks.get(storePath);
+    lock.lock();
+    try {
+      StoreIndex index = getIndexUnlocked(storePath);
+      index.refresh();
+      return index;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void append(String storeName, List<Record> records) throws IOException {
+    Path storePath = getStorePath(storeName);
+    Lock lock = this.storeLocks.get(storePath);
+    lock.lock();
+    try {
+      StoreIndex index = getIndexUnlocked(storePath);
+      for (int attempt = 1; ; attempt++) {
+        index.refresh();
+        try {
+          index.append(records);
+          break;
+        } catch (FileAlreadyExistsException e) {
+          // Another store instance wrote the same segment, pick up its segment and try again
+          if (attempt >= MAX_ATTEMPTS) {
+            throw e;
+          }
+        }
+      }
+      if (index.segments.size() > this.compactionThreshold) {
+        index.compact();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the index of a store. The lock of the store must be held.
+   */
+  private StoreIndex getIndexUnlocked(final Path storePath) throws IOException {
+    try {
+      return this.indexes.get(storePath, new Callable<StoreIndex>() {
+        @Override
+        public StoreIndex call() {
+          return new StoreIndex(storePath);
+        }
+      });
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new IOException("Failed to create the index of store " + storePath, e.getCause());
+    }
+  }
+
+  private List<SerializedState> serialize(Collection<T> states) throws IOException {
+    ImmutableList.Builder<SerializedState> serializedStates = ImmutableList.builder();
+    for (T state : states) {
+      ByteArrayDataOutput out = ByteStreams.newDataOutput();
+      state.write(out);
+      serializedStates.add(new SerializedState(Strings.nullToEmpty(state.getId()), out.toByteArray()));
+    }
+    return serializedStates.build();
+  }
+
+  private List<T> deserialize(List<SerializedState> serializedStates) throws IOException {
+    List<T> states = Lists.newArrayListWithCapacity(serializedStates.size());
+    for (SerializedState serializedState : serializedStates) {
+      states.add(deserialize(serializedState));
+    }
+    return states;
+  }
+
+  private T deserialize(SerializedState serializedState) throws IOException {
+    try {
+      T state = this.stateClass.newInstance();
+      state.readFields(ByteStreams.newDataInput(serializedState.bytes));
+      state.setId(serializedState.id);
+      return state;
+    } catch (ReflectiveOperationException e) {
+      throw new IOException("Failed to instantiate " + this.stateClass.getName(), e);
+    }
+  }
+
+  /**
+   * The serialized form of a state and its id.
+   */
+  private static class SerializedState {
+    private final String id;
+    private final byte[] bytes;
+
+    private SerializedState(String id, byte[] bytes) {
+      this.id = id;
+      this.bytes = bytes;
+    }
+  }
+
+  /**
+   * A change to a single table, as written in a segment.
+   */
+  private static class Record {
+    private final byte type;
+    private final String tableName;
+    // States of a PUT record
+    private final List<SerializedState> states;
+    // Table an ALIAS record copies
+    private final String original;
+
+    private Record(byte type, String tableName, List<SerializedState> states, String original) {
+      this.type = type;
+      this.tableName = tableName;
+      this.states = states;
+      this.original = original;
+    }
+
+    private static Record put(String tableName, List<SerializedState> states) {
+      return new Record(PUT, tableName, states, null);
+    }
+
+    private static Record alias(String original, String alias) {
+      return new Record(ALIAS, alias, null, original);
+    }
+
+    private static Record delete(String tableName) {
+      return new Record(DELETE, tableName, null, null);
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      out.writeByte(this.type);
+      out.writeUTF(this.tableName);
+      if (this.type == PUT) {
+        out.writeInt(this.states.size());
+        for (SerializedState state : this.states) {
+          out.writeUTF(state.id);
+          out.writeInt(state.bytes.length);
+          out.write(state.bytes);
+        }
+      } else if (this.type == ALIAS) {
+        out.writeUTF(this.original);
+      }
+    }
+
+    private static Record read(DataInputStream in) throws IOException {
+      byte type = in.readByte();
+      String tableName = in.readUTF();
+      switch (type) {
+        case PUT:
+          int numStates = in.readInt();
+          ImmutableList.Builder<SerializedState> states = ImmutableList.builder();
+          for (int i = 0; i < numStates; i++) {
+            String id = in.readUTF();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            states.add(new SerializedState(id, bytes));
+          }
+          return put(tableName, states.build());
+        case ALIAS:
+          return alias(in.readUTF(), tableName);
+        case DELETE:
+          return delete(tableName);
+        default:
+          throw new IOException("Unknown segment record type " + type);
+      }
+    }
+
+    private void apply(Map<String, List<SerializedState>> tables) {
+      if (this.type == PUT) {
+        tables.put(this.tableName, this.states);
+      } else if (this.type == ALIAS) {
+        // The table lists are immutable, so the alias can share the list of the original
+        List<SerializedState> states = tables.get(this.original);
+        if (states != null) {
+          tables.put(this.tableName, states);
+        }
+      } else {
+        tables.remove(this.tableName);
+      }
+    }
+  }
+
+  /**
+   * A segment file of a store.
+   */
+  private static class Segment implements Comparable<Segment> {
+    private final Path path;
+    private final long sequence;
+    private final boolean base;
+
+    private Segment(Path path, long sequence, boolean base) {
+      this.path = path;
+      this.sequence = sequence;
+      this.base = base;
+    }
+
+    private static Segment parse(Path path) {
+      String name = path.getName();
+      boolean base = name.endsWith(BASE_SEGMENT_SUFFIX);
+      if (!base && !name.endsWith(DELTA_SEGMENT_SUFFIX)) {
+        return null;
+      }
+      try {
+        long sequence = Long.parseLong(name.substring(0, name.indexOf('.')));
+        return new Segment(path, sequence, base);
+      } catch (NumberFormatException nfe) {
+        return null;
+      }
+    }
+
+    private static String name(long sequence, boolean base) {
+      return String.format("%020d%s", sequence, base ? BASE_SEGMENT_SUFFIX : DELTA_SEGMENT_SUFFIX);
+    }
+
+    @Override
+    public int compareTo(Segment other) {
+      // A base segment covers the delta segment with the same sequence number, so it sorts first
+      int result = Long.compare(this.sequence, other.sequence);
+      return result != 0 ? result : Boolean.compare(other.base, this.base);
+    }
+  }
+
+  /**
+   * The in-memory index of the tables of a store. All methods must be called while holding the lock of the store.
+   */
+  private class StoreIndex {
+    private final Path storePath;
+    // Table name -> states, replaced on every update so readers can iterate over a snapshot without locking
+    private volatile Map<String, List<SerializedState>> tables = Collections.emptyMap();
+    // Live segments, i.e. the latest base segment and the delta segments following it
+    private List<Segment> segments = Lists.newArrayList();
+    // Sequence number of the last segment replayed into the index
+    private long lastSequence = 0;
+
+    private StoreIndex(Path storePath) {
+      this.storePath = storePath;
+    }
+
+    private Map<String, List<SerializedState>> getTables() {
+      return this.tables;
+    }
+
+    private void reset() {
+      this.tables = Collections.emptyMap();
+      this.segments = Lists.newArrayList();
+      this.lastSequence = 0;
+    }
+
+    /**
+     * Replay the segments added since the last refresh.
+     */
+    private void refresh() throws IOException {
+      for (int attempt = 1; ; attempt++) {
+        try {
+          refreshOnce();
+          return;
+        } catch (FileNotFoundException e) {
+          // The segments were compacted by another process between listing and reading them, so list them again
+          if (attempt >= MAX_ATTEMPTS) {
+            throw e;
+          }
+        }
+      }
+    }
+
+    private void refreshOnce() throws IOException {
+      List<Segment> listed = listSegments();
+      if (listed.isEmpty()) {
+        // The store does not exist or was deleted
+        reset();
+        return;
+      }
+
+      Segment latestBase = null;
+      for (Segment segment : listed) {
+        if (segment.base) {
+          latestBase = segment;
+        }
+      }
+
+      boolean reloadBase = latestBase != null && latestBase.sequence > this.lastSequence;
+      long newLastSequence = reloadBase ? latestBase.sequence : this.lastSequence;
+      List<Segment> newDeltas = Lists.newArrayList();
+      for (Segment segment : listed) {
+        if (!segment.base && segment.sequence > newLastSequence) {
+          newDeltas.add(segment);
+        }
+      }
+
+      Map<String, List<SerializedState>> newTables = this.tables;
+      if (reloadBase || !newDeltas.isEmpty()) {
+        newTables = new TreeMap<>();
+        if (reloadBase) {
+          applySegment(latestBase, newTables);
+        } else {
+          newTables.putAll(this.tables);
+        }
+        for (Segment segment : newDeltas) {
+          try {
+            applySegment(segment, newTables);
+          } catch (EOFException e) {
+            // The segment is still being written on a file system without atomic rename, pick it up next time
+            log.debug("Segment {} is incomplete", segment.path);
+            break;
+          }
+          newLastSequence = segment.sequence;
+        }
+      }
+
+      List<Segment> newSegments = Lists.newArrayList();
+      for (Segment segment : listed) {
+        boolean live = latestBase == null ? !segment.base
+            : segment == latestBase || !segment.base && segment.sequence > latestBase.sequence;
+        if (live && segment.sequence <= newLastSequence) {
+          newSegments.add(segment);
+        }
+      }
+
+      this.tables = newTables;
+      this.segments = newSegments;
+      this.lastSequence = newLastSequence;
+    }
+
+    private List<Segment> listSegments() throws IOException {
+      List<Segment> segments = Lists.newArrayList();
+      FileStatus[] statuses;
+      try {
+        statuses = LogStructuredFsStateStore.this.fs.listStatus(this.storePath, SEGMENT_FILTER);
+      } catch (FileNotFoundException fnfe) {
+        return segments;
+      }
+      if (statuses != null) {
+        for (FileStatus status : statuses) {
+          Segment segment = Segment.parse(status.getPath());
+          if (segment != null) {
+            segments.add(segment);
+          }
+        }
+      }
+      Collections.sort(segments);
+      return segments;
+    }
+
+    private void applySegment(Segment segment, Map<String, List<SerializedState>> tables) throws IOException {
+      try (DataInputStream in =
+          new DataInputStream(new BufferedInputStream(LogStructuredFsStateStore.this.fs.open(segment.path)))) {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        int version = in.readByte();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+          throw new IOException("Not a state store segment or unsupported version: " + segment.path);
+        }
+        int numRecords = in.readInt();
+        for (int i = 0; i < numRecords; i++) {
+          Record.read(in).apply(tables);
+        }
+      }
+    }
+
+    /**
+     * Write the records as a new delta segment and apply them to the index. The index must be refreshed first.
+     */
+    private void append(List<Record> records) throws IOException {
+      Segment segment = writeSegment(this.lastSequence + 1, false, records);
+      Map<String, List<SerializedState>> newTables = new TreeMap<>(this.tables);
+      for (Record record : records) {
+        record.apply(newTables);
+      }
+      this.tables = newTables;
+      this.segments.add(segment);
+      this.lastSequence = segment.sequence;
+    }
+
+    /**
+     * Write the live tables as a base segment covering all segments replayed so far and delete those segments.
+     */
+    private void compact() throws IOException {
+      List<Record> records = Lists.newArrayListWithCapacity(this.tables.size());
+      // Tables sharing their states with a table written before, i.e. aliases, are written as aliases again
+      Map<List<SerializedState>, String> written = new IdentityHashMap<>();
+      for (Map.Entry<String, List<SerializedState>> table : this.tables.entrySet()) {
+        String original = written.get(table.getValue());
+        if (original != null) {
+          records.add(Record.alias(original, table.getKey()));
+        } else {
+          records.add(Record.put(table.getKey(), table.getValue()));
+          written.put(table.getValue(), table.getKey());
+        }
+      }
+
+      Segment base = writeSegment(this.lastSequence, true, records);
+      log.info("Compacted {} segments of {} into {}", this.segments.size(), this.storePath, base.path);
+      for (Segment segment : this.segments) {
+        if (segment != base) {
+          LogStructuredFsStateStore.this.fs.delete(segment.path, false);
+        }
+      }
+      this.segments = Lists.newArrayList(base);
+    }
+
+    private Segment writeSegment(long sequence, boolean base, List<Record> records) throws IOException {
+      FileSystem fs = LogStructuredFsStateStore.this.fs;
+      boolean useTmpFile = LogStructuredFsStateStore.this.useTmpFileForPut;
+      String name = Segment.name(sequence, base);
+      Path segmentPath = new Path(this.storePath, name);
+      // Temporary files are unique, so concurrent writers of the same segment do not write into the same file
+      Path writePath = useTmpFile ? new Path(this.storePath, TMP_FILE_PREFIX + name + "." + UUID.randomUUID())
+          : segmentPath;
+
+      // Without a temporary file the segment is created exclusively, otherwise the rename fails if it exists
+      OutputStream os;
+      try {
+        os = fs.create(writePath, useTmpFile);
+      } catch (IOException e) {
+        throw toConflict(e, segmentPath);
+      }
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(records.size());
+        for (Record record : records) {
+          record.write(out);
+        }
+      }
+      if (useTmpFile) {
+        try {
+          renamePath(writePath, segmentPath);
+        } catch (IOException e) {
+          fs.delete(writePath, false);
+          throw toConflict(e, segmentPath);
+        }
+      }
+      return new Segment(segmentPath, sequence, base);
+    }
+
+    /**
+     * Report a failure to create a segment as a {@link FileAlreadyExistsException} if the segment exists, i.e. it was
+     * written by another store instance. File systems other than HDFS, e.g. the local file system, report a rename or
+     * an exclusive create onto an existing file with a plain {@link IOException} or a rename returning false.
+     */
+    private IOException toConflict(IOException e, Path segmentPath) throws IOException {
+      if (e instanceof FileAlreadyExistsException || !LogStructuredFsStateStore.this.fs.exists(segmentPath)) {
+        return e;
+      }
+      IOException conflict = new FileAlreadyExistsException("Segment " + segmentPath + " already exists");
+      conflict.initCause(e);
+      return conflict;
+    }
+  }
+}
@@ -40,7 +40,10 @@ public class MysqlDagStateStoreFactory extends MysqlStateStoreFactory {
       DataSource dataSource = MysqlDataSourceFactory.get(config,
           SharedResourcesBrokerFactory.getImplicitBroker());
 
-      return new MysqlDagStore<>(dataSource, stateStoreTableName, compressedValues, stateClass);
+      MysqlDagStore<T> stateStore = new MysqlDagStore<>(dataSource, stateStoreTableName, compressedValues, stateClass);
+      stateStore.setCompactStateFormat(MysqlStateStore.getCompactStateFormat(config));
+      stateStore.setMetricContext(config);
+      return stateStore;
     } catch (Exception e) {
       throw new RuntimeException("Failed to create MysqlDagStore with factory", e);
     }
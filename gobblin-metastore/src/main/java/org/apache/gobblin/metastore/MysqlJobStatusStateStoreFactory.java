@@ -39,7 +39,11 @@ public class MysqlJobStatusStateStoreFactory extends MysqlStateStoreFactory impl
       DataSource dataSource = MysqlDataSourceFactory.get(config,
           SharedResourcesBrokerFactory.getImplicitBroker());
 
-      return new MysqlJobStatusStateStore<>(dataSource, stateStoreTableName, compressedValues, stateClass);
+      MysqlJobStatusStateStore<T> stateStore =
+          new MysqlJobStatusStateStore<>(dataSource, stateStoreTableName, compressedValues, stateClass);
+      stateStore.setCompactStateFormat(MysqlStateStore.getCompactStateFormat(config));
+      stateStore.setMetricContext(config);
+      return stateStore;
     } catch (Exception e) {
       throw new RuntimeException("Failed to create MysqlStateStore with factory", e);
     }
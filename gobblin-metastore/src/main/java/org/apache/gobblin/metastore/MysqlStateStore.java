@@ -17,6 +17,7 @@
 
 package org.apache.gobblin.metastore;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
@@ -35,19 +36,30 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
@@ -61,7 +73,11 @@ import org.apache.gobblin.configuration.State;
 import org.apache.gobblin.metastore.metadata.StateStoreEntryManager;
 import org.apache.gobblin.metastore.predicates.StateStorePredicate;
 import org.apache.gobblin.metastore.predicates.StoreNamePredicate;
+import org.apache.gobblin.metrics.GobblinMetrics;
+import org.apache.gobblin.metrics.GobblinMetricsRegistry;
+import org.apache.gobblin.metrics.MetricContext;
 import org.apache.gobblin.password.PasswordManager;
+import org.apache.gobblin.util.CompactStateFormat;
 import org.apache.gobblin.util.ConfigUtils;
 import org.apache.gobblin.util.io.StreamUtils;
 import org.apache.gobblin.util.jdbc.MysqlDataSourceUtils;
@@ -79,6 +95,14 @@ import org.apache.gobblin.util.jdbc.MysqlDataSourceUtils;
  *     {@link MysqlStateStore#get(String, String, String)} method may not work.
  * </p>
  *
+ * <p>
+ *     If a {@link CompactStateFormat} is set, values are written in that format instead, e.g. to compress them with a
+ *     faster codec than GZIP. Reads detect the format of each value, so tables can be switched between formats without
+ *     migration. {@link #putAll(String, Map)} and {@link #getAll(String, Collection)} write and read the states of many
+ *     tables of a store in a few statements. The latencies of the operations are timed in the job's
+ *     {@link MetricContext} when the state store is created by a factory with {@link #setMetricContext(Config)}.
+ * </p>
+ *
  * @param <T> state object type
  **/
 public class MysqlStateStore<T extends State> implements StateStore<T> {
@@ -96,6 +120,26 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
   private final Class<T> stateClass;
   protected final DataSource dataSource;
   private final boolean compressedValues;
+  private final Configuration conf = new Configuration();
+  // Format used to write values, or absent to write them in the legacy format
+  private Optional<CompactStateFormat> compactStateFormat = Optional.absent();
+
+  // Maximum number of rows and total value size of a statement of a bulk operation
+  private static final int BULK_STATEMENT_MAX_ROWS = 100;
+  private static final int BULK_STATEMENT_MAX_BYTES = 4 * 1024 * 1024;
+
+  // Prefix of the names of the timers of the operations
+  public static final String METRICS_PREFIX = "mysqlStateStore";
+
+  // Latencies of the operations, kept in the registry set by setMetricRegistry
+  private Timer existsTimer;
+  private Timer putTimer;
+  private Timer bulkPutTimer;
+  private Timer getTimer;
+  private Timer getAllTimer;
+  private Timer bulkGetTimer;
+  private Timer createAliasTimer;
+  private Timer deleteTimer;
 
   private static final String UPSERT_JOB_STATE_TEMPLATE =
       "INSERT INTO $TABLE$ (store_name, table_name, state) VALUES(?,?,?)"
@@ -104,6 +148,9 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
   private static final String SELECT_JOB_STATE_TEMPLATE =
       "SELECT state FROM $TABLE$ WHERE store_name = ? and table_name = ?";
 
+  private static final String SELECT_JOB_STATES_WITH_IN_TEMPLATE =
+      "SELECT table_name, state FROM $TABLE$ WHERE store_name = ? and table_name in ";
+
   private static final String SELECT_JOB_STATE_WITH_LIKE_TEMPLATE =
       "SELECT state FROM $TABLE$ WHERE store_name = ? and table_name like ?";
 
@@ -145,6 +192,7 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
 
   private final String UPSERT_JOB_STATE_SQL;
   private final String SELECT_JOB_STATE_SQL;
+  private final String SELECT_JOB_STATES_WITH_IN_SQL;
   private final String SELECT_ALL_JOBS_STATE_SQL;
   private final String SELECT_JOB_STATE_WITH_LIKE_SQL;
   private final String SELECT_JOB_STATE_WITH_BOTH_LIKES_SQL;
@@ -169,9 +217,11 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
     this.dataSource = dataSource;
     this.stateClass = stateClass;
     this.compressedValues = compressedValues;
+    setMetricRegistry(new MetricRegistry());
 
     UPSERT_JOB_STATE_SQL = UPSERT_JOB_STATE_TEMPLATE.replace("$TABLE$", stateStoreTableName);
     SELECT_JOB_STATE_SQL = SELECT_JOB_STATE_TEMPLATE.replace("$TABLE$", stateStoreTableName);
+    SELECT_JOB_STATES_WITH_IN_SQL = SELECT_JOB_STATES_WITH_IN_TEMPLATE.replace("$TABLE$", stateStoreTableName);
     SELECT_JOB_STATE_WITH_LIKE_SQL = SELECT_JOB_STATE_WITH_LIKE_TEMPLATE.replace("$TABLE$", stateStoreTableName);
     SELECT_JOB_STATE_WITH_BOTH_LIKES_SQL = SELECT_JOB_STATE_WITH_BOTH_LIKES_TEMPLATE.replace("$TABLE$", stateStoreTableName);
     SELECT_ALL_JOBS_STATE_SQL = SELECT_ALL_JOBS_STATE.replace("$TABLE$", stateStoreTableName);
@@ -197,6 +247,66 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
     return CREATE_JOB_STATE_TABLE_TEMPLATE;
   }
 
+  /**
+   * Set the {@link CompactStateFormat} used to write values. Values are always readable in all formats.
+   */
+  public void setCompactStateFormat(Optional<CompactStateFormat> compactStateFormat) {
+    this.compactStateFormat = compactStateFormat;
+  }
+
+  /**
+   * Get the {@link CompactStateFormat} used to write the values of a table configured through
+   * {@link ConfigurationKeys#STATE_STORE_COMPRESSED_VALUES_KEY} and
+   * {@link ConfigurationKeys#STATE_STORE_DB_COMPRESSION_CODEC_KEY}.
+   *
+   * @return the configured {@link CompactStateFormat} or {@link Optional#absent()} if values should be written in the
+   *         legacy format, compressed with GZIP or not
+   */
+  public static Optional<CompactStateFormat> getCompactStateFormat(Config config) {
+    String codecName = ConfigUtils.getString(config, ConfigurationKeys.STATE_STORE_DB_COMPRESSION_CODEC_KEY,
+        ConfigurationKeys.DEFAULT_STATE_STORE_DB_COMPRESSION_CODEC);
+    if (!ConfigUtils.getBoolean(config, ConfigurationKeys.STATE_STORE_COMPRESSED_VALUES_KEY,
+        ConfigurationKeys.DEFAULT_STATE_STORE_COMPRESSED_VALUES)
+        || ConfigurationKeys.DEFAULT_STATE_STORE_DB_COMPRESSION_CODEC.equalsIgnoreCase(codecName)) {
+      return Optional.absent();
+    }
+
+    CompressionCodec codec = new CompressionCodecFactory(new Configuration()).getCodecByName(codecName);
+    Preconditions.checkArgument(codec != null, "Unknown compression codec " + codecName);
+    return Optional.of(new CompactStateFormat(Optional.of(codec), CompactStateFormat.DEFAULT_BLOCK_SIZE));
+  }
+
+  /**
+   * Time the operations of this state store with {@link Timer}s of the given {@link MetricRegistry}, named
+   * {@link #METRICS_PREFIX} followed by the operation, e.g. "mysqlStateStore.bulkPut".
+   */
+  public final void setMetricRegistry(MetricRegistry metricRegistry) {
+    this.existsTimer = metricRegistry.timer(MetricRegistry.name(METRICS_PREFIX, "exists"));
+    this.putTimer = metricRegistry.timer(MetricRegistry.name(METRICS_PREFIX, "put"));
+    this.bulkPutTimer = metricRegistry.timer(MetricRegistry.name(METRICS_PREFIX, "bulkPut"));
+    this.getTimer = metricRegistry.timer(MetricRegistry.name(METRICS_PREFIX, "get"));
+    this.getAllTimer = metricRegistry.timer(MetricRegistry.name(METRICS_PREFIX, "getAll"));
+    this.bulkGetTimer = metricRegistry.timer(MetricRegistry.name(METRICS_PREFIX, "bulkGet"));
+    this.createAliasTimer = metricRegistry.timer(MetricRegistry.name(METRICS_PREFIX, "createAlias"));
+    this.deleteTimer = metricRegistry.timer(MetricRegistry.name(METRICS_PREFIX, "delete"));
+  }
+
+  /**
+   * Time the operations of this state store in the {@link MetricContext} of the job named by
+   * {@link ConfigurationKeys#METRIC_CONTEXT_NAME_KEY}, if there is one, so that they are reported with the job's
+   * metrics.
+   */
+  public void setMetricContext(Config config) {
+    if (!config.hasPath(ConfigurationKeys.METRIC_CONTEXT_NAME_KEY)) {
+      return;
+    }
+    Optional<GobblinMetrics> gobblinMetrics =
+        GobblinMetricsRegistry.getInstance().get(config.getString(ConfigurationKeys.METRIC_CONTEXT_NAME_KEY));
+    if (gobblinMetrics.isPresent()) {
+      setMetricRegistry(gobblinMetrics.get().getMetricContext());
+    }
+  }
+
   /**
    * creates a new {@link DataSource}
    * @param config the properties used for datasource instantiation
@@ -276,7 +386,8 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
 
   @Override
   public boolean exists(String storeName, String tableName) throws IOException {
-    try (Connection connection = dataSource.getConnection();
+    try (Timer.Context context = this.existsTimer.time();
+        Connection connection = dataSource.getConnection();
         PreparedStatement queryStatement = connection.prepareStatement(SELECT_JOB_STATE_EXISTS_SQL)) {
       int index = 0;
       queryStatement.setString(++index, storeName);
@@ -305,6 +416,75 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
     state.write(dataOutput);
   }
 
+  /**
+   * Serializes states to a value, in the {@link CompactStateFormat} if one is set
+   */
+  private byte[] serializeStates(Collection<T> states) throws IOException {
+    ByteArrayOutputStream byteArrayOs = new ByteArrayOutputStream();
+    if (this.compactStateFormat.isPresent()) {
+      try (CompactStateFormat.Writer writer = this.compactStateFormat.get().createWriter(byteArrayOs)) {
+        for (T state : states) {
+          writer.append(state.getId(), state);
+        }
+      }
+    } else {
+      try (OutputStream os = compressedValues ? new GZIPOutputStream(byteArrayOs) : byteArrayOs;
+          DataOutputStream dataOutput = new DataOutputStream(os)) {
+        for (T state : states) {
+          addStateToDataOutputStream(dataOutput, state);
+        }
+      }
+    }
+    return byteArrayOs.toByteArray();
+  }
+
+  /**
+   * Deserializes the states of a value written in any format, stopping after the state with the given id
+   * @param lastStateId id of the last state to read, or null to read all states
+   */
+  private void readStates(Blob blob, List<T> states, String lastStateId) throws Exception {
+    if (StreamUtils.isCompressed(blob.getBytes(1, 2))) {
+      readLegacyStates(new GZIPInputStream(blob.getBinaryStream()), states, lastStateId);
+      return;
+    }
+
+    InputStream is = new BufferedInputStream(blob.getBinaryStream());
+    if (!CompactStateFormat.isCompactFormat(is)) {
+      readLegacyStates(is, states, lastStateId);
+      return;
+    }
+    try (CompactStateFormat.Reader reader = CompactStateFormat.createReader(is, this.conf)) {
+      T state = this.stateClass.newInstance();
+      String stateId;
+      while ((stateId = reader.next(state)) != null) {
+        state.setId(stateId);
+        states.add(state);
+        if (stateId.equals(lastStateId)) {
+          return;
+        }
+        state = this.stateClass.newInstance();
+      }
+    }
+  }
+
+  private void readLegacyStates(InputStream is, List<T> states, String lastStateId) throws Exception {
+    try (DataInputStream dis = new DataInputStream(is)) {
+      // keep deserializing while we have data
+      while (dis.available() > 0) {
+        T state = this.stateClass.newInstance();
+        String stateId = Text.readString(dis);
+        state.readFields(dis);
+        state.setId(stateId);
+        states.add(state);
+        if (stateId.equals(lastStateId)) {
+          return;
+        }
+      }
+    } catch (EOFException e) {
+      // no more data. GZIPInputStream.available() doesn't return 0 until after EOF.
+    }
+  }
+
   @Override
   public void put(String storeName, String tableName, T state) throws IOException {
     putAll(storeName, tableName, Collections.singleton(state));
@@ -312,21 +492,13 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
 
   @Override
   public void putAll(String storeName, String tableName, Collection<T> states) throws IOException {
-    try (Connection connection = dataSource.getConnection();
-        PreparedStatement insertStatement = connection.prepareStatement(UPSERT_JOB_STATE_SQL);
-        ByteArrayOutputStream byteArrayOs = new ByteArrayOutputStream();
-        OutputStream os = compressedValues ? new GZIPOutputStream(byteArrayOs) : byteArrayOs;
-        DataOutputStream dataOutput = new DataOutputStream(os)) {
+    try (Timer.Context context = this.putTimer.time();
+        Connection connection = dataSource.getConnection();
+        PreparedStatement insertStatement = connection.prepareStatement(UPSERT_JOB_STATE_SQL)) {
 
       insertStatement.setString(1, storeName);
       insertStatement.setString(2, tableName);
-
-      for (T state : states) {
-        addStateToDataOutputStream(dataOutput, state);
-      }
-
-      dataOutput.close();
-      insertStatement.setBlob(3, new ByteArrayInputStream(byteArrayOs.toByteArray()));
+      insertStatement.setBlob(3, new ByteArrayInputStream(serializeStates(states)));
 
       insertStatement.executeUpdate();
       connection.commit();
@@ -335,34 +507,98 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
     }
   }
 
+  /**
+   * Put the states of many tables of a store in a single transaction. Rows are upserted with multi-row statements,
+   * which are sent to the database in JDBC batches.
+   *
+   * @param storeName the store name
+   * @param statesByTableNames the states to put into each table, tables mapped to the same {@link Collection}
+   *                           instance share its serialized value
+   * @throws IOException
+   */
+  public void putAll(String storeName, Map<String, ? extends Collection<T>> statesByTableNames) throws IOException {
+    List<String> tableNames = new ArrayList<>(statesByTableNames.keySet());
+    Map<Collection<T>, byte[]> valuesByStates = new IdentityHashMap<>();
+    Map<Integer, PreparedStatement> statementsByNumRows = new HashMap<>();
+
+    try (Timer.Context context = this.bulkPutTimer.time();
+        Connection connection = dataSource.getConnection()) {
+      try {
+        int start = 0;
+        while (start < tableNames.size()) {
+          // Add rows to the statement while it stays within the size limits
+          List<byte[]> values = new ArrayList<>();
+          long numBytes = 0;
+          while (start + values.size() < tableNames.size() && values.size() < BULK_STATEMENT_MAX_ROWS) {
+            Collection<T> states = statesByTableNames.get(tableNames.get(start + values.size()));
+            byte[] value = valuesByStates.get(states);
+            if (value == null) {
+              value = serializeStates(states);
+              valuesByStates.put(states, value);
+            }
+            if (!values.isEmpty() && numBytes + value.length > BULK_STATEMENT_MAX_BYTES) {
+              break;
+            }
+            values.add(value);
+            numBytes += value.length;
+          }
+
+          PreparedStatement insertStatement = statementsByNumRows.get(values.size());
+          if (insertStatement == null) {
+            insertStatement = connection.prepareStatement(getMultiRowSql(UPSERT_JOB_STATE_SQL, values.size()));
+            statementsByNumRows.put(values.size(), insertStatement);
+          }
+          int index = 0;
+          for (int i = 0; i < values.size(); i++) {
+            insertStatement.setString(++index, storeName);
+            insertStatement.setString(++index, tableNames.get(start + i));
+            insertStatement.setBlob(++index, new ByteArrayInputStream(values.get(i)));
+          }
+          insertStatement.addBatch();
+          start += values.size();
+        }
+
+        for (PreparedStatement insertStatement : statementsByNumRows.values()) {
+          insertStatement.executeBatch();
+        }
+        connection.commit();
+      } finally {
+        for (PreparedStatement insertStatement : statementsByNumRows.values()) {
+          insertStatement.close();
+        }
+      }
+    } catch (SQLException e) {
+      throw new IOException("Failure storing states of " + tableNames.size() + " tables to store " + storeName, e);
+    }
+  }
+
+  /**
+   * Get a statement of the form of the given single-row statement which upserts the given number of rows.
+   */
+  private static String getMultiRowSql(String upsertSql, int numRows) {
+    String values = "VALUES(?,?,?)";
+    int valuesIndex = upsertSql.indexOf(values);
+    StringBuilder sql = new StringBuilder(upsertSql.substring(0, valuesIndex + values.length()));
+    for (int i = 1; i < numRows; i++) {
+      sql.append(",(?,?,?)");
+    }
+    return sql.append(upsertSql.substring(valuesIndex + values.length())).toString();
+  }
+
   @Override
   public T get(String storeName, String tableName, String stateId) throws IOException {
-    try (Connection connection = dataSource.getConnection();
+    try (Timer.Context context = this.getTimer.time();
+        Connection connection = dataSource.getConnection();
         PreparedStatement queryStatement = connection.prepareStatement(SELECT_JOB_STATE_SQL)) {
       queryStatement.setString(1, storeName);
       queryStatement.setString(2, tableName);
 
       try (ResultSet rs = queryStatement.executeQuery()) {
         if (rs.next()) {
-          Blob blob = rs.getBlob(1);
-          Text key = new Text();
-
-          try (InputStream is = StreamUtils.isCompressed(blob.getBytes(1, 2)) ?
-              new GZIPInputStream(blob.getBinaryStream()) : blob.getBinaryStream();
-              DataInputStream dis = new DataInputStream(is)){
-            // keep deserializing while we have data
-            while (dis.available() > 0) {
-              T state = this.stateClass.newInstance();
-
-              key.readFields(dis);
-              state.readFields(dis);
-              state.setId(key.toString());
-              if (key.toString().equals(stateId)) {
-                return state;
-              }
-            }
-          } catch (EOFException e) {
-            // no more data. GZIPInputStream.available() doesn't return 0 until after EOF.
+          List<T> states = Lists.newArrayList();
+          readStates(rs.getBlob(1), states, Strings.nullToEmpty(stateId));
+          if (!states.isEmpty() && states.get(states.size() - 1).getId().equals(stateId)) {
+            return states.get(states.size() - 1);
           }
         }
       }
@@ -378,7 +614,8 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
   protected List<T> getAll(String storeName, String tableName, JobStateSearchColumns searchColumns) throws IOException {
     List<T> states = Lists.newArrayList();
 
-    try (Connection connection = dataSource.getConnection();
+    try (Timer.Context context = this.getAllTimer.time();
+        Connection connection = dataSource.getConnection();
         PreparedStatement queryStatement = connection.prepareStatement(
             searchColumns == JobStateSearchColumns.TABLE_NAME_ONLY ?
                 SELECT_JOB_STATE_WITH_LIKE_SQL :
@@ -403,7 +640,8 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
   public List<T> getAll() throws IOException {
     List<T> states = Lists.newArrayList();
 
-    try (Connection connection = dataSource.getConnection();
+    try (Timer.Context context = this.getAllTimer.time();
+        Connection connection = dataSource.getConnection();
         PreparedStatement queryStatement = connection.prepareStatement(SELECT_ALL_JOBS_STATE_SQL)) {
       execGetAllStatement(queryStatement, states);
     } catch (RuntimeException re) {
@@ -424,6 +662,46 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
     return getAll(storeName, "%", JobStateSearchColumns.TABLE_NAME_ONLY);
   }
 
+  /**
+   * Get the states of many tables of a store, with one statement per {@link #BULK_STATEMENT_MAX_ROWS} tables.
+   *
+   * @param storeName the store name
+   * @param tableNames the table names
+   * @return the states of each of the tables that exist
+   * @throws IOException
+   */
+  public Map<String, List<T>> getAll(String storeName, Collection<String> tableNames) throws IOException {
+    Map<String, List<T>> statesByTableNames = new HashMap<>();
+
+    try (Timer.Context context = this.bulkGetTimer.time();
+        Connection connection = dataSource.getConnection()) {
+      for (List<String> batch : Lists.partition(new ArrayList<>(tableNames), BULK_STATEMENT_MAX_ROWS)) {
+        String sql = SELECT_JOB_STATES_WITH_IN_SQL + "(" + Strings.repeat("?,", batch.size() - 1) + "?)";
+        try (PreparedStatement queryStatement = connection.prepareStatement(sql)) {
+          int index = 0;
+          queryStatement.setString(++index, storeName);
+          for (String tableName : batch) {
+            queryStatement.setString(++index, tableName);
+          }
+
+          try (ResultSet rs = queryStatement.executeQuery()) {
+            while (rs.next()) {
+              List<T> states = Lists.newArrayList();
+              readStates(rs.getBlob(2), states, null);
+              statesByTableNames.put(rs.getString(1), states);
+            }
+          }
+        }
+      }
+    } catch (RuntimeException re) {
+      throw re;
+    } catch (Exception e) {
+      throw new IOException("failure retrieving states of " + tableNames.size() + " tables from storeName " + storeName,
+          e);
+    }
+    return statesByTableNames;
+  }
+
   /**
    * An helper function extracted from getAll method originally that has side effects:
    * - Executing queryStatement
@@ -434,23 +712,7 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
   private void execGetAllStatement(PreparedStatement queryStatement, List<T> states) throws SQLException, Exception {
     try (ResultSet rs = queryStatement.executeQuery()) {
       while (rs.next()) {
-        Blob blob = rs.getBlob(1);
-        Text key = new Text();
-
-        try (InputStream is = StreamUtils.isCompressed(blob.getBytes(1, 2)) ?
-            new GZIPInputStream(blob.getBinaryStream()) : blob.getBinaryStream();
-            DataInputStream dis = new DataInputStream(is)) {
-          // keep deserializing while we have data
-          while (dis.available() > 0) {
-            T state = this.stateClass.newInstance();
-            String stateId = key.readString(dis);
-            state.readFields(dis);
-            state.setId(stateId);
-            states.add(state);
-          }
-        } catch (EOFException e) {
-          // no more data. GZIPInputStream.available() doesn't return 0 until after EOF.
-        }
+        readStates(rs.getBlob(1), states, null);
       }
     }
   }
@@ -515,7 +777,8 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
       throw new IOException(String.format("State does not exist for table %s", original));
     }
 
-    try (Connection connection = dataSource.getConnection();
+    try (Timer.Context context = this.createAliasTimer.time();
+        Connection connection = dataSource.getConnection();
         PreparedStatement cloneStatement = connection.prepareStatement(CLONE_JOB_STATE_SQL)) {
       int index = 0;
       cloneStatement.setString(++index, alias);
@@ -531,7 +794,8 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
   // todo - delete should return the deleted row counts
   @Override
   public void delete(String storeName, String tableName) throws IOException {
-    try (Connection connection = dataSource.getConnection();
+    try (Timer.Context context = this.deleteTimer.time();
+        Connection connection = dataSource.getConnection();
         PreparedStatement deleteStatement = connection.prepareStatement(DELETE_JOB_STATE_SQL)) {
       int index = 0;
       deleteStatement.setString(++index, storeName);
@@ -545,7 +809,8 @@ public class MysqlStateStore<T extends State> implements StateStore<T> {
 
   @Override
   public void delete(String storeName) throws IOException {
-    try (Connection connection = dataSource.getConnection();
+    try (Timer.Context context = this.deleteTimer.time();
+        Connection connection = dataSource.getConnection();
         PreparedStatement deleteStatement = connection.prepareStatement(DELETE_JOB_STORE_SQL)) {
       deleteStatement.setString(1, storeName);
       deleteStatement.executeUpdate();
@@ -39,7 +39,11 @@ public class MysqlStateStoreFactory implements StateStore.Factory {
       DataSource dataSource = MysqlDataSourceFactory.get(config,
           SharedResourcesBrokerFactory.getImplicitBroker());
 
-      return new MysqlStateStore<>(dataSource, stateStoreTableName, compressedValues, stateClass);
+      MysqlStateStore<T> stateStore = new MysqlStateStore<>(dataSource, stateStoreTableName, compressedValues,
+          stateClass);
+      stateStore.setCompactStateFormat(MysqlStateStore.getCompactStateFormat(config));
+      stateStore.setMetricContext(config);
+      return stateStore;
     } catch (Exception e) {
       throw new RuntimeException("Failed to create MysqlStateStore with factory", e);
     }
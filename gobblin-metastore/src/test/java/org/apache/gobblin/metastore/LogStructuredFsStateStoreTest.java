@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.metastore;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.util.ClassAliasResolver;
+
+
+/**
+ * Unit tests for {@link LogStructuredFsStateStore}.
+ */
+@Test(groups = { "gobblin.metastore" })
+public class LogStructuredFsStateStoreTest {
+  private static final String ROOT_DIR = "log-metastore-test";
+
+  private FileSystem fs;
+  private LogStructuredFsStateStore<State> stateStore;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    this.fs = FileSystem.getLocal(new Configuration());
+    Config config = ConfigFactory.empty()
+        .withValue(ConfigurationKeys.STATE_STORE_FS_URI_KEY, ConfigValueFactory.fromAnyRef("file:///"))
+        .withValue(ConfigurationKeys.STATE_STORE_ROOT_DIR_KEY, ConfigValueFactory.fromAnyRef(ROOT_DIR))
+        .withValue(ConfigurationKeys.STATE_STORE_LOG_COMPACTION_THRESHOLD_KEY, ConfigValueFactory.fromAnyRef(4));
+
+    StateStore.Factory stateStoreFactory =
+        new ClassAliasResolver<>(StateStore.Factory.class).resolveClass("fsLog").newInstance();
+    this.stateStore = (LogStructuredFsStateStore<State>) stateStoreFactory.createStateStore(config, State.class);
+
+    // cleanup in case files left behind by a prior run
+    this.stateStore.delete("testStore");
+    this.stateStore.delete("testStore2");
+    this.stateStore.delete("testStore3");
+    this.stateStore.delete("testStore5");
+  }
+
+  @Test
+  public void testPutAndGet() throws IOException {
+    Assert.assertFalse(this.stateStore.exists("testStore", "testTable"));
+    this.stateStore.putAll("testStore", "testTable", createStates("v1", 3));
+    this.stateStore.put("testStore2", "testTable", createStates("v1", 1).get(0));
+    Assert.assertTrue(this.stateStore.exists("testStore", "testTable"));
+
+    List<State> states = this.stateStore.getAll("testStore", "testTable");
+    Assert.assertEquals(states.size(), 3);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(states.get(i).getId(), "s" + i);
+      Assert.assertEquals(states.get(i).getProp("k" + i), "v1");
+    }
+    Assert.assertEquals(this.stateStore.get("testStore", "testTable", "s1").getProp("k1"), "v1");
+    Assert.assertNull(this.stateStore.get("testStore", "testTable", "s3"));
+    Assert.assertNull(this.stateStore.get("testStore", "missingTable", "s1"));
+
+    // Returned states are copies that do not affect the store
+    states.get(0).setProp("k0", "changed");
+    Assert.assertEquals(this.stateStore.get("testStore", "testTable", "s0").getProp("k0"), "v1");
+  }
+
+  @Test(dependsOnMethods = "testPutAndGet")
+  public void testAliasAndDelete() throws IOException {
+    this.stateStore.createAlias("testStore", "testTable", "testTableAlias");
+    Assert.assertEquals(this.stateStore.getAll("testStore", "testTableAlias").size(), 3);
+
+    // An alias is a copy, later changes to the original are not visible through it
+    this.stateStore.putAll("testStore", "testTable", createStates("v2", 2));
+    Assert.assertEquals(this.stateStore.getAll("testStore", "testTable").size(), 2);
+    Assert.assertEquals(this.stateStore.getAll("testStore", "testTableAlias").size(), 3);
+
+    this.stateStore.create("testStore", "emptyTable");
+    Assert.assertTrue(this.stateStore.getAll("testStore", "emptyTable").isEmpty());
+    this.stateStore.delete("testStore", "emptyTable");
+    Assert.assertFalse(this.stateStore.exists("testStore", "emptyTable"));
+
+    List<String> tableNames = this.stateStore.getTableNames("testStore", Predicates.<String>alwaysTrue());
+    Assert.assertEquals(tableNames, Lists.newArrayList("testTable", "testTableAlias"));
+    List<String> storeNames = this.stateStore.getStoreNames(Predicates.<String>alwaysTrue());
+    Assert.assertTrue(storeNames.contains("testStore") && storeNames.contains("testStore2"));
+  }
+
+  @Test(dependsOnMethods = "testAliasAndDelete")
+  public void testCompactionAndConcurrentReader() throws IOException {
+    LogStructuredFsStateStore<State> reader = new LogStructuredFsStateStore<>(this.fs, ROOT_DIR, State.class);
+    Assert.assertEquals(reader.getAll("testStore", "testTableAlias").size(), 3);
+
+    for (int i = 0; i < 10; i++) {
+      this.stateStore.putAll("testStore", "table" + i, createStates("v" + i, 1));
+      Assert.assertTrue(listSegments("testStore").length <= this.stateStore.getCompactionThreshold());
+      // The reader picks up new delta segments as well as segments compacted after it last read the store
+      Assert.assertEquals(reader.get("testStore", "table" + i, "s0").getProp("k0"), "v" + i);
+    }
+
+    this.stateStore.compact("testStore");
+    FileStatus[] segments = listSegments("testStore");
+    Assert.assertEquals(segments.length, 1);
+    Assert.assertTrue(segments[0].getPath().getName().endsWith(".base.seg"));
+
+    LogStructuredFsStateStore<State> newReader = new LogStructuredFsStateStore<>(this.fs, ROOT_DIR, State.class);
+    Assert.assertEquals(newReader.getTableNames("testStore", Predicates.<String>alwaysTrue()).size(), 12);
+    Assert.assertEquals(newReader.getAll("testStore", "testTable").size(), 2);
+    Assert.assertEquals(newReader.getAll("testStore", "testTableAlias").size(), 3);
+    Assert.assertEquals(newReader.getAll("testStore").size(), 15);
+
+    this.stateStore.delete("testStore");
+    Assert.assertFalse(reader.exists("testStore", "testTable"));
+    Assert.assertTrue(this.stateStore.getAll("testStore").isEmpty());
+  }
+
+  @Test(dependsOnMethods = "testCompactionAndConcurrentReader")
+  public void testEquivalentStoreNames() throws IOException {
+    this.stateStore.putAll("testStore4/", "testTable", createStates("v1", 2));
+    Assert.assertEquals(this.stateStore.getAll("testStore4", "testTable").size(), 2);
+    this.stateStore.delete("testStore4");
+    Assert.assertFalse(this.stateStore.exists("testStore4/", "testTable"));
+  }
+
+  @Test(dependsOnMethods = "testCompactionAndConcurrentReader")
+  public void testConcurrentWritersWithIndexEviction() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Void>> futures = Lists.newArrayList();
+      for (int t = 0; t < 4; t++) {
+        final int thread = t;
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            for (int i = 0; i < 30; i++) {
+              // Writing to other stores evicts the index of the shared store while it is in use
+              stateStore.put("churnStore" + thread + "_" + i, "testTable", createStates("v1", 1).get(0));
+              stateStore.put("testStore3", "table" + thread + "_" + i, createStates("v" + i, 1).get(0));
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    LogStructuredFsStateStore<State> reader = new LogStructuredFsStateStore<>(this.fs, ROOT_DIR, State.class);
+    Assert.assertEquals(reader.getTableNames("testStore3", Predicates.<String>alwaysTrue()).size(), 120);
+    Assert.assertEquals(reader.get("testStore3", "table3_29", "s0").getProp("k0"), "v29");
+    Assert.assertTrue(listSegments("testStore3").length <= this.stateStore.getCompactionThreshold());
+  }
+
+  @Test(dependsOnMethods = "testCompactionAndConcurrentReader")
+  public void testConflictingWriterWithFailedRename() throws IOException {
+    final LogStructuredFsStateStore<State> otherWriter =
+        new LogStructuredFsStateStore<>(this.fs, ROOT_DIR, State.class);
+    final AtomicBoolean conflicted = new AtomicBoolean(false);
+    LogStructuredFsStateStore<State> writer = new LogStructuredFsStateStore<State>(this.fs, ROOT_DIR, State.class) {
+      @Override
+      protected void renamePath(Path tmpTablePath, Path tablePath) throws IOException {
+        if (conflicted.compareAndSet(false, true)) {
+          // Another writer writes the same segment first, and the rename fails without a FileAlreadyExistsException
+          otherWriter.put("testStore5", "otherTable", createStates("v1", 1).get(0));
+          throw new IOException("Failed to rename " + tmpTablePath + " to " + tablePath);
+        }
+        super.renamePath(tmpTablePath, tablePath);
+      }
+    };
+
+    writer.put("testStore5", "testTable", createStates("v2", 1).get(0));
+    Assert.assertTrue(conflicted.get());
+
+    LogStructuredFsStateStore<State> reader = new LogStructuredFsStateStore<>(this.fs, ROOT_DIR, State.class);
+    Assert.assertEquals(reader.get("testStore5", "otherTable", "s0").getProp("k0"), "v1");
+    Assert.assertEquals(reader.get("testStore5", "testTable", "s0").getProp("k0"), "v2");
+    // The temporary file of the failed rename is deleted
+    Assert.assertEquals(listSegments("testStore5").length, 2);
+  }
+
+  private FileStatus[] listSegments(String storeName) throws IOException {
+    return this.fs.listStatus(new Path(ROOT_DIR, storeName));
+  }
+
+  private static List<State> createStates(String value, int count) {
+    List<State> states = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      State state = new State();
+      state.setId("s" + i);
+      state.setProp("k" + i, value);
+      states.add(state);
+    }
+    return states;
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    Path rootDir = new Path(ROOT_DIR);
+    if (this.fs.exists(rootDir)) {
+      this.fs.delete(rootDir, true);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+
+
+/**
+ * Measures the per-record cost of updating the metrics of a task level {@link MetricContext}, whose updates propagate
+ * to its job level parent, from concurrent threads, in default and low overhead mode.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@org.openjdk.jmh.annotations.Fork(value = 3)
+@BenchmarkMode(value = Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class MetricContextBenchmark {
+
+  @State(value = Scope.Benchmark)
+  public static class ContextState {
+    @Param({"false", "true"})
+    public boolean lowOverhead;
+
+    private MetricContext jobContext;
+    private MetricContext taskContext;
+    private Meter meter;
+    private Timer timer;
+    private ContextAwareHistogram histogram;
+
+    @Setup
+    public void setup() {
+      this.jobContext = MetricContext.builder("job").lowOverhead(this.lowOverhead).build();
+      this.taskContext = this.jobContext.childBuilder("task").build();
+      this.meter = this.taskContext.meter("records");
+      this.timer = this.taskContext.timer("recordProcessing");
+      this.histogram = this.taskContext.contextAwareHistogram("recordSize");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+      this.taskContext.close();
+      this.jobContext.close();
+    }
+  }
+
+  @Benchmark
+  public void markMeter(ContextState state) {
+    state.meter.mark();
+  }
+
+  @Benchmark
+  public void updateTimer(ContextState state) {
+    state.timer.update(1000, TimeUnit.NANOSECONDS);
+  }
+
+  @Benchmark
+  public void updateHistogram(ContextState state) {
+    state.histogram.update(1000);
+  }
+}
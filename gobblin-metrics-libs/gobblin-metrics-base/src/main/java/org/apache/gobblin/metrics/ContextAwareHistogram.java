@@ -23,8 +23,10 @@ import lombok.experimental.Delegate;
 
 import com.codahale.metrics.ExponentiallyDecayingReservoir;
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Reservoir;
 import com.codahale.metrics.SlidingTimeWindowReservoir;
 
+import org.apache.gobblin.metrics.metric.HdrHistogramReservoir;
 import org.apache.gobblin.metrics.metric.InnerMetric;
 
 
@@ -57,6 +59,24 @@ public class ContextAwareHistogram extends Histogram implements ContextAwareMetr
     this.context = context;
   }
 
+  /**
+   * Create a {@link ContextAwareHistogram}, which is backed by an {@link HdrHistogramReservoir} and propagates its
+   * updates to the low overhead histogram of the same name in the parent context if {@code lowOverhead}.
+   */
+  ContextAwareHistogram(MetricContext context, String name, boolean lowOverhead) {
+    this(context, name, lowOverhead,
+        lowOverhead ? new HdrHistogramReservoir() : new ExponentiallyDecayingReservoir());
+  }
+
+  private ContextAwareHistogram(MetricContext context, String name, boolean lowOverhead, Reservoir reservoir) {
+    super(reservoir);
+    this.innerHistogram = lowOverhead
+        ? new InnerHistogram(context, name, this, reservoir,
+            ContextAwareMetricFactory.LOW_OVERHEAD_CONTEXT_AWARE_HISTOGRAM_FACTORY)
+        : new InnerHistogram(context, name, this);
+    this.context = context;
+  }
+
   ContextAwareHistogram(MetricContext context, String name, long windowSize, TimeUnit unit) {
     super(new SlidingTimeWindowReservoir(windowSize, unit));
     this.innerHistogram = new InnerHistogram(context, name, this, windowSize, unit);
@@ -51,6 +51,15 @@ public class ContextAwareMeter extends Meter implements ContextAwareMetric {
     this.context = context;
   }
 
+  /**
+   * Create a {@link ContextAwareMeter}, which is backed by a {@link LowOverheadInnerMeter} if {@code lowOverhead}.
+   */
+  ContextAwareMeter(MetricContext context, String name, boolean lowOverhead) {
+    this.innerMeter =
+        lowOverhead ? new LowOverheadInnerMeter(context, name, this) : new InnerMeter(context, name, this);
+    this.context = context;
+  }
+
 
   @Override
   public MetricContext getContext() {
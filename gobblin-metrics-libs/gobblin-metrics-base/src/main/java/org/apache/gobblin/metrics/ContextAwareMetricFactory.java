@@ -38,6 +38,12 @@ public interface ContextAwareMetricFactory<T extends ContextAwareMetric> {
       new ContextAwareHistogramFactory();
   public static final ContextAwareMetricFactory<ContextAwareTimer> DEFAULT_CONTEXT_AWARE_TIMER_FACTORY =
       new ContextAwareTimerFactory();
+  public static final ContextAwareMetricFactory<ContextAwareMeter> LOW_OVERHEAD_CONTEXT_AWARE_METER_FACTORY =
+      new LowOverheadContextAwareMeterFactory();
+  public static final ContextAwareMetricFactory<ContextAwareHistogram> LOW_OVERHEAD_CONTEXT_AWARE_HISTOGRAM_FACTORY =
+      new LowOverheadContextAwareHistogramFactory();
+  public static final ContextAwareMetricFactory<ContextAwareTimer> LOW_OVERHEAD_CONTEXT_AWARE_TIMER_FACTORY =
+      new LowOverheadContextAwareTimerFactory();
 
   /**
    * Create a new context-aware metric.
@@ -143,4 +149,40 @@ public interface ContextAwareMetricFactory<T extends ContextAwareMetric> {
       return Timer.class.isInstance(metric);
     }
   }
+
+  /**
+   * An implementation of {@link ContextAwareMetricFactory} for {@link ContextAwareMeter}s of {@link MetricContext}s in
+   * low overhead mode.
+   */
+  public static class LowOverheadContextAwareMeterFactory extends ContextAwareMeterFactory {
+
+    @Override
+    public ContextAwareMeter newMetric(MetricContext context, String name) {
+      return new ContextAwareMeter(context, name, true);
+    }
+  }
+
+  /**
+   * An implementation of {@link ContextAwareMetricFactory} for {@link ContextAwareHistogram}s of {@link MetricContext}s
+   * in low overhead mode.
+   */
+  public static class LowOverheadContextAwareHistogramFactory extends ContextAwareHistogramFactory {
+
+    @Override
+    public ContextAwareHistogram newMetric(MetricContext context, String name) {
+      return new ContextAwareHistogram(context, name, true);
+    }
+  }
+
+  /**
+   * An implementation of {@link ContextAwareMetricFactory} for {@link ContextAwareTimer}s of {@link MetricContext}s in
+   * low overhead mode.
+   */
+  public static class LowOverheadContextAwareTimerFactory extends ContextAwareTimerFactory {
+
+    @Override
+    public ContextAwareTimer newMetric(MetricContext context, String name) {
+      return new ContextAwareTimer(context, name, true);
+    }
+  }
 }
@@ -54,6 +54,15 @@ public class ContextAwareTimer extends Timer implements ContextAwareMetric {
     this.context = context;
   }
 
+  /**
+   * Create a {@link ContextAwareTimer}, which is backed by a {@link LowOverheadInnerTimer} if {@code lowOverhead}.
+   */
+  ContextAwareTimer(MetricContext context, String name, boolean lowOverhead) {
+    this.innerTimer =
+        lowOverhead ? new LowOverheadInnerTimer(context, name, this) : new InnerTimer(context, name, this);
+    this.context = context;
+  }
+
   ContextAwareTimer(MetricContext context, String name, long windowSize, TimeUnit unit) {
     super(new SlidingTimeWindowReservoir(windowSize, unit));
     this.innerTimer = new InnerTimer(context, name, this, windowSize, unit);
@@ -22,6 +22,7 @@ import java.util.concurrent.TimeUnit;
 
 import com.codahale.metrics.ExponentiallyDecayingReservoir;
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Reservoir;
 import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.google.common.base.Optional;
 
@@ -52,6 +53,26 @@ public class InnerHistogram extends Histogram implements InnerMetric {
     this.contextAwareHistogram = new WeakReference<>(contextAwareHistogram);
   }
 
+  /**
+   * Create an {@link InnerHistogram} backed by the given {@link Reservoir}, which propagates its updates to the
+   * histogram of the same name built by the given {@link ContextAwareMetricFactory} in the parent {@link MetricContext}.
+   */
+  InnerHistogram(MetricContext context, String name, ContextAwareHistogram contextAwareHistogram, Reservoir reservoir,
+      ContextAwareMetricFactory<ContextAwareHistogram> parentFactory) {
+    super(reservoir);
+
+    this.name = name;
+
+    Optional<MetricContext> parentContext = context.getParent();
+    if (parentContext.isPresent()) {
+      this.parentHistogram = Optional.fromNullable(parentContext.get().contextAwareHistogram(name, parentFactory));
+    } else {
+      this.parentHistogram = Optional.absent();
+    }
+
+    this.contextAwareHistogram = new WeakReference<>(contextAwareHistogram);
+  }
+
   InnerHistogram(MetricContext context, String name, ContextAwareHistogram contextAwareHistogram, long windowSize, TimeUnit unit) {
     super(new SlidingTimeWindowReservoir(windowSize, unit));
 
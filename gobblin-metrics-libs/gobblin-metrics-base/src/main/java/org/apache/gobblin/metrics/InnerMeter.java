@@ -31,7 +31,7 @@ import org.apache.gobblin.metrics.metric.InnerMetric;
 public class InnerMeter extends Meter implements InnerMetric {
 
   private final String name;
-  private final Optional<ContextAwareMeter> parentMeter;
+  protected final Optional<ContextAwareMeter> parentMeter;
   private final WeakReference<ContextAwareMeter> contextAwareMeter;
 
   InnerMeter(MetricContext context, String name, ContextAwareMeter contextAwareMeter) {
@@ -46,6 +46,23 @@ public class InnerMeter extends Meter implements InnerMetric {
     this.contextAwareMeter = new WeakReference<>(contextAwareMeter);
   }
 
+  /**
+   * Create an {@link InnerMeter} which propagates its updates to the meter of the same name built by the given
+   * {@link ContextAwareMetricFactory} in the parent {@link MetricContext}.
+   */
+  InnerMeter(MetricContext context, String name, ContextAwareMeter contextAwareMeter,
+      ContextAwareMetricFactory<ContextAwareMeter> parentFactory) {
+    this.name = name;
+
+    Optional<MetricContext> parentContext = context.getParent();
+    if (parentContext.isPresent()) {
+      this.parentMeter = Optional.fromNullable(parentContext.get().contextAwareMeter(name, parentFactory));
+    } else {
+      this.parentMeter = Optional.absent();
+    }
+    this.contextAwareMeter = new WeakReference<>(contextAwareMeter);
+  }
+
   @Override
   public void mark(long n) {
     super.mark(n);
@@ -33,7 +33,7 @@ import org.apache.gobblin.metrics.metric.InnerMetric;
 public class InnerTimer extends Timer implements InnerMetric {
 
   private final String name;
-  private final Optional<ContextAwareTimer> parentTimer;
+  protected final Optional<ContextAwareTimer> parentTimer;
   private final WeakReference<ContextAwareTimer> timer;
 
   InnerTimer(MetricContext context, String name, ContextAwareTimer contextAwareTimer) {
@@ -48,6 +48,23 @@ public class InnerTimer extends Timer implements InnerMetric {
     this.timer = new WeakReference<>(contextAwareTimer);
   }
 
+  /**
+   * Create an {@link InnerTimer} which propagates its updates to the timer of the same name built by the given
+   * {@link ContextAwareMetricFactory} in the parent {@link MetricContext}.
+   */
+  InnerTimer(MetricContext context, String name, ContextAwareTimer contextAwareTimer,
+      ContextAwareMetricFactory<ContextAwareTimer> parentFactory) {
+    this.name = name;
+
+    Optional<MetricContext> parentContext = context.getParent();
+    if (parentContext.isPresent()) {
+      this.parentTimer = Optional.fromNullable(parentContext.get().contextAwareTimer(name, parentFactory));
+    } else {
+      this.parentTimer = Optional.absent();
+    }
+    this.timer = new WeakReference<>(contextAwareTimer);
+  }
+
   InnerTimer(MetricContext context, String name, ContextAwareTimer contextAwareTimer, long windowSize, TimeUnit unit) {
     super(new SlidingTimeWindowReservoir(windowSize, unit));
     this.name = name;
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.metrics;
+
+import org.apache.gobblin.metrics.metric.StripedMeter;
+
+
+/**
+ * An {@link InnerMeter} for {@link MetricContext}s in low overhead mode, which records its marks in a
+ * {@link StripedMeter} and propagates them to the low overhead meter of the same name in the parent context.
+ */
+class LowOverheadInnerMeter extends InnerMeter {
+
+  private final StripedMeter meter = new StripedMeter();
+
+  LowOverheadInnerMeter(MetricContext context, String name, ContextAwareMeter contextAwareMeter) {
+    super(context, name, contextAwareMeter, ContextAwareMetricFactory.LOW_OVERHEAD_CONTEXT_AWARE_METER_FACTORY);
+  }
+
+  @Override
+  public void mark(long n) {
+    this.meter.mark(n);
+    if (this.parentMeter.isPresent()) {
+      this.parentMeter.get().mark(n);
+    }
+  }
+
+  @Override
+  public long getCount() {
+    return this.meter.getCount();
+  }
+
+  @Override
+  public double getFifteenMinuteRate() {
+    return this.meter.getFifteenMinuteRate();
+  }
+
+  @Override
+  public double getFiveMinuteRate() {
+    return this.meter.getFiveMinuteRate();
+  }
+
+  @Override
+  public double getMeanRate() {
+    return this.meter.getMeanRate();
+  }
+
+  @Override
+  public double getOneMinuteRate() {
+    return this.meter.getOneMinuteRate();
+  }
+}
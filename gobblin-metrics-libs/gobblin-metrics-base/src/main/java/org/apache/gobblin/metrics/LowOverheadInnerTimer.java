@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Snapshot;
+
+import org.apache.gobblin.metrics.metric.StripedTimer;
+
+
+/**
+ * An {@link InnerTimer} for {@link MetricContext}s in low overhead mode, which records its durations in a
+ * {@link StripedTimer} and propagates them to the low overhead timer of the same name in the parent context.
+ */
+class LowOverheadInnerTimer extends InnerTimer {
+
+  private final StripedTimer timer = new StripedTimer();
+
+  LowOverheadInnerTimer(MetricContext context, String name, ContextAwareTimer contextAwareTimer) {
+    super(context, name, contextAwareTimer, ContextAwareMetricFactory.LOW_OVERHEAD_CONTEXT_AWARE_TIMER_FACTORY);
+  }
+
+  @Override
+  public void update(long duration, TimeUnit unit) {
+    this.timer.update(duration, unit);
+    if (this.parentTimer.isPresent()) {
+      this.parentTimer.get().update(duration, unit);
+    }
+  }
+
+  @Override
+  public void update(Duration duration) {
+    update(duration.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public <T> T time(Callable<T> event) throws Exception {
+    long startTime = System.nanoTime();
+    try {
+      return event.call();
+    } finally {
+      update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public <T> T timeSupplier(Supplier<T> event) {
+    long startTime = System.nanoTime();
+    try {
+      return event.get();
+    } finally {
+      update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public void time(Runnable event) {
+    long startTime = System.nanoTime();
+    try {
+      event.run();
+    } finally {
+      update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public long getCount() {
+    return this.timer.getCount();
+  }
+
+  @Override
+  public double getFifteenMinuteRate() {
+    return this.timer.getFifteenMinuteRate();
+  }
+
+  @Override
+  public double getFiveMinuteRate() {
+    return this.timer.getFiveMinuteRate();
+  }
+
+  @Override
+  public double getMeanRate() {
+    return this.timer.getMeanRate();
+  }
+
+  @Override
+  public double getOneMinuteRate() {
+    return this.timer.getOneMinuteRate();
+  }
+
+  @Override
+  public Snapshot getSnapshot() {
+    return this.timer.getSnapshot();
+  }
+}
@@ -80,6 +80,12 @@ import org.apache.gobblin.util.ExecutorsUtils;
  *   of itself when constructing the metric name prefix.
  * </p>
  *
+ * <p>
+ *   A {@link MetricContext} in low overhead mode, which is inherited by its children, creates meters, histograms and
+ *   timers whose updates do not synchronize or read the clock, for use on the per-record path. Their rates and
+ *   snapshots are aggregated when they are read, e.g. by a reporter, and their names are the same as in default mode.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class MetricContext extends MetricRegistry implements ReportableContext, Closeable {
@@ -92,6 +98,9 @@ public class MetricContext extends MetricRegistry implements ReportableContext,
   @Getter
   private final InnerMetricContext innerMetricContext;
 
+  @Getter
+  private final boolean lowOverhead;
+
   private static final Logger LOG = LoggerFactory.getLogger(MetricContext.class);
 
   public static final String GOBBLIN_METRICS_NOTIFICATIONS_TIMER_NAME = "gobblin.metrics.notifications.timer";
@@ -107,8 +116,15 @@ public class MetricContext extends MetricRegistry implements ReportableContext,
   private final Set<ContextAwareMetric> contextAwareMetricsSet;
 
   protected MetricContext(String name, MetricContext parent, List<Tag<?>> tags, boolean isRoot) throws NameConflictException {
+    this(name, parent, tags, isRoot, false);
+  }
+
+  protected MetricContext(String name, MetricContext parent, List<Tag<?>> tags, boolean isRoot, boolean lowOverhead)
+      throws NameConflictException {
     Preconditions.checkArgument(!Strings.isNullOrEmpty(name));
 
+    this.lowOverhead = lowOverhead;
+
     this.closer = Closer.create();
 
     try {
@@ -444,7 +460,8 @@ public class MetricContext extends MetricRegistry implements ReportableContext,
    * @return the {@link ContextAwareMeter} with the given name
    */
   public ContextAwareMeter contextAwareMeter(String name) {
-    return contextAwareMeter(name, ContextAwareMetricFactory.DEFAULT_CONTEXT_AWARE_METER_FACTORY);
+    return contextAwareMeter(name, this.lowOverhead ? ContextAwareMetricFactory.LOW_OVERHEAD_CONTEXT_AWARE_METER_FACTORY
+        : ContextAwareMetricFactory.DEFAULT_CONTEXT_AWARE_METER_FACTORY);
   }
 
   /**
@@ -465,7 +482,21 @@ public class MetricContext extends MetricRegistry implements ReportableContext,
    * @return the {@link ContextAwareHistogram} with the given name
    */
   public ContextAwareHistogram contextAwareHistogram(String name) {
-    return this.innerMetricContext.getOrCreate(name, ContextAwareMetricFactory.DEFAULT_CONTEXT_AWARE_HISTOGRAM_FACTORY);
+    return contextAwareHistogram(name, this.lowOverhead
+        ? ContextAwareMetricFactory.LOW_OVERHEAD_CONTEXT_AWARE_HISTOGRAM_FACTORY
+        : ContextAwareMetricFactory.DEFAULT_CONTEXT_AWARE_HISTOGRAM_FACTORY);
+  }
+
+  /**
+   * Get a {@link ContextAwareHistogram} with a given name.
+   *
+   * @param name name of the {@link ContextAwareHistogram}
+   * @param factory a {@link ContextAwareMetricFactory} for building {@link ContextAwareHistogram}s
+   * @return the {@link ContextAwareHistogram} with the given name
+   */
+  public ContextAwareHistogram contextAwareHistogram(String name,
+      ContextAwareMetricFactory<ContextAwareHistogram> factory) {
+    return this.innerMetricContext.getOrCreate(name, factory);
   }
 
   /**
@@ -489,7 +520,19 @@ public class MetricContext extends MetricRegistry implements ReportableContext,
    * @return the {@link ContextAwareTimer} with the given name
    */
   public ContextAwareTimer contextAwareTimer(String name) {
-    return this.innerMetricContext.getOrCreate(name, ContextAwareMetricFactory.DEFAULT_CONTEXT_AWARE_TIMER_FACTORY);
+    return contextAwareTimer(name, this.lowOverhead ? ContextAwareMetricFactory.LOW_OVERHEAD_CONTEXT_AWARE_TIMER_FACTORY
+        : ContextAwareMetricFactory.DEFAULT_CONTEXT_AWARE_TIMER_FACTORY);
+  }
+
+  /**
+   * Get a {@link ContextAwareTimer} with a given name.
+   *
+   * @param name name of the {@link ContextAwareTimer}
+   * @param factory a {@link ContextAwareMetricFactory} for building {@link ContextAwareTimer}s
+   * @return the {@link ContextAwareTimer} with the given name
+   */
+  public ContextAwareTimer contextAwareTimer(String name, ContextAwareMetricFactory<ContextAwareTimer> factory) {
+    return this.innerMetricContext.getOrCreate(name, factory);
   }
 
   /**
@@ -648,6 +691,7 @@ public class MetricContext extends MetricRegistry implements ReportableContext,
     private String name;
     private MetricContext parent = null;
     private final List<Tag<?>> tags = Lists.newArrayList();
+    private boolean lowOverhead = false;
 
     public Builder(String name) {
       this.name = name;
@@ -667,6 +711,20 @@ public class MetricContext extends MetricRegistry implements ReportableContext,
       this.parent = parent;
       // Inherit parent context's tags
       this.tags.addAll(parent.getTags());
+      // Inherit parent context's low overhead mode
+      this.lowOverhead |= parent.isLowOverhead();
+      return this;
+    }
+
+    /**
+     * Set whether the {@link MetricContext} is in low overhead mode. A child of a context in low overhead mode is
+     * always in low overhead mode.
+     *
+     * @param lowOverhead whether the {@link MetricContext} is in low overhead mode
+     * @return {@code this}
+     */
+    public Builder lowOverhead(boolean lowOverhead) {
+      this.lowOverhead = lowOverhead || (this.parent != null && this.parent.isLowOverhead());
       return this;
     }
 
@@ -736,7 +794,7 @@ public class MetricContext extends MetricRegistry implements ReportableContext,
       if(this.parent == null) {
         hasParent(RootMetricContext.get());
       }
-      return new MetricContext(this.name, this.parent, this.tags, false);
+      return new MetricContext(this.name, this.parent, this.tags, false, this.lowOverhead);
     }
 
   }
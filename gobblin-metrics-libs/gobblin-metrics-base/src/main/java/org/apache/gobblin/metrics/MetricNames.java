@@ -111,5 +111,21 @@ public class MetricNames {
      * A {@link com.codahale.metrics.Timer} measuring the time taken for each write operation.
      */
     public static final String WRITE_TIMER = "gobblin.writer.write.time";
+
+    /**
+     * A {@link com.codahale.metrics.Gauge} of the current maximum number of outstanding writes of an async writer.
+     */
+    public static final String OUTSTANDING_WRITES_LIMIT_GAUGE = "gobblin.writer.outstanding.writes.limit";
+
+    /**
+     * A {@link com.codahale.metrics.Gauge} of the current batch size limit in bytes of a batching writer.
+     */
+    public static final String BATCH_SIZE_LIMIT_GAUGE = "gobblin.writer.batch.size.limit";
+
+    /**
+     * A {@link com.codahale.metrics.Gauge} of the current time in milliseconds a batching writer waits for an
+     * incomplete batch to fill up before sending it.
+     */
+    public static final String BATCH_LINGER_GAUGE = "gobblin.writer.batch.linger";
   }
 }
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.metrics.metric;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.google.common.primitives.Longs;
+
+
+/**
+ * A {@link Reservoir} backed by an HdrHistogram {@link Recorder}, whose {@link #update(long)} is wait-free.
+ *
+ * <p>
+ *   Values are aggregated into fixed time windows when a {@link Snapshot} is taken, e.g. by a reporter, and a
+ *   {@link Snapshot} covers the values of the current and the previous window. Percentiles are accurate to two
+ *   significant digits, and negative values are recorded as 0.
+ * </p>
+ */
+public class HdrHistogramReservoir implements Reservoir {
+
+  public static final long DEFAULT_WINDOW_MINUTES = 1;
+  private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 2;
+
+  private final Recorder recorder = new Recorder(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+  private final Clock clock;
+  private final long windowNanos;
+
+  // Aggregated values, guarded by this
+  private Histogram intervalHistogram = null;
+  private Histogram previousWindow = new Histogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+  private Histogram currentWindow = new Histogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+  private long currentWindowStart;
+
+  public HdrHistogramReservoir() {
+    this(DEFAULT_WINDOW_MINUTES, TimeUnit.MINUTES, Clock.defaultClock());
+  }
+
+  public HdrHistogramReservoir(long window, TimeUnit unit, Clock clock) {
+    this.clock = clock;
+    this.windowNanos = unit.toNanos(window);
+    this.currentWindowStart = clock.getTick();
+  }
+
+  @Override
+  public int size() {
+    return getSnapshot().size();
+  }
+
+  @Override
+  public void update(long value) {
+    this.recorder.recordValue(Math.max(0, value));
+  }
+
+  @Override
+  public synchronized Snapshot getSnapshot() {
+    long now = this.clock.getTick();
+    if (now - this.currentWindowStart >= this.windowNanos) {
+      Histogram window = this.previousWindow;
+      this.previousWindow = this.currentWindow;
+      this.currentWindow = window;
+      this.currentWindow.reset();
+      if (now - this.currentWindowStart >= 2 * this.windowNanos) {
+        this.previousWindow.reset();
+      }
+      this.currentWindowStart = now;
+    }
+
+    this.intervalHistogram = this.recorder.getIntervalHistogram(this.intervalHistogram);
+    this.currentWindow.add(this.intervalHistogram);
+    Histogram histogram = this.previousWindow.copy();
+    histogram.add(this.currentWindow);
+    return new HdrSnapshot(histogram);
+  }
+
+  /**
+   * A {@link Snapshot} of an HdrHistogram {@link Histogram}. Its values are the distinct recorded values.
+   */
+  private static class HdrSnapshot extends Snapshot {
+    private final Histogram histogram;
+
+    private HdrSnapshot(Histogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public double getValue(double quantile) {
+      return this.histogram.getValueAtPercentile(quantile * 100);
+    }
+
+    @Override
+    public long[] getValues() {
+      List<Long> values = new ArrayList<>();
+      for (HistogramIterationValue value : this.histogram.recordedValues()) {
+        values.add(this.histogram.highestEquivalentValue(value.getValueIteratedTo()));
+      }
+      return Longs.toArray(values);
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.min(Integer.MAX_VALUE, this.histogram.getTotalCount());
+    }
+
+    @Override
+    public long getMax() {
+      return this.histogram.getMaxValue();
+    }
+
+    @Override
+    public double getMean() {
+      return this.histogram.getMean();
+    }
+
+    @Override
+    public long getMin() {
+      return this.histogram.getMinValue();
+    }
+
+    @Override
+    public double getStdDev() {
+      return this.histogram.getStdDeviation();
+    }
+
+    @Override
+    public void dump(OutputStream output) {
+      try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+        for (long value : getValues()) {
+          out.printf("%d%n", value);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.metrics.metric;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.EWMA;
+import com.codahale.metrics.Meter;
+
+
+/**
+ * A {@link Meter} whose {@link #mark(long)} only adds to a striped {@link LongAdder}.
+ *
+ * <p>
+ *   A {@link Meter} reads the clock and may tick its moving averages on every mark. This meter instead updates its
+ *   moving averages when its rates are read, e.g. by a reporter, spreading the marks since the previous read evenly
+ *   over the elapsed tick intervals. Its rates are therefore only as fine-grained as the interval between reads.
+ * </p>
+ */
+public class StripedMeter extends Meter {
+
+  private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+  private final LongAdder count = new LongAdder();
+  private final Clock clock;
+  private final long startTime;
+
+  // Moving averages, only updated when read and guarded by this
+  private final EWMA m1Rate = EWMA.oneMinuteEWMA();
+  private final EWMA m5Rate = EWMA.fiveMinuteEWMA();
+  private final EWMA m15Rate = EWMA.fifteenMinuteEWMA();
+  private final EWMA[] rates = new EWMA[] { this.m1Rate, this.m5Rate, this.m15Rate };
+  private long lastTick;
+  private long lastTickCount = 0;
+
+  public StripedMeter() {
+    this(Clock.defaultClock());
+  }
+
+  public StripedMeter(Clock clock) {
+    this.clock = clock;
+    this.startTime = clock.getTick();
+    this.lastTick = this.startTime;
+  }
+
+  @Override
+  public void mark() {
+    mark(1);
+  }
+
+  @Override
+  public void mark(long n) {
+    this.count.add(n);
+  }
+
+  @Override
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  @Override
+  public double getMeanRate() {
+    long count = getCount();
+    if (count == 0) {
+      return 0.0;
+    }
+    double elapsed = this.clock.getTick() - this.startTime;
+    return count / elapsed * TimeUnit.SECONDS.toNanos(1);
+  }
+
+  @Override
+  public double getOneMinuteRate() {
+    return tickIfNecessary(this.m1Rate);
+  }
+
+  @Override
+  public double getFiveMinuteRate() {
+    return tickIfNecessary(this.m5Rate);
+  }
+
+  @Override
+  public double getFifteenMinuteRate() {
+    return tickIfNecessary(this.m15Rate);
+  }
+
+  private synchronized double tickIfNecessary(EWMA rate) {
+    long ticks = (this.clock.getTick() - this.lastTick) / TICK_INTERVAL;
+    if (ticks > 0) {
+      long count = getCount();
+      long marks = count - this.lastTickCount;
+      for (long i = 0; i < ticks; i++) {
+        long tickMarks = marks / ticks + (i < marks % ticks ? 1 : 0);
+        for (EWMA ewma : this.rates) {
+          ewma.update(tickMarks);
+          ewma.tick();
+        }
+      }
+      this.lastTick += ticks * TICK_INTERVAL;
+      this.lastTickCount = count;
+    }
+    return rate.getRate(TimeUnit.SECONDS);
+  }
+}
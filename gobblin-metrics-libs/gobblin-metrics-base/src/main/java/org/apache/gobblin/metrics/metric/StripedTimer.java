@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.metrics.metric;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+
+/**
+ * A {@link Timer} built from a {@link StripedMeter} and a {@link Histogram} of an {@link HdrHistogramReservoir}, so
+ * that recording a duration does not synchronize or read the clock.
+ */
+public class StripedTimer extends Timer {
+
+  private final StripedMeter meter;
+  private final Histogram histogram;
+  private final Clock clock;
+
+  public StripedTimer() {
+    this(new HdrHistogramReservoir(), Clock.defaultClock());
+  }
+
+  public StripedTimer(Reservoir reservoir, Clock clock) {
+    super(reservoir, clock);
+    this.meter = new StripedMeter(clock);
+    this.histogram = new Histogram(reservoir);
+    this.clock = clock;
+  }
+
+  @Override
+  public void update(long duration, TimeUnit unit) {
+    long nanos = unit.toNanos(duration);
+    if (nanos >= 0) {
+      this.histogram.update(nanos);
+      this.meter.mark();
+    }
+  }
+
+  @Override
+  public void update(Duration duration) {
+    update(duration.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public <T> T time(Callable<T> event) throws Exception {
+    long startTime = this.clock.getTick();
+    try {
+      return event.call();
+    } finally {
+      update(this.clock.getTick() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public <T> T timeSupplier(Supplier<T> event) {
+    long startTime = this.clock.getTick();
+    try {
+      return event.get();
+    } finally {
+      update(this.clock.getTick() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public void time(Runnable event) {
+    long startTime = this.clock.getTick();
+    try {
+      event.run();
+    } finally {
+      update(this.clock.getTick() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public long getCount() {
+    return this.histogram.getCount();
+  }
+
+  @Override
+  public double getFifteenMinuteRate() {
+    return this.meter.getFifteenMinuteRate();
+  }
+
+  @Override
+  public double getFiveMinuteRate() {
+    return this.meter.getFiveMinuteRate();
+  }
+
+  @Override
+  public double getMeanRate() {
+    return this.meter.getMeanRate();
+  }
+
+  @Override
+  public double getOneMinuteRate() {
+    return this.meter.getOneMinuteRate();
+  }
+
+  @Override
+  public Snapshot getSnapshot() {
+    return this.histogram.getSnapshot();
+  }
+}
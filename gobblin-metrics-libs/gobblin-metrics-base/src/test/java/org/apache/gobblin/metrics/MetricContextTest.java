@@ -218,6 +218,51 @@ public class MetricContextTest {
     Assert.assertTrue(jobTotalDuration.time().stop() >= 0l);
   }
 
+  @Test
+  public void testLowOverheadContext() throws IOException {
+    MetricContext jobContext = MetricContext.builder(CONTEXT_NAME + "_" + UUID.randomUUID().toString())
+        .lowOverhead(true)
+        .build();
+    MetricContext taskContext = jobContext.childBuilder(CHILD_CONTEXT_NAME).build();
+    Assert.assertTrue(jobContext.isLowOverhead());
+    Assert.assertTrue(taskContext.isLowOverhead());
+    Assert.assertFalse(this.context.isLowOverhead());
+
+    try {
+      ContextAwareMeter taskRecordProcessRate = taskContext.contextAwareMeter(RECORD_PROCESS_RATE);
+      taskRecordProcessRate.mark();
+      taskRecordProcessRate.mark(3);
+      ContextAwareMeter jobRecordProcessRate = jobContext.contextAwareMeter(RECORD_PROCESS_RATE);
+      Assert.assertEquals(taskRecordProcessRate.getCount(), 4l);
+      Assert.assertEquals(jobRecordProcessRate.getCount(), 4l);
+      Assert.assertEquals(taskContext.getMeters().get(RECORD_PROCESS_RATE), taskRecordProcessRate.getInnerMetric());
+      Assert.assertTrue(taskRecordProcessRate.getInnerMetric() instanceof LowOverheadInnerMeter);
+
+      ContextAwareHistogram taskRecordSizeDist = taskContext.contextAwareHistogram(RECORD_SIZE_DISTRIBUTION);
+      taskRecordSizeDist.update(2);
+      taskRecordSizeDist.update(4);
+      ContextAwareHistogram jobRecordSizeDist = jobContext.contextAwareHistogram(RECORD_SIZE_DISTRIBUTION);
+      Assert.assertEquals(jobRecordSizeDist.getCount(), 2l);
+      Assert.assertEquals(jobRecordSizeDist.getSnapshot().getMin(), 2l);
+      Assert.assertEquals(jobRecordSizeDist.getSnapshot().getMax(), 4l);
+      Assert.assertEquals(taskContext.getHistograms().get(RECORD_SIZE_DISTRIBUTION),
+          taskRecordSizeDist.getInnerMetric());
+
+      ContextAwareTimer taskTotalDuration = taskContext.contextAwareTimer(TOTAL_DURATION);
+      taskTotalDuration.update(50, TimeUnit.MILLISECONDS);
+      taskTotalDuration.time().stop();
+      ContextAwareTimer jobTotalDuration = jobContext.contextAwareTimer(TOTAL_DURATION);
+      Assert.assertEquals(taskTotalDuration.getCount(), 2l);
+      Assert.assertEquals(jobTotalDuration.getCount(), 2l);
+      Assert.assertTrue(jobTotalDuration.getSnapshot().getMax() >= TimeUnit.MILLISECONDS.toNanos(50l));
+      Assert.assertEquals(taskContext.getTimers().get(TOTAL_DURATION), taskTotalDuration.getInnerMetric());
+      Assert.assertTrue(taskTotalDuration.getInnerMetric() instanceof LowOverheadInnerTimer);
+    } finally {
+      taskContext.close();
+      jobContext.close();
+    }
+  }
+
   @Test
   public void testTaggableGauge() {
     ContextAwareGauge<Long> queueSize = this.context.newContextAwareGauge(
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.metrics.metric;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+
+
+/**
+ * Unit tests for {@link StripedMeter}, {@link StripedTimer} and {@link HdrHistogramReservoir}.
+ */
+@Test(groups = {"gobblin.metrics"})
+public class StripedMetricsTest {
+
+  @Test
+  public void testStripedMeter() throws Exception {
+    ManualClock clock = new ManualClock();
+    final StripedMeter meter = new StripedMeter(clock);
+    Assert.assertEquals(meter.getMeanRate(), 0.0);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int i = 0; i < 4; i++) {
+      executor.submit(() -> {
+        for (int j = 0; j < 1000; j++) {
+          meter.mark();
+        }
+      });
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    meter.mark(1000);
+    Assert.assertEquals(meter.getCount(), 5000);
+
+    // Rates are only updated once a tick interval elapsed
+    Assert.assertEquals(meter.getOneMinuteRate(), 0.0);
+    clock.advance(10, TimeUnit.SECONDS);
+    Assert.assertEquals(meter.getMeanRate(), 500.0, 0.001);
+    Assert.assertTrue(meter.getOneMinuteRate() > 0);
+    Assert.assertTrue(meter.getFiveMinuteRate() > 0);
+    Assert.assertTrue(meter.getFifteenMinuteRate() > 0);
+
+    // Without marks, rates decay
+    double oneMinuteRate = meter.getOneMinuteRate();
+    clock.advance(1, TimeUnit.MINUTES);
+    Assert.assertTrue(meter.getOneMinuteRate() < oneMinuteRate);
+  }
+
+  @Test
+  public void testHdrHistogramReservoir() {
+    ManualClock clock = new ManualClock();
+    HdrHistogramReservoir reservoir = new HdrHistogramReservoir(1, TimeUnit.MINUTES, clock);
+    for (long i = 1; i <= 100; i++) {
+      reservoir.update(i);
+    }
+    reservoir.update(-1);
+
+    Snapshot snapshot = reservoir.getSnapshot();
+    Assert.assertEquals(snapshot.size(), 101);
+    Assert.assertEquals(snapshot.getMin(), 0);
+    Assert.assertEquals(snapshot.getMax(), 100);
+    Assert.assertEquals(snapshot.getMedian(), 50.0, 1.0);
+    Assert.assertEquals(snapshot.getValues().length, 101);
+
+    // Values are kept for the current and the previous window
+    clock.advance(1, TimeUnit.MINUTES);
+    reservoir.update(200);
+    snapshot = reservoir.getSnapshot();
+    Assert.assertEquals(snapshot.size(), 102);
+    Assert.assertEquals(snapshot.getMax(), 200);
+
+    clock.advance(1, TimeUnit.MINUTES);
+    snapshot = reservoir.getSnapshot();
+    Assert.assertEquals(snapshot.size(), 1);
+    Assert.assertEquals(snapshot.getMin(), 200);
+
+    clock.advance(2, TimeUnit.MINUTES);
+    Assert.assertEquals(reservoir.getSnapshot().size(), 0);
+  }
+
+  @Test
+  public void testStripedTimer() throws Exception {
+    ManualClock clock = new ManualClock();
+    StripedTimer timer = new StripedTimer(new HdrHistogramReservoir(1, TimeUnit.MINUTES, clock), clock);
+    timer.update(10, TimeUnit.MICROSECONDS);
+    timer.update(-1, TimeUnit.MICROSECONDS);
+    Assert.assertEquals(timer.time(() -> {
+      clock.advance(20, TimeUnit.MICROSECONDS);
+      return "done";
+    }), "done");
+    timer.time(() -> clock.advance(30, TimeUnit.MICROSECONDS));
+
+    Assert.assertEquals(timer.getCount(), 3);
+    Snapshot snapshot = timer.getSnapshot();
+    Assert.assertEquals(snapshot.getMin(), TimeUnit.MICROSECONDS.toNanos(10), 100);
+    Assert.assertEquals(snapshot.getMax(), TimeUnit.MICROSECONDS.toNanos(30), 300);
+
+    clock.advance(5, TimeUnit.SECONDS);
+    Assert.assertEquals(timer.getMeanRate(), 3 / 5.0, 0.001);
+  }
+
+  private static class ManualClock extends Clock {
+    private long tick = 0;
+
+    @Override
+    public long getTick() {
+      return this.tick;
+    }
+
+    private void advance(long duration, TimeUnit unit) {
+      this.tick += unit.toNanos(duration);
+    }
+  }
+}
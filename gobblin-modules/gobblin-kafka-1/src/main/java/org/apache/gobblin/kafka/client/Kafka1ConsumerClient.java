@@ -38,6 +38,7 @@ import org.apache.gobblin.source.extractor.extract.kafka.KafkaTopic;
 import org.apache.gobblin.util.ConfigUtils;
 import org.apache.kafka.clients.consumer.*;
 import org.apache.kafka.clients.consumer.internals.NoOpConsumerRebalanceListener;
+import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
@@ -146,6 +147,51 @@ public class Kafka1ConsumerClient<K, V> extends AbstractBaseKafkaConsumerClient
     return this.consumer.position(topicPartition);
   }
 
+  @Override
+  public boolean supportsBulkOffsetFetch() {
+    return true;
+  }
+
+  @Override
+  public Map<KafkaPartition, Long> getEarliestOffsets(Collection<KafkaPartition> partitions)
+      throws KafkaOffsetRetrievalFailureException {
+    try {
+      return toKafkaPartitionOffsets(partitions, this.consumer.beginningOffsets(toTopicPartitions(partitions)));
+    } catch (KafkaException e) {
+      throw new KafkaOffsetRetrievalFailureException(
+          String.format("Failed to get earliest offsets of %d partitions: %s", partitions.size(), e.getMessage()));
+    }
+  }
+
+  @Override
+  public Map<KafkaPartition, Long> getLatestOffsets(Collection<KafkaPartition> partitions)
+      throws KafkaOffsetRetrievalFailureException {
+    try {
+      return toKafkaPartitionOffsets(partitions, this.consumer.endOffsets(toTopicPartitions(partitions)));
+    } catch (KafkaException e) {
+      throw new KafkaOffsetRetrievalFailureException(
+          String.format("Failed to get latest offsets of %d partitions: %s", partitions.size(), e.getMessage()));
+    }
+  }
+
+  private static List<TopicPartition> toTopicPartitions(Collection<KafkaPartition> partitions) {
+    return partitions.stream()
+        .map(partition -> new TopicPartition(partition.getTopicName(), partition.getId()))
+        .collect(Collectors.toList());
+  }
+
+  private static Map<KafkaPartition, Long> toKafkaPartitionOffsets(Collection<KafkaPartition> partitions,
+      Map<TopicPartition, Long> offsets) {
+    Map<KafkaPartition, Long> partitionOffsets = new HashMap<>();
+    for (KafkaPartition partition : partitions) {
+      Long offset = offsets.get(new TopicPartition(partition.getTopicName(), partition.getId()));
+      if (offset != null) {
+        partitionOffsets.put(partition, offset);
+      }
+    }
+    return partitionOffsets;
+  }
+
   @Override
   public Iterator<KafkaConsumerRecord> consume(KafkaPartition partition, long nextOffset, long maxOffset) {
 
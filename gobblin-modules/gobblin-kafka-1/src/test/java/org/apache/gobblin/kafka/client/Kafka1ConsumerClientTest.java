@@ -76,4 +76,23 @@ public class Kafka1ConsumerClientTest {
     }
 
   }
+
+  @Test
+  public void testGetOffsetsInBulk() throws Exception {
+    Config testConfig = ConfigFactory.parseMap(ImmutableMap.of(ConfigurationKeys.KAFKA_BROKERS, "test"));
+    MockConsumer<String, String> consumer = new MockConsumer<String, String>(OffsetResetStrategy.NONE);
+    consumer.updateBeginningOffsets(ImmutableMap.of(new TopicPartition("test_topic", 0), 5L,
+        new TopicPartition("test_topic", 1), 7L));
+    consumer.updateEndOffsets(ImmutableMap.of(new TopicPartition("test_topic", 0), 50L,
+        new TopicPartition("test_topic", 1), 70L));
+
+    KafkaPartition partition0 = new KafkaPartition.Builder().withId(0).withTopicName("test_topic").build();
+    KafkaPartition partition1 = new KafkaPartition.Builder().withId(1).withTopicName("test_topic").build();
+    try (Kafka1ConsumerClient<String, String> kafka1Client = new Kafka1ConsumerClient<>(testConfig, consumer)) {
+      Assert.assertEquals(kafka1Client.getEarliestOffsets(Arrays.asList(partition0, partition1)),
+          ImmutableMap.of(partition0, 5L, partition1, 7L));
+      Assert.assertEquals(kafka1Client.getLatestOffsets(Arrays.asList(partition0, partition1)),
+          ImmutableMap.of(partition0, 50L, partition1, 70L));
+    }
+  }
 }
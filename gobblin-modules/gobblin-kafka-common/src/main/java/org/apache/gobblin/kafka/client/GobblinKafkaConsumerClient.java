@@ -75,6 +75,33 @@ public interface GobblinKafkaConsumerClient extends Closeable {
    */
   public long getLatestOffset(KafkaPartition partition) throws KafkaOffsetRetrievalFailureException;
 
+  /**
+   * Whether {@link #getEarliestOffsets(Collection)} and {@link #getLatestOffsets(Collection)} fetch the offsets of all
+   * partitions in one request, instead of one request per partition as the default implementations do.
+   */
+  public default boolean supportsBulkOffsetFetch() {
+    return false;
+  }
+
+  /**
+   * Get the earliest available offset for a {@link Collection} of {@link KafkaPartition}s. NOTE: The default
+   * implementation is not efficient i.e. it will make a getEarliestOffset() call for every {@link KafkaPartition}.
+   * Individual implementations of {@link GobblinKafkaConsumerClient} should override this method to use more advanced
+   * APIs of the underlying KafkaConsumer to retrieve the earliest offsets for a collection of partitions.
+   *
+   * @param partitions for which earliest offset is retrieved
+   *
+   * @throws KafkaOffsetRetrievalFailureException - If the underlying kafka-client does not support getting earliest offset
+   */
+  public default Map<KafkaPartition, Long> getEarliestOffsets(Collection<KafkaPartition> partitions)
+      throws KafkaOffsetRetrievalFailureException {
+    Map<KafkaPartition, Long> offsetMap = Maps.newHashMap();
+    for (KafkaPartition partition: partitions) {
+      offsetMap.put(partition, getEarliestOffset(partition));
+    }
+    return offsetMap;
+  }
+
   /**
    * Get the latest available offset for a {@link Collection} of {@link KafkaPartition}s. NOTE: The default implementation
    * is not efficient i.e. it will make a getLatestOffset() call for every {@link KafkaPartition}. Individual implementations
@@ -18,28 +18,80 @@
 package org.apache.gobblin.kafka.schemareg;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.instrumented.Instrumented;
+import org.apache.gobblin.metrics.MetricContext;
+import org.apache.gobblin.util.ExecutorsUtils;
+
 
 /**
  * An implementation that wraps a passed in schema registry and caches interactions with it
+ *
+ * <p>
+ *   The caches are safe to share between threads, and concurrent misses for the same schema id make a single call to
+ *   the underlying registry. The schemas by id are bounded by {@link
+ *   KafkaSchemaRegistryConfigurationKeys#KAFKA_SCHEMA_REGISTRY_CACHE_MAX_SIZE} and can expire after {@link
+ *   KafkaSchemaRegistryConfigurationKeys#KAFKA_SCHEMA_REGISTRY_CACHE_TTL_SECONDS}. Ids that the registry reports as
+ *   unknown with a {@link SchemaNotFoundException}, but not other lookup failures, can be remembered for {@link
+ *   KafkaSchemaRegistryConfigurationKeys#KAFKA_SCHEMA_REGISTRY_CACHE_NEGATIVE_TTL_SECONDS}, and the latest schema of a
+ *   name can be cached and refreshed in the background every {@link
+ *   KafkaSchemaRegistryConfigurationKeys#KAFKA_SCHEMA_REGISTRY_CACHE_LATEST_SCHEMA_REFRESH_SECONDS}.
+ * </p>
  * {@inheritDoc}
  * */
 @Slf4j
 public class CachingKafkaSchemaRegistry<K,S> implements KafkaSchemaRegistry<K,S> {
 
+  public static final String CACHE_HITS = "kafka.schemaRegistry.cache.hits";
+  public static final String CACHE_MISSES = "kafka.schemaRegistry.cache.misses";
+  public static final String CACHE_NEGATIVE_HITS = "kafka.schemaRegistry.cache.negativeHits";
+  public static final String CACHE_LOAD_TIMER = "kafka.schemaRegistry.cache.load";
+
   private static final int DEFAULT_MAX_SCHEMA_REFERENCES = 10;
+  private static final int DEFAULT_CACHE_MAX_SIZE = 10000;
+  private static final long DEFAULT_CACHE_TTL_SECONDS = 0;
+  private static final long DEFAULT_CACHE_NEGATIVE_TTL_SECONDS = 0;
+  private static final long DEFAULT_CACHE_LATEST_SCHEMA_REFRESH_SECONDS = 0;
+
+  // Shared by all registries, so that refreshing the latest schemas does not take a thread per registry
+  private static final ExecutorService REFRESH_EXECUTOR = Executors.newFixedThreadPool(2,
+      ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("SchemaRegistryRefresher-%d")));
+
   private final KafkaSchemaRegistry<K,S> _kafkaSchemaRegistry;
-  private final HashMap<String, Map<S, K>> _namedSchemaCache;
-  private final HashMap<K, S> _idBasedCache;
+  private final ConcurrentMap<String, Map<S, K>> _namedSchemaCache;
+  private final Cache<K, S> _idBasedCache;
+  private final Optional<Cache<K, SchemaNotFoundException>> _unknownIdCache;
+  private final Optional<LoadingCache<String, S>> _latestSchemaCache;
   private final int _maxSchemaReferences;
 
+  private final Counter _hits;
+  private final Counter _misses;
+  private final Counter _negativeHits;
+  private final Timer _loadTimer;
+
 
   public CachingKafkaSchemaRegistry(KafkaSchemaRegistry kafkaSchemaRegistry)
   {
@@ -52,69 +104,168 @@ public class CachingKafkaSchemaRegistry<K,S> implements KafkaSchemaRegistry<K,S>
    * @param maxSchemaReferences: the maximum number of unique references that can exist for a given schema.
    */
   public CachingKafkaSchemaRegistry(KafkaSchemaRegistry kafkaSchemaRegistry, int maxSchemaReferences)
+  {
+    this(kafkaSchemaRegistry, maxSchemaReferences, new Properties());
+  }
+
+  /**
+   * Create a caching schema registry configured by the cache keys of {@link KafkaSchemaRegistryConfigurationKeys}.
+   * @param kafkaSchemaRegistry: a schema registry that needs caching
+   * @param props: the configuration of the cache, also used for its metrics.
+   */
+  public CachingKafkaSchemaRegistry(KafkaSchemaRegistry kafkaSchemaRegistry, Properties props)
+  {
+    this(kafkaSchemaRegistry, DEFAULT_MAX_SCHEMA_REFERENCES, props);
+  }
+
+  public CachingKafkaSchemaRegistry(KafkaSchemaRegistry kafkaSchemaRegistry, int maxSchemaReferences,
+      Properties props)
   {
     Preconditions.checkArgument(kafkaSchemaRegistry!=null, "KafkaSchemaRegistry cannot be null");
     Preconditions.checkArgument(!kafkaSchemaRegistry.hasInternalCache(), "SchemaRegistry already has a cache.");
+    State state = new State(props);
     _kafkaSchemaRegistry = kafkaSchemaRegistry;
-    _namedSchemaCache = new HashMap<>();
-    _idBasedCache = new HashMap<>();
+    _namedSchemaCache = new ConcurrentHashMap<>();
     _maxSchemaReferences = maxSchemaReferences;
+
+    MetricContext metricContext = Instrumented.getMetricContext(state, CachingKafkaSchemaRegistry.class);
+    _hits = metricContext.counter(CACHE_HITS);
+    _misses = metricContext.counter(CACHE_MISSES);
+    _negativeHits = metricContext.counter(CACHE_NEGATIVE_HITS);
+    _loadTimer = metricContext.timer(CACHE_LOAD_TIMER);
+
+    CacheBuilder<Object, Object> idCacheBuilder = CacheBuilder.newBuilder().maximumSize(
+        state.getPropAsInt(KafkaSchemaRegistryConfigurationKeys.KAFKA_SCHEMA_REGISTRY_CACHE_MAX_SIZE,
+            DEFAULT_CACHE_MAX_SIZE));
+    long ttlSeconds = state.getPropAsLong(KafkaSchemaRegistryConfigurationKeys.KAFKA_SCHEMA_REGISTRY_CACHE_TTL_SECONDS,
+        DEFAULT_CACHE_TTL_SECONDS);
+    if (ttlSeconds > 0) {
+      idCacheBuilder.expireAfterWrite(ttlSeconds, TimeUnit.SECONDS);
+    }
+    _idBasedCache = idCacheBuilder.build();
+
+    long negativeTtlSeconds =
+        state.getPropAsLong(KafkaSchemaRegistryConfigurationKeys.KAFKA_SCHEMA_REGISTRY_CACHE_NEGATIVE_TTL_SECONDS,
+            DEFAULT_CACHE_NEGATIVE_TTL_SECONDS);
+    _unknownIdCache = negativeTtlSeconds <= 0 ? Optional.absent() : Optional.of(CacheBuilder.newBuilder()
+        .maximumSize(DEFAULT_CACHE_MAX_SIZE)
+        .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+        .build());
+
+    long refreshSeconds = state.getPropAsLong(
+        KafkaSchemaRegistryConfigurationKeys.KAFKA_SCHEMA_REGISTRY_CACHE_LATEST_SCHEMA_REFRESH_SECONDS,
+        DEFAULT_CACHE_LATEST_SCHEMA_REFRESH_SECONDS);
+    // A schema which has not been refreshed for two intervals, e.g. because it was not read, is loaded again on read
+    _latestSchemaCache = refreshSeconds <= 0 ? Optional.absent() : Optional.of(CacheBuilder.newBuilder()
+        .maximumSize(DEFAULT_CACHE_MAX_SIZE)
+        .refreshAfterWrite(refreshSeconds, TimeUnit.SECONDS)
+        .expireAfterWrite(2 * refreshSeconds, TimeUnit.SECONDS)
+        .build(CacheLoader.asyncReload(new CacheLoader<String, S>() {
+          @Override
+          public S load(String name) throws Exception {
+            try (Timer.Context context = _loadTimer.time()) {
+              return _kafkaSchemaRegistry.getLatestSchema(name);
+            }
+          }
+        }, REFRESH_EXECUTOR)));
+
   }
 
   @Override
-  synchronized public K register(String name, S schema)
+  public K register(String name, S schema)
       throws IOException, SchemaRegistryException {
 
-    Map<S, K> schemaIdMap;
-    if (_namedSchemaCache.containsKey(name))
-    {
-      schemaIdMap = _namedSchemaCache.get(name);
-    }
-    else {
-      // we really care about reference equality to de-dup using cache
-      // when it comes to registering schemas, so use an IdentityHashMap here
-      schemaIdMap = new IdentityHashMap<>();
-      _namedSchemaCache.put(name, schemaIdMap);
-    }
+    // we really care about reference equality to de-dup using cache
+    // when it comes to registering schemas, so use an IdentityHashMap here
+    Map<S, K> schemaIdMap = _namedSchemaCache.computeIfAbsent(name, k -> new IdentityHashMap<>());
 
-    if (schemaIdMap.containsKey(schema))
-    {
-      return schemaIdMap.get(schema);
+    // Registrations under the same name are serialized, so that a schema is only registered once
+    synchronized (schemaIdMap) {
+      if (schemaIdMap.containsKey(schema))
+      {
+        return schemaIdMap.get(schema);
+      }
+      else
+      {
+        // check if schemaIdMap is getting too full
+        Preconditions.checkState(schemaIdMap.size() < _maxSchemaReferences,
+            "Too many schema objects for " + name + ". Cache is overfull.");
+      }
+      K id = _kafkaSchemaRegistry.register(name, schema);
+      schemaIdMap.put(schema, id);
+      if (schema != null) {
+        _idBasedCache.put(id, schema);
+      }
+      return id;
     }
-    else
-    {
-      // check if schemaIdMap is getting too full
-      Preconditions.checkState(schemaIdMap.size() < _maxSchemaReferences, "Too many schema objects for " + name +". Cache is overfull.");
-    }
-    K id = _kafkaSchemaRegistry.register(name, schema);
-    schemaIdMap.put(schema, id);
-    _idBasedCache.put(id, schema);
-    return id;
   }
 
   @Override
-  synchronized public S getById(K id)
+  public S getById(K id)
       throws IOException, SchemaRegistryException {
-    if (_idBasedCache.containsKey(id))
-    {
-      return _idBasedCache.get(id);
-    }
-    else
-    {
-      S schema = _kafkaSchemaRegistry.getById(id);
-      _idBasedCache.put(id, schema);
+    S schema = _idBasedCache.getIfPresent(id);
+    if (schema != null) {
+      _hits.inc();
       return schema;
     }
+    if (_unknownIdCache.isPresent()) {
+      SchemaNotFoundException unknownIdException = _unknownIdCache.get().getIfPresent(id);
+      if (unknownIdException != null) {
+        _negativeHits.inc();
+        throw new SchemaRegistryException("Schema id " + id + " was recently not found", unknownIdException);
+      }
+    }
+
+    _misses.inc();
+    try {
+      return _idBasedCache.get(id, () -> {
+        try (Timer.Context context = _loadTimer.time()) {
+          return _kafkaSchemaRegistry.getById(id);
+        }
+      });
+    } catch (CacheLoader.InvalidCacheLoadException e) {
+      // The underlying registry returned null, which is not cached
+      return null;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      // Only ids confirmed to be unknown are cached, other failures may be transient
+      if (e.getCause() instanceof SchemaNotFoundException && _unknownIdCache.isPresent()) {
+        _unknownIdCache.get().put(id, (SchemaNotFoundException) e.getCause());
+      }
+      throw rethrow(e.getCause());
+    }
   }
 
   /**
-   * This call is not cached because we never want to miss out on the latest schema.
+   * Unless {@link KafkaSchemaRegistryConfigurationKeys#KAFKA_SCHEMA_REGISTRY_CACHE_LATEST_SCHEMA_REFRESH_SECONDS} is
+   * set, this call is not cached because we never want to miss out on the latest schema. Otherwise, the cached schema
+   * may be up to two refresh intervals old.
    * {@inheritDoc}
    */
   @Override
   public S getLatestSchema(String name)
       throws IOException, SchemaRegistryException {
-    return _kafkaSchemaRegistry.getLatestSchema(name);
+    if (!_latestSchemaCache.isPresent()) {
+      return _kafkaSchemaRegistry.getLatestSchema(name);
+    }
+    LoadingCache<String, S> latestSchemaCache = _latestSchemaCache.get();
+    if (latestSchemaCache.getIfPresent(name) != null) {
+      _hits.inc();
+    } else {
+      _misses.inc();
+    }
+    try {
+      // Reading through the loading cache triggers the background refresh when the schema is due for one
+      return latestSchemaCache.get(name);
+    } catch (CacheLoader.InvalidCacheLoadException e) {
+      return null;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw rethrow(e.getCause());
+    }
+  }
+
+  private static SchemaRegistryException rethrow(Throwable cause) throws IOException, SchemaRegistryException {
+    Throwables.propagateIfPossible(cause, IOException.class, SchemaRegistryException.class);
+    return new SchemaRegistryException(cause);
   }
 
   @Override
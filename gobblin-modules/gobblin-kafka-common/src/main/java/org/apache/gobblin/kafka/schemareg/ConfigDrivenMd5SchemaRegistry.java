@@ -117,7 +117,7 @@ public class ConfigDrivenMd5SchemaRegistry implements KafkaSchemaRegistry<MD5Dig
       }
       else
       {
-        throw new SchemaRegistryException("Could not find schema with id : " + id.asString());
+        throw new SchemaNotFoundException("Could not find schema with id : " + id.asString());
       }
     }
 
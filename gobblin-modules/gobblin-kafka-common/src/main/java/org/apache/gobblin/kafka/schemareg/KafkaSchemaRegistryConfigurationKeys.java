@@ -24,6 +24,15 @@ public class KafkaSchemaRegistryConfigurationKeys {
   public final static String KAFKA_SCHEMA_REGISTRY_CLASS = "kafka.schemaRegistry.class";
   public final static String KAFKA_SCHEMA_REGISTRY_URL = "kafka.schemaRegistry.url";
   public final static String KAFKA_SCHEMA_REGISTRY_CACHE = "kafka.schemaRegistry.cache";
+  public final static String KAFKA_SCHEMA_REGISTRY_CACHE_MAX_SIZE = "kafka.schemaRegistry.cache.maxSize";
+  // 0 to never expire the cached schemas
+  public final static String KAFKA_SCHEMA_REGISTRY_CACHE_TTL_SECONDS = "kafka.schemaRegistry.cache.ttlSeconds";
+  // How long an id that the registry does not know about is not looked up again, 0 to always look it up
+  public final static String KAFKA_SCHEMA_REGISTRY_CACHE_NEGATIVE_TTL_SECONDS =
+      "kafka.schemaRegistry.cache.negativeTtlSeconds";
+  // How often the latest schemas are refreshed in the background, 0 to not cache them
+  public final static String KAFKA_SCHEMA_REGISTRY_CACHE_LATEST_SCHEMA_REFRESH_SECONDS =
+      "kafka.schemaRegistry.cache.latestSchemaRefreshSeconds";
   public final static String KAFKA_SCHEMA_REGISTRY_SWITCH_NAME = "kafka.schemaRegistry.switchName";
   public final static String KAFKA_SCHEMA_REGISTRY_SWITCH_NAME_DEFAULT = "true";
   public final static String KAFKA_SCHEMA_REGISTRY_OVERRIDE_NAMESPACE = "kafka.schemaRegistry.overrideNamespace";
@@ -255,6 +255,9 @@ public class LiKafkaSchemaRegistry implements KafkaSchemaRegistry<MD5Digest, Sch
       this.httpClientPool.returnObject(httpClient);
     }
 
+    if (statusCode == HttpStatus.SC_NOT_FOUND) {
+      throw new SchemaNotFoundException(String.format("Schema with key %s not found", key));
+    }
     if (statusCode != HttpStatus.SC_OK) {
       throw new SchemaRegistryException(
           String.format("Schema with key %s cannot be retrieved, statusCode = %d", key, statusCode));
@@ -59,4 +59,9 @@ public class FixedSchemaKafkaAvroExtractor extends KafkaAvroExtractor<Void> {
   protected Decoder getDecoder(byte[] payload) {
     return DecoderFactory.get().binaryDecoder(payload, null);
   }
+
+  @Override
+  protected int getEncodedRecordOffset(byte[] payload) {
+    return 0;
+  }
 }
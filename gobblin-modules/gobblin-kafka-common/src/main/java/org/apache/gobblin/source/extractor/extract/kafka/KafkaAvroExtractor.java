@@ -18,6 +18,7 @@
 package org.apache.gobblin.source.extractor.extract.kafka;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
@@ -38,6 +39,7 @@ import org.apache.gobblin.metrics.kafka.SchemaRegistryException;
 import org.apache.gobblin.source.extractor.DataRecordException;
 import org.apache.gobblin.source.extractor.Extractor;
 import org.apache.gobblin.util.AvroUtils;
+import org.apache.gobblin.util.EncodedGenericRecord;
 
 
 /**
@@ -47,6 +49,12 @@ import org.apache.gobblin.util.AvroUtils;
  * schema registry is not used (i.e., property {@link KafkaSchemaRegistry#KAFKA_SCHEMA_REGISTRY_CLASS} is not
  * specified, method {@link #getExtractorSchema()} should be overriden.
  *
+ * If {@link #AVRO_PASS_THROUGH_ENABLED} is set, records written with the schema of this extractor are not decoded but
+ * emitted as {@link EncodedGenericRecord}s, which are only decoded when their fields are accessed, and which writers
+ * such as {@link org.apache.gobblin.writer.AvroHdfsDataWriter} can write without re-encoding them. This requires
+ * subclasses to locate the Avro binary encoding of a record in its payload with
+ * {@link #getEncodedRecordOffset(byte[])}.
+ *
  * @author Ziyang Liu
  */
 @Slf4j
@@ -56,9 +64,15 @@ public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, Gener
       .type(SchemaBuilder.record("header").fields().name("time").type("long").withDefault(0).endRecord()).noDefault()
       .endRecord();
 
+  // Emit records that do not need a schema conversion without decoding them
+  public static final String AVRO_PASS_THROUGH_ENABLED = "gobblin.kafka.avroPassThrough.enabled";
+  public static final boolean DEFAULT_AVRO_PASS_THROUGH_ENABLED = false;
+
   protected final Optional<KafkaSchemaRegistry<K, Schema>> schemaRegistry;
   protected final Optional<Schema> schema;
   protected final Optional<GenericDatumReader<Record>> reader;
+  private final boolean passThroughEnabled;
+  private Schema lastExtractorSchema;
 
   public KafkaAvroExtractor(WorkUnitState state) {
     super(state);
@@ -72,6 +86,7 @@ public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, Gener
       log.error(String.format("Cannot find latest schema for topic %s. This topic will be skipped", this.topicName));
       this.reader = Optional.absent();
     }
+    this.passThroughEnabled = state.getPropAsBoolean(AVRO_PASS_THROUGH_ENABLED, DEFAULT_AVRO_PASS_THROUGH_ENABLED);
   }
 
   /**
@@ -109,6 +124,12 @@ public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, Gener
   protected GenericRecord decodeRecord(ByteArrayBasedKafkaRecord messageAndOffset) throws IOException {
     byte[] payload = messageAndOffset.getMessageBytes();
     Schema recordSchema = getRecordSchema(payload);
+    if (this.passThroughEnabled && isExtractorSchema(recordSchema)) {
+      int offset = getEncodedRecordOffset(payload);
+      if (offset >= 0) {
+        return new EncodedGenericRecord(this.schema.get(), ByteBuffer.wrap(payload, offset, payload.length - offset));
+      }
+    }
     Decoder decoder = getDecoder(payload);
     this.reader.get().setSchema(recordSchema);
     try {
@@ -121,6 +142,17 @@ public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, Gener
     }
   }
 
+  private boolean isExtractorSchema(Schema recordSchema) {
+    // Records of a topic usually share their schema object, so only compare a new schema object
+    if (recordSchema != this.lastExtractorSchema) {
+      if (!recordSchema.equals(this.schema.get())) {
+        return false;
+      }
+      this.lastExtractorSchema = recordSchema;
+    }
+    return true;
+  }
+
   /**
    * Convert the record to the output schema of this extractor
    * @param record the input record
@@ -141,4 +173,12 @@ public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, Gener
    * Obtain the Avro {@link Decoder} for a Kafka record given the payload of the record.
    */
   protected abstract Decoder getDecoder(byte[] payload);
+
+  /**
+   * Obtain the offset of the Avro binary encoding of a Kafka record within the payload of the record, which extends
+   * to the end of the payload, or -1 if it is unknown. Records with an unknown offset are always decoded.
+   */
+  protected int getEncodedRecordOffset(byte[] payload) {
+    return -1;
+  }
 }
@@ -44,12 +44,15 @@ import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.base.Stopwatch;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.typesafe.config.Config;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -141,6 +144,23 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
   public static final Boolean DEFAULT_OBSERVED_LATENCY_MEASUREMENT_ENABLED = false;
   public static final String RECORD_CREATION_TIMESTAMP_FIELD = "gobblin.kafka.recordCreationTimestampField";
   public static final String RECORD_CREATION_TIMESTAMP_UNIT = "gobblin.kafka.recordCreationTimestampUnit";
+  // Max number of partitions of a leader whose offsets are fetched in one request
+  public static final String OFFSET_FETCH_BATCH_SIZE = "gobblin.kafka.offsetFetchBatchSize";
+  public static final int DEFAULT_OFFSET_FETCH_BATCH_SIZE = 1000;
+  // How long discovered topics are reused by later runs of jobs in the same JVM, 0 to always discover them
+  public static final String TOPIC_METADATA_CACHE_TTL_SECONDS = "gobblin.kafka.topicMetadataCache.ttlSeconds";
+  public static final long DEFAULT_TOPIC_METADATA_CACHE_TTL_SECONDS = 0;
+  public static final String BULK_OFFSET_FETCH_TIMER = "bulkOffsetFetchTimer";
+  public static final String TOPIC_DISCOVERY_TIMER = "topicDiscoveryTimer";
+  public static final String PREVIOUS_OFFSET_STATE_TIMER = "previousOffsetStateTimer";
+  public static final String WORK_UNIT_CREATION_TIMER = "workUnitCreationTimer";
+  public static final String WORK_UNIT_PACKING_TIMER = "workUnitPackingTimer";
+  public static final String TOPIC_METADATA_CACHE_HITS = "topicMetadataCacheHits";
+
+  // Discovered topics shared by all KafkaSources in the JVM, keyed by brokers and topic filters
+  private static final Cache<String, CachedTopics> TOPIC_METADATA_CACHE = CacheBuilder.newBuilder()
+      .maximumSize(100)
+      .build();
 
   private final Set<String> moveToLatestTopics = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
   private final Map<KafkaPartition, Long> previousOffsets = Maps.newConcurrentMap();
@@ -243,19 +263,21 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
       this.kafkaConsumerClient.set(kafkaConsumerClientFactory.create(config));
 
       Collection<KafkaTopic> topics;
-      if(filteredTopicPartition.isPresent()) {
-        if(filteredTopicPartition.get().isEmpty()) {
-          // return an empty list as filteredTopicPartition is present but contains no valid entry
-          return new ArrayList<>();
+      try (Timer.Context context = this.metricContext.timer(TOPIC_DISCOVERY_TIMER).time()) {
+        if(filteredTopicPartition.isPresent()) {
+          if(filteredTopicPartition.get().isEmpty()) {
+            // return an empty list as filteredTopicPartition is present but contains no valid entry
+            return new ArrayList<>();
+          } else {
+            // If filteredTopicPartition present, use it to construct the whitelist pattern while leave blacklist empty
+            topics = this.kafkaConsumerClient.get()
+                .getFilteredTopics(Collections.emptyList(),
+                    filteredTopicPartitionMap.keySet().stream().map(Pattern::compile).collect(Collectors.toList()));
+          }
         } else {
-          // If filteredTopicPartition present, use it to construct the whitelist pattern while leave blacklist empty
-          topics = this.kafkaConsumerClient.get()
-              .getFilteredTopics(Collections.emptyList(),
-                  filteredTopicPartitionMap.keySet().stream().map(Pattern::compile).collect(Collectors.toList()));
+          // get topics based on job level config
+          topics = getValidTopics(getFilteredTopics(state), state);
         }
-      } else {
-        // get topics based on job level config
-        topics = getValidTopics(getFilteredTopics(state), state);
       }
       this.topicsToProcess = topics.stream().map(KafkaTopic::getName).collect(toSet());
 
@@ -283,6 +305,11 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
         populateClientPool(numOfThreads, kafkaConsumerClientFactory, config);
       }
 
+      // Load the previous offsets once before the work unit creators all need them
+      try (Timer.Context context = this.metricContext.timer(PREVIOUS_OFFSET_STATE_TIMER).time()) {
+        getAllPreviousOffsetState(state);
+      }
+
       Stopwatch createWorkUnitStopwatch = Stopwatch.createStarted();
 
       for (KafkaTopic topic : topics) {
@@ -306,6 +333,8 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
       }
 
       ExecutorsUtils.shutdownExecutorService(threadPool, Optional.of(LOG), 1L, TimeUnit.HOURS);
+      this.metricContext.timer(WORK_UNIT_CREATION_TIMER)
+          .update(createWorkUnitStopwatch.elapsed(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
       LOG.info(String.format("Created workunits for %d topics in %d seconds", kafkaTopicWorkunitMap.size(),
           createWorkUnitStopwatch.elapsed(TimeUnit.SECONDS)));
 
@@ -323,7 +352,10 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
       }
 
       addTopicSpecificPropsToWorkUnits(kafkaTopicWorkunitMap, topicSpecificStateMap);
-      List<WorkUnit> workUnitList = kafkaWorkUnitPacker.pack(kafkaTopicWorkunitMap, numOfMultiWorkunits);
+      List<WorkUnit> workUnitList;
+      try (Timer.Context context = this.metricContext.timer(WORK_UNIT_PACKING_TIMER).time()) {
+        workUnitList = kafkaWorkUnitPacker.pack(kafkaTopicWorkunitMap, numOfMultiWorkunits);
+      }
       setLimiterReportKeyListToWorkUnits(workUnitList, getLimiterExtractorReportKeys());
       return workUnitList;
     } catch (InstantiationException | IllegalAccessException | ClassNotFoundException e) {
@@ -448,11 +480,13 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
 
     List<WorkUnit> workUnits = Lists.newArrayList();
     List<KafkaPartition> topicPartitions = topic.getPartitions();
-    for (KafkaPartition partition : topicPartitions) {
-      if(filteredPartitions.isPresent() && !filteredPartitions.get().contains(partition.getId())) {
-        continue;
-      }
-      WorkUnit workUnit = getWorkUnitForTopicPartition(partition, state, topicSpecificState);
+    List<KafkaPartition> partitionsToProcess = topicPartitions.stream()
+        .filter(partition -> !filteredPartitions.isPresent() || filteredPartitions.get().contains(partition.getId()))
+        .collect(Collectors.toList());
+    Map<KafkaPartition, Offsets> fetchedOffsets = fetchOffsets(partitionsToProcess, state);
+    for (KafkaPartition partition : partitionsToProcess) {
+      WorkUnit workUnit = getWorkUnitForTopicPartition(partition, state, topicSpecificState,
+          Optional.fromNullable(fetchedOffsets.get(partition)));
       if (workUnit != null) {
         // For disqualified topics, for each of its workunits set the high watermark to be the same
         // as the low watermark, so that it will be skipped.
@@ -482,19 +516,58 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
     workUnit.setProp(ConfigurationKeys.WORK_UNIT_HIGH_WATER_MARK_KEY, workUnit.getLowWaterMark());
   }
 
+  /**
+   * Fetch the earliest and latest offsets of the partitions in bulk, with one request per batch of
+   * {@link #OFFSET_FETCH_BATCH_SIZE} partitions of the same leader. Partitions of a failed batch are left out, so that
+   * their offsets are fetched one by one. Nothing is fetched if the client has no bulk lookup, as its per-partition
+   * fallback would fetch the offsets of a failed batch twice.
+   */
+  private Map<KafkaPartition, Offsets> fetchOffsets(List<KafkaPartition> partitions, SourceState state) {
+    if (!this.kafkaConsumerClient.get().supportsBulkOffsetFetch()) {
+      return Collections.emptyMap();
+    }
+    int batchSize = state.getPropAsInt(OFFSET_FETCH_BATCH_SIZE, DEFAULT_OFFSET_FETCH_BATCH_SIZE);
+    Map<Integer, List<KafkaPartition>> partitionsByLeader = partitions.stream()
+        .collect(Collectors.groupingBy(partition -> partition.getLeader().getId()));
+    Map<KafkaPartition, Offsets> fetchedOffsets = Maps.newHashMap();
+    for (List<KafkaPartition> leaderPartitions : partitionsByLeader.values()) {
+      for (List<KafkaPartition> batch : Lists.partition(leaderPartitions, batchSize)) {
+        try (Timer.Context context = this.metricContext.timer(BULK_OFFSET_FETCH_TIMER).time()) {
+          long offsetFetchEpochTime = System.currentTimeMillis();
+          Map<KafkaPartition, Long> earliestOffsets = this.kafkaConsumerClient.get().getEarliestOffsets(batch);
+          Map<KafkaPartition, Long> latestOffsets = this.kafkaConsumerClient.get().getLatestOffsets(batch);
+          for (KafkaPartition partition : batch) {
+            if (earliestOffsets.containsKey(partition) && latestOffsets.containsKey(partition)) {
+              Offsets offsets = new Offsets();
+              offsets.setOffsetFetchEpochTime(offsetFetchEpochTime);
+              offsets.setEarliestOffset(earliestOffsets.get(partition));
+              offsets.setLatestOffset(latestOffsets.get(partition));
+              fetchedOffsets.put(partition, offsets);
+            }
+          }
+        } catch (Throwable t) {
+          LOG.warn("Failed to fetch offsets of {} partitions in bulk, fetching them one by one", batch.size(), t);
+        }
+      }
+    }
+    return fetchedOffsets;
+  }
+
   private WorkUnit getWorkUnitForTopicPartition(KafkaPartition partition, SourceState state,
-      Optional<State> topicSpecificState) {
-    Offsets offsets = new Offsets();
+      Optional<State> topicSpecificState, Optional<Offsets> fetchedOffsets) {
+    Offsets offsets = fetchedOffsets.or(new Offsets());
 
     boolean failedToGetKafkaOffsets = false;
 
-    try (Timer.Context context = this.metricContext.timer(OFFSET_FETCH_TIMER).time()) {
-      offsets.setOffsetFetchEpochTime(System.currentTimeMillis());
-      offsets.setEarliestOffset(this.kafkaConsumerClient.get().getEarliestOffset(partition));
-      offsets.setLatestOffset(this.kafkaConsumerClient.get().getLatestOffset(partition));
-    } catch (Throwable t) {
-      failedToGetKafkaOffsets = true;
-      LOG.error("Caught error in creating work unit for {}", partition, t);
+    if (!fetchedOffsets.isPresent()) {
+      try (Timer.Context context = this.metricContext.timer(OFFSET_FETCH_TIMER).time()) {
+        offsets.setOffsetFetchEpochTime(System.currentTimeMillis());
+        offsets.setEarliestOffset(this.kafkaConsumerClient.get().getEarliestOffset(partition));
+        offsets.setLatestOffset(this.kafkaConsumerClient.get().getLatestOffset(partition));
+      } catch (Throwable t) {
+        failedToGetKafkaOffsets = true;
+        LOG.error("Caught error in creating work unit for {}", partition, t);
+      }
     }
 
     long previousOffset = 0;
@@ -722,11 +795,19 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
   }
 
   // need to be synchronized as this.previousOffsets, this.previousExpectedHighWatermarks, and
-  // this.previousOffsetFetchEpochTimes need to be initialized once
-  private synchronized void getAllPreviousOffsetState(SourceState state) {
+  // this.previousOffsetFetchEpochTimes need to be initialized once. Once they are, no lock is taken.
+  private void getAllPreviousOffsetState(SourceState state) {
     if (this.doneGettingAllPreviousOffsets) {
       return;
     }
+    synchronized (this) {
+      if (!this.doneGettingAllPreviousOffsets) {
+        loadAllPreviousOffsetState(state);
+      }
+    }
+  }
+
+  private void loadAllPreviousOffsetState(SourceState state) {
     this.previousOffsets.clear();
     this.previousLowWatermarks.clear();
     this.previousExpectedHighWatermarks.clear();
@@ -871,7 +952,21 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
     if (!state.getPropAsBoolean(KafkaSource.ALLOW_PERIOD_IN_TOPIC_NAME, true)) {
       blacklist.add(Pattern.compile(".*\\..*"));
     }
-    return kafkaConsumerClient.get().getFilteredTopics(blacklist, whitelist);
+    long cacheTtlMillis = TimeUnit.SECONDS.toMillis(
+        state.getPropAsLong(TOPIC_METADATA_CACHE_TTL_SECONDS, DEFAULT_TOPIC_METADATA_CACHE_TTL_SECONDS));
+    if (cacheTtlMillis <= 0) {
+      return kafkaConsumerClient.get().getFilteredTopics(blacklist, whitelist);
+    }
+
+    String cacheKey = Joiner.on('|').join(state.getProp(ConfigurationKeys.KAFKA_BROKERS, ""), blacklist, whitelist);
+    CachedTopics cachedTopics = TOPIC_METADATA_CACHE.getIfPresent(cacheKey);
+    if (cachedTopics != null && System.currentTimeMillis() - cachedTopics.loadTime < cacheTtlMillis) {
+      this.metricContext.counter(TOPIC_METADATA_CACHE_HITS).inc();
+      return Lists.newArrayList(cachedTopics.topics);
+    }
+    List<KafkaTopic> topics = kafkaConsumerClient.get().getFilteredTopics(blacklist, whitelist);
+    TOPIC_METADATA_CACHE.put(cacheKey, new CachedTopics(Lists.newArrayList(topics), System.currentTimeMillis()));
+    return topics;
   }
 
   @Override
@@ -888,6 +983,15 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
     return new TopicValidators(state).validate(topics);
   }
 
+  /**
+   * Topics discovered by {@link #getFilteredTopics(SourceState)}, along with when they were discovered.
+   */
+  @AllArgsConstructor
+  private static class CachedTopics {
+    private final List<KafkaTopic> topics;
+    private final long loadTime;
+  }
+
   /**
    * This class contains startOffset, earliestOffset and latestOffset for a Kafka partition.
    */
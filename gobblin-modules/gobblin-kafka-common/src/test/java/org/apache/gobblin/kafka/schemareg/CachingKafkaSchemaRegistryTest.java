@@ -18,6 +18,14 @@
 package org.apache.gobblin.kafka.schemareg;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.mockito.Mockito.*;
 
@@ -130,4 +138,108 @@ public class CachingKafkaSchemaRegistryTest {
     verify(baseRegistry, times(0)).getById(anyInt());
   }
 
+  @Test
+  public void testNegativeCaching()
+      throws IOException, SchemaRegistryException {
+    KafkaSchemaRegistry<Integer, String> baseRegistry = mock(KafkaSchemaRegistry.class);
+    Properties props = new Properties();
+    props.setProperty(KafkaSchemaRegistryConfigurationKeys.KAFKA_SCHEMA_REGISTRY_CACHE_NEGATIVE_TTL_SECONDS, "3600");
+    CachingKafkaSchemaRegistry<Integer, String> cachingReg = new CachingKafkaSchemaRegistry<>(baseRegistry, props);
+
+    when(baseRegistry.getById(1)).thenThrow(new SchemaNotFoundException("Unknown id"));
+    for (int i = 0; i < 3; i++) {
+      try {
+        cachingReg.getById(1);
+        Assert.fail("Should have thrown an exception");
+      } catch (SchemaRegistryException e) {
+        log.info(e.getMessage());
+      }
+    }
+    // Only the first lookup of the unknown id reaches the underlying registry
+    verify(baseRegistry, times(1)).getById(1);
+
+    // Other failures are not cached, the next lookup reaches the underlying registry again
+    when(baseRegistry.getById(2)).thenThrow(new SchemaRegistryException("Unable to borrow HttpClient"))
+        .thenReturn("schema");
+    try {
+      cachingReg.getById(2);
+      Assert.fail("Should have thrown an exception");
+    } catch (SchemaRegistryException e) {
+      log.info(e.getMessage());
+    }
+    Assert.assertEquals(cachingReg.getById(2), "schema");
+    verify(baseRegistry, times(2)).getById(2);
+  }
+
+  @Test
+  public void testConcurrentMissesLoadOnce()
+      throws Exception {
+    KafkaSchemaRegistry<Integer, String> baseRegistry = mock(KafkaSchemaRegistry.class);
+    CachingKafkaSchemaRegistry<Integer, String> cachingReg = new CachingKafkaSchemaRegistry<>(baseRegistry, 2);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(baseRegistry.getById(1)).thenAnswer(invocation -> {
+      loading.countDown();
+      release.await();
+      return "schema";
+    });
+
+    int numThreads = 8;
+    List<Thread> threads = new CopyOnWriteArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads, runnable -> {
+      Thread thread = new Thread(runnable);
+      threads.add(thread);
+      return thread;
+    });
+    CountDownLatch started = new CountDownLatch(numThreads);
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        futures.add(executor.submit(() -> {
+          started.countDown();
+          return cachingReg.getById(1);
+        }));
+      }
+      started.await();
+      loading.await();
+      // Only release the load once all callers wait for it, one in the underlying registry and the others in the cache
+      long deadline = System.currentTimeMillis() + 10000;
+      while (!threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING)
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Assert.assertTrue(threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING));
+      release.countDown();
+      for (Future<String> future : futures) {
+        Assert.assertEquals(future.get(), "schema");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(baseRegistry, times(1)).getById(anyInt());
+  }
+
+  @Test
+  public void testLatestSchemaCaching()
+      throws IOException, SchemaRegistryException {
+    KafkaSchemaRegistry<Integer, String> baseRegistry = mock(KafkaSchemaRegistry.class);
+    String name = "test";
+    when(baseRegistry.getLatestSchema(name)).thenReturn("schema1");
+
+    // Not cached by default
+    CachingKafkaSchemaRegistry<Integer, String> cachingReg = new CachingKafkaSchemaRegistry<>(baseRegistry, 2);
+    Assert.assertEquals(cachingReg.getLatestSchema(name), "schema1");
+    Assert.assertEquals(cachingReg.getLatestSchema(name), "schema1");
+    verify(baseRegistry, times(2)).getLatestSchema(name);
+
+    Properties props = new Properties();
+    props.setProperty(KafkaSchemaRegistryConfigurationKeys.KAFKA_SCHEMA_REGISTRY_CACHE_LATEST_SCHEMA_REFRESH_SECONDS,
+        "3600");
+    cachingReg = new CachingKafkaSchemaRegistry<>(baseRegistry, props);
+    Assert.assertEquals(cachingReg.getLatestSchema(name), "schema1");
+    when(baseRegistry.getLatestSchema(name)).thenReturn("schema2");
+    Assert.assertEquals(cachingReg.getLatestSchema(name), "schema1");
+    verify(baseRegistry, times(3)).getLatestSchema(name);
+  }
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.source.extractor.extract.kafka;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.kafka.client.ByteArrayBasedKafkaRecord;
+import org.apache.gobblin.source.extractor.WatermarkInterval;
+import org.apache.gobblin.source.workunit.WorkUnit;
+import org.apache.gobblin.util.EncodedGenericRecord;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+@Test(groups = { "gobblin.source.extractor.extract.kafka" })
+public class FixedSchemaKafkaAvroExtractorTest {
+
+  private static final String TEST_TOPIC_NAME = "testTopic";
+  private static final Schema TEST_SCHEMA = SchemaBuilder.record("testRecord").namespace("testNamespace").fields()
+      .name("id").type().longType().noDefault()
+      .name("name").type().stringType().noDefault()
+      .endRecord();
+
+  @Test
+  public void testPassThrough() throws IOException {
+    WorkUnitState state = getWorkUnitState();
+    state.setProp(KafkaAvroExtractor.AVRO_PASS_THROUGH_ENABLED, true);
+    FixedSchemaKafkaAvroExtractor extractor = new FixedSchemaKafkaAvroExtractor(state);
+
+    for (long id = 0; id < 3; id++) {
+      GenericRecord record = new GenericRecordBuilder(TEST_SCHEMA).set("id", id).set("name", "name" + id).build();
+      byte[] payload = encode(record);
+
+      GenericRecord extracted = extractor.decodeRecord(getKafkaRecord(payload));
+
+      Assert.assertTrue(extracted instanceof EncodedGenericRecord);
+      EncodedGenericRecord encodedRecord = (EncodedGenericRecord) extracted;
+      Assert.assertFalse(encodedRecord.isDecoded());
+      Assert.assertEquals(encodedRecord.getSchema(), TEST_SCHEMA);
+      Assert.assertEquals(encodedRecord.getEncoded().get(), ByteBuffer.wrap(payload));
+      Assert.assertEquals(encodedRecord.decode(), record);
+    }
+  }
+
+  @Test
+  public void testPassThroughDisabled() throws IOException {
+    FixedSchemaKafkaAvroExtractor extractor = new FixedSchemaKafkaAvroExtractor(getWorkUnitState());
+
+    GenericRecord record = new GenericRecordBuilder(TEST_SCHEMA).set("id", 1L).set("name", "name").build();
+    GenericRecord extracted = extractor.decodeRecord(getKafkaRecord(encode(record)));
+
+    Assert.assertFalse(extracted instanceof EncodedGenericRecord);
+    Assert.assertEquals(extracted, record);
+  }
+
+  @Test
+  public void testPassThroughWithUnknownOffset() throws IOException {
+    WorkUnitState state = getWorkUnitState();
+    state.setProp(KafkaAvroExtractor.AVRO_PASS_THROUGH_ENABLED, true);
+    FixedSchemaKafkaAvroExtractor extractor = new FixedSchemaKafkaAvroExtractor(state) {
+      @Override
+      protected int getEncodedRecordOffset(byte[] payload) {
+        return -1;
+      }
+    };
+
+    GenericRecord record = new GenericRecordBuilder(TEST_SCHEMA).set("id", 1L).set("name", "name").build();
+    GenericRecord extracted = extractor.decodeRecord(getKafkaRecord(encode(record)));
+
+    Assert.assertFalse(extracted instanceof EncodedGenericRecord);
+    Assert.assertEquals(extracted, record);
+  }
+
+  private static WorkUnitState getWorkUnitState() {
+    WorkUnit workUnit = WorkUnit.createEmpty();
+    workUnit.setWatermarkInterval(new WatermarkInterval(new MultiLongWatermark(ImmutableList.of(0L)),
+        new MultiLongWatermark(ImmutableList.of(10L))));
+
+    WorkUnitState state = new WorkUnitState(workUnit, new State());
+    state.setProp(KafkaSource.TOPIC_NAME, TEST_TOPIC_NAME);
+    state.setProp(KafkaSource.PARTITION_ID, "0");
+    state.setProp(ConfigurationKeys.KAFKA_BROKERS, "localhost:8080");
+    state.setProp(KafkaSource.GOBBLIN_KAFKA_CONSUMER_CLIENT_FACTORY_CLASS,
+        KafkaStreamTestUtils.MockKafkaConsumerClientFactory.class.getName());
+    state.setProp(FixedSchemaKafkaAvroExtractor.STATIC_SCHEMA_ROOT_KEY + "." + TEST_TOPIC_NAME,
+        TEST_SCHEMA.toString());
+    return state;
+  }
+
+  private static byte[] encode(GenericRecord record) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(record.getSchema()).write(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  private static ByteArrayBasedKafkaRecord getKafkaRecord(byte[] payload) {
+    ByteArrayBasedKafkaRecord kafkaRecord = mock(ByteArrayBasedKafkaRecord.class);
+    when(kafkaRecord.getMessageBytes()).thenReturn(payload);
+    return kafkaRecord;
+  }
+}
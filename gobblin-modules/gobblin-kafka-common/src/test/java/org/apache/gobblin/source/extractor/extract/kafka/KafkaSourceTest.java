@@ -22,6 +22,7 @@ import com.typesafe.config.Config;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -145,6 +146,75 @@ public class KafkaSourceTest {
         toKafkaTopicList(allTopics.subList(0, 3))));
   }
 
+  @Test
+  public void testGetWorkunitsWithBulkOffsetFetch() {
+    CountingKafkaClient client = new CountingKafkaClient(true);
+    List<WorkUnit> workUnits = getWorkunitsWithCountingClient(client, "bulkFetchBrokers");
+
+    validatePartitionNumWithinWorkUnits(workUnits, 48);
+    // 16 partitions per topic share a leader, so each topic needs two batches of 8
+    Assert.assertEquals(client.bulkFetches, 6);
+    Assert.assertEquals(client.partitionFetches, 0);
+  }
+
+  @Test
+  public void testGetWorkunitsWithFailedBulkOffsetFetch() {
+    CountingKafkaClient client = new CountingKafkaClient(true);
+    client.failedBulkFetchTopic = testTopics.get(0);
+    List<WorkUnit> workUnits = getWorkunitsWithCountingClient(client, "failedBulkFetchBrokers");
+
+    validatePartitionNumWithinWorkUnits(workUnits, 48);
+    // Only the 16 partitions of the failed batches are fetched one by one
+    Assert.assertEquals(client.bulkFetches, 6);
+    Assert.assertEquals(client.partitionFetches, 16);
+  }
+
+  @Test
+  public void testGetWorkunitsWithoutBulkOffsetFetch() {
+    CountingKafkaClient client = new CountingKafkaClient(false);
+    List<WorkUnit> workUnits = getWorkunitsWithCountingClient(client, "noBulkFetchBrokers");
+
+    validatePartitionNumWithinWorkUnits(workUnits, 48);
+    Assert.assertEquals(client.bulkFetches, 0);
+    Assert.assertEquals(client.partitionFetches, 48);
+  }
+
+  @Test
+  public void testTopicMetadataCache() {
+    CountingKafkaClient client = new CountingKafkaClient(true);
+    SourceState state = new SourceState();
+    state.setProp(ConfigurationKeys.KAFKA_BROKERS, "topicCacheBrokers");
+
+    // Without a ttl, topics are always discovered
+    Assert.assertEquals(new TestKafkaSource(client).getFilteredTopics(state), toKafkaTopicList(testTopics));
+    Assert.assertEquals(new TestKafkaSource(client).getFilteredTopics(state), toKafkaTopicList(testTopics));
+    Assert.assertEquals(client.topicDiscoveries, 2);
+
+    // With a ttl, later sources reuse the topics discovered by the first one
+    state.setProp(KafkaSource.TOPIC_METADATA_CACHE_TTL_SECONDS, 3600);
+    state.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, "TestPath");
+    state.setProp(GOBBLIN_KAFKA_CONSUMER_CLIENT_FACTORY_CLASS, "MockCountingKafkaConsumerClientFactory");
+    MockCountingKafkaConsumerClientFactory.client = client;
+    validatePartitionNumWithinWorkUnits(new TestKafkaSource(client).getWorkunits(state), 48);
+    validatePartitionNumWithinWorkUnits(new TestKafkaSource(client).getWorkunits(state), 48);
+    Assert.assertEquals(client.topicDiscoveries, 3);
+
+    // Other topic filters are cached separately
+    state.setProp(KafkaSource.TOPIC_WHITELIST, "topic1");
+    validatePartitionNumWithinWorkUnits(new TestKafkaSource(client).getWorkunits(state), 16);
+    Assert.assertEquals(client.topicDiscoveries, 4);
+  }
+
+  private List<WorkUnit> getWorkunitsWithCountingClient(CountingKafkaClient client, String brokers) {
+    MockCountingKafkaConsumerClientFactory.client = client;
+    SourceState state = new SourceState();
+    state.setProp(ConfigurationKeys.KAFKA_BROKERS, brokers);
+    state.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, "TestPath");
+    state.setProp(KafkaSource.OFFSET_FETCH_BATCH_SIZE, 8);
+    state.setProp(GOBBLIN_KAFKA_CONSUMER_CLIENT_FACTORY_CLASS, "MockCountingKafkaConsumerClientFactory");
+    return new TestKafkaSource(client).getWorkunits(state);
+  }
+
   public static List<KafkaPartition> creatPartitions(String topicName, int partitionNum) {
     List<KafkaPartition> partitions = new ArrayList<>(partitionNum);
     for(int i = 0; i < partitionNum; i++ ) {
@@ -229,6 +299,65 @@ public class KafkaSourceTest {
     }
   }
 
+  @Alias("MockCountingKafkaConsumerClientFactory")
+  public static class MockCountingKafkaConsumerClientFactory
+      implements GobblinKafkaConsumerClient.GobblinKafkaConsumerClientFactory {
+    private static CountingKafkaClient client;
+
+    @Override
+    public GobblinKafkaConsumerClient create(Config config) {
+      return client;
+    }
+  }
+
+  /**
+   * A {@link TestKafkaClient} that counts its topic discoveries and offset fetches. Bulk fetches of
+   * {@link #failedBulkFetchTopic} fail.
+   */
+  public static class CountingKafkaClient extends TestKafkaClient {
+    private final boolean bulkOffsetFetch;
+    private String failedBulkFetchTopic;
+    private int topicDiscoveries = 0;
+    private int bulkFetches = 0;
+    private int partitionFetches = 0;
+
+    public CountingKafkaClient(boolean bulkOffsetFetch) {
+      this.bulkOffsetFetch = bulkOffsetFetch;
+    }
+
+    @Override
+    public synchronized List<KafkaTopic> getFilteredTopics(List<Pattern> blacklist, List<Pattern> whitelist) {
+      this.topicDiscoveries++;
+      return super.getFilteredTopics(blacklist, whitelist);
+    }
+
+    @Override
+    public boolean supportsBulkOffsetFetch() {
+      return this.bulkOffsetFetch;
+    }
+
+    @Override
+    public synchronized long getLatestOffset(KafkaPartition partition) {
+      this.partitionFetches++;
+      return 0;
+    }
+
+    @Override
+    public synchronized Map<KafkaPartition, Long> getEarliestOffsets(Collection<KafkaPartition> partitions)
+        throws KafkaOffsetRetrievalFailureException {
+      this.bulkFetches++;
+      if (partitions.stream().anyMatch(partition -> partition.getTopicName().equals(this.failedBulkFetchTopic))) {
+        throw new KafkaOffsetRetrievalFailureException("Failed to fetch offsets of " + this.failedBulkFetchTopic);
+      }
+      return partitions.stream().collect(Collectors.toMap(partition -> partition, partition -> 0L));
+    }
+
+    @Override
+    public Map<KafkaPartition, Long> getLatestOffsets(Collection<KafkaPartition> partitions) {
+      return partitions.stream().collect(Collectors.toMap(partition -> partition, partition -> 0L));
+    }
+  }
+
   private class TestKafkaSource<S,D> extends KafkaSource<S,D> {
 
     public TestKafkaSource(GobblinKafkaConsumerClient client) {
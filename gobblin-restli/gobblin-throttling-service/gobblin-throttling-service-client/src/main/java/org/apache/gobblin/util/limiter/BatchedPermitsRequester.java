@@ -72,7 +72,7 @@ import lombok.extern.slf4j.Slf4j;
  * are exhausted.
  */
 @Slf4j
-class BatchedPermitsRequester {
+class BatchedPermitsRequester implements PermitsRequester {
 
   public static final String REST_REQUEST_TIMER = "limiter.restli.restRequestTimer";
   public static final String REST_REQUEST_PERMITS_HISTOGRAM = "limiter.restli.restRequestPermitsHistogram";
@@ -147,10 +147,7 @@ class BatchedPermitsRequester {
     this.knownUnsatisfiablePermits = Long.MAX_VALUE;
   }
 
-  /**
-   * Try to get a number of permits from this requester.
-   * @return true if permits were obtained successfully.
-   */
+  @Override
   public boolean getPermits(long permits) throws InterruptedException {
     if (permits <= 0) {
       return true;
@@ -614,9 +611,12 @@ class BatchedPermitsRequester {
     }
   }
 
-  /**
-   * Clear all stored permits.
-   */
+  @Override
+  public long getUnusedPermits() {
+    return this.permitBatchContainer.getTotalAvailablePermits();
+  }
+
+  @Override
   @VisibleForTesting
   public void clearAllStoredPermits() {
     this.getPermitBatchContainer().purgeAll();
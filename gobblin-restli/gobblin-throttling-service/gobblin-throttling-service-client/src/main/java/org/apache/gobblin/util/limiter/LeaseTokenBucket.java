@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.limiter;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+
+/**
+ * A lock-free token bucket enforcing the permit leases obtained from a throttling server.
+ *
+ * <p>
+ *   A lease grants a number of permits to be used until its end, and the bucket spreads them evenly until then.
+ *   Permits are reserved by advancing a time cursor at the leased rate, so that a caller reserving permits ahead of
+ *   the current time waits until the start of its reservation. The cursor and the lease are updated together with a
+ *   single CAS, so concurrent callers never block each other. At most {@code burstNanos} worth of unused permits can
+ *   be accumulated, and no permits can be reserved past the end of the lease.
+ * </p>
+ *
+ * <p>
+ *   A new lease replaces the current one, carrying over its unreserved permits: all of them are spread from the start
+ *   of the new lease until its end, and permits already reserved ahead of now are re-priced at the new rate. A lease
+ *   whose permits may only be used after a delay starts that much later, so no permit is handed out before the delay
+ *   has passed.
+ * </p>
+ */
+class LeaseTokenBucket {
+
+  private final Ticker ticker;
+  private final long burstNanos;
+  private final AtomicReference<State> state = new AtomicReference<>();
+
+  LeaseTokenBucket(long burstNanos, Ticker ticker) {
+    Preconditions.checkArgument(burstNanos >= 0, "Burst must not be negative.");
+    this.burstNanos = burstNanos;
+    this.ticker = ticker;
+  }
+
+  /**
+   * Add a lease of {@code permits} permits, which may be used after {@code delayNanos} and for {@code durationNanos}.
+   */
+  void addLease(long permits, long delayNanos, long durationNanos) {
+    Preconditions.checkArgument(permits > 0, "Lease must have permits.");
+    Preconditions.checkArgument(delayNanos >= 0, "Lease delay must not be negative.");
+    Preconditions.checkArgument(durationNanos > 0, "Lease must have a duration.");
+
+    while (true) {
+      State current = this.state.get();
+      long now = this.ticker.read();
+      double unreservedPermits = 0;
+      double reservedAheadPermits = 0;
+      if (current != null && current.endNanos > now) {
+        unreservedPermits = Math.max(0, current.endNanos - Math.max(current.cursorNanos, now)) / current.nanosPerPermit;
+        reservedAheadPermits = Math.max(0, current.cursorNanos - now) / current.nanosPerPermit;
+      }
+      long startNanos = now + delayNanos;
+      double nanosPerPermit = (double) durationNanos / (permits + unreservedPermits + reservedAheadPermits);
+      State lease = new State(startNanos + (long) (reservedAheadPermits * nanosPerPermit), startNanos + durationNanos,
+          nanosPerPermit);
+      if (this.state.compareAndSet(current, lease)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Reserve {@code permits} permits from the lease.
+   *
+   * @return the nanos to wait before using the permits, or -1 if the lease cannot provide them within
+   *         {@code maxWaitNanos}, in which case nothing is reserved.
+   */
+  long tryReserve(long permits, long maxWaitNanos) {
+    long now = this.ticker.read();
+    while (true) {
+      State current = this.state.get();
+      if (current == null || now >= current.endNanos) {
+        return -1;
+      }
+      long reservationStart = Math.max(current.cursorNanos, now - this.burstNanos);
+      long reservationEnd = reservationStart + (long) (permits * current.nanosPerPermit);
+      if (reservationEnd > current.endNanos || reservationStart - now > maxWaitNanos) {
+        return -1;
+      }
+      if (this.state.compareAndSet(current,
+          new State(reservationEnd, current.endNanos, current.nanosPerPermit))) {
+        return Math.max(0, reservationStart - now);
+      }
+    }
+  }
+
+  /**
+   * @return whether the lease ends, or its permits are all reserved, within {@code renewAheadNanos} from now.
+   */
+  boolean isLeaseEndingWithin(long renewAheadNanos) {
+    State current = this.state.get();
+    if (current == null) {
+      return true;
+    }
+    return Math.max(this.ticker.read(), current.cursorNanos) >= current.endNanos - renewAheadNanos;
+  }
+
+  /**
+   * @return whether the permits of the lease are reserved past the current time, i.e. demand exceeds the leased rate.
+   */
+  boolean isExhausted() {
+    State current = this.state.get();
+    return current == null || current.cursorNanos > this.ticker.read();
+  }
+
+  /**
+   * @return the number of leased permits that are not reserved yet.
+   */
+  long getAvailablePermits() {
+    State current = this.state.get();
+    long now = this.ticker.read();
+    if (current == null || now >= current.endNanos) {
+      return 0;
+    }
+    long from = Math.max(current.cursorNanos, now - this.burstNanos);
+    return (long) (Math.max(0, current.endNanos - from) / current.nanosPerPermit);
+  }
+
+  /**
+   * Drop the current lease.
+   */
+  void clear() {
+    this.state.set(null);
+  }
+
+  /**
+   * A lease and the time up to which its permits are reserved.
+   */
+  private static class State {
+    private final long cursorNanos;
+    private final long endNanos;
+    private final double nanosPerPermit;
+
+    private State(long cursorNanos, long endNanos, double nanosPerPermit) {
+      this.cursorNanos = cursorNanos;
+      this.endNanos = endNanos;
+      this.nanosPerPermit = nanosPerPermit;
+    }
+  }
+}
@@ -0,0 +1,378 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.limiter;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.linkedin.common.callback.Callback;
+import com.linkedin.data.template.GetMode;
+import com.linkedin.restli.client.Response;
+import com.linkedin.restli.client.RestLiResponseException;
+
+import org.apache.gobblin.metrics.MetricContext;
+import org.apache.gobblin.restli.throttling.PermitAllocation;
+import org.apache.gobblin.restli.throttling.PermitRequest;
+import org.apache.gobblin.restli.throttling.ThrottlingProtocolVersion;
+import org.apache.gobblin.util.ExecutorsUtils;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * An object that obtains time-bounded permit leases from an external throttling server, and enforces them locally with
+ * a lock-free {@link LeaseTokenBucket}.
+ *
+ * <p>
+ *   A lease is a {@link PermitAllocation} whose permits are spread until the lease duration has passed since the
+ *   server allows them to be used. A new lease is requested when the current one ends or runs out of permits within
+ *   {@link #RENEW_AHEAD_FRACTION} of the lease duration. It is sized to the demand observed since the previous
+ *   request, and grows by up to {@link BatchedPermitsRequester#MAX_GROWTH_REQUEST} times the previous lease, fully
+ *   while demand exceeds the leased rate. Callers therefore only wait for the server when the leases run out, and
+ *   unlike {@link BatchedPermitsRequester}, they never take a lock to get permits.
+ * </p>
+ *
+ * <p>
+ *   Permits of a lease which are not used by its end are lost, so leasing is meant for rate based policies, e.g.
+ *   {@code QPSPolicy}. Instances built with {@link LeasedPermitsRequesterBuilder#buildShared()} are shared by all
+ *   {@link RestliServiceBasedLimiter}s of the same resource and {@link RequestSender} in the JVM.
+ * </p>
+ */
+@Slf4j
+class LeasedPermitsRequester implements PermitsRequester {
+
+  public static final String LEASE_REQUEST_TIMER = "limiter.restli.leaseRequestTimer";
+  public static final String LEASE_REQUEST_PERMITS_HISTOGRAM = "limiter.restli.leaseRequestPermitsHistogram";
+
+  public static final long DEFAULT_LEASE_DURATION_MILLIS = 10000;
+  /** A new lease is requested when the current one ends within this fraction of the lease duration. */
+  public static final double RENEW_AHEAD_FRACTION = 0.25;
+  /** Maximum unused leased permits that can be used at once, in millis of the leased rate. */
+  public static final long MAX_BURST_MILLIS = 1000;
+
+  private static final long RETRY_DELAY_ON_NON_RETRIABLE_EXCEPTION = 60000;
+  private static final long LOST_REQUEST_MILLIS = 30000;
+  private static final long GET_PERMITS_MAX_SLEEP_MILLIS = 1000;
+
+  private static final ScheduledExecutorService SCHEDULE_EXECUTOR_SERVICE =
+      Executors.newScheduledThreadPool(1, ExecutorsUtils.newDaemonThreadFactory(Optional.of(log),
+          Optional.of(LeasedPermitsRequester.class.getName() + "-schedule-%d")));
+
+  private static final Cache<SharedKey, LeasedPermitsRequester> SHARED_REQUESTERS =
+      CacheBuilder.newBuilder().weakValues().build();
+
+  private final LeaseTokenBucket tokenBucket;
+  private final PermitRequest basePermitRequest;
+  private final RequestSender requestSender;
+  private final Timer leaseRequestTimer;
+  private final Histogram leaseRequestHistogram;
+  private final long leaseDurationNanos;
+  private final long renewAheadNanos;
+  /** Permit requests will timeout after this many nanos. */
+  private final long maxTimeoutNanos;
+
+  /** Advances whenever a lease request completes, to wake up the callers waiting for a lease. */
+  private final Phaser leaseRequestsCompleted = new Phaser(1);
+  private final AtomicReference<LeaseCallback> currentCallback = new AtomicReference<>();
+  private final AtomicInteger retries = new AtomicInteger(0);
+  private volatile long retryAtMillis = 0;
+
+  /** Permits requested by callers since the last lease request. */
+  private final LongAdder permitsRequested = new LongAdder();
+  private final AtomicLong largestPermitsRequest = new AtomicLong(1);
+  private volatile long lastLeaseRequestNanos = 0;
+  private volatile long lastLeasePermits = 0;
+  /** Any request larger than this is known to be impossible to satisfy. */
+  private volatile long knownUnsatisfiablePermits = Long.MAX_VALUE;
+
+  @Builder
+  private LeasedPermitsRequester(String resourceId, String requestorIdentifier, RequestSender requestSender,
+      MetricContext metricContext, long leaseDurationMillis, long maxTimeoutMillis) {
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(resourceId), "Must provide a resource id.");
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(requestorIdentifier), "Must provide a requestor identifier.");
+    Preconditions.checkNotNull(requestSender, "Request sender cannot be null.");
+
+    this.leaseDurationNanos = TimeUnit.MILLISECONDS.toNanos(leaseDurationMillis > 0 ? leaseDurationMillis
+        : DEFAULT_LEASE_DURATION_MILLIS);
+    this.renewAheadNanos = (long) (this.leaseDurationNanos * RENEW_AHEAD_FRACTION);
+    this.maxTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(maxTimeoutMillis > 0 ? maxTimeoutMillis : 120000);
+    this.tokenBucket = new LeaseTokenBucket(Math.min(TimeUnit.MILLISECONDS.toNanos(MAX_BURST_MILLIS),
+        this.leaseDurationNanos), Ticker.systemTicker());
+    this.requestSender = requestSender;
+
+    this.basePermitRequest = new PermitRequest();
+    this.basePermitRequest.setResource(resourceId);
+    this.basePermitRequest.setRequestorIdentifier(requestorIdentifier);
+
+    this.leaseRequestTimer = metricContext == null ? null : metricContext.timer(LEASE_REQUEST_TIMER);
+    this.leaseRequestHistogram =
+        metricContext == null ? null : metricContext.histogram(LEASE_REQUEST_PERMITS_HISTOGRAM);
+  }
+
+  @Override
+  public boolean getPermits(long permits) throws InterruptedException {
+    if (permits <= 0) {
+      return true;
+    }
+    long startTimeNanos = System.nanoTime();
+    this.permitsRequested.add(permits);
+    if (permits > this.largestPermitsRequest.get()) {
+      this.largestPermitsRequest.accumulateAndGet(permits, Math::max);
+    }
+
+    while (true) {
+      if (permits >= this.knownUnsatisfiablePermits) {
+        // We are requesting more permits than the remote policy will ever be able to satisfy
+        log.warn(String.format("Server has indicated number of permits is unsatisfiable. "
+            + "Permits requested: %d, known unsatisfiable permits: %d ", permits, this.knownUnsatisfiablePermits));
+        return false;
+      }
+      // Read the phase before trying the leases, so that a lease added in between is not missed
+      int phase = this.leaseRequestsCompleted.getPhase();
+      long remainingNanos = this.maxTimeoutNanos - (System.nanoTime() - startTimeNanos);
+      long waitNanos = this.tokenBucket.tryReserve(permits, Math.max(remainingNanos, 0));
+      maybeRequestLease();
+
+      if (waitNanos >= 0) {
+        if (waitNanos > 0) {
+          TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+      }
+      if (remainingNanos <= 0) {
+        log.warn("Reached timeout waiting for permits. Timeout: "
+            + TimeUnit.NANOSECONDS.toMillis(this.maxTimeoutNanos));
+        return false;
+      }
+      if (System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(remainingNanos) < this.retryAtMillis) {
+        // No lease can be requested before the timeout
+        return false;
+      }
+      try {
+        this.leaseRequestsCompleted.awaitAdvanceInterruptibly(phase,
+            Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(GET_PERMITS_MAX_SLEEP_MILLIS)),
+            TimeUnit.NANOSECONDS);
+      } catch (TimeoutException te) {
+        // Try the leases again
+      }
+    }
+  }
+
+  /**
+   * Send a new lease request to the server if the current lease ends soon and there is no request in flight.
+   */
+  private void maybeRequestLease() {
+    if (!this.tokenBucket.isLeaseEndingWithin(this.renewAheadNanos)
+        || System.currentTimeMillis() < this.retryAtMillis) {
+      return;
+    }
+    LeaseCallback callback = this.currentCallback.get();
+    if (callback != null) {
+      if (callback.elapsedMillis() <= LOST_REQUEST_MILLIS) {
+        return;
+      }
+      // If the previous request has not returned after 30s, we consider it lost and try again
+      log.warn("Last lease request did not return after 30s, considering it lost and retrying.");
+    }
+    LeaseCallback newCallback = new LeaseCallback();
+    if (this.currentCallback.compareAndSet(callback, newCallback)) {
+      sendLeaseRequest(newCallback);
+    }
+  }
+
+  private void sendLeaseRequest(LeaseCallback callback) {
+    try {
+      PermitRequest permitRequest = this.basePermitRequest.copy();
+      long permits = computeNextLeasePermits();
+      permitRequest.setPermits(permits);
+      permitRequest.setMinPermits(Math.min(permits, this.largestPermitsRequest.get()));
+      permitRequest.setVersion(ThrottlingProtocolVersion.WAIT_ON_CLIENT.ordinal());
+      if (this.leaseRequestHistogram != null) {
+        this.leaseRequestHistogram.update(permits);
+      }
+
+      log.debug("Sending lease request " + permitRequest);
+      this.requestSender.sendRequest(permitRequest, callback);
+    } catch (CloneNotSupportedException cnse) {
+      // This should never happen.
+      callback.complete();
+      throw new RuntimeException(cnse);
+    }
+  }
+
+  /**
+   * @return the number of permits to request for the next lease.
+   */
+  private long computeNextLeasePermits() {
+    long now = System.nanoTime();
+    long requested = this.permitsRequested.sumThenReset();
+    long elapsedNanos = now - this.lastLeaseRequestNanos;
+    long permits = requested;
+    if (this.lastLeaseRequestNanos > 0 && elapsedNanos > 0) {
+      permits = (long) ((double) requested * this.leaseDurationNanos / elapsedNanos);
+    }
+    this.lastLeaseRequestNanos = now;
+
+    if (this.lastLeasePermits > 0) {
+      // Grow the lease gradually, the server penalizes requests it can only partially satisfy with longer retry delays
+      long maxPermits = BatchedPermitsRequester.MAX_GROWTH_REQUEST * this.lastLeasePermits;
+      permits = this.tokenBucket.isExhausted() ? maxPermits : Math.min(permits, maxPermits);
+    }
+    return Math.max(permits, this.largestPermitsRequest.get());
+  }
+
+  private void blockRetries(long millis) {
+    this.retryAtMillis = System.currentTimeMillis() + millis;
+    this.retries.set(0);
+    SCHEDULE_EXECUTOR_SERVICE.schedule(this::maybeRequestLease, millis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public long getUnusedPermits() {
+    return this.tokenBucket.getAvailablePermits();
+  }
+
+  @Override
+  @VisibleForTesting
+  public void clearAllStoredPermits() {
+    this.tokenBucket.clear();
+  }
+
+  /**
+   * Callback for a lease request.
+   */
+  private class LeaseCallback implements Callback<Response<PermitAllocation>> {
+    private final long startTimeNanos = System.nanoTime();
+
+    @Override
+    public void onError(Throwable exc) {
+      try {
+        if (exc instanceof RequestSender.NonRetriableException) {
+          nonRetriableFail(exc, "Encountered non retriable error. ");
+          return;
+        }
+        if (exc instanceof RestLiResponseException) {
+          int errorCode = ((RestLiResponseException) exc).getStatus();
+          if (BatchedPermitsRequester.NON_RETRIABLE_ERRORS.contains(errorCode)) {
+            nonRetriableFail(exc, "Encountered non retriable error. HTTP response code: " + errorCode);
+            return;
+          }
+        }
+        if (LeasedPermitsRequester.this.retries.incrementAndGet() >= BatchedPermitsRequester.MAX_RETRIES) {
+          nonRetriableFail(exc, "Too many failures trying to communicate with throttling service.");
+          return;
+        }
+      } finally {
+        complete();
+      }
+      // retry
+      maybeRequestLease();
+    }
+
+    @Override
+    public void onSuccess(Response<PermitAllocation> result) {
+      LeasedPermitsRequester.this.retries.set(0);
+      try {
+        PermitAllocation allocation = result.getEntity();
+        log.debug("Received lease " + allocation);
+
+        Long retryDelay = allocation.getMinRetryDelayMillis(GetMode.NULL);
+        if (retryDelay != null && retryDelay > 0) {
+          blockRetries(retryDelay);
+        }
+
+        if (allocation.getUnsatisfiablePermits(GetMode.DEFAULT) > 0) {
+          LeasedPermitsRequester.this.knownUnsatisfiablePermits = allocation.getUnsatisfiablePermits(GetMode.DEFAULT);
+        }
+
+        if (allocation.getPermits() > 0) {
+          // The lease lasts for its duration once the server allows its permits to be used, up to their expiration
+          long waitForUseNanos = TimeUnit.MILLISECONDS.toNanos(allocation.getWaitForPermitUseMillis(GetMode.DEFAULT));
+          long durationNanos = Math.min(LeasedPermitsRequester.this.leaseDurationNanos,
+              TimeUnit.MILLISECONDS.toNanos(allocation.getExpiration() - System.currentTimeMillis()) - waitForUseNanos);
+          if (durationNanos > 0) {
+            LeasedPermitsRequester.this.tokenBucket.addLease(allocation.getPermits(), waitForUseNanos, durationNanos);
+            LeasedPermitsRequester.this.lastLeasePermits = allocation.getPermits();
+          }
+        }
+      } finally {
+        complete();
+      }
+    }
+
+    private long elapsedMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startTimeNanos);
+    }
+
+    private void complete() {
+      if (LeasedPermitsRequester.this.leaseRequestTimer != null) {
+        LeasedPermitsRequester.this.leaseRequestTimer.update(System.nanoTime() - this.startTimeNanos,
+            TimeUnit.NANOSECONDS);
+      }
+      LeasedPermitsRequester.this.currentCallback.compareAndSet(this, null);
+      LeasedPermitsRequester.this.leaseRequestsCompleted.arrive();
+    }
+
+    private void nonRetriableFail(Throwable exc, String msg) {
+      log.error(msg, exc);
+      blockRetries(RETRY_DELAY_ON_NON_RETRIABLE_EXCEPTION);
+    }
+  }
+
+  /**
+   * Builds {@link LeasedPermitsRequester}s.
+   */
+  public static class LeasedPermitsRequesterBuilder {
+    /**
+     * Get the {@link LeasedPermitsRequester} of the resource and {@link RequestSender} of this builder shared in the
+     * JVM, building it if there is none.
+     */
+    public LeasedPermitsRequester buildShared() {
+      try {
+        return SHARED_REQUESTERS.get(new SharedKey(this.resourceId, this.requestSender), this::build);
+      } catch (ExecutionException ee) {
+        throw new RuntimeException(ee.getCause());
+      }
+    }
+  }
+
+  @Data
+  private static class SharedKey {
+    private final String resourceId;
+    private final RequestSender requestSender;
+  }
+}
@@ -50,6 +50,9 @@ public class RestliLimiterFactory<S extends ScopeType<S>>
   public static final String RESTLI_SERVICE_NAME = "throttling";
   public static final String SERVICE_IDENTIFIER_KEY = "serviceId";
   public static final String PERMIT_REQUEST_TIMEOUT = "permitRequestTimeoutMillis";
+  /** Whether to enforce time-bounded permit leases locally instead of requesting batches of permits. */
+  public static final String LEASING_ENABLED = "leasing.enabled";
+  public static final String LEASE_DURATION_MILLIS = "leaseDurationMillis";
 
   @Override
   public String getName() {
@@ -75,6 +78,9 @@ public class RestliLimiterFactory<S extends ScopeType<S>>
 
     long permitRequestTimeout = config.getConfig().hasPath(PERMIT_REQUEST_TIMEOUT)
         ? config.getConfig().getLong(PERMIT_REQUEST_TIMEOUT) : 0L;
+    boolean leasing = config.getConfig().hasPath(LEASING_ENABLED) && config.getConfig().getBoolean(LEASING_ENABLED);
+    long leaseDuration = config.getConfig().hasPath(LEASE_DURATION_MILLIS)
+        ? config.getConfig().getLong(LEASE_DURATION_MILLIS) : 0L;
 
     return new ResourceInstance<>(
         RestliServiceBasedLimiter.builder()
@@ -83,6 +89,8 @@ public class RestliLimiterFactory<S extends ScopeType<S>>
             .metricContext(broker.getSharedResource(new MetricContextFactory<S>(), metricContextKey))
             .requestSender(broker.getSharedResource(new RedirectAwareRestClientRequestSender.Factory<S>(), new SharedRestClientKey(RESTLI_SERVICE_NAME)))
             .permitRequestTimeoutMillis(permitRequestTimeout)
+            .leasing(leasing)
+            .leaseDurationMillis(leaseDuration)
             .build()
     );
   }
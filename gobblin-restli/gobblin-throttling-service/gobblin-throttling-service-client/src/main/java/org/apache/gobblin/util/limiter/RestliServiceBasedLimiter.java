@@ -34,6 +34,12 @@ import lombok.Getter;
 
 /**
  * A {@link Limiter} that forwards permit requests to a Rest.li throttling service endpoint.
+ *
+ * <p>
+ *   By default, permits are requested in batches by a {@link BatchedPermitsRequester}. In leasing mode, permits are
+ *   enforced locally from time-bounded leases obtained from the server by a {@link LeasedPermitsRequester}, which is
+ *   shared by all leasing limiters of the same resource and {@link RequestSender} in the JVM.
+ * </p>
  */
 public class RestliServiceBasedLimiter implements Limiter {
 
@@ -41,7 +47,7 @@ public class RestliServiceBasedLimiter implements Limiter {
   public static final String PERMITS_GRANTED_METER_NAME = "limiter.restli.permitsGranted";
 
   @Getter @VisibleForTesting
-  private final BatchedPermitsRequester bachedPermitsContainer;
+  private final PermitsRequester permitsRequester;
 
   private final Optional<MetricContext> metricContext;
 
@@ -50,12 +56,20 @@ public class RestliServiceBasedLimiter implements Limiter {
 
   @Builder
   private RestliServiceBasedLimiter(String resourceLimited, String serviceIdentifier,
-      MetricContext metricContext, RequestSender requestSender, long permitRequestTimeoutMillis) {
+      MetricContext metricContext, RequestSender requestSender, long permitRequestTimeoutMillis, boolean leasing,
+      long leaseDurationMillis) {
     Preconditions.checkNotNull(requestSender, "Request sender cannot be null.");
 
-    this.bachedPermitsContainer = BatchedPermitsRequester.builder()
-        .resourceId(resourceLimited).requestorIdentifier(serviceIdentifier).requestSender(requestSender)
-        .maxTimeoutMillis(permitRequestTimeoutMillis).build();
+    if (leasing) {
+      this.permitsRequester = LeasedPermitsRequester.builder()
+          .resourceId(resourceLimited).requestorIdentifier(serviceIdentifier).requestSender(requestSender)
+          .metricContext(metricContext).leaseDurationMillis(leaseDurationMillis)
+          .maxTimeoutMillis(permitRequestTimeoutMillis).buildShared();
+    } else {
+      this.permitsRequester = BatchedPermitsRequester.builder()
+          .resourceId(resourceLimited).requestorIdentifier(serviceIdentifier).requestSender(requestSender)
+          .maxTimeoutMillis(permitRequestTimeoutMillis).build();
+    }
 
     this.metricContext = Optional.fromNullable(metricContext);
     if (this.metricContext.isPresent()) {
@@ -77,7 +91,7 @@ public class RestliServiceBasedLimiter implements Limiter {
 
     Instrumented.markMeter(this.permitsRequestedMeter, permits);
 
-    boolean permitsGranted = this.bachedPermitsContainer.getPermits(permits);
+    boolean permitsGranted = this.permitsRequester.getPermits(permits);
     Instrumented.markMeter(this.permitsGrantedMeter, permits);
     return permitsGranted ? NoopCloseable.INSTANCE : null;
   }
@@ -92,11 +106,11 @@ public class RestliServiceBasedLimiter implements Limiter {
    */
   @VisibleForTesting
   public long getUnusedPermits() {
-    return this.bachedPermitsContainer.getPermitBatchContainer().getTotalAvailablePermits();
+    return this.permitsRequester.getUnusedPermits();
   }
 
   @VisibleForTesting
   public void clearAllStoredPermits() {
-    this.bachedPermitsContainer.clearAllStoredPermits();
+    this.permitsRequester.clearAllStoredPermits();
   }
 }
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.limiter.stressTest;
+
+import org.apache.hadoop.conf.Configuration;
+
+import org.apache.gobblin.util.limiter.Limiter;
+
+
+/**
+ * A {@link Stressor} that performs permit requests to the {@link Limiter} without pausing for a fixed duration.
+ * Unlike {@link RandomDelayStartStressor}s, it starts right away, so that all stressors run concurrently.
+ */
+public class FixedDurationStressor implements Stressor {
+
+  public static final String DURATION_MILLIS = "fixedDurationStressor.durationMillis";
+
+  public static final long DEFAULT_DURATION_MILLIS = 60000;
+
+  private long durationMillis;
+
+  @Override
+  public void configure(Configuration configuration) {
+    this.durationMillis = configuration.getLong(DURATION_MILLIS, DEFAULT_DURATION_MILLIS);
+  }
+
+  @Override
+  public void run(Limiter limiter) throws InterruptedException {
+    long endTime = System.currentTimeMillis() + this.durationMillis;
+    while (System.currentTimeMillis() < endTime) {
+      limiter.acquirePermits(1);
+    }
+  }
+}
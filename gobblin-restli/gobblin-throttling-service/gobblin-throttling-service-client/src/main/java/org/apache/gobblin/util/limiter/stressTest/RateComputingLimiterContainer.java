@@ -19,10 +19,10 @@ package org.apache.gobblin.util.limiter.stressTest;
 
 import java.io.Closeable;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
@@ -47,8 +47,9 @@ import org.apache.gobblin.util.limiter.RestliServiceBasedLimiter;
 @Slf4j
 @RequiredArgsConstructor
 public class RateComputingLimiterContainer {
-  private final List<AtomicLong> subLimiterPermitCounts = Lists.newArrayList();
-  private final Queue<Long> unusedPermitsCounts = new LinkedList<>();
+  // Limiters are started and stopped concurrently by the stressor threads
+  private final List<AtomicLong> subLimiterPermitCounts = Lists.newCopyOnWriteArrayList();
+  private final Queue<Long> unusedPermitsCounts = new ConcurrentLinkedQueue<>();
 
   private Map<String, Long> lastReportTimes = Maps.newHashMap();
 
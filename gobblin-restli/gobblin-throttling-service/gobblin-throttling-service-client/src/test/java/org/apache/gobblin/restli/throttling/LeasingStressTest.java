@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.restli.throttling;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.hadoop.conf.Configuration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+import com.typesafe.config.ConfigFactory;
+
+import org.apache.gobblin.broker.BrokerConfigurationKeyGenerator;
+import org.apache.gobblin.util.limiter.Limiter;
+import org.apache.gobblin.util.limiter.MockRequester;
+import org.apache.gobblin.util.limiter.RestliServiceBasedLimiter;
+import org.apache.gobblin.util.limiter.broker.SharedLimiterKey;
+import org.apache.gobblin.util.limiter.stressTest.FixedDurationStressor;
+import org.apache.gobblin.util.limiter.stressTest.RateComputingLimiterContainer;
+import org.apache.gobblin.util.limiter.stressTest.Stressor;
+
+
+/**
+ * A stress test for the leasing mode of {@link RestliServiceBasedLimiter}. A number of threads, each one running a
+ * {@link FixedDurationStressor} with its own limiter, share the leases obtained from an embedded
+ * {@link LimiterServerResource} enforcing a {@link QPSPolicy}.
+ */
+public class LeasingStressTest {
+
+  private static final int STRESSOR_THREADS = 20;
+  private static final long TARGET_QPS = 200;
+  private static final long DURATION_MILLIS = 5000;
+  private static final long LEASE_DURATION_MILLIS = 1000;
+  private static final long ARTIFICIAL_LATENCY = 20;
+
+  @Test(timeOut = 60000)
+  public void testLeasing() throws Exception {
+    String resourceLimited = LeasingStressTest.class.getSimpleName();
+
+    Map<String, String> configMap = Maps.newHashMap();
+    ThrottlingPolicyFactory factory = new ThrottlingPolicyFactory();
+    SharedLimiterKey res1key = new SharedLimiterKey(resourceLimited);
+    configMap.put(
+        BrokerConfigurationKeyGenerator.generateKey(factory, res1key, null, ThrottlingPolicyFactory.POLICY_KEY),
+        QPSPolicy.FACTORY_ALIAS);
+    configMap.put(BrokerConfigurationKeyGenerator.generateKey(factory, res1key, null, QPSPolicy.QPS),
+        Long.toString(TARGET_QPS));
+
+    ThrottlingGuiceServletConfig guiceServletConfig = new ThrottlingGuiceServletConfig();
+    guiceServletConfig.initialize(ConfigFactory.parseMap(configMap));
+    LimiterServerResource limiterServer = guiceServletConfig.getInjector().getInstance(LimiterServerResource.class);
+    Timer requestTimer = guiceServletConfig.getInjector()
+        .getInstance(Key.get(Timer.class, Names.named(LimiterServerResource.REQUEST_TIMER_INJECT_NAME)));
+
+    Configuration configuration = new Configuration();
+    configuration.setLong(FixedDurationStressor.DURATION_MILLIS, DURATION_MILLIS);
+
+    RateComputingLimiterContainer limiterContainer = new RateComputingLimiterContainer();
+    MockRequester requester = new MockRequester(limiterServer, ARTIFICIAL_LATENCY, 2);
+    ExecutorService executorService = Executors.newFixedThreadPool(STRESSOR_THREADS);
+
+    requester.start();
+    try {
+      List<Limiter> limiters = Lists.newArrayList();
+      for (int i = 0; i < STRESSOR_THREADS; i++) {
+        RestliServiceBasedLimiter restliLimiter = RestliServiceBasedLimiter.builder().resourceLimited(resourceLimited)
+            .requestSender(requester).serviceIdentifier("stressor" + i)
+            .leasing(true).leaseDurationMillis(LEASE_DURATION_MILLIS).build();
+        Limiter limiter = limiterContainer.decorateLimiter(restliLimiter);
+        limiter.start();
+        limiters.add(limiter);
+      }
+
+      // Start measuring permit rates
+      limiterContainer.getRateStatsSinceLastReport();
+      long startTime = System.currentTimeMillis();
+
+      List<Future<?>> futures = Lists.newArrayList();
+      for (Limiter limiter : limiters) {
+        Stressor stressor = new FixedDurationStressor();
+        stressor.configure(configuration);
+        futures.add(executorService.submit(() -> {
+          stressor.run(limiter);
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      DescriptiveStatistics stats = limiterContainer.getRateStatsSinceLastReport();
+      long elapsedMillis = System.currentTimeMillis() - startTime;
+      for (Limiter limiter : limiters) {
+        limiter.stop();
+      }
+
+      // The leases are shared by all limiters, and enforce the qps of the policy
+      double totalQps = stats.getSum();
+      Assert.assertTrue(totalQps > 0, "No permits were granted.");
+      Assert.assertTrue(totalQps <= 1.2 * TARGET_QPS, "Granted qps " + totalQps + " exceeds target " + TARGET_QPS);
+
+      // Permits are enforced locally, with far fewer requests to the server than permits granted
+      double totalPermits = totalQps * elapsedMillis / 1000;
+      Assert.assertTrue(requestTimer.getCount() < totalPermits / 2,
+          "Server requests: " + requestTimer.getCount() + ", permits granted: " + totalPermits);
+    } finally {
+      requester.stop();
+      executorService.shutdownNow();
+      guiceServletConfig.close();
+    }
+  }
+}
@@ -72,8 +72,11 @@ public class LocalStressTest {
       new Option("latency", true, "Artificial request latency in millis.");
   public static final Option QPS =
       new Option("qps", true, "Target qps.");
+  public static final Option LEASING =
+      new Option("leasing", false, "Enforce permit leases locally instead of requesting batches of permits.");
 
-  public static final Options OPTIONS = StressTestUtils.OPTIONS.addOption(STRESSOR_THREADS).addOption(PROCESSOR_THREADS);
+  public static final Options OPTIONS = StressTestUtils.OPTIONS.addOption(STRESSOR_THREADS).addOption(PROCESSOR_THREADS)
+      .addOption(LEASING);
 
   public static final int DEFAULT_STRESSOR_THREADS = 10;
   public static final int DEFAULT_PROCESSOR_THREADS = 10;
@@ -132,7 +135,8 @@ public class LocalStressTest {
     for (int i = 0; i < stressorThreads; i++) {
       RestliServiceBasedLimiter restliLimiter = RestliServiceBasedLimiter.builder().resourceLimited(resourceLimited)
           .requestSender(requester)
-          .serviceIdentifier("stressor" + i).build();
+          .serviceIdentifier("stressor" + i)
+          .leasing(cli.hasOption(LEASING.getOpt())).build();
 
       Stressor stressor = stressorClass.newInstance();
       stressor.configure(configuration);
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.limiter;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+
+
+public class LeaseTokenBucketTest {
+
+  private static final long BURST = 2000;
+
+  @Test
+  public void testReservations() {
+    FakeTicker ticker = new FakeTicker();
+    LeaseTokenBucket bucket = new LeaseTokenBucket(BURST, ticker);
+
+    // No lease
+    Assert.assertEquals(bucket.tryReserve(1, Long.MAX_VALUE), -1);
+    Assert.assertTrue(bucket.isLeaseEndingWithin(0));
+    Assert.assertEquals(bucket.getAvailablePermits(), 0);
+
+    // One permit every 1000 nanos
+    bucket.addLease(10, 0, 10000);
+    Assert.assertEquals(bucket.tryReserve(1, 0), 0);
+    Assert.assertEquals(bucket.tryReserve(1, 0), -1);
+    Assert.assertEquals(bucket.tryReserve(1, 5000), 1000);
+    Assert.assertEquals(bucket.getAvailablePermits(), 8);
+    Assert.assertTrue(bucket.isExhausted());
+
+    // Unused permits accumulate up to the burst
+    ticker.advance(5000);
+    Assert.assertFalse(bucket.isExhausted());
+    Assert.assertEquals(bucket.tryReserve(2, 0), 0);
+    Assert.assertEquals(bucket.tryReserve(1, 0), 0);
+    Assert.assertEquals(bucket.tryReserve(1, 0), -1);
+
+    // Permits cannot be reserved past the end of the lease
+    Assert.assertEquals(bucket.tryReserve(5, Long.MAX_VALUE), -1);
+    Assert.assertFalse(bucket.isLeaseEndingWithin(2500));
+    Assert.assertTrue(bucket.isLeaseEndingWithin(4000));
+
+    ticker.advance(5000);
+    Assert.assertEquals(bucket.tryReserve(1, Long.MAX_VALUE), -1);
+    Assert.assertEquals(bucket.getAvailablePermits(), 0);
+  }
+
+  @Test
+  public void testRenewal() {
+    FakeTicker ticker = new FakeTicker();
+    LeaseTokenBucket bucket = new LeaseTokenBucket(BURST, ticker);
+
+    bucket.addLease(10, 0, 10000);
+    ticker.advance(5000);
+    Assert.assertEquals(bucket.tryReserve(3, 0), 0);
+    Assert.assertEquals(bucket.getAvailablePermits(), 4);
+
+    // The 4 unreserved permits carry over, and the permit reserved ahead keeps its place at the new rate
+    bucket.addLease(5, 0, 10000);
+    Assert.assertEquals(bucket.getAvailablePermits(), 9);
+    Assert.assertEquals(bucket.tryReserve(1, Long.MAX_VALUE), 1000);
+
+    bucket.clear();
+    Assert.assertEquals(bucket.tryReserve(1, Long.MAX_VALUE), -1);
+  }
+
+  @Test
+  public void testDelayedLease() {
+    FakeTicker ticker = new FakeTicker();
+    LeaseTokenBucket bucket = new LeaseTokenBucket(0, ticker);
+
+    // No permit can be used before the delay has passed, after which they are spread over the duration
+    bucket.addLease(10, 5000, 10000);
+    Assert.assertEquals(bucket.tryReserve(1, 0), -1);
+    Assert.assertEquals(bucket.tryReserve(1, 4999), -1);
+    Assert.assertEquals(bucket.tryReserve(1, 5000), 5000);
+    Assert.assertEquals(bucket.tryReserve(8, Long.MAX_VALUE), 6000);
+    Assert.assertEquals(bucket.tryReserve(1, Long.MAX_VALUE), 14000);
+    Assert.assertEquals(bucket.tryReserve(1, Long.MAX_VALUE), -1);
+
+    // A delayed renewal also holds back the permits carried over from the current lease
+    bucket.clear();
+    bucket.addLease(10, 0, 10000);
+    Assert.assertEquals(bucket.tryReserve(2, 0), 0);
+    bucket.addLease(5, 4000, 10000);
+    Assert.assertEquals(bucket.getAvailablePermits(), 13);
+    Assert.assertEquals(bucket.tryReserve(1, 5000), -1);
+    Assert.assertEquals(bucket.tryReserve(1, Long.MAX_VALUE), 5333);
+  }
+
+  @Test
+  public void testConcurrentReservations() throws Exception {
+    LeaseTokenBucket bucket = new LeaseTokenBucket(0, new FakeTicker());
+    bucket.addLease(1000, 0, 100000);
+
+    AtomicLong reserved = new AtomicLong();
+    ExecutorService executorService = Executors.newFixedThreadPool(10);
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < 10; i++) {
+        futures.add(executorService.submit(() -> {
+          while (bucket.tryReserve(1, Long.MAX_VALUE) >= 0) {
+            reserved.incrementAndGet();
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    Assert.assertEquals(reserved.get(), 1000);
+  }
+
+  private static class FakeTicker extends Ticker {
+    private volatile long nanos = 0;
+
+    @Override
+    public long read() {
+      return this.nanos;
+    }
+
+    private void advance(long deltaNanos) {
+      this.nanos += deltaNanos;
+    }
+  }
+}
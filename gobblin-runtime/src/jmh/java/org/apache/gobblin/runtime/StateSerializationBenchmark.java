@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.base.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.source.workunit.Extract;
+import org.apache.gobblin.source.workunit.WorkUnit;
+import org.apache.gobblin.util.CompactStateFormat;
+
+
+/**
+ * Compares the legacy {@link org.apache.gobblin.configuration.State} serialization with the {@link CompactStateFormat}
+ * for a batch of {@link WorkUnit}s that share most of their properties, as the work units of a job do.
+ *
+ * <p>
+ *   Each operation (de)serializes {@link WorkUnitsState#numWorkUnits} work units, so bytes/sec is the reported
+ *   throughput times the serialized size. The serialized size per work unit of each format is logged during setup.
+ * </p>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1)
+@BenchmarkMode(value = Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Slf4j
+public class StateSerializationBenchmark {
+
+  private static final int NUM_COMMON_PROPS = 150;
+  private static final int NUM_SPEC_PROPS = 20;
+
+  @State(value = Scope.Benchmark)
+  public static class WorkUnitsState {
+    @Param({"legacy", "compact", "compact-deflate"})
+    public String format;
+
+    @Param({"1000"})
+    public int numWorkUnits;
+
+    private WorkUnit[] workUnits;
+    private Optional<CompactStateFormat> compactFormat;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+      Extract extract = new Extract(Extract.TableType.APPEND_ONLY, "namespace", "table");
+      this.workUnits = new WorkUnit[this.numWorkUnits];
+      for (int i = 0; i < this.numWorkUnits; i++) {
+        WorkUnit workUnit = WorkUnit.create(extract);
+        for (int j = 0; j < NUM_COMMON_PROPS; j++) {
+          workUnit.setProp("job.common.property." + j, "some.shared.job.level.value." + j);
+        }
+        for (int j = 0; j < NUM_SPEC_PROPS; j++) {
+          workUnit.setProp("workunit.property." + j, "/data/dataset/partition=" + i + "/file-" + j);
+        }
+        this.workUnits[i] = workUnit;
+      }
+
+      if ("legacy".equals(this.format)) {
+        this.compactFormat = Optional.absent();
+      } else if ("compact".equals(this.format)) {
+        this.compactFormat = Optional.of(new CompactStateFormat());
+      } else {
+        CompressionCodec codec = ReflectionUtils.newInstance(DefaultCodec.class, new Configuration());
+        this.compactFormat =
+            Optional.of(new CompactStateFormat(Optional.of(codec), CompactStateFormat.DEFAULT_BLOCK_SIZE));
+      }
+
+      this.serialized = serialize(this);
+      log.info("Format {}: {} bytes per work unit", this.format, this.serialized.length / this.numWorkUnits);
+    }
+  }
+
+  private static byte[] serialize(WorkUnitsState state) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    if (state.compactFormat.isPresent()) {
+      try (CompactStateFormat.Writer writer = state.compactFormat.get().createWriter(bytes)) {
+        for (WorkUnit workUnit : state.workUnits) {
+          writer.append(workUnit.getId(), workUnit);
+        }
+      }
+    } else {
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        for (WorkUnit workUnit : state.workUnits) {
+          workUnit.write(out);
+        }
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] serializeWorkUnits(WorkUnitsState state) throws IOException {
+    return serialize(state);
+  }
+
+  @Benchmark
+  public void deserializeWorkUnits(WorkUnitsState state, Blackhole blackhole) throws IOException {
+    if (state.compactFormat.isPresent()) {
+      try (CompactStateFormat.Reader reader =
+          CompactStateFormat.createReader(new ByteArrayInputStream(state.serialized), new Configuration())) {
+        WorkUnit workUnit = WorkUnit.createEmpty();
+        while (reader.next(workUnit) != null) {
+          blackhole.consume(workUnit);
+          workUnit = WorkUnit.createEmpty();
+        }
+      }
+    } else {
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(state.serialized))) {
+        for (int i = 0; i < state.numWorkUnits; i++) {
+          WorkUnit workUnit = WorkUnit.createEmpty();
+          workUnit.readFields(in);
+          blackhole.consume(workUnit);
+        }
+      }
+    }
+  }
+}
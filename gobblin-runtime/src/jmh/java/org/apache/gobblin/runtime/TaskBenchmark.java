@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.AbstractIdleService;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.source.extractor.CheckpointableWatermark;
+import org.apache.gobblin.source.extractor.DefaultCheckpointableWatermark;
+import org.apache.gobblin.source.extractor.Extractor;
+import org.apache.gobblin.source.extractor.StreamingExtractor;
+import org.apache.gobblin.source.extractor.extract.LongWatermark;
+import org.apache.gobblin.source.workunit.Extract;
+import org.apache.gobblin.source.workunit.WorkUnit;
+import org.apache.gobblin.stream.RecordEnvelope;
+import org.apache.gobblin.writer.DataWriter;
+import org.apache.gobblin.writer.DataWriterBuilder;
+import org.apache.gobblin.writer.WatermarkAwareWriter;
+import org.apache.gobblin.writer.WatermarkStorage;
+
+
+/**
+ * Measures the cost of the core record pipeline of a {@link Task}: extractor, converters, row-level checker,
+ * fork operator and writers.
+ *
+ * <p>
+ *   Each invocation runs a {@link Task} over {@link #NUM_RECORDS} records produced by an in-memory extractor and
+ *   written to in-memory writers that only count them, so the reported throughput is in records/sec. The task is
+ *   run either by the deprecated synchronous model or by the {@link StreamModelTaskRunner}, in
+ *   {@link ExecutionModel#BATCH} or {@link ExecutionModel#STREAMING} mode. With more than one fork, every record is
+ *   sent to all branches by the {@link org.apache.gobblin.fork.IdentityForkOperator}, so the difference with a single
+ *   fork is the fan-out cost, including the copy of the record for each branch.
+ * </p>
+ *
+ * <p>
+ *   Allocation per record is reported as gc.alloc.rate.norm when running with the gc profiler, e.g.
+ *   {@code java -jar gobblin-runtime-jmh.jar TaskBenchmark -prof gc}.
+ * </p>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@org.openjdk.jmh.annotations.Fork(value = 1)
+@BenchmarkMode(value = Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TaskBenchmark {
+
+  private static final int NUM_RECORDS = 100000;
+
+  @State(value = Scope.Benchmark)
+  public static class TaskExecutorState {
+    private TaskExecutor taskExecutor;
+
+    @Setup
+    public void setup() {
+      this.taskExecutor = new TaskExecutor(new Properties());
+      this.taskExecutor.startAsync().awaitRunning();
+    }
+
+    @TearDown
+    public void tearDown() {
+      this.taskExecutor.stopAsync().awaitTerminated();
+    }
+  }
+
+  @State(value = Scope.Thread)
+  public static class TaskRunState {
+    @Param({"synchronous", "streamModel"})
+    public String taskRunner;
+
+    @Param({"BATCH", "STREAMING"})
+    public String executionModel;
+
+    @Param({"1", "2", "4"})
+    public int numForks;
+
+    @Param({"128"})
+    public int recordSize;
+
+    private byte[] record;
+    private SyntheticTaskContext taskContext;
+    private Task task;
+
+    @Setup
+    public void setup() {
+      this.record = new byte[this.recordSize];
+      new Random().nextBytes(this.record);
+    }
+
+    @Setup(Level.Invocation)
+    public void createTask(TaskExecutorState executorState) {
+      WorkUnit workUnit = WorkUnit.create(
+          new Extract(Extract.TableType.SNAPSHOT_ONLY, TaskBenchmark.class.getName(), "benchmark"));
+      workUnit.setProp(ConfigurationKeys.JOB_ID_KEY, "job_TaskBenchmark_0");
+      workUnit.setProp(ConfigurationKeys.TASK_ID_KEY, "task_TaskBenchmark_0");
+      workUnit.setProp(ConfigurationKeys.METRICS_ENABLED_KEY, false);
+      workUnit.setProp(ConfigurationKeys.TASK_SYNCHRONOUS_EXECUTION_MODEL_KEY, this.taskRunner.equals("synchronous"));
+      workUnit.setProp(TaskConfigurationKeys.TASK_EXECUTION_MODE, this.executionModel);
+      workUnit.setProp(ConfigurationKeys.FORK_BRANCHES_KEY, this.numForks);
+      // The stream model runner polls for fork completion, poll often so the polling interval does not dominate
+      workUnit.setProp(ConfigurationKeys.FORK_FINISHED_CHECK_INTERVAL, 1);
+      // Release the writers when the forks complete, as the task is never committed
+      workUnit.setProp(ConfigurationKeys.FORK_CLOSE_WRITER_ON_COMPLETION, true);
+
+      boolean streaming = ExecutionModel.valueOf(this.executionModel).equals(ExecutionModel.STREAMING);
+      this.taskContext = new SyntheticTaskContext(new WorkUnitState(workUnit),
+          new SyntheticExtractor(this.record, NUM_RECORDS, streaming));
+      this.task = new Task(this.taskContext, new NoopTaskStateTracker(), executorState.taskExecutor,
+          Optional.<CountDownLatch>absent());
+    }
+
+    @TearDown(Level.Invocation)
+    public void verify() {
+      if (this.task.getTaskState().getWorkingState() == WorkUnitState.WorkingState.FAILED) {
+        throw new IllegalStateException(
+            "Task failed: " + this.task.getTaskState().getProp(ConfigurationKeys.TASK_FAILURE_EXCEPTION_KEY));
+      }
+      long expected = (long) NUM_RECORDS * this.numForks;
+      if (this.taskContext.recordsWritten.get() != expected) {
+        throw new IllegalStateException(String.format("Expected %d records written, found %d.", expected,
+            this.taskContext.recordsWritten.get()));
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public void runTask(TaskRunState state) {
+    state.task.run();
+  }
+
+  /**
+   * A {@link TaskContext} that uses a {@link SyntheticExtractor}, {@link CountingWriter}s and an in-memory
+   * {@link WatermarkStorage}. Everything else (fork operator, converters, row-level checker) is configured as usual.
+   */
+  private static class SyntheticTaskContext extends TaskContext {
+    private final SyntheticExtractor extractor;
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private final WatermarkStorage watermarkStorage = new InMemoryWatermarkStorage();
+
+    SyntheticTaskContext(WorkUnitState workUnitState, SyntheticExtractor extractor) {
+      super(workUnitState);
+      this.extractor = extractor;
+    }
+
+    @Override
+    public Extractor getExtractor() {
+      return this.extractor;
+    }
+
+    @Override
+    public Extractor getRawSourceExtractor() {
+      return this.extractor;
+    }
+
+    @Override
+    public DataWriterBuilder getDataWriterBuilder(int branches, int index) {
+      return new DataWriterBuilder<String, byte[]>() {
+        @Override
+        public DataWriter<byte[]> build() throws IOException {
+          return new CountingWriter(SyntheticTaskContext.this.recordsWritten);
+        }
+      };
+    }
+
+    @Override
+    public WatermarkStorage getWatermarkStorage() {
+      return this.watermarkStorage;
+    }
+  }
+
+  /**
+   * Emits the same record a fixed number of times, with a {@link LongWatermark} per record in streaming mode.
+   */
+  private static class SyntheticExtractor implements StreamingExtractor<String, byte[]> {
+    private final byte[] record;
+    private final long numRecords;
+    private final boolean withWatermarks;
+    private long index = 0;
+
+    SyntheticExtractor(byte[] record, long numRecords, boolean withWatermarks) {
+      this.record = record;
+      this.numRecords = numRecords;
+      this.withWatermarks = withWatermarks;
+    }
+
+    @Override
+    public String getSchema() {
+      return "bytes";
+    }
+
+    @Override
+    public RecordEnvelope<byte[]> readRecordEnvelope() {
+      if (this.index >= this.numRecords) {
+        return null;
+      }
+      RecordEnvelope<byte[]> envelope = this.withWatermarks
+          ? new RecordEnvelope<>(this.record, new DefaultCheckpointableWatermark("0", new LongWatermark(this.index)))
+          : new RecordEnvelope<>(this.record);
+      this.index++;
+      return envelope;
+    }
+
+    @Override
+    public long getExpectedRecordCount() {
+      return this.numRecords;
+    }
+
+    @Override
+    public long getHighWatermark() {
+      return this.numRecords;
+    }
+
+    @Override
+    public void start(WatermarkStorage watermarkStorage) {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Counts the records written across all branches.
+   */
+  private static class CountingWriter implements WatermarkAwareWriter<byte[]> {
+    private final AtomicLong totalRecordsWritten;
+    private long recordsWritten = 0;
+
+    CountingWriter(AtomicLong totalRecordsWritten) {
+      this.totalRecordsWritten = totalRecordsWritten;
+    }
+
+    @Override
+    public void write(byte[] record) {
+      this.recordsWritten++;
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void cleanup() {
+    }
+
+    @Override
+    public long recordsWritten() {
+      return this.recordsWritten;
+    }
+
+    @Override
+    public long bytesWritten() {
+      return 0;
+    }
+
+    @Override
+    public void close() {
+      this.totalRecordsWritten.addAndGet(this.recordsWritten);
+      this.recordsWritten = 0;
+    }
+  }
+
+  private static class InMemoryWatermarkStorage implements WatermarkStorage {
+    private final Map<String, CheckpointableWatermark> watermarks = new ConcurrentHashMap<>();
+
+    @Override
+    public void commitWatermarks(Iterable<CheckpointableWatermark> watermarks) {
+      for (CheckpointableWatermark watermark : watermarks) {
+        this.watermarks.put(watermark.getSource(), watermark);
+      }
+    }
+
+    @Override
+    public Map<String, CheckpointableWatermark> getCommittedWatermarks(
+        Class<? extends CheckpointableWatermark> watermarkClass, Iterable<String> sourcePartitions) {
+      return Maps.newHashMap(this.watermarks);
+    }
+  }
+
+  private static class NoopTaskStateTracker extends AbstractIdleService implements TaskStateTracker {
+    @Override
+    protected void startUp() {
+    }
+
+    @Override
+    protected void shutDown() {
+    }
+
+    @Override
+    public void registerNewTask(Task task) {
+    }
+
+    @Override
+    public void onTaskRunCompletion(Task task) {
+    }
+
+    @Override
+    public void onTaskCommitCompletion(Task task) {
+    }
+  }
+}
@@ -17,8 +17,11 @@
 
 package org.apache.gobblin.runtime;
 
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
@@ -47,6 +50,18 @@ import org.apache.gobblin.configuration.ConfigurationKeys;
  *   </ul>
  * </p>
  *
+ * <p>
+ *   The queue is backed by an {@link java.util.concurrent.ArrayBlockingQueue} by default. If
+ *   {@link Builder#useRingBuffer(SpscRingBuffer.WaitStrategy)} is used, it is backed by a lock-free
+ *   {@link SpscRingBuffer} instead, in which case there must be at most one thread calling {@link #put(Object)} and at
+ *   most one thread calling {@link #get()}, {@link #drainTo(List, int)} or {@link #clear()}.
+ * </p>
+ *
+ * <p>
+ *   Statistics are kept as plain counters on the hot path and only turned into {@link Meter} updates when they are
+ *   read, so collecting them does not add a {@link Meter#mark()} to every queue operation.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class BoundedBlockingRecordQueue<T> {
@@ -55,6 +70,7 @@ public class BoundedBlockingRecordQueue<T> {
   private final long timeout;
   private final TimeUnit timeoutTimeUnit;
   private final BlockingQueue<T> blockingQueue;
+  private final SpscRingBuffer<T> ringBuffer;
 
   private final Optional<QueueStats> queueStats;
 
@@ -65,7 +81,13 @@ public class BoundedBlockingRecordQueue<T> {
     this.capacity = builder.capacity;
     this.timeout = builder.timeout;
     this.timeoutTimeUnit = builder.timeoutTimeUnit;
-    this.blockingQueue = Queues.newArrayBlockingQueue(builder.capacity);
+    if (builder.waitStrategy.isPresent()) {
+      this.blockingQueue = null;
+      this.ringBuffer = new SpscRingBuffer<>(builder.capacity, builder.waitStrategy.get());
+    } else {
+      this.blockingQueue = Queues.newArrayBlockingQueue(builder.capacity);
+      this.ringBuffer = null;
+    }
 
     this.queueStats = builder.ifCollectStats ? Optional.of(new QueueStats()) : Optional.<QueueStats> absent();
   }
@@ -79,9 +101,11 @@ public class BoundedBlockingRecordQueue<T> {
    * @throws InterruptedException if interrupted while waiting
    */
   public boolean put(T record) throws InterruptedException {
-    boolean offered = this.blockingQueue.offer(record, this.timeout, this.timeoutTimeUnit);
+    boolean offered = this.ringBuffer != null
+        ? this.ringBuffer.offer(record, this.timeout, this.timeoutTimeUnit)
+        : this.blockingQueue.offer(record, this.timeout, this.timeoutTimeUnit);
     if (this.queueStats.isPresent()) {
-      this.queueStats.get().putsRateMeter.mark();
+      this.queueStats.get().putAttempts.increment();
     }
     return offered;
   }
@@ -94,13 +118,47 @@ public class BoundedBlockingRecordQueue<T> {
    * @throws InterruptedException if interrupted while waiting
    */
   public T get() throws InterruptedException {
-    T record = this.blockingQueue.poll(this.timeout, this.timeoutTimeUnit);
+    T record = this.ringBuffer != null
+        ? this.ringBuffer.poll(this.timeout, this.timeoutTimeUnit)
+        : this.blockingQueue.poll(this.timeout, this.timeoutTimeUnit);
     if (this.queueStats.isPresent()) {
-      this.queueStats.get().getsRateMeter.mark();
+      this.queueStats.get().getAttempts.increment();
     }
     return record;
   }
 
+  /**
+   * Move up to {@code maxRecords} records from the head of the queue into the given list, waiting (up to the
+   * configured timeout time) for the first record to become available. Records already in the queue after the first
+   * one are moved without waiting.
+   *
+   * <p>
+   *   Each record moved counts as one get attempt; a call that times out without moving any record counts as one.
+   * </p>
+   *
+   * @param records the list to add the records to
+   * @param maxRecords the maximum number of records to move
+   * @return the number of records moved, <code>0</code> if no record became available
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public int drainTo(List<? super T> records, int maxRecords) throws InterruptedException {
+    int drained;
+    if (this.ringBuffer != null) {
+      drained = this.ringBuffer.drainTo(records, maxRecords, this.timeout, this.timeoutTimeUnit);
+    } else {
+      T first = maxRecords > 0 ? this.blockingQueue.poll(this.timeout, this.timeoutTimeUnit) : null;
+      drained = 0;
+      if (first != null) {
+        records.add(first);
+        drained = 1 + this.blockingQueue.drainTo(records, maxRecords - 1);
+      }
+    }
+    if (this.queueStats.isPresent()) {
+      this.queueStats.get().getAttempts.add(Math.max(drained, 1));
+    }
+    return drained;
+  }
+
   /**
    * Get a {@link QueueStats} object representing queue statistics of this {@link BoundedBlockingRecordQueue}.
    *
@@ -115,7 +173,15 @@ public class BoundedBlockingRecordQueue<T> {
    * Clear the queue.
    */
   public void clear() {
-    this.blockingQueue.clear();
+    if (this.ringBuffer != null) {
+      this.ringBuffer.clear();
+    } else {
+      this.blockingQueue.clear();
+    }
+  }
+
+  private int size() {
+    return this.ringBuffer != null ? this.ringBuffer.size() : this.blockingQueue.size();
   }
 
   /**
@@ -139,6 +205,7 @@ public class BoundedBlockingRecordQueue<T> {
     private long timeout = ConfigurationKeys.DEFAULT_FORK_RECORD_QUEUE_TIMEOUT;
     private TimeUnit timeoutTimeUnit = TimeUnit.MILLISECONDS;
     private boolean ifCollectStats = false;
+    private Optional<SpscRingBuffer.WaitStrategy> waitStrategy = Optional.absent();
 
     /**
      * Configure the capacity of the queue.
@@ -183,6 +250,17 @@ public class BoundedBlockingRecordQueue<T> {
       return this;
     }
 
+    /**
+     * Configure the queue to be backed by a single-producer/single-consumer {@link SpscRingBuffer}.
+     *
+     * @param waitStrategy how the producer and consumer wait for space or records to become available
+     * @return this {@link Builder} instance
+     */
+    public Builder<T> useRingBuffer(SpscRingBuffer.WaitStrategy waitStrategy) {
+      this.waitStrategy = Optional.of(waitStrategy);
+      return this;
+    }
+
     /**
      * Build a new {@link BoundedBlockingRecordQueue}.
      *
@@ -197,7 +275,8 @@ public class BoundedBlockingRecordQueue<T> {
    * A class for collecting queue statistics.
    *
    * <p>
-   *   All statistics will have zero values if collecting of statistics is not enabled.
+   *   All statistics will have zero values if collecting of statistics is not enabled. The put and get attempt
+   *   {@link Meter}s are brought up to date with the underlying counters whenever they are read.
    * </p>
    */
   public class QueueStats {
@@ -211,6 +290,8 @@ public class BoundedBlockingRecordQueue<T> {
 
     private final Gauge<Integer> queueSizeGauge;
     private final Gauge<Double> fillRatioGauge;
+    private final LongAdder putAttempts = new LongAdder();
+    private final LongAdder getAttempts = new LongAdder();
     private final Meter putsRateMeter;
     private final Meter getsRateMeter;
 
@@ -218,20 +299,19 @@ public class BoundedBlockingRecordQueue<T> {
       this.queueSizeGauge = new Gauge<Integer>() {
         @Override
         public Integer getValue() {
-          return BoundedBlockingRecordQueue.this.blockingQueue.size();
+          return BoundedBlockingRecordQueue.this.size();
         }
       };
 
       this.fillRatioGauge = new Gauge<Double>() {
         @Override
         public Double getValue() {
-          return (double) BoundedBlockingRecordQueue.this.blockingQueue.size()
-              / BoundedBlockingRecordQueue.this.capacity;
+          return (double) BoundedBlockingRecordQueue.this.size() / BoundedBlockingRecordQueue.this.capacity;
         }
       };
 
-      this.putsRateMeter = new Meter();
-      this.getsRateMeter = new Meter();
+      this.putsRateMeter = new SampledMeter(this.putAttempts);
+      this.getsRateMeter = new SampledMeter(this.getAttempts);
     }
 
     /**
@@ -314,4 +394,55 @@ public class BoundedBlockingRecordQueue<T> {
       return sb.toString();
     }
   }
+  /**
+   * A {@link Meter} that is marked with the growth of a {@link LongAdder} each time it is read, rather than on every
+   * event. The mean rate and count are exact; the exponentially-weighted rates attribute events to the time they are
+   * sampled.
+   */
+  private static class SampledMeter extends Meter {
+    private final LongAdder source;
+    private final AtomicLong synced = new AtomicLong();
+
+    SampledMeter(LongAdder source) {
+      this.source = source;
+    }
+
+    private void sync() {
+      long current = this.source.sum();
+      long previous = this.synced.getAndSet(current);
+      if (current > previous) {
+        super.mark(current - previous);
+      }
+    }
+
+    @Override
+    public long getCount() {
+      sync();
+      return super.getCount();
+    }
+
+    @Override
+    public double getMeanRate() {
+      sync();
+      return super.getMeanRate();
+    }
+
+    @Override
+    public double getOneMinuteRate() {
+      sync();
+      return super.getOneMinuteRate();
+    }
+
+    @Override
+    public double getFiveMinuteRate() {
+      sync();
+      return super.getFiveMinuteRate();
+    }
+
+    @Override
+    public double getFifteenMinuteRate() {
+      sync();
+      return super.getFifteenMinuteRate();
+    }
+  }
 }
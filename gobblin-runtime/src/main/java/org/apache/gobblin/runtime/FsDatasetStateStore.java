@@ -61,6 +61,7 @@ import org.apache.gobblin.metastore.nameParser.DatasetUrnStateStoreNameParser;
 import org.apache.gobblin.metastore.nameParser.SimpleDatasetUrnStateStoreNameParser;
 import org.apache.gobblin.runtime.metastore.filesystem.FsDatasetStateStoreEntryManager;
 import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.util.CompactStateFormat;
 import org.apache.gobblin.util.ConfigUtils;
 import org.apache.gobblin.util.Either;
 import org.apache.gobblin.util.ExecutorsUtils;
@@ -110,25 +111,18 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
           .getInt(config, ConfigurationKeys.THREADPOOL_SIZE_OF_LISTING_FS_DATASET_STATESTORE,
               ConfigurationKeys.DEFAULT_THREADPOOL_SIZE_OF_LISTING_FS_DATASET_STATESTORE);
 
-      final String datasetUrnStateStoreNameParserClass = ConfigUtils
-          .getString(config, ConfigurationKeys.DATASETURN_STATESTORE_NAME_PARSER,
-              SimpleDatasetUrnStateStoreNameParser.class.getName());
-
       LoadingCache<Path, DatasetUrnStateStoreNameParser> stateStoreNameParserLoadingCache =
-          CacheBuilder.newBuilder().maximumSize(CACHE_SIZE)
-              .build(new CacheLoader<Path, DatasetUrnStateStoreNameParser>() {
-                @Override
-                public DatasetUrnStateStoreNameParser load(Path stateStoreDirWithStoreName)
-                    throws Exception {
-                  return (DatasetUrnStateStoreNameParser) GobblinConstructorUtils
-                      .invokeLongestConstructor(Class.forName(datasetUrnStateStoreNameParserClass), stateStoreFs,
-                          stateStoreDirWithStoreName);
-                }
-              });
-
-      return (DatasetStateStore<JobState.DatasetState>) GobblinConstructorUtils
-          .invokeLongestConstructor(Class.forName(className), stateStoreFs, stateStoreRootDir,
-              threadPoolOfGettingDatasetState, stateStoreNameParserLoadingCache);
+          createStateStoreNameParserLoadingCache(config, stateStoreFs);
+
+      DatasetStateStore<JobState.DatasetState> stateStore =
+          (DatasetStateStore<JobState.DatasetState>) GobblinConstructorUtils.invokeLongestConstructor(
+              Class.forName(className), stateStoreFs, stateStoreRootDir, threadPoolOfGettingDatasetState,
+              stateStoreNameParserLoadingCache);
+      if (stateStore instanceof FsStateStore) {
+        ((FsStateStore<?>) stateStore).setCompactStateFormat(
+            CompactStateFormat.fromState(ConfigUtils.configToState(config)));
+      }
+      return stateStore;
     } catch (IOException e) {
       throw new RuntimeException(e);
     } catch (ReflectiveOperationException e) {
@@ -136,6 +130,28 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
     }
   }
 
+  /**
+   * Create the cache of the {@link DatasetUrnStateStoreNameParser}s, by store directory, configured by
+   * {@link ConfigurationKeys#DATASETURN_STATESTORE_NAME_PARSER}.
+   */
+  static LoadingCache<Path, DatasetUrnStateStoreNameParser> createStateStoreNameParserLoadingCache(Config config,
+      final FileSystem stateStoreFs) {
+    final String datasetUrnStateStoreNameParserClass = ConfigUtils
+        .getString(config, ConfigurationKeys.DATASETURN_STATESTORE_NAME_PARSER,
+            SimpleDatasetUrnStateStoreNameParser.class.getName());
+
+    return CacheBuilder.newBuilder().maximumSize(CACHE_SIZE)
+        .build(new CacheLoader<Path, DatasetUrnStateStoreNameParser>() {
+          @Override
+          public DatasetUrnStateStoreNameParser load(Path stateStoreDirWithStoreName)
+              throws Exception {
+            return (DatasetUrnStateStoreNameParser) GobblinConstructorUtils
+                .invokeLongestConstructor(Class.forName(datasetUrnStateStoreNameParserClass), stateStoreFs,
+                    stateStoreDirWithStoreName);
+          }
+        });
+  }
+
   public FsDatasetStateStore(String fsUri, String storeRootDir)
       throws IOException {
     super(fsUri, storeRootDir, JobState.DatasetState.class);
@@ -196,6 +212,17 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
       return null;
     }
 
+    if (isCompactStateFile(tablePath)) {
+      for (JobState.DatasetState datasetState : readCompactStateFile(tablePath, JobState.DatasetState.class)) {
+        String stringKey = sanitizeKeyForComparison
+            ? sanitizeDatasetStatestoreNameFromDatasetURN(storeName, datasetState.getId()) : datasetState.getId();
+        if (stringKey.equals(stateId)) {
+          return datasetState;
+        }
+      }
+      return null;
+    }
+
     Configuration deserializeConf = new Configuration(this.conf);
     WritableShimSerialization.addToHadoopConfiguration(deserializeConf);
     try (@SuppressWarnings("deprecation") SequenceFile.Reader reader = new SequenceFile.Reader(this.fs, tablePath,
@@ -235,6 +262,10 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> imp
       return states;
     }
 
+    if (isCompactStateFile(tablePath)) {
+      return readCompactStateFile(tablePath, JobState.DatasetState.class);
+    }
+
     Configuration deserializeConfig = new Configuration(this.conf);
     WritableShimSerialization.addToHadoopConfiguration(deserializeConfig);
     try (@SuppressWarnings("deprecation") GobblinSequenceFileReader reader = new GobblinSequenceFileReader(this.fs,
@@ -58,6 +58,7 @@ import org.apache.gobblin.broker.iface.SubscopedBrokerBuilder;
 import org.apache.gobblin.commit.CommitStep;
 import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.configuration.WorkUnitState;
+import org.apache.gobblin.metastore.FsStateStore;
 import org.apache.gobblin.metastore.StateStore;
 import org.apache.gobblin.metrics.Tag;
 import org.apache.gobblin.metrics.event.EventSubmitter;
@@ -326,21 +327,39 @@ public class GobblinMultiTaskAttempt {
     }
 
     StateStore<TaskState> taskStateStore = this.taskStateStoreOptional.get();
-    for (Task task : this.tasks) {
-      String taskId = task.getTaskId();
-      // Delete the task state file for the task if it already exists.
-      // This usually happens if the task is retried upon failure.
-      if (taskStateStore.exists(jobId, taskId + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX)) {
-        taskStateStore.delete(jobId, taskId + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX);
+    boolean useTaskStateLog = this.jobState.getPropAsBoolean(ConfigurationKeys.TASK_STATE_LOG_ENABLED,
+        ConfigurationKeys.DEFAULT_TASK_STATE_LOG_ENABLED);
+    if (useTaskStateLog && !(taskStateStore instanceof FsStateStore)) {
+      log.warn("Task state logs require a file system based task state store, writing one table per task instead");
+      useTaskStateLog = false;
+    }
+
+    if (useTaskStateLog) {
+      // A retried task is appended again, and its latest task state wins when collected
+      FsStateStore<TaskState> fsTaskStateStore = (FsStateStore<TaskState>) taskStateStore;
+      log.info("Appending task states of {} tasks to the task state log", this.tasks.size());
+      TaskStateLogWriter.append(fsTaskStateStore.getFileSystem(), fsTaskStateStore.getStorePath(this.jobId),
+          this.containerIdOptional.or(this.jobId), this.jobState,
+          Lists.transform(this.tasks, Task::getTaskState));
+    } else {
+      for (Task task : this.tasks) {
+        String taskId = task.getTaskId();
+        // Delete the task state file for the task if it already exists.
+        // This usually happens if the task is retried upon failure.
+        if (taskStateStore.exists(jobId, taskId + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX)) {
+          taskStateStore.delete(jobId, taskId + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX);
+        }
+      }
+
+      for (Task task : tasks) {
+        log.info("Writing task state for task " + task.getTaskId());
+        taskStateStore.put(task.getJobId(), task.getTaskId() + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX,
+            task.getTaskState());
       }
     }
 
     boolean hasTaskFailure = false;
     for (Task task : tasks) {
-      log.info("Writing task state for task " + task.getTaskId());
-      taskStateStore.put(task.getJobId(), task.getTaskId() + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX,
-          task.getTaskState());
-
       if (task.getTaskState().getWorkingState() == WorkUnitState.WorkingState.FAILED) {
         hasTaskFailure = true;
       }
@@ -44,6 +44,7 @@ import com.google.common.eventbus.Subscribe;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
 
 import javax.annotation.Nullable;
 import lombok.AccessLevel;
@@ -153,9 +154,6 @@ public class JobContext implements Closeable {
     this.jobCommitPolicy = JobCommitPolicy.getCommitPolicy(jobProps);
     this.partialFailTaskFailsJobCommit = Boolean.valueOf(jobProps.getProperty(ConfigurationKeys.PARTIAL_FAIL_TASK_FAILS_JOB_COMMIT, "false"));
 
-    this.datasetStateStore = createStateStore(ConfigUtils.propertiesToConfig(jobProps));
-    this.jobHistoryStoreOptional = createJobHistoryStore(jobProps);
-
     this.issueRepository = issueRepository;
 
     State jobPropsState = new State();
@@ -163,12 +161,6 @@ public class JobContext implements Closeable {
 
     this.jobState = new JobState(jobPropsState, this.jobName, this.jobId);
     this.jobState.setBroker(this.jobBroker);
-    this.jobState.setWorkUnitAndDatasetStateFunctional(new CombinedWorkUnitAndDatasetStateGenerator(this.datasetStateStore, this.jobName));
-
-    stagingDirProvided = this.jobState.contains(ConfigurationKeys.WRITER_STAGING_DIR);
-    outputDirProvided = this.jobState.contains(ConfigurationKeys.WRITER_OUTPUT_DIR);
-
-    setTaskStagingAndOutputDirs();
 
     if (GobblinMetrics.isEnabled(jobProps)) {
       this.jobMetricsOptional = Optional.of(JobMetrics.get(this.jobState));
@@ -177,6 +169,21 @@ public class JobContext implements Closeable {
       this.jobMetricsOptional = Optional.absent();
     }
 
+    // Created after the job metrics, so that the state store can report its metrics in the job's metric context
+    Config stateStoreConfig = ConfigUtils.propertiesToConfig(jobProps);
+    if (this.jobMetricsOptional.isPresent()) {
+      stateStoreConfig = stateStoreConfig.withValue(Instrumented.METRIC_CONTEXT_NAME_KEY,
+          ConfigValueFactory.fromAnyRef(this.jobMetricsOptional.get().getName()));
+    }
+    this.datasetStateStore = createStateStore(stateStoreConfig);
+    this.jobHistoryStoreOptional = createJobHistoryStore(jobProps);
+    this.jobState.setWorkUnitAndDatasetStateFunctional(new CombinedWorkUnitAndDatasetStateGenerator(this.datasetStateStore, this.jobName));
+
+    stagingDirProvided = this.jobState.contains(ConfigurationKeys.WRITER_STAGING_DIR);
+    outputDirProvided = this.jobState.contains(ConfigurationKeys.WRITER_OUTPUT_DIR);
+
+    setTaskStagingAndOutputDirs();
+
     this.semantics = DeliverySemantics.parse(this.jobState);
     this.commitSequenceStore = createCommitSequenceStore();
 
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Predicate;
+import com.google.common.base.Strings;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.metastore.DatasetStateStore;
+import org.apache.gobblin.metastore.LogStructuredFsStateStore;
+import org.apache.gobblin.metastore.nameParser.DatasetUrnStateStoreNameParser;
+
+
+/**
+ * A {@link DatasetStateStore} backed by a {@link LogStructuredFsStateStore}.
+ *
+ * <p>
+ *   Tables are named as in {@link FsDatasetStateStore}, including the sanitization of dataset URNs by a
+ *   {@link DatasetUrnStateStoreNameParser}. Persisting a {@link JobState.DatasetState} writes the state
+ *   and its "current" alias as a single delta segment, instead of writing the table file and copying it to the alias
+ *   file, and {@link #getLatestDatasetStatesByUrns(String)} is served from the in-memory index instead of opening one
+ *   file per dataset.
+ * </p>
+ */
+@Slf4j
+public class LogStructuredFsDatasetStateStore extends LogStructuredFsStateStore<JobState.DatasetState>
+    implements DatasetStateStore<JobState.DatasetState> {
+
+  private static final String CURRENT_TABLE_SUFFIX =
+      CURRENT_DATASET_STATE_FILE_SUFFIX + DATASET_STATE_STORE_TABLE_SUFFIX;
+
+  private final LoadingCache<Path, DatasetUrnStateStoreNameParser> stateStoreNameParserLoadingCache;
+
+  public LogStructuredFsDatasetStateStore(String fsUri, String storeRootDir) throws IOException {
+    super(fsUri, storeRootDir, JobState.DatasetState.class);
+    this.stateStoreNameParserLoadingCache = null;
+  }
+
+  public LogStructuredFsDatasetStateStore(FileSystem fs, String storeRootDir) {
+    this(fs, storeRootDir, null);
+  }
+
+  public LogStructuredFsDatasetStateStore(FileSystem fs, String storeRootDir,
+      LoadingCache<Path, DatasetUrnStateStoreNameParser> stateStoreNameParserLoadingCache) {
+    super(fs, storeRootDir, JobState.DatasetState.class);
+    this.stateStoreNameParserLoadingCache = stateStoreNameParserLoadingCache;
+  }
+
+  @Override
+  public String sanitizeDatasetStatestoreNameFromDatasetURN(String storeName, String datasetURN) throws IOException {
+    if (this.stateStoreNameParserLoadingCache == null) {
+      return datasetURN;
+    }
+    try {
+      return this.stateStoreNameParserLoadingCache.get(new Path(this.storeRootDir, storeName))
+          .getStateStoreNameFromDatasetUrn(datasetURN);
+    } catch (ExecutionException e) {
+      throw new IOException("Failed to load dataset state store name parser: " + e, e);
+    }
+  }
+
+  @Override
+  public Map<String, JobState.DatasetState> getLatestDatasetStatesByUrns(String jobName) throws IOException {
+    Map<String, List<JobState.DatasetState>> currentTables = getAllByTable(jobName, new Predicate<String>() {
+      @Override
+      public boolean apply(String tableName) {
+        return tableName.endsWith(CURRENT_TABLE_SUFFIX);
+      }
+    });
+
+    Map<String, JobState.DatasetState> datasetStatesByUrns = Maps.newHashMap();
+    for (List<JobState.DatasetState> datasetStates : currentTables.values()) {
+      if (!datasetStates.isEmpty()) {
+        // There should be a single dataset state on the list if the list is not empty
+        JobState.DatasetState datasetState = datasetStates.get(0);
+        datasetStatesByUrns.put(datasetState.getDatasetUrn(), datasetState);
+      }
+    }
+
+    // The dataset (job) state from the deprecated "current.jst" will be read even though
+    // the job has transitioned to the new dataset-based mechanism
+    if (datasetStatesByUrns.size() > 1) {
+      datasetStatesByUrns.remove(ConfigurationKeys.DEFAULT_DATASET_URN);
+    }
+
+    return datasetStatesByUrns;
+  }
+
+  @Override
+  public JobState.DatasetState getLatestDatasetState(String storeName, String datasetUrn) throws IOException {
+    String alias = Strings.isNullOrEmpty(datasetUrn) ? CURRENT_TABLE_SUFFIX
+        : sanitizeDatasetStatestoreNameFromDatasetURN(storeName, CharMatcher.is(':').replaceFrom(datasetUrn, '.'))
+            + "-" + CURRENT_TABLE_SUFFIX;
+    return get(storeName, alias, datasetUrn);
+  }
+
+  @Override
+  public void persistDatasetState(String datasetUrn, JobState.DatasetState datasetState) throws IOException {
+    persistDatasetStates(Collections.singletonMap(datasetUrn, datasetState));
+  }
+
+  /**
+   * Persist the given {@link JobState.DatasetState}s. The dataset states of each job and their "current" aliases are
+   * written as a single delta segment.
+   */
+  @Override
+  public void persistDatasetStates(Map<String, JobState.DatasetState> datasetStatesByUrns) throws IOException {
+    Map<String, Map<String, JobState.DatasetState>> statesByTableNamesByJobNames = Maps.newHashMap();
+    Map<String, Map<String, String>> aliasesByTableNamesByJobNames = Maps.newHashMap();
+    for (Map.Entry<String, JobState.DatasetState> entry : datasetStatesByUrns.entrySet()) {
+      JobState.DatasetState datasetState = entry.getValue();
+      String jobName = datasetState.getJobName();
+
+      String datasetUrn = CharMatcher.is(':').replaceFrom(entry.getKey(), '.');
+      String datasetStatestoreName = sanitizeDatasetStatestoreNameFromDatasetURN(jobName, datasetUrn);
+      String sanitizedJobId = datasetState.getJobId().replaceAll("[-/]", "_");
+      String tableName = Strings.isNullOrEmpty(datasetUrn) ? sanitizedJobId + DATASET_STATE_STORE_TABLE_SUFFIX
+          : datasetStatestoreName + "-" + sanitizedJobId + DATASET_STATE_STORE_TABLE_SUFFIX;
+      String alias = Strings.isNullOrEmpty(datasetUrn) ? CURRENT_TABLE_SUFFIX
+          : datasetStatestoreName + "-" + CURRENT_TABLE_SUFFIX;
+      log.info("Persisting " + tableName + " to the job state store");
+
+      if (!statesByTableNamesByJobNames.containsKey(jobName)) {
+        statesByTableNamesByJobNames.put(jobName, Maps.<String, JobState.DatasetState>newLinkedHashMap());
+        aliasesByTableNamesByJobNames.put(jobName, Maps.<String, String>newHashMap());
+      }
+      statesByTableNamesByJobNames.get(jobName).put(tableName, datasetState);
+      aliasesByTableNamesByJobNames.get(jobName).put(tableName, alias);
+    }
+
+    for (Map.Entry<String, Map<String, JobState.DatasetState>> entry : statesByTableNamesByJobNames.entrySet()) {
+      putAndCreateAliases(entry.getKey(), entry.getValue(), aliasesByTableNamesByJobNames.get(entry.getKey()));
+    }
+  }
+
+  @Override
+  public void persistDatasetURNs(String storeName, Collection<String> datasetUrns) throws IOException {
+    if (this.stateStoreNameParserLoadingCache == null) {
+      return;
+    }
+    try {
+      this.stateStoreNameParserLoadingCache.get(new Path(this.storeRootDir, storeName)).persistDatasetUrns(datasetUrns);
+    } catch (ExecutionException e) {
+      throw new IOException("Failed to persist datasetUrns.", e);
+    }
+  }
+}
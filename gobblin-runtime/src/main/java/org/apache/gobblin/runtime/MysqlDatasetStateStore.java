@@ -19,6 +19,7 @@ package org.apache.gobblin.runtime;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -114,16 +115,39 @@ public class MysqlDatasetStateStore extends MysqlStateStore<JobState.DatasetStat
    * @throws IOException if there's something wrong persisting the {@link JobState.DatasetState}
    */
   public void persistDatasetState(String datasetUrn, JobState.DatasetState datasetState) throws IOException {
-    String jobName = datasetState.getJobName();
-    String jobId = datasetState.getJobId();
+    persistDatasetStates(Collections.singletonMap(datasetUrn, datasetState));
+  }
 
-    datasetUrn = CharMatcher.is(':').replaceFrom(datasetUrn, '.');
-    String tableName = Strings.isNullOrEmpty(datasetUrn) ? jobId + DATASET_STATE_STORE_TABLE_SUFFIX
-        : datasetUrn + "-" + jobId + DATASET_STATE_STORE_TABLE_SUFFIX;
-    LOGGER.info("Persisting " + tableName + " to the job state store");
+  /**
+   * Persist the given {@link JobState.DatasetState}s. The dataset states of each job and their "current" aliases are
+   * written in a single transaction with {@link #putAll(String, Map)}.
+   *
+   * @param datasetStatesByUrns the {@link JobState.DatasetState}s to persist by dataset URNs
+   * @throws IOException if there's something wrong persisting the {@link JobState.DatasetState}s
+   */
+  @Override
+  public void persistDatasetStates(Map<String, JobState.DatasetState> datasetStatesByUrns) throws IOException {
+    Map<String, Map<String, List<JobState.DatasetState>>> statesByTableNamesByJobNames = Maps.newHashMap();
+    for (Map.Entry<String, JobState.DatasetState> entry : datasetStatesByUrns.entrySet()) {
+      JobState.DatasetState datasetState = entry.getValue();
+      String jobId = datasetState.getJobId();
+
+      String datasetUrn = CharMatcher.is(':').replaceFrom(entry.getKey(), '.');
+      String tableName = Strings.isNullOrEmpty(datasetUrn) ? jobId + DATASET_STATE_STORE_TABLE_SUFFIX
+          : datasetUrn + "-" + jobId + DATASET_STATE_STORE_TABLE_SUFFIX;
+      LOGGER.info("Persisting " + tableName + " to the job state store");
+
+      // The alias shares the value of the table instead of being cloned from it
+      List<JobState.DatasetState> states = Collections.singletonList(datasetState);
+      Map<String, List<JobState.DatasetState>> statesByTableNames =
+          statesByTableNamesByJobNames.computeIfAbsent(datasetState.getJobName(), k -> Maps.newHashMap());
+      statesByTableNames.put(tableName, states);
+      statesByTableNames.put(getAliasName(datasetUrn), states);
+    }
 
-    put(jobName, tableName, datasetState);
-    createAlias(jobName, tableName, getAliasName(datasetUrn));
+    for (Map.Entry<String, Map<String, List<JobState.DatasetState>>> entry : statesByTableNamesByJobNames.entrySet()) {
+      putAll(entry.getKey(), entry.getValue());
+    }
   }
 
   @Override
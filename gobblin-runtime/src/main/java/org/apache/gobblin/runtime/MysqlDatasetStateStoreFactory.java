@@ -25,6 +25,7 @@ import org.apache.gobblin.broker.SharedResourcesBrokerFactory;
 import org.apache.gobblin.configuration.ConfigurationKeys;
 import org.apache.gobblin.metastore.DatasetStateStore;
 import org.apache.gobblin.metastore.MysqlDataSourceFactory;
+import org.apache.gobblin.metastore.MysqlStateStore;
 
 @Alias("mysql")
 public class MysqlDatasetStateStoreFactory implements DatasetStateStore.Factory {
@@ -41,7 +42,10 @@ public class MysqlDatasetStateStoreFactory implements DatasetStateStore.Factory
       DataSource dataSource = MysqlDataSourceFactory.get(config,
           SharedResourcesBrokerFactory.getImplicitBroker());
 
-      return new MysqlDatasetStateStore(dataSource, stateStoreTableName, compressedValues);
+      MysqlDatasetStateStore stateStore = new MysqlDatasetStateStore(dataSource, stateStoreTableName, compressedValues);
+      stateStore.setCompactStateFormat(MysqlStateStore.getCompactStateFormat(config));
+      stateStore.setMetricContext(config);
+      return stateStore;
     } catch (Exception e) {
       throw new RuntimeException("Failed to create MysqlDatasetStateStore with factory", e);
     }
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.base.Preconditions;
+
+
+/**
+ * A bounded, lock-free ring buffer for exactly one producer thread and one consumer thread.
+ *
+ * <p>
+ *   The producer and the consumer each own one sequence counter, which is published with ordered (lazy) writes, and
+ *   keep a cached copy of the other side's counter so that the shared counters are only read when the buffer looks
+ *   full or empty. No locks are taken and nothing is allocated on {@link #offer} or {@link #poll}. When the buffer is
+ *   full or empty the calling thread waits according to the configured {@link WaitStrategy}.
+ * </p>
+ *
+ * <p>
+ *   Calling {@link #offer} from more than one thread, or {@link #poll}, {@link #drainTo} or {@link #clear} from more
+ *   than one thread, is not supported.
+ * </p>
+ *
+ * @param <T> element type
+ */
+public class SpscRingBuffer<T> {
+
+  /**
+   * How a producer or consumer waits for space or elements to become available.
+   */
+  public enum WaitStrategy {
+    /** Busy spin. Lowest latency, but burns a core while waiting and needs a core each for producer and consumer. */
+    SPIN,
+    /** Call {@link Thread#yield()} between attempts. */
+    YIELD,
+    /** Park the thread for a short, increasing amount of time between attempts. */
+    PARK
+  }
+
+  private static final int SPIN_TRIES = 100;
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Object[] buffer;
+  private final int mask;
+  private final int capacity;
+  private final WaitStrategy waitStrategy;
+
+  // Index of the next element to poll, written by the consumer only
+  private final PaddedAtomicLong head = new PaddedAtomicLong();
+  // Index of the next slot to fill, written by the producer only
+  private final PaddedAtomicLong tail = new PaddedAtomicLong();
+  // Producer-local copy of head
+  private long cachedHead = 0;
+  // Consumer-local copy of tail
+  private long cachedTail = 0;
+
+  public SpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+    Preconditions.checkArgument(capacity > 0, "Invalid ring buffer capacity");
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.buffer = new Object[size];
+    this.mask = size - 1;
+    this.capacity = capacity;
+    this.waitStrategy = waitStrategy;
+  }
+
+  /**
+   * Add an element, waiting up to the given timeout for space to become available. Must only be called by the producer.
+   *
+   * @return whether the element was added
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean offer(T element, long timeout, TimeUnit timeUnit) throws InterruptedException {
+    Preconditions.checkNotNull(element);
+    long currentTail = this.tail.get();
+    if (currentTail - this.cachedHead >= this.capacity) {
+      long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+      int attempt = 0;
+      while (currentTail - (this.cachedHead = this.head.get()) >= this.capacity) {
+        if (!idle(attempt++, deadline)) {
+          return false;
+        }
+      }
+    }
+    this.buffer[(int) currentTail & this.mask] = element;
+    this.tail.lazySet(currentTail + 1);
+    return true;
+  }
+
+  /**
+   * Remove the head element, waiting up to the given timeout for an element to become available. Must only be called
+   * by the consumer.
+   *
+   * @return the head element or <code>null</code> if none became available before the timeout
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public T poll(long timeout, TimeUnit timeUnit) throws InterruptedException {
+    if (!awaitElements(timeout, timeUnit)) {
+      return null;
+    }
+    long currentHead = this.head.get();
+    T element = take(currentHead);
+    this.head.lazySet(currentHead + 1);
+    return element;
+  }
+
+  /**
+   * Move up to {@code maxElements} elements into the given collection, waiting up to the given timeout for the first
+   * one. The consumer sequence is published once for the whole batch. Must only be called by the consumer.
+   *
+   * @return the number of elements moved
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public int drainTo(Collection<? super T> collection, int maxElements, long timeout, TimeUnit timeUnit)
+      throws InterruptedException {
+    if (maxElements <= 0 || !awaitElements(timeout, timeUnit)) {
+      return 0;
+    }
+    long currentHead = this.head.get();
+    int count = (int) Math.min(maxElements, this.cachedTail - currentHead);
+    for (int i = 0; i < count; i++) {
+      collection.add(take(currentHead + i));
+    }
+    this.head.lazySet(currentHead + count);
+    return count;
+  }
+
+  /**
+   * Remove all elements. Must only be called by the consumer.
+   */
+  public void clear() {
+    long currentHead = this.head.get();
+    long currentTail = this.tail.get();
+    for (long i = currentHead; i < currentTail; i++) {
+      this.buffer[(int) i & this.mask] = null;
+    }
+    this.cachedTail = currentTail;
+    this.head.lazySet(currentTail);
+  }
+
+  /**
+   * @return the approximate number of elements in the buffer; safe to call from any thread
+   */
+  public int size() {
+    // Read head first so that a concurrent poll can only make the result larger than the true size, never negative
+    long currentHead = this.head.get();
+    long size = this.tail.get() - currentHead;
+    return (int) Math.max(0, Math.min(size, this.capacity));
+  }
+
+  public int capacity() {
+    return this.capacity;
+  }
+
+  /**
+   * @return the total number of elements ever added; safe to call from any thread
+   */
+  public long producedCount() {
+    return this.tail.get();
+  }
+
+  /**
+   * @return the total number of elements ever removed; safe to call from any thread
+   */
+  public long consumedCount() {
+    return this.head.get();
+  }
+
+  @SuppressWarnings("unchecked")
+  private T take(long index) {
+    int slot = (int) index & this.mask;
+    T element = (T) this.buffer[slot];
+    this.buffer[slot] = null;
+    return element;
+  }
+
+  private boolean awaitElements(long timeout, TimeUnit timeUnit) throws InterruptedException {
+    long currentHead = this.head.get();
+    if (currentHead < this.cachedTail) {
+      return true;
+    }
+    long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+    int attempt = 0;
+    while (currentHead >= (this.cachedTail = this.tail.get())) {
+      if (!idle(attempt++, deadline)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Wait once according to the {@link WaitStrategy}.
+   *
+   * @return false if the deadline has passed
+   */
+  private boolean idle(int attempt, long deadline) throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    long remaining = deadline - System.nanoTime();
+    if (remaining <= 0) {
+      return false;
+    }
+    switch (this.waitStrategy) {
+      case SPIN:
+        break;
+      case YIELD:
+        Thread.yield();
+        break;
+      case PARK:
+      default:
+        if (attempt >= SPIN_TRIES) {
+          // Back off exponentially up to MAX_PARK_NANOS, but never past the deadline
+          long parkNanos = Math.min(MAX_PARK_NANOS, 1000L << Math.min(attempt - SPIN_TRIES, 10));
+          LockSupport.parkNanos(this, Math.min(parkNanos, remaining));
+        }
+        break;
+    }
+    return true;
+  }
+
+  /**
+   * An {@link AtomicLong} padded to reduce false sharing between the producer and consumer sequences.
+   */
+  @SuppressWarnings("unused")
+  private static final class PaddedAtomicLong extends AtomicLong {
+    private static final long serialVersionUID = 1L;
+    private volatile long p1, p2, p3, p4, p5, p6 = 7L;
+  }
+}
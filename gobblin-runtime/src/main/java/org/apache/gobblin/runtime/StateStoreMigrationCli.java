@@ -53,6 +53,9 @@ import static org.apache.gobblin.configuration.ConfigurationKeys.*;
  *
  * Current implementation doesn't support data awareness on either source or target side.
  * And only migrate a single job state instead of migrating all history versions.
+ *
+ * Moving from the "fs" to the "fsLog" ({@link LogStructuredFsDatasetStateStore}) state store type is done by
+ * migrating with this script, as the log-structured store does not read the table files of the "fs" store.
  */
 @Slf4j
 @Alias(value = "stateMigration", description = "Command line tools for migrating state store")
@@ -97,9 +100,7 @@ public class StateStoreMigrationCli implements CliApplication {
   private static void migrateStateForJob(DatasetStateStore srcDatasetStateStore, DatasetStateStore dstDatasetStateStore,
       String jobName, boolean deleteFromSource) throws IOException {
     Map<String, JobState.DatasetState> map = srcDatasetStateStore.getLatestDatasetStatesByUrns(jobName);
-    for (Map.Entry<String, JobState.DatasetState> entry : map.entrySet()) {
-      dstDatasetStateStore.persistDatasetState(entry.getKey(), entry.getValue());
-    }
+    dstDatasetStateStore.persistDatasetStates(map);
 
     if (deleteFromSource) {
       try {
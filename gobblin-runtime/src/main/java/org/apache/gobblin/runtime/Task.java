@@ -96,6 +96,7 @@ import org.apache.gobblin.writer.TrackerBasedWatermarkManager;
 import org.apache.gobblin.writer.WatermarkAwareWriter;
 import org.apache.gobblin.writer.WatermarkManager;
 import org.apache.gobblin.writer.WatermarkStorage;
+import org.apache.gobblin.writer.WatermarkTrackerFactory;
 
 
 /**
@@ -262,7 +263,8 @@ public class Task implements TaskIFace {
       long commitIntervalMillis = ConfigUtils.getLong(config,
           TaskConfigurationKeys.STREAMING_WATERMARK_COMMIT_INTERVAL_MILLIS,
           TaskConfigurationKeys.DEFAULT_STREAMING_WATERMARK_COMMIT_INTERVAL_MILLIS);
-      this.watermarkTracker = Optional.of(this.closer.register(new FineGrainedWatermarkTracker(config)));
+      this.watermarkTracker =
+          Optional.of(this.closer.register(WatermarkTrackerFactory.getFineGrainedInstance(config)));
       this.watermarkManager = Optional.of((WatermarkManager) this.closer.register(
           new TrackerBasedWatermarkManager(this.watermarkStorage.get(), this.watermarkTracker.get(),
               commitIntervalMillis, Optional.of(this.LOG))));
@@ -28,6 +28,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -41,6 +42,7 @@ import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricSet;
 import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
@@ -64,15 +66,31 @@ import static com.codahale.metrics.MetricRegistry.name;
 /**
  * A class for executing {@link Task}s and retrying failed ones as well as for executing {@link Fork}s.
  *
+ * <p>
+ *   By default tasks run on a fixed-size thread pool and forks on an unbounded one. If
+ *   {@link ConfigurationKeys#TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED_KEY} is set and the JVM supports virtual threads,
+ *   each task and fork runs on its own virtual thread instead, so tasks blocked on I/O do not hold on to a platform
+ *   thread. The number of concurrently running tasks is then capped by a {@link Semaphore} with
+ *   {@link ConfigurationKeys#TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENCY_KEY} permits; a task waiting for a permit
+ *   counts as queued in the {@link #getTaskExecutorQueueMetricSet()} metrics. Forks are not capped for the same reason
+ *   the fork thread pool is unbounded. Failed tasks are scheduled for retry on a small platform thread pool.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class TaskExecutor extends AbstractIdleService {
 
   private static final Logger LOG = LoggerFactory.getLogger(TaskExecutor.class);
 
-  // Thread pool executor for running tasks
+  // Thread pool executor for running tasks, only used to schedule task retries when running on virtual threads
   private final ScheduledExecutorService taskExecutor;
 
+  // Executor that runs tasks, either the task thread pool executor or a virtual thread per task executor
+  private final ExecutorService taskRunner;
+
+  // Caps the number of concurrently running tasks when running on virtual threads
+  private final Optional<Semaphore> taskPermits;
+
   // A separate thread pool executor for running forks of tasks
   @Getter
   private final ExecutorService forkExecutor;
@@ -147,38 +165,65 @@ public class TaskExecutor extends AbstractIdleService {
    * Constructor used internally.
    */
   private TaskExecutor(int taskExecutorThreadPoolSize, int coreRetryThreadPoolSize, long retryIntervalInSeconds,
-                       int queuedTaskTimeMaxSize, long queuedTaskTimeMaxAge, int timerWindowSize) {
+                       int queuedTaskTimeMaxSize, long queuedTaskTimeMaxAge, int timerWindowSize,
+                       boolean useVirtualThreads, int maxVirtualThreadConcurrency) {
     Preconditions.checkArgument(taskExecutorThreadPoolSize > 0, "Task executor thread pool size should be positive");
     Preconditions.checkArgument(retryIntervalInSeconds > 0, "Task retry interval should be positive");
     Preconditions.checkArgument(queuedTaskTimeMaxSize > 0, "Queued task time max size should be positive");
     Preconditions.checkArgument(queuedTaskTimeMaxAge > 0, "Queued task time max age should be positive");
 
-    // Currently a fixed-size thread pool is used to execute tasks. We probably need to revisit this later.
-    this.taskExecutor = ExecutorsUtils.loggingDecorator(Executors.newScheduledThreadPool(
-        taskExecutorThreadPoolSize,
-        ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("TaskExecutor-%d"))));
+    if (useVirtualThreads && !ExecutorsUtils.isVirtualThreadSupported()) {
+      LOG.warn("Virtual threads are not supported by this JVM, falling back to thread pools for tasks and forks");
+    }
+    Optional<ExecutorService> virtualTaskRunner = useVirtualThreads
+        ? ExecutorsUtils.newVirtualThreadPerTaskExecutor(Optional.of(LOG), "TaskExecutor-")
+        : Optional.<ExecutorService>absent();
+
+    if (virtualTaskRunner.isPresent()) {
+      Preconditions.checkArgument(maxVirtualThreadConcurrency > 0, "Virtual thread max concurrency should be positive");
+      LOG.info(String.format("Running tasks and forks on virtual threads with up to %d concurrent tasks",
+          maxVirtualThreadConcurrency));
+      this.taskExecutor = ExecutorsUtils.loggingDecorator(Executors.newScheduledThreadPool(
+          coreRetryThreadPoolSize,
+          ExecutorsUtils.newDaemonThreadFactory(Optional.of(LOG), Optional.of("TaskRetryScheduler-%d"))));
+      this.taskRunner = ExecutorsUtils.loggingDecorator(virtualTaskRunner.get());
+      this.taskPermits = Optional.of(new Semaphore(maxVirtualThreadConcurrency));
+    } else {
+      // Currently a fixed-size thread pool is used to execute tasks. We probably need to revisit this later.
+      this.taskExecutor = ExecutorsUtils.loggingDecorator(Executors.newScheduledThreadPool(
+          taskExecutorThreadPoolSize,
+          ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("TaskExecutor-%d"))));
+      this.taskRunner = this.taskExecutor;
+      this.taskPermits = Optional.absent();
+    }
 
     this.retryIntervalInSeconds = retryIntervalInSeconds;
     this.queuedTaskTimeMaxSize = queuedTaskTimeMaxSize;
     this.queuedTaskTimeMaxAge = queuedTaskTimeMaxAge;
     this.taskCreateAndRunTimer = new Timer(new SlidingTimeWindowReservoir(timerWindowSize, TimeUnit.MINUTES));
 
-    this.forkExecutor = ExecutorsUtils.loggingDecorator(
-        new ThreadPoolExecutor(
-            // The core thread pool size is equal to that of the task
-            // executor as there's at least one fork per task
-            taskExecutorThreadPoolSize,
-            // The fork executor thread pool size is essentially unbounded. This is to make sure all forks of
-            // a task get a thread to run so all forks of the task are making progress. This is necessary since
-            // otherwise the parent task will be blocked if the record queue (bounded) of some fork is full and
-            // that fork has not yet started to run because of no available thread. The task cannot proceed in
-            // this case because it has to make sure every records go to every forks.
-            Integer.MAX_VALUE,
-            0L,
-            TimeUnit.MILLISECONDS,
-            // The work queue is a SynchronousQueue. This essentially forces a new thread to be created for each fork.
-            new SynchronousQueue<Runnable>(),
-            ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("ForkExecutor-%d"))));
+    if (virtualTaskRunner.isPresent()) {
+      // Every fork gets its own virtual thread, which is the same guarantee the unbounded thread pool below gives
+      this.forkExecutor = ExecutorsUtils.loggingDecorator(
+          ExecutorsUtils.newVirtualThreadPerTaskExecutor(Optional.of(LOG), "ForkExecutor-").get());
+    } else {
+      this.forkExecutor = ExecutorsUtils.loggingDecorator(
+          new ThreadPoolExecutor(
+              // The core thread pool size is equal to that of the task
+              // executor as there's at least one fork per task
+              taskExecutorThreadPoolSize,
+              // The fork executor thread pool size is essentially unbounded. This is to make sure all forks of
+              // a task get a thread to run so all forks of the task are making progress. This is necessary since
+              // otherwise the parent task will be blocked if the record queue (bounded) of some fork is full and
+              // that fork has not yet started to run because of no available thread. The task cannot proceed in
+              // this case because it has to make sure every records go to every forks.
+              Integer.MAX_VALUE,
+              0L,
+              TimeUnit.MILLISECONDS,
+              // The work queue is a SynchronousQueue. This essentially forces a new thread to be created for each fork.
+              new SynchronousQueue<Runnable>(),
+              ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("ForkExecutor-%d"))));
+    }
   }
 
   /**
@@ -196,7 +241,12 @@ public class TaskExecutor extends AbstractIdleService {
         Long.parseLong(properties.getProperty(ConfigurationKeys.QUEUED_TASK_TIME_MAX_AGE,
             Long.toString(ConfigurationKeys.DEFAULT_QUEUED_TASK_TIME_MAX_AGE))),
         Integer.parseInt(properties.getProperty(ConfigurationKeys.METRIC_TIMER_WINDOW_SIZE_IN_MINUTES,
-            Integer.toString(ConfigurationKeys.DEFAULT_METRIC_TIMER_WINDOW_SIZE_IN_MINUTES))));
+            Integer.toString(ConfigurationKeys.DEFAULT_METRIC_TIMER_WINDOW_SIZE_IN_MINUTES))),
+        Boolean.parseBoolean(properties.getProperty(ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED_KEY,
+            Boolean.toString(ConfigurationKeys.DEFAULT_TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED))),
+        Integer.parseInt(properties.getProperty(ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENCY_KEY,
+            properties.getProperty(ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY,
+                Integer.toString(ConfigurationKeys.DEFAULT_TASK_EXECUTOR_THREADPOOL_SIZE)))));
   }
 
   /**
@@ -214,7 +264,12 @@ public class TaskExecutor extends AbstractIdleService {
         conf.getLong(ConfigurationKeys.QUEUED_TASK_TIME_MAX_AGE,
             ConfigurationKeys.DEFAULT_QUEUED_TASK_TIME_MAX_AGE),
         conf.getInt(ConfigurationKeys.METRIC_TIMER_WINDOW_SIZE_IN_MINUTES,
-            ConfigurationKeys.DEFAULT_METRIC_TIMER_WINDOW_SIZE_IN_MINUTES));
+            ConfigurationKeys.DEFAULT_METRIC_TIMER_WINDOW_SIZE_IN_MINUTES),
+        conf.getBoolean(ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED_KEY,
+            ConfigurationKeys.DEFAULT_TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED),
+        conf.getInt(ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENCY_KEY,
+            conf.getInt(ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY,
+                ConfigurationKeys.DEFAULT_TASK_EXECUTOR_THREADPOOL_SIZE)));
     Log4jConfigurationHelper.setLogLevel(conf.getTrimmedStringCollection(Log4jConfigurationHelper.LOG_LEVEL_OVERRIDE_MAP));
   }
 
@@ -222,7 +277,8 @@ public class TaskExecutor extends AbstractIdleService {
   protected void startUp()
       throws Exception {
     LOG.info("Starting the task executor");
-    if (this.taskExecutor.isShutdown() || this.taskExecutor.isTerminated()) {
+    if (this.taskExecutor.isShutdown() || this.taskExecutor.isTerminated()
+        || this.taskRunner.isShutdown() || this.taskRunner.isTerminated()) {
       throw new IllegalStateException("Task thread pool executor is shutdown or terminated");
     }
     if (this.forkExecutor.isShutdown() || this.forkExecutor.isTerminated()) {
@@ -236,6 +292,9 @@ public class TaskExecutor extends AbstractIdleService {
     LOG.info("Stopping the task executor");
     try {
       ExecutorsUtils.shutdownExecutorService(this.taskExecutor, Optional.of(LOG));
+      if (this.taskRunner != this.taskExecutor) {
+        ExecutorsUtils.shutdownExecutorService(this.taskRunner, Optional.of(LOG));
+      }
     } finally {
       ExecutorsUtils.shutdownExecutorService(this.forkExecutor, Optional.of(LOG));
     }
@@ -248,7 +307,7 @@ public class TaskExecutor extends AbstractIdleService {
    */
   public void execute(Task task) {
     LOG.info(String.format("Executing task %s", task.getTaskId()));
-    this.taskExecutor.execute(new TrackingTask(task));
+    this.taskRunner.execute(new TrackingTask(task));
   }
 
   /**
@@ -259,7 +318,7 @@ public class TaskExecutor extends AbstractIdleService {
    */
   public Future<?> submit(Task task) {
     LOG.info(String.format("Submitting task %s", task.getTaskId()));
-    return this.taskExecutor.submit(new TrackingTask(task));
+    return this.taskRunner.submit(new TrackingTask(task));
   }
 
   /**
@@ -299,7 +358,17 @@ public class TaskExecutor extends AbstractIdleService {
     // Task retry interval increases linearly with number of retries
     long interval = task.getRetryCount() * this.retryIntervalInSeconds;
     // Schedule the retry of the failed task
-    this.taskExecutor.schedule(new TrackingTask(task, interval, TimeUnit.SECONDS), interval, TimeUnit.SECONDS);
+    final TrackingTask trackingTask = new TrackingTask(task, interval, TimeUnit.SECONDS);
+    if (this.taskRunner == this.taskExecutor) {
+      this.taskExecutor.schedule(trackingTask, interval, TimeUnit.SECONDS);
+    } else {
+      this.taskExecutor.schedule(new Runnable() {
+        @Override
+        public void run() {
+          TaskExecutor.this.taskRunner.execute(trackingTask);
+        }
+      }, interval, TimeUnit.SECONDS);
+    }
     LOG.info(String.format("Scheduled retry of failed task %s to run in %d seconds", task.getTaskId(), interval));
     task.incrementRetryCount();
   }
@@ -422,6 +491,14 @@ public class TaskExecutor extends AbstractIdleService {
     }
   }
 
+  /**
+   * @return true if tasks and forks run on virtual threads, false if they run on thread pools.
+   */
+  @VisibleForTesting
+  boolean isRunningOnVirtualThreads() {
+    return this.taskPermits.isPresent();
+  }
+
   private class TrackingTask implements Runnable {
     private Task underlyingTask;
 
@@ -439,17 +516,35 @@ public class TaskExecutor extends AbstractIdleService {
 
     @Override
     public void run() {
-      long startTime = System.currentTimeMillis();
-      onStart(startTime);
+      if (taskPermits.isPresent()) {
+        // The task stays in the queued task map while waiting for a permit, so the wait counts as queued time
+        try {
+          taskPermits.get().acquire();
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          queuedTasks.remove(this.underlyingTask.getTaskId());
+          failedTaskCount.mark();
+          throw new RuntimeException(
+              String.format("Interrupted while waiting to run task %s", this.underlyingTask.getTaskId()), ie);
+        }
+      }
       try {
-        this.underlyingTask.run();
-        successfulTaskCount.mark();
-      } catch (Exception e) {
-        failedTaskCount.mark();
-        LOG.error(String.format("Task %s failed", underlyingTask.getTaskId()), e);
-        throw e;
+        long startTime = System.currentTimeMillis();
+        onStart(startTime);
+        try {
+          this.underlyingTask.run();
+          successfulTaskCount.mark();
+        } catch (Exception e) {
+          failedTaskCount.mark();
+          LOG.error(String.format("Task %s failed", underlyingTask.getTaskId()), e);
+          throw e;
+        } finally {
+          runningTaskCount.dec();
+        }
       } finally {
-        runningTaskCount.dec();
+        if (taskPermits.isPresent()) {
+          taskPermits.get().release();
+        }
       }
     }
 
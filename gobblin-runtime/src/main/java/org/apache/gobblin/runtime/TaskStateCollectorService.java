@@ -32,6 +32,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.fs.Path;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Queues;
@@ -48,7 +51,9 @@ import org.apache.gobblin.metastore.FsStateStore;
 import org.apache.gobblin.metastore.StateStore;
 import org.apache.gobblin.runtime.troubleshooter.Issue;
 import org.apache.gobblin.runtime.troubleshooter.IssueRepository;
+import org.apache.gobblin.runtime.metrics.RuntimeMetrics;
 import org.apache.gobblin.runtime.troubleshooter.TroubleshooterException;
+import org.apache.gobblin.metrics.MetricContext;
 import org.apache.gobblin.metrics.event.EventSubmitter;
 import org.apache.gobblin.metrics.event.TimingEvent;
 import org.apache.gobblin.service.ServiceConfigKeys;
@@ -64,6 +69,11 @@ import org.apache.gobblin.util.ParallelRunner;
  * For each batch of {@link TaskState}s collected, it posts a {@link NewTaskCompletionEvent} to notify
  * parties that are interested in such events.
  *
+ * <p>
+ *   If {@link ConfigurationKeys#TASK_STATE_LOG_ENABLED} is set, it also tails the task state logs written by
+ *   {@link TaskStateLogWriter}s in the output task state directory.
+ * </p>
+ *
  * @author Yinan Li
  */
 @Slf4j
@@ -85,6 +95,14 @@ public class TaskStateCollectorService extends AbstractScheduledService {
 
   private final Path outputTaskStateDir;
 
+  private final Optional<TaskStateLogReader> taskStateLogReader;
+
+  @Getter
+  private final Meter collectedTaskStatesMeter;
+
+  @Getter
+  private final Histogram collectionLagMillis;
+
   private double totalSizeToCopy;
 
   private double bytesCopiedSoFar;
@@ -150,6 +168,27 @@ public class TaskStateCollectorService extends AbstractScheduledService {
     isJobProceedOnCollectorServiceFailure =
         jobState.getPropAsBoolean(ConfigurationKeys.JOB_PROCEED_ON_TASK_STATE_COLLECOTR_SERVICE_FAILURE,
             defaultPolicyOnCollectorServiceFailure);
+
+    if (Boolean.parseBoolean(jobProps.getProperty(ConfigurationKeys.TASK_STATE_LOG_ENABLED,
+        Boolean.toString(ConfigurationKeys.DEFAULT_TASK_STATE_LOG_ENABLED))) && taskStateStore instanceof FsStateStore) {
+      FsStateStore<TaskState> fsTaskStateStore = (FsStateStore<TaskState>) taskStateStore;
+      this.taskStateLogReader = Optional.of(new TaskStateLogReader(fsTaskStateStore.getFileSystem(),
+          fsTaskStateStore.getStorePath(outputTaskStateDir.getName())));
+    } else {
+      this.taskStateLogReader = Optional.empty();
+    }
+
+    MetricContext metricContext = eventSubmitter != null && eventSubmitter.getMetricContext() != null
+        ? eventSubmitter.getMetricContext().orNull() : null;
+    if (metricContext != null) {
+      this.collectedTaskStatesMeter =
+          metricContext.contextAwareMeter(RuntimeMetrics.GOBBLIN_TASK_STATE_COLLECTOR_COLLECTED_TASK_STATES);
+      this.collectionLagMillis = metricContext.contextAwareHistogram(
+          RuntimeMetrics.GOBBLIN_TASK_STATE_COLLECTOR_COLLECTION_LAG_MILLIS, 10, TimeUnit.MINUTES);
+    } else {
+      this.collectedTaskStatesMeter = new Meter();
+      this.collectionLagMillis = new Histogram(new SlidingTimeWindowReservoir(10, TimeUnit.MINUTES));
+    }
   }
 
   @Override
@@ -173,6 +212,10 @@ public class TaskStateCollectorService extends AbstractScheduledService {
   protected void shutDown() throws Exception {
     log.info("Stopping the " + TaskStateCollectorService.class.getSimpleName());
     try {
+      if (this.taskStateLogReader.isPresent()) {
+        // End the task state logs of the task attempts run in this JVM, so they are collected and deleted in full
+        TaskStateLogWriter.close(this.taskStateLogReader.get().getLogDir());
+      }
       runOneIteration();
     } finally {
       super.shutDown();
@@ -186,20 +229,37 @@ public class TaskStateCollectorService extends AbstractScheduledService {
    * <p>
    *   This method collects all available output {@link TaskState} files at the time it is called. It
    *   uses a {@link ParallelRunner} to deserialize the {@link TaskState}s. Each {@link TaskState}
-   *   file gets deleted after the {@link TaskState} it stores is successfully collected.
+   *   file gets deleted after the {@link TaskState} it stores is successfully collected. Task state logs are
+   *   read from where the previous call stopped.
    * </p>
    *
    * @throws IOException if it fails to collect the output {@link TaskState}s
    */
   private void collectOutputTaskStates() throws IOException {
 
-    final Optional<Queue<TaskState>> taskStateQueue = deserializeTaskStatesFromFolder(taskStateStore, outputTaskStateDir.getName(), this.stateSerDeRunnerThreads);
+    Optional<Queue<TaskState>> taskStateQueue = deserializeTaskStatesFromFolder(taskStateStore, outputTaskStateDir.getName(), this.stateSerDeRunnerThreads);
+    if (this.taskStateLogReader.isPresent()) {
+      List<TaskState> loggedTaskStates = this.taskStateLogReader.get().readNewTaskStates();
+      if (!loggedTaskStates.isEmpty()) {
+        log.info(String.format("Collected task state of %d completed tasks from task state logs",
+            loggedTaskStates.size()));
+        Queue<TaskState> queue = taskStateQueue.orElseGet(Queues::newConcurrentLinkedQueue);
+        queue.addAll(loggedTaskStates);
+        taskStateQueue = Optional.of(queue);
+      }
+    }
     if (!taskStateQueue.isPresent()) {
       return;
     }
+
+    long collectionTime = System.currentTimeMillis();
+    this.collectedTaskStatesMeter.mark(taskStateQueue.get().size());
     // Add the TaskStates of completed tasks to the JobState so when the control
     // returns to the launcher, it sees the TaskStates of all completed tasks.
     for (TaskState taskState : taskStateQueue.get()) {
+      if (taskState.getEndTime() > 0) {
+        this.collectionLagMillis.update(collectionTime - taskState.getEndTime());
+      }
       consumeTaskIssues(taskState);
       taskState.setJobState(this.jobState);
       this.jobState.addTaskState(taskState);
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.fs.ChecksumFileSystem;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.configuration.WorkUnitState;
+
+
+/**
+ * Tails the task state log files written by {@link TaskStateLogWriter}s in an output task state directory.
+ *
+ * <p>
+ *   Each call to {@link #readNewTaskStates()} returns the {@link TaskState}s appended since the previous call, by
+ *   reading every log file from the offset its previous read stopped at. Only complete records are read. A log file is
+ *   deleted once it is read up to its {@link TaskStateLogWriter#END_OF_LOG}, or, for a log file that failed to be
+ *   appended to, up to the length of its complete batches given by {@link TaskStateLogWriter#getPartialLogFile}.
+ * </p>
+ *
+ * <p>
+ *   A retried task is logged again, possibly by another container, and log files are read in no particular order.
+ *   Only the task state of the latest attempt of a task is returned, i.e. the one with the greatest end time, or the
+ *   successful one of attempts ending at the same time, see {@link #isLaterAttempt(TaskState, TaskState)}.
+ * </p>
+ *
+ * <p>
+ *   This class is not thread safe.
+ * </p>
+ */
+@Slf4j
+public class TaskStateLogReader {
+
+  private static final Set<WorkUnitState.WorkingState> SUCCESSFUL_STATES =
+      ImmutableSet.of(WorkUnitState.WorkingState.SUCCESSFUL, WorkUnitState.WorkingState.COMMITTED);
+
+  private final FileSystem fs;
+  @Getter
+  private final Path logDir;
+  // Offset of the next record to read, for each log file read so far
+  private final Map<Path, Long> offsets = Maps.newHashMap();
+  // Task state of the latest attempt returned so far, by task id
+  private final Map<String, TaskState> latestTaskStates = Maps.newHashMap();
+
+  public TaskStateLogReader(FileSystem fs, Path logDir) {
+    this.fs = fs instanceof ChecksumFileSystem ? ((ChecksumFileSystem) fs).getRawFileSystem() : fs;
+    this.logDir = logDir;
+  }
+
+  /**
+   * @return the {@link TaskState}s appended to the log files since the previous call
+   * @throws IOException if it fails to list the log files
+   */
+  public List<TaskState> readNewTaskStates() throws IOException {
+    List<TaskState> taskStates = Lists.newArrayList();
+    if (!this.fs.exists(this.logDir)) {
+      return taskStates;
+    }
+
+    Set<Path> logFiles = Sets.newHashSet();
+    for (FileStatus status : this.fs.listStatus(this.logDir,
+        file -> file.getName().endsWith(TaskStateLogWriter.FILE_SUFFIX)
+            || file.getName().endsWith(TaskStateLogWriter.PARTIAL_FILE_SUFFIX))) {
+      Path path = status.getPath();
+      String name = path.getName();
+      // Offsets are tracked by the original name of a log file, since it is renamed if it turns out to be partial
+      Path logFile = path;
+      long validLength = Long.MAX_VALUE;
+      if (name.endsWith(TaskStateLogWriter.PARTIAL_FILE_SUFFIX)) {
+        String partialName = name.substring(0, name.length() - TaskStateLogWriter.PARTIAL_FILE_SUFFIX.length());
+        int lengthStart = partialName.lastIndexOf('.');
+        logFile = new Path(path.getParent(), partialName.substring(0, lengthStart));
+        validLength = Long.parseLong(partialName.substring(lengthStart + 1));
+      }
+      logFiles.add(logFile);
+      try {
+        readLogFile(path, logFile, validLength, taskStates);
+      } catch (IOException ioe) {
+        // Read the file again from the same offset next time
+        log.warn("Failed to read task state log " + path, ioe);
+      }
+    }
+    // Forget about the files deleted since the previous call
+    this.offsets.keySet().retainAll(logFiles);
+    return getLatestAttempts(taskStates);
+  }
+
+  /**
+   * @return the task states of the latest attempts of their tasks, skipping those of attempts earlier than the ones
+   * returned before
+   */
+  private List<TaskState> getLatestAttempts(List<TaskState> taskStates) {
+    Map<String, TaskState> newLatestTaskStates = Maps.newLinkedHashMap();
+    for (TaskState taskState : taskStates) {
+      TaskState latest = this.latestTaskStates.get(taskState.getTaskId());
+      if (latest == null || isLaterAttempt(taskState, latest)) {
+        this.latestTaskStates.put(taskState.getTaskId(), taskState);
+        newLatestTaskStates.put(taskState.getTaskId(), taskState);
+      } else {
+        log.info("Skipping the task state of an earlier attempt of task " + taskState.getTaskId());
+      }
+    }
+    return Lists.newArrayList(newLatestTaskStates.values());
+  }
+
+  /**
+   * @return whether a task state is of a later attempt of its task than another task state of the same task
+   */
+  private static boolean isLaterAttempt(TaskState taskState, TaskState other) {
+    if (taskState.getEndTime() != other.getEndTime()) {
+      return taskState.getEndTime() > other.getEndTime();
+    }
+    return SUCCESSFUL_STATES.contains(taskState.getWorkingState())
+        && !SUCCESSFUL_STATES.contains(other.getWorkingState());
+  }
+
+  /**
+   * Read the new records of a log file.
+   *
+   * @param path the current path of the log file
+   * @param logFile the original path of the log file
+   * @param validLength the length of the complete records of a partial log file, or {@link Long#MAX_VALUE}
+   */
+  private void readLogFile(Path path, Path logFile, long validLength, List<TaskState> taskStates) throws IOException {
+    long offset = this.offsets.getOrDefault(logFile, 0L);
+    List<TaskState> newTaskStates = Lists.newArrayList();
+    boolean complete = false;
+    try (FSDataInputStream in = this.fs.open(path)) {
+      in.seek(offset);
+      while (true) {
+        if (offset >= validLength) {
+          complete = true;
+          break;
+        }
+        int length = in.readInt();
+        if (length == TaskStateLogWriter.END_OF_LOG) {
+          complete = true;
+          break;
+        }
+        if (length < 0) {
+          throw new IOException(String.format("Invalid record length %d at offset %d of %s", length, offset, path));
+        }
+        byte[] record = new byte[length];
+        in.readFully(record);
+        TaskState taskState = new TaskState();
+        taskState.readFields(new DataInputStream(new ByteArrayInputStream(record)));
+        newTaskStates.add(taskState);
+        offset = in.getPos();
+      }
+    } catch (EOFException eof) {
+      // The rest of the file is not written yet
+    }
+
+    taskStates.addAll(newTaskStates);
+    this.offsets.put(logFile, offset);
+    if (complete) {
+      log.debug("Finished reading task state log " + path);
+      this.fs.delete(path, false);
+      this.offsets.remove(logFile);
+    }
+  }
+}
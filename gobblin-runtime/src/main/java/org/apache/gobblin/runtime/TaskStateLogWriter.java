@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.fs.ChecksumFileSystem;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.util.ExecutorsUtils;
+
+
+/**
+ * Appends the output {@link TaskState}s of the task attempts of a container to a few rolling log files in the output
+ * task state directory of a job, which the {@link TaskStateCollectorService} tails with a {@link TaskStateLogReader}.
+ * This replaces one task state store table per task, i.e. one small file to write, list, read and delete per task,
+ * with a file per container and {@link ConfigurationKeys#TASK_STATE_LOG_MAX_FILE_SIZE_BYTES}.
+ *
+ * <p>
+ *   Each record of a log file is the length of a serialized {@link TaskState} followed by the {@link TaskState}.
+ *   Every batch of appended {@link TaskState}s is flushed with {@link FSDataOutputStream#hflush()}, so it is visible to
+ *   readers before {@link #append(FileSystem, Path, String, State, Collection)} returns. A log file ends with
+ *   {@link #END_OF_LOG} once the writer rolled over to a new file, or closed it after it was idle for
+ *   {@link ConfigurationKeys#TASK_STATE_LOG_IDLE_TIMEOUT_SECONDS}, after the job called {@link #close(Path)} or when
+ *   the JVM exits.
+ * </p>
+ *
+ * <p>
+ *   If a batch fails to be appended, the log file may end with a partial record. The writer then renames the file to
+ *   {@link #getPartialLogFile(Path, long)}, which holds the length of the complete batches of the file, so that readers
+ *   stop reading there and delete the file, and appends the next batch to a new file.
+ * </p>
+ *
+ * <p>
+ *   Writers are shared by all the task attempts of a job in a JVM.
+ * </p>
+ */
+@Slf4j
+public class TaskStateLogWriter {
+
+  public static final String FILE_SUFFIX = ".tsl";
+  public static final String PARTIAL_FILE_SUFFIX = ".partial";
+  static final int END_OF_LOG = -1;
+
+  private static final long IDLE_CHECK_INTERVAL_SECONDS = 10;
+
+  private static final ConcurrentMap<Path, TaskStateLogWriter> WRITERS = Maps.newConcurrentMap();
+  private static final ScheduledExecutorService IDLE_WRITER_CLOSER = Executors.newSingleThreadScheduledExecutor(
+      ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("TaskStateLogWriter-idle-closer")));
+
+  static {
+    IDLE_WRITER_CLOSER.scheduleWithFixedDelay(TaskStateLogWriter::closeIdleWriters, IDLE_CHECK_INTERVAL_SECONDS,
+        IDLE_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    Runtime.getRuntime().addShutdownHook(new Thread(TaskStateLogWriter::closeAll, "TaskStateLogWriter-shutdown"));
+  }
+
+  private final Path key;
+  private final FileSystem fs;
+  private final Path logDir;
+  private final String filePrefix;
+  private final long maxFileSizeBytes;
+  private final long idleTimeoutMillis;
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+  private final DataOutputStream bufferOut = new DataOutputStream(this.buffer);
+
+  // Guarded by this
+  private FSDataOutputStream out;
+  private Path logFile;
+  // Length of the complete batches of the current log file
+  private long validLength;
+  private int nextFileNumber = 0;
+  private long lastAppendMillis;
+  private boolean retired = false;
+
+  private TaskStateLogWriter(Path key, FileSystem fs, Path logDir, String containerId, State state) {
+    this.key = key;
+    this.fs = fs;
+    this.logDir = logDir;
+    this.filePrefix = containerId + "_" + UUID.randomUUID().toString().substring(0, 8) + "_";
+    this.maxFileSizeBytes = state.getPropAsLong(ConfigurationKeys.TASK_STATE_LOG_MAX_FILE_SIZE_BYTES,
+        ConfigurationKeys.DEFAULT_TASK_STATE_LOG_MAX_FILE_SIZE_BYTES);
+    this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(state.getPropAsLong(
+        ConfigurationKeys.TASK_STATE_LOG_IDLE_TIMEOUT_SECONDS, ConfigurationKeys.DEFAULT_TASK_STATE_LOG_IDLE_TIMEOUT_SECONDS));
+  }
+
+  /**
+   * Append {@link TaskState}s to the task state log of a container in a directory.
+   *
+   * @param fs the {@link FileSystem} of the directory
+   * @param logDir the output task state directory of the job
+   * @param containerId id of the container, used to name its log files
+   * @param state configuration of the job
+   * @param taskStates {@link TaskState}s to append, all visible to readers once this method returns
+   * @throws IOException if it fails to write the {@link TaskState}s
+   */
+  public static void append(FileSystem fs, Path logDir, String containerId, State state,
+      Collection<TaskState> taskStates) throws IOException {
+    String fileContainerId = containerId.replaceAll("[^A-Za-z0-9._-]", "_");
+    Path key = new Path(logDir, fileContainerId);
+    while (true) {
+      TaskStateLogWriter writer = WRITERS.computeIfAbsent(key,
+          k -> new TaskStateLogWriter(k, getRawFileSystem(fs), logDir, fileContainerId, state));
+      // A writer is retired once it is closed for being idle, in which case a new one is created
+      if (writer.tryAppend(taskStates)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Close the log files of the writers of an output task state directory once the job no longer appends to them, so
+   * that they are not left open until the writers are idle. Later appends start new log files.
+   *
+   * @param logDir the output task state directory of the job
+   */
+  public static void close(Path logDir) {
+    for (TaskStateLogWriter writer : WRITERS.values()) {
+      if (writer.logDir.equals(logDir)) {
+        try {
+          writer.retire();
+        } catch (IOException | RuntimeException e) {
+          log.warn("Failed to close task state log " + writer.key, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Close the log files of all writers, so that they can be fully collected and deleted.
+   */
+  @VisibleForTesting
+  static void closeAll() {
+    closeWriters(Long.MAX_VALUE);
+  }
+
+  /**
+   * @return the name a log file is renamed to when a batch failed to be appended to it
+   */
+  static Path getPartialLogFile(Path logFile, long validLength) {
+    return new Path(logFile.getParent(), logFile.getName() + "." + validLength + PARTIAL_FILE_SUFFIX);
+  }
+
+  private static void closeIdleWriters() {
+    closeWriters(System.currentTimeMillis());
+  }
+
+  private static void closeWriters(long nowMillis) {
+    for (TaskStateLogWriter writer : WRITERS.values()) {
+      try {
+        writer.closeIfIdle(nowMillis);
+      } catch (IOException | RuntimeException e) {
+        log.warn("Failed to close task state log " + writer.key, e);
+      }
+    }
+  }
+
+  /**
+   * Bypass client side checksums for local file systems, since the checksum of a log file is not complete before the
+   * file is closed.
+   */
+  private static FileSystem getRawFileSystem(FileSystem fs) {
+    return fs instanceof ChecksumFileSystem ? ((ChecksumFileSystem) fs).getRawFileSystem() : fs;
+  }
+
+  private synchronized boolean tryAppend(Collection<TaskState> taskStates) throws IOException {
+    if (this.retired) {
+      return false;
+    }
+    if (this.out == null) {
+      this.logFile = new Path(this.logDir, this.filePrefix + this.nextFileNumber++ + FILE_SUFFIX);
+      log.info("Starting task state log " + this.logFile);
+      this.out = this.fs.create(this.logFile, false);
+      this.validLength = 0;
+    }
+    try {
+      for (TaskState taskState : taskStates) {
+        this.buffer.reset();
+        taskState.write(this.bufferOut);
+        this.bufferOut.flush();
+        this.out.writeInt(this.buffer.size());
+        this.buffer.writeTo(this.out);
+      }
+      this.out.hflush();
+    } catch (IOException ioe) {
+      // The file may end with a partial record now, so later appends go to a new file
+      FSDataOutputStream failedOut = this.out;
+      this.out = null;
+      Closeables.close(failedOut, true);
+      markPartial();
+      throw ioe;
+    }
+    this.validLength = this.out.getPos();
+    this.lastAppendMillis = System.currentTimeMillis();
+
+    if (this.out.getPos() >= this.maxFileSizeBytes) {
+      closeFile();
+    }
+    return true;
+  }
+
+  private synchronized void closeIfIdle(long nowMillis) throws IOException {
+    if (nowMillis - this.lastAppendMillis >= this.idleTimeoutMillis) {
+      retire();
+    }
+  }
+
+  private synchronized void retire() throws IOException {
+    this.retired = true;
+    WRITERS.remove(this.key, this);
+    closeFile();
+  }
+
+  /**
+   * Rename the current log file, which failed to be appended to, so that readers only read its complete batches.
+   */
+  private void markPartial() {
+    Path partialLogFile = getPartialLogFile(this.logFile, this.validLength);
+    try {
+      if (this.fs.rename(this.logFile, partialLogFile)) {
+        log.warn("Marked task state log {} as partial after {} bytes", this.logFile, this.validLength);
+        return;
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to rename task state log " + this.logFile, e);
+    }
+    log.warn("Task state log {} may end with a partial record after {} bytes", this.logFile, this.validLength);
+  }
+
+  private void closeFile() throws IOException {
+    if (this.out != null) {
+      try {
+        this.out.writeInt(END_OF_LOG);
+      } finally {
+        this.out.close();
+        this.out = null;
+      }
+    }
+  }
+}
@@ -18,10 +18,13 @@
 package org.apache.gobblin.runtime.fork;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.gobblin.runtime.BoundedBlockingRecordQueue;
 import org.apache.gobblin.runtime.ExecutionModel;
+import org.apache.gobblin.runtime.SpscRingBuffer;
 import org.apache.gobblin.runtime.Task;
 import org.apache.gobblin.runtime.TaskContext;
 import org.apache.gobblin.runtime.TaskExecutor;
@@ -50,19 +53,30 @@ import org.apache.gobblin.converter.DataConversionException;
  *     </ul>
  * </p>
  *
+ * <p>
+ *     The record queue is an {@link java.util.concurrent.ArrayBlockingQueue} by default. Setting
+ *     {@link ConfigurationKeys#FORK_RECORD_QUEUE_TYPE_KEY} to
+ *     {@link ConfigurationKeys#FORK_RECORD_QUEUE_TYPE_RING_BUFFER} uses a lock-free {@link SpscRingBuffer} instead,
+ *     which is safe because the parent {@link Task} is the only producer and this {@link Fork} the only consumer.
+ *     Setting {@link ConfigurationKeys#FORK_RECORD_QUEUE_DRAIN_BATCH_SIZE_KEY} above 1 makes the fork take records
+ *     off the queue in batches.
+ * </p>
+ *
  * @author Yinan Li
  */
 @Slf4j
 @SuppressWarnings("unchecked")
 public class AsynchronousFork extends Fork {
   private final BoundedBlockingRecordQueue<Object> recordQueue;
+  private final int drainBatchSize;
+  private final List<Object> recordBatch;
 
   public AsynchronousFork(TaskContext taskContext, Object schema, int branches, int index, ExecutionModel executionModel)
       throws Exception {
     super(taskContext, schema, branches, index, executionModel);
     TaskState taskState = taskContext.getTaskState();
 
-    this.recordQueue = BoundedBlockingRecordQueue.newBuilder()
+    BoundedBlockingRecordQueue.Builder<Object> queueBuilder = BoundedBlockingRecordQueue.newBuilder()
             .hasCapacity(taskState.getPropAsInt(
                     ConfigurationKeys.FORK_RECORD_QUEUE_CAPACITY_KEY,
                     ConfigurationKeys.DEFAULT_FORK_RECORD_QUEUE_CAPACITY))
@@ -72,8 +86,22 @@ public class AsynchronousFork extends Fork {
             .useTimeoutTimeUnit(TimeUnit.valueOf(taskState.getProp(
                     ConfigurationKeys.FORK_RECORD_QUEUE_TIMEOUT_UNIT_KEY,
                     ConfigurationKeys.DEFAULT_FORK_RECORD_QUEUE_TIMEOUT_UNIT)))
-            .collectStats()
-            .build();
+            .collectStats();
+    String queueType = taskState.getProp(ConfigurationKeys.FORK_RECORD_QUEUE_TYPE_KEY,
+        ConfigurationKeys.DEFAULT_FORK_RECORD_QUEUE_TYPE);
+    if (ConfigurationKeys.FORK_RECORD_QUEUE_TYPE_RING_BUFFER.equalsIgnoreCase(queueType)) {
+      queueBuilder.useRingBuffer(SpscRingBuffer.WaitStrategy.valueOf(taskState.getProp(
+          ConfigurationKeys.FORK_RECORD_QUEUE_WAIT_STRATEGY_KEY,
+          ConfigurationKeys.DEFAULT_FORK_RECORD_QUEUE_WAIT_STRATEGY).toUpperCase()));
+    } else if (!ConfigurationKeys.FORK_RECORD_QUEUE_TYPE_BLOCKING.equalsIgnoreCase(queueType)) {
+      throw new IllegalArgumentException("Unknown fork record queue type " + queueType);
+    }
+    this.recordQueue = queueBuilder.build();
+
+    this.drainBatchSize = Math.max(1, taskState.getPropAsInt(
+        ConfigurationKeys.FORK_RECORD_QUEUE_DRAIN_BATCH_SIZE_KEY,
+        ConfigurationKeys.DEFAULT_FORK_RECORD_QUEUE_DRAIN_BATCH_SIZE));
+    this.recordBatch = new ArrayList<>(this.drainBatchSize);
   }
 
   @Override
@@ -83,7 +111,11 @@ public class AsynchronousFork extends Fork {
 
   @Override
   protected void processRecords() throws IOException, DataConversionException {
-    while (processRecord()) { }
+    if (this.drainBatchSize > 1) {
+      while (processRecordBatch()) { }
+    } else {
+      while (processRecord()) { }
+    }
   }
 
   @Override
@@ -108,4 +140,27 @@ public class AsynchronousFork extends Fork {
     }
     return true;
   }
+
+  boolean processRecordBatch() throws IOException, DataConversionException {
+    boolean shutdownReceived = false;
+    try {
+      if (this.recordQueue.drainTo(this.recordBatch, this.drainBatchSize) == 0) {
+        shutdownReceived = true;
+      }
+      for (Object record : this.recordBatch) {
+        if (record == Fork.SHUTDOWN_RECORD) {
+          shutdownReceived = true;
+        } else {
+          this.processRecord(record);
+        }
+      }
+    } catch (InterruptedException ie) {
+      log.warn("Interrupted while trying to get records off the queue", ie);
+      Throwables.propagate(ie);
+    } finally {
+      this.recordBatch.clear();
+    }
+    // The parent task has already done pulling records so no new record means this fork is done
+    return !(shutdownReceived && this.isParentTaskDone());
+  }
 }
@@ -17,7 +17,6 @@
 
 package org.apache.gobblin.runtime.mapreduce;
 
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Map;
@@ -45,6 +44,7 @@ import org.apache.gobblin.runtime.listeners.JobListener;
 import org.apache.gobblin.source.workunit.MultiWorkUnit;
 import org.apache.gobblin.source.workunit.WorkUnit;
 import org.apache.gobblin.util.JobLauncherUtils;
+import org.apache.gobblin.util.SerializationUtils;
 
 import lombok.Getter;
 
@@ -82,15 +82,26 @@ public class GobblinOutputCommitter extends OutputCommitter {
       return;
     }
 
-    // Iterate through all files in the jobInputDir, each file should correspond to a serialized wu or mwu
+    // Iterate through all files in the jobInputDir, each file should correspond to a serialized wu or mwu or to a
+    // packed work unit file
     try {
       for (FileStatus status : fs.listStatus(jobInputDir, new WorkUnitFilter())) {
 
+        if (PackedWorkUnitFile.hasPackedExtension(status.getPath())) {
+          int count = PackedWorkUnitFile.getCount(fs, status.getPath());
+          for (WorkUnit eachWU : PackedWorkUnitFile.loadFlattenedWorkUnits(fs,
+              new PackedWorkUnitFile.Range(status.getPath(), 0, count))) {
+            JobLauncherUtils.cleanTaskStagingData(new WorkUnitState(eachWU), LOG);
+          }
+          continue;
+        }
+
         Closer workUnitFileCloser = Closer.create();
 
         WorkUnit wu = JobLauncherUtils.createEmptyWorkUnitPerExtension(status.getPath());
         try {
-          wu.readFields(workUnitFileCloser.register(new DataInputStream(fs.open(status.getPath()))));
+          SerializationUtils.deserializeStateFromInputStream(
+              workUnitFileCloser.register(fs.open(status.getPath())), wu);
         } finally {
           workUnitFileCloser.close();
         }
@@ -162,7 +173,7 @@ public class GobblinOutputCommitter extends OutputCommitter {
   private static class WorkUnitFilter implements PathFilter {
     @Override
     public boolean accept(Path path) {
-      return JobLauncherUtils.hasAnyWorkUnitExtension(path);
+      return JobLauncherUtils.hasAnyWorkUnitExtension(path) || PackedWorkUnitFile.hasPackedExtension(path);
     }
   }
 }
@@ -55,6 +55,13 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * An input format for reading Gobblin inputs (work unit and multi work unit files).
+ *
+ * <p>
+ *   Inputs may also be {@link PackedWorkUnitFile}s, each holding many work units. A packed file is split into
+ *   {@link PackedWorkUnitFile.Range}s so that work units are distributed over mappers as if they were in separate
+ *   files, and the mappers receive the {@link PackedWorkUnitFile.Range#toString()} form of the ranges instead of file
+ *   paths.
+ * </p>
  */
 @Slf4j
 public class GobblinWorkUnitsInputFormat extends InputFormat<LongWritable, Text> {
@@ -89,6 +96,10 @@ public class GobblinWorkUnitsInputFormat extends InputFormat<LongWritable, Text>
     }
 
     List<String> allPaths = Lists.newArrayList();
+    // Number of work units in each path, which is 1 for work unit and multi work unit files
+    List<Integer> allCounts = Lists.newArrayList();
+    int totalCount = 0;
+    boolean hasPackedFiles = false;
 
     for (Path path : inputPaths) {
       // path is a single work unit / multi work unit
@@ -102,21 +113,71 @@ public class GobblinWorkUnitsInputFormat extends InputFormat<LongWritable, Text>
       FileStatus[] firstNumInputs = Arrays.copyOf(inputs, numInputsToLog);
       log.info(String.format("Found %d input files at %s: **first %d only** %s", inputs.length, path, numInputsToLog, Arrays.toString(firstNumInputs)));
       for (FileStatus input : inputs) {
+        boolean isPacked = PackedWorkUnitFile.hasPackedExtension(input.getPath());
+        int count = isPacked ? PackedWorkUnitFile.getCount(fs, input.getPath()) : 1;
+        hasPackedFiles |= isPacked;
         allPaths.add(input.getPath().toString());
+        allCounts.add(count);
+        totalCount += count;
       }
     }
 
     int maxMappers = getMaxMapper(context.getConfiguration());
     int numTasksPerMapper =
-        allPaths.size() % maxMappers == 0 ? allPaths.size() / maxMappers : allPaths.size() / maxMappers + 1;
+        totalCount % maxMappers == 0 ? totalCount / maxMappers : totalCount / maxMappers + 1;
+
+    if (!hasPackedFiles) {
+      // Every path is a single work unit or multi work unit
+      List<InputSplit> splits = Lists.newArrayList();
+      Iterator<String> pathsIt = allPaths.iterator();
+      while (pathsIt.hasNext()) {
+        Iterator<String> limitedIterator = Iterators.limit(pathsIt, numTasksPerMapper);
+        splits.add(new GobblinSplit(Lists.newArrayList(limitedIterator)));
+      }
+      return splits;
+    }
 
+    return getSplitsWithPackedFiles(allPaths, allCounts, numTasksPerMapper);
+  }
+
+  /**
+   * Group work units into splits of at most {@code numTasksPerMapper} work units, splitting packed files into
+   * {@link PackedWorkUnitFile.Range}s where needed.
+   */
+  private static List<InputSplit> getSplitsWithPackedFiles(List<String> paths, List<Integer> counts,
+      int numTasksPerMapper) {
     List<InputSplit> splits = Lists.newArrayList();
-    Iterator<String> pathsIt = allPaths.iterator();
-    while (pathsIt.hasNext()) {
-      Iterator<String> limitedIterator = Iterators.limit(pathsIt, numTasksPerMapper);
-      splits.add(new GobblinSplit(Lists.newArrayList(limitedIterator)));
+    List<String> currentSplit = Lists.newArrayList();
+    int remaining = numTasksPerMapper;
+    for (int i = 0; i < paths.size(); i++) {
+      String path = paths.get(i);
+      if (!PackedWorkUnitFile.hasPackedExtension(new Path(path))) {
+        currentSplit.add(path);
+        remaining--;
+      } else {
+        int count = counts.get(i);
+        int first = 0;
+        while (first < count) {
+          int rangeCount = Math.min(remaining, count - first);
+          currentSplit.add(new PackedWorkUnitFile.Range(new Path(path), first, rangeCount).toString());
+          first += rangeCount;
+          remaining -= rangeCount;
+          if (remaining == 0 && first < count) {
+            splits.add(new GobblinSplit(currentSplit));
+            currentSplit = Lists.newArrayList();
+            remaining = numTasksPerMapper;
+          }
+        }
+      }
+      if (remaining == 0) {
+        splits.add(new GobblinSplit(currentSplit));
+        currentSplit = Lists.newArrayList();
+        remaining = numTasksPerMapper;
+      }
+    }
+    if (!currentSplit.isEmpty()) {
+      splits.add(new GobblinSplit(currentSplit));
     }
-
     return splits;
   }
 
@@ -23,12 +23,15 @@ import java.io.IOException;
 import java.net.URI;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.hadoop.conf.Configuration;
@@ -108,6 +111,8 @@ import org.apache.gobblin.runtime.util.JobMetrics;
 import org.apache.gobblin.runtime.util.MetricGroup;
 import org.apache.gobblin.source.workunit.MultiWorkUnit;
 import org.apache.gobblin.source.workunit.WorkUnit;
+import org.apache.gobblin.source.workunit.WorkUnitStream;
+import org.apache.gobblin.util.CompactStateFormat;
 import org.apache.gobblin.util.ConfigUtils;
 import org.apache.gobblin.util.HadoopUtils;
 import org.apache.gobblin.util.JobConfigurationUtils;
@@ -156,6 +161,9 @@ public class MRJobLauncher extends AbstractJobLauncher {
   private static final int MAXIMUM_JAR_COPY_RETRY_TIMES_DEFAULT = 5;
   private static final int WAITING_TIME_ON_IMCOMPLETE_UPLOAD = 3000;
 
+  // Maximum number of work units per packed work unit file, splits may still cover parts of a file
+  private static final int PACKED_INPUT_WORK_UNITS_PER_FILE = 10 * PackedWorkUnitFile.SEGMENT_SIZE;
+
   public static final String MR_TYPE_KEY = ConfigurationKeys.METRICS_CONFIGURATIONS_PREFIX + "mr.type";
   public static final String MAPPER_TASK_NUM_KEY = ConfigurationKeys.METRICS_CONFIGURATIONS_PREFIX + "reporting.mapper.task.num";
   public static final String MAPPER_TASK_ATTEMPT_NUM_KEY = ConfigurationKeys.METRICS_CONFIGURATIONS_PREFIX + "reporting.mapper.task.attempt.num";
@@ -176,6 +184,7 @@ public class MRJobLauncher extends AbstractJobLauncher {
   private final boolean shouldPersistWorkUnitsThenCancel;
 
   private final int parallelRunnerThreads;
+  private final boolean packedInputEnabled;
 
   private final TaskStateCollectorService taskStateCollectorService;
 
@@ -256,6 +265,9 @@ public class MRJobLauncher extends AbstractJobLauncher {
     this.job = Job.getInstance(this.conf, JOB_NAME_PREFIX + this.jobContext.getJobName());
 
     this.parallelRunnerThreads = ParallelRunner.getNumThreadsConfig(jobProps);
+    this.packedInputEnabled = Boolean.parseBoolean(this.jobProps.getProperty(
+        ConfigurationKeys.MR_JOB_PACKED_INPUT_ENABLED_KEY,
+        Boolean.toString(ConfigurationKeys.DEFAULT_MR_JOB_PACKED_INPUT_ENABLED)));
 
     // StateStore interface uses the following key (rootDir, storeName, tableName)
     // The state store base is the root directory and the last two elements of the path are used as the storeName and
@@ -303,17 +315,37 @@ public class MRJobLauncher extends AbstractJobLauncher {
     }
   }
 
+  /**
+   * If {@link ConfigurationKeys#MR_JOB_PACKED_INPUT_ENABLED_KEY} is set, the work units are written to the job input
+   * as they are pulled from the {@link WorkUnitStream}, instead of being materialized into a list first.
+   */
+  @Override
+  protected void runWorkUnitStream(WorkUnitStream workUnitStream) throws Exception {
+    if (!this.packedInputEnabled) {
+      super.runWorkUnitStream(workUnitStream);
+      return;
+    }
+    if (!workUnitStream.isFiniteStream()) {
+      throw new UnsupportedOperationException("Cannot run an infinite work unit stream.");
+    }
+    runWorkUnits(workUnitStream.getWorkUnits());
+  }
+
   @Override
   protected void runWorkUnits(List<WorkUnit> workUnits) throws Exception {
+    runWorkUnits(workUnits.iterator());
+  }
+
+  private void runWorkUnits(Iterator<WorkUnit> workUnits) throws Exception {
     String jobName = this.jobContext.getJobName();
     JobState jobState = this.jobContext.getJobState();
 
     try {
-      CountEventBuilder countEventBuilder = new CountEventBuilder(JobEvent.WORK_UNITS_CREATED, workUnits.size());
+      int numWorkUnits = prepareHadoopJob(workUnits);
+      CountEventBuilder countEventBuilder = new CountEventBuilder(JobEvent.WORK_UNITS_CREATED, numWorkUnits);
       this.eventSubmitter.submit(countEventBuilder);
       LOG.info("Emitting WorkUnitsCreated Count: " + countEventBuilder.getCount());
 
-      prepareHadoopJob(workUnits);
       if (this.shouldPersistWorkUnitsThenCancel) {
         // NOTE: `warn` level is hack for including path among automatic troubleshooter 'issues'
         LOG.warn("Cancelling job after persisting workunits beneath: " + this.jobInputPath);
@@ -476,8 +508,10 @@ public class MRJobLauncher extends AbstractJobLauncher {
 
   /**
    * Prepare the Hadoop MR job, including configuring the job and setting up the input/output paths.
+   *
+   * @return the number of work units in the job input
    */
-  private void prepareHadoopJob(List<WorkUnit> workUnits) throws IOException {
+  private int prepareHadoopJob(Iterator<WorkUnit> workUnits) throws IOException {
     TimingEvent mrJobSetupTimer = this.eventSubmitter.getTimingEvent(TimingEvent.RunJobTimings.MR_JOB_SETUP);
 
     // Add dependent jars/files
@@ -503,7 +537,7 @@ public class MRJobLauncher extends AbstractJobLauncher {
     // Job input path is where input work unit files are stored
 
     // Prepare job input
-    prepareJobInput(workUnits);
+    int numWorkUnits = prepareJobInput(workUnits);
     FileInputFormat.addInputPath(this.job, this.jobInputPath);
 
     // Job output path is where serialized task states are stored
@@ -520,6 +554,7 @@ public class MRJobLauncher extends AbstractJobLauncher {
     this.job.getConfiguration().set(GOBBLIN_JOB_INTERRUPT_PATH_KEY, this.interruptPath.toString());
 
     mrJobSetupTimer.stop();
+    return numWorkUnits;
   }
 
   static boolean isBooleanPropEnabled(Properties props, String propKey, Optional<Boolean> optDefault) {
@@ -674,25 +709,93 @@ public class MRJobLauncher extends AbstractJobLauncher {
 
   /**
    * Prepare the job input.
+   *
+   * @return the number of work units written
    * @throws IOException
    */
-  private void prepareJobInput(List<WorkUnit> workUnits) throws IOException {
+  private int prepareJobInput(Iterator<WorkUnit> workUnits) throws IOException {
+    if (this.packedInputEnabled) {
+      return preparePackedJobInput(workUnits);
+    }
+
+    int numWorkUnits = 0;
     Closer closer = Closer.create();
     try {
       ParallelRunner parallelRunner = closer.register(new ParallelRunner(this.parallelRunnerThreads, this.fs));
+      com.google.common.base.Optional<CompactStateFormat> workUnitFormat =
+          CompactStateFormat.fromState(this.jobContext.getJobState());
 
       JobLauncherUtils.WorkUnitPathCalculator pathCalculator = new JobLauncherUtils.WorkUnitPathCalculator();
       // Serialize each work unit into a file named after the task ID
-      for (WorkUnit workUnit : workUnits) {
+      while (workUnits.hasNext()) {
+        WorkUnit workUnit = workUnits.next();
         Path workUnitFile = pathCalculator.calcNextPath(workUnit, this.jobContext.getJobId(), this.jobInputPath);
         LOG.debug("Writing work unit file {}", workUnitFile.getName());
-        parallelRunner.serializeToFile(workUnit, workUnitFile);
+        parallelRunner.serializeToFile(workUnit, workUnitFile, workUnitFormat);
+        numWorkUnits++;
       }
     } catch (Throwable t) {
       throw closer.rethrow(t);
     } finally {
       closer.close();
     }
+    return numWorkUnits;
+  }
+
+  /**
+   * Prepare the job input as {@link PackedWorkUnitFile}s of up to {@link #PACKED_INPUT_WORK_UNITS_PER_FILE} work units
+   * each, written in the configured {@link CompactStateFormat}. Each thread of the {@link ParallelRunner} keeps pulling
+   * work units from the shared iterator into its current file, so the work units are never all held in memory.
+   *
+   * @return the number of work units written
+   */
+  private int preparePackedJobInput(final Iterator<WorkUnit> workUnits) throws IOException {
+    final CompactStateFormat format =
+        CompactStateFormat.fromState(this.jobContext.getJobState()).or(new CompactStateFormat());
+    final AtomicInteger numFiles = new AtomicInteger();
+    final AtomicInteger numWorkUnits = new AtomicInteger();
+
+    Closer closer = Closer.create();
+    try {
+      ParallelRunner parallelRunner = closer.register(new ParallelRunner(this.parallelRunnerThreads, this.fs));
+      for (int i = 0; i < this.parallelRunnerThreads; i++) {
+        parallelRunner.submitCallable(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            writePackedWorkUnitFiles(workUnits, format, numFiles, numWorkUnits);
+            return null;
+          }
+        }, "Write packed work unit files " + i);
+      }
+    } catch (Throwable t) {
+      throw closer.rethrow(t);
+    } finally {
+      closer.close();
+    }
+    LOG.info(String.format("Wrote %d work units into %d packed work unit files", numWorkUnits.get(), numFiles.get()));
+    return numWorkUnits.get();
+  }
+
+  private void writePackedWorkUnitFiles(Iterator<WorkUnit> workUnits, CompactStateFormat format,
+      AtomicInteger numFiles, AtomicInteger numWorkUnits) throws IOException {
+    WorkUnit workUnit;
+    while ((workUnit = nextWorkUnit(workUnits)) != null) {
+      Path packedFile = new Path(this.jobInputPath, String.format("%s_%05d%s", this.jobContext.getJobId(),
+          numFiles.getAndIncrement(), PackedWorkUnitFile.EXTENSION));
+      try (PackedWorkUnitFile.Writer writer = PackedWorkUnitFile.createWriter(this.fs, packedFile, format)) {
+        writer.append(workUnit);
+        while (writer.getCount() < PACKED_INPUT_WORK_UNITS_PER_FILE && (workUnit = nextWorkUnit(workUnits)) != null) {
+          writer.append(workUnit);
+        }
+        numWorkUnits.addAndGet(writer.getCount());
+      }
+    }
+  }
+
+  private static WorkUnit nextWorkUnit(Iterator<WorkUnit> workUnits) {
+    synchronized (workUnits) {
+      return workUnits.hasNext() ? workUnits.next() : null;
+    }
   }
 
   /**
@@ -969,7 +1072,13 @@ public class MRJobLauncher extends AbstractJobLauncher {
 
     @Override
     public void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
-      this.workUnits.addAll(JobLauncherUtils.loadFlattenedWorkUnits(this.fs, new Path(value.toString())));
+      String input = value.toString();
+      if (PackedWorkUnitFile.Range.isRange(input)) {
+        this.workUnits.addAll(
+            PackedWorkUnitFile.loadFlattenedWorkUnits(this.fs, PackedWorkUnitFile.Range.parse(input)));
+      } else {
+        this.workUnits.addAll(JobLauncherUtils.loadFlattenedWorkUnits(this.fs, new Path(input)));
+      }
     }
 
     /** @return {@link URI} if a distributed cache file matches `jobStateFileName` */
@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime.mapreduce;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import org.apache.gobblin.source.workunit.MultiWorkUnit;
+import org.apache.gobblin.source.workunit.WorkUnit;
+import org.apache.gobblin.util.CompactStateFormat;
+import org.apache.gobblin.util.JobLauncherUtils;
+
+
+/**
+ * A container file holding many serialized {@link WorkUnit}s and {@link MultiWorkUnit}s, used by {@link MRJobLauncher}
+ * to stage job input in a few files instead of one file per work unit.
+ *
+ * <p>
+ *   The file starts with four magic bytes and a version byte, followed by segments of up to {@link #SEGMENT_SIZE}
+ *   work units, each written as a separate {@link CompactStateFormat} stream. The file ends with an index of the
+ *   offsets of all segments and of whether each work unit is a {@link MultiWorkUnit}, the number of work units,
+ *   the offset of the index and the magic bytes again. A contiguous {@link Range} of work units is read by seeking
+ *   to the segment of its first work unit, so that only the preceding work units of that segment are decoded in vain.
+ * </p>
+ */
+public class PackedWorkUnitFile {
+
+  public static final String EXTENSION = ".wup";
+  // Number of work units sharing the key dictionary of a CompactStateFormat stream
+  public static final int SEGMENT_SIZE = 100;
+
+  private static final byte[] MAGIC = new byte[] {'G', 'W', 'U', 'P'};
+  private static final int VERSION = 2;
+  private static final int TRAILER_LENGTH = 4 + 8 + MAGIC.length;
+  private static final byte WORK_UNIT = 0;
+  private static final byte MULTI_WORK_UNIT = 1;
+
+  private PackedWorkUnitFile() {
+  }
+
+  /** @return whether {@link Path} ends with {@link #EXTENSION} */
+  public static boolean hasPackedExtension(Path path) {
+    return path.getName().endsWith(EXTENSION);
+  }
+
+  /**
+   * Create a {@link Writer} for a new container file at the given {@link Path}, writing uncompressed work units.
+   */
+  public static Writer createWriter(FileSystem fs, Path path) throws IOException {
+    return createWriter(fs, path, new CompactStateFormat());
+  }
+
+  /**
+   * Create a {@link Writer} for a new container file at the given {@link Path}, writing work units in the given
+   * {@link CompactStateFormat}.
+   */
+  public static Writer createWriter(FileSystem fs, Path path, CompactStateFormat format) throws IOException {
+    return new Writer(fs, path, format);
+  }
+
+  /**
+   * @return the number of work units in a container file
+   */
+  public static int getCount(FileSystem fs, Path path) throws IOException {
+    long length = fs.getFileStatus(path).getLen();
+    try (FSDataInputStream in = fs.open(path)) {
+      return readIndex(in, length, path).types.length;
+    }
+  }
+
+  private static Index readIndex(FSDataInputStream in, long length, Path path) throws IOException {
+    if (length < MAGIC.length + 1 + TRAILER_LENGTH) {
+      throw new IOException("Not a packed work unit file: " + path);
+    }
+    in.seek(length - TRAILER_LENGTH);
+    int count = in.readInt();
+    long indexOffset = in.readLong();
+    byte[] magic = new byte[MAGIC.length];
+    in.readFully(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      throw new IOException("Not a packed work unit file or file is incomplete: " + path);
+    }
+    in.seek(MAGIC.length);
+    int version = in.readUnsignedByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported packed work unit file version " + version + ": " + path);
+    }
+
+    Index index = new Index(new long[(count + SEGMENT_SIZE - 1) / SEGMENT_SIZE], new byte[count]);
+    in.seek(indexOffset);
+    DataInputStream indexIn = new DataInputStream(new BufferedInputStream(in));
+    for (int i = 0; i < index.segmentOffsets.length; i++) {
+      index.segmentOffsets[i] = indexIn.readLong();
+    }
+    indexIn.readFully(index.types);
+    return index;
+  }
+
+  /**
+   * Read the work units in the given {@link Range}, flattening {@link MultiWorkUnit}s as
+   * {@link JobLauncherUtils#loadFlattenedWorkUnits(FileSystem, Path)} does.
+   */
+  public static List<WorkUnit> loadFlattenedWorkUnits(FileSystem fs, Range range) throws IOException {
+    return JobLauncherUtils.flattenWorkUnits(loadWorkUnits(fs, range));
+  }
+
+  /**
+   * Read the work units in the given {@link Range}.
+   */
+  public static List<WorkUnit> loadWorkUnits(FileSystem fs, Range range) throws IOException {
+    Path path = range.getPath();
+    long length = fs.getFileStatus(path).getLen();
+    try (FSDataInputStream in = fs.open(path)) {
+      Index index = readIndex(in, length, path);
+      Preconditions.checkArgument(range.getFirst() >= 0 && range.getFirst() + range.getCount() <= index.types.length,
+          "Range %s is out of bounds for %s work units", range, index.types.length);
+
+      List<WorkUnit> workUnits = Lists.newArrayListWithCapacity(range.getCount());
+      CompactStateFormat.Reader reader = null;
+      int end = range.getFirst() + range.getCount();
+      // Start at the segment of the first work unit of the range, skipping the work units before it
+      for (int i = range.getFirst() - range.getFirst() % SEGMENT_SIZE; i < end; i++) {
+        if (i % SEGMENT_SIZE == 0) {
+          in.seek(index.segmentOffsets[i / SEGMENT_SIZE]);
+          reader = CompactStateFormat.createReader(new BufferedInputStream(in), fs.getConf());
+        }
+        WorkUnit workUnit = index.types[i] == MULTI_WORK_UNIT ? MultiWorkUnit.createEmpty() : WorkUnit.createEmpty();
+        if (reader.next(workUnit) == null) {
+          throw new IOException("Packed work unit file is truncated: " + path);
+        }
+        if (i >= range.getFirst()) {
+          workUnits.add(workUnit);
+        }
+      }
+      return workUnits;
+    }
+  }
+
+  /**
+   * The index of a container file.
+   */
+  private static class Index {
+    private final long[] segmentOffsets;
+    private final byte[] types;
+
+    private Index(long[] segmentOffsets, byte[] types) {
+      this.segmentOffsets = segmentOffsets;
+      this.types = types;
+    }
+  }
+
+  /**
+   * Appends work units to a container file. The file is only readable after the {@link Writer} is closed.
+   */
+  public static class Writer implements Closeable {
+    private final CompactStateFormat format;
+    private final CountingOutputStream countingOut;
+    private final DataOutputStream out;
+    private final List<Long> segmentOffsets = Lists.newArrayList();
+    private final ByteArrayDataOutput types = ByteStreams.newDataOutput();
+    private CompactStateFormat.Writer segmentWriter;
+    private int count = 0;
+
+    private Writer(FileSystem fs, Path path, CompactStateFormat format) throws IOException {
+      this.format = format;
+      this.countingOut = new CountingOutputStream(new BufferedOutputStream(fs.create(path, false)));
+      this.out = new DataOutputStream(this.countingOut);
+      this.out.write(MAGIC);
+      this.out.writeByte(VERSION);
+    }
+
+    /**
+     * Append a {@link WorkUnit} or {@link MultiWorkUnit}.
+     */
+    public void append(WorkUnit workUnit) throws IOException {
+      if (this.count % SEGMENT_SIZE == 0) {
+        closeSegment();
+        this.segmentOffsets.add(this.countingOut.getCount());
+        this.segmentWriter = this.format.createWriter(new CloseShieldOutputStream(this.countingOut));
+      }
+      this.types.writeByte(workUnit.isMultiWorkUnit() ? MULTI_WORK_UNIT : WORK_UNIT);
+      this.segmentWriter.append(workUnit.getId(), workUnit);
+      this.count++;
+    }
+
+    /** @return the number of work units appended so far */
+    public int getCount() {
+      return this.count;
+    }
+
+    private void closeSegment() throws IOException {
+      if (this.segmentWriter != null) {
+        this.segmentWriter.close();
+        this.segmentWriter = null;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        closeSegment();
+        long indexOffset = this.countingOut.getCount();
+        for (long offset : this.segmentOffsets) {
+          this.out.writeLong(offset);
+        }
+        this.out.write(this.types.toByteArray());
+        this.out.writeInt(this.count);
+        this.out.writeLong(indexOffset);
+        this.out.write(MAGIC);
+      } finally {
+        this.out.close();
+      }
+    }
+  }
+
+  /**
+   * A contiguous range of work units in a container file. Its {@link #toString()} form is what
+   * {@link GobblinWorkUnitsInputFormat} hands to mappers in place of a work unit file path.
+   */
+  @Getter
+  @EqualsAndHashCode
+  public static class Range {
+    private static final char SEPARATOR = '#';
+
+    private final Path path;
+    private final int first;
+    private final int count;
+
+    public Range(Path path, int first, int count) {
+      this.path = path;
+      this.first = first;
+      this.count = count;
+    }
+
+    /**
+     * Parse the {@link #toString()} form of a {@link Range}.
+     */
+    public static Range parse(String range) {
+      int countSeparator = range.lastIndexOf(SEPARATOR);
+      int firstSeparator = range.lastIndexOf(SEPARATOR, countSeparator - 1);
+      Preconditions.checkArgument(firstSeparator > 0, "Invalid packed work unit range %s", range);
+      return new Range(new Path(range.substring(0, firstSeparator)),
+          Integer.parseInt(range.substring(firstSeparator + 1, countSeparator)),
+          Integer.parseInt(range.substring(countSeparator + 1)));
+    }
+
+    /**
+     * @return whether the given work unit input string refers to a {@link Range} rather than a work unit file
+     */
+    public static boolean isRange(String input) {
+      int countSeparator = input.lastIndexOf(SEPARATOR);
+      int firstSeparator = countSeparator > 0 ? input.lastIndexOf(SEPARATOR, countSeparator - 1) : -1;
+      return firstSeparator > 0 && input.substring(0, firstSeparator).endsWith(EXTENSION);
+    }
+
+    @Override
+    public String toString() {
+      return this.path.toString() + SEPARATOR + this.first + SEPARATOR + this.count;
+    }
+  }
+}
@@ -29,6 +29,11 @@ public class RuntimeMetrics {
   public static final String GOBBLIN_KAFKA_HIGH_LEVEL_CONSUMER_MESSAGES_READ =
       "gobblin.kafka.highLevelConsumer.messagesRead";
   public static final String GOBBLIN_KAFKA_HIGH_LEVEL_CONSUMER_QUEUE_SIZE_PREFIX = "gobblin.kafka.highLevelConsumer.queueSize";
+  public static final String GOBBLIN_TASK_STATE_COLLECTOR_COLLECTED_TASK_STATES =
+      "gobblin.taskStateCollector.collectedTaskStates";
+  // Time between the end of a task and the collection of its task state
+  public static final String GOBBLIN_TASK_STATE_COLLECTOR_COLLECTION_LAG_MILLIS =
+      "gobblin.taskStateCollector.collectionLagMillis";
   public static final String GOBBLIN_JOB_MONITOR_KAFKA_TOTAL_SPECS = "gobblin.jobMonitor.kafka.totalSpecs";
   public static final String GOBBLIN_JOB_MONITOR_KAFKA_NEW_SPECS = "gobblin.jobMonitor.kafka.newSpecs";
   public static final String GOBBLIN_JOB_MONITOR_KAFKA_UPDATED_SPECS = "gobblin.jobMonitor.kafka.updatedSpecs";
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Maps;
+
+
+/**
+ * Unit tests for {@link LogStructuredFsDatasetStateStore}.
+ */
+@Test(groups = { "gobblin.runtime" })
+public class LogStructuredFsDatasetStateStoreTest {
+
+  private static final String ROOT_DIR = LogStructuredFsDatasetStateStoreTest.class.getSimpleName();
+  private static final String TEST_JOB_NAME = "TestJob";
+  private static final String TEST_JOB_ID = "TestJob1";
+  private static final String TEST_DATASET_URN_PREFIX = "TestDataset";
+
+  private FileSystem fs;
+  private LogStructuredFsDatasetStateStore datasetStateStore;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    this.fs = FileSystem.getLocal(new Configuration());
+    this.datasetStateStore = new LogStructuredFsDatasetStateStore(this.fs, ROOT_DIR);
+
+    // clear data that may have been left behind by a prior test run
+    this.datasetStateStore.delete(TEST_JOB_NAME);
+  }
+
+  @Test
+  public void testPersistDatasetStates() throws IOException {
+    Map<String, JobState.DatasetState> datasetStatesByUrns = Maps.newHashMap();
+    for (int i = 0; i < 5; i++) {
+      JobState.DatasetState datasetState = new JobState.DatasetState(TEST_JOB_NAME, TEST_JOB_ID);
+      datasetState.setDatasetUrn(TEST_DATASET_URN_PREFIX + i);
+      datasetState.setId(TEST_DATASET_URN_PREFIX + i);
+      datasetState.setState(JobState.RunningState.COMMITTED);
+      datasetStatesByUrns.put(TEST_DATASET_URN_PREFIX + i, datasetState);
+    }
+
+    this.datasetStateStore.persistDatasetStates(datasetStatesByUrns);
+
+    // All dataset states and their aliases are written as a single segment
+    Assert.assertEquals(this.fs.listStatus(new Path(ROOT_DIR, TEST_JOB_NAME)).length, 1);
+
+    LogStructuredFsDatasetStateStore reader = new LogStructuredFsDatasetStateStore(this.fs, ROOT_DIR);
+    Map<String, JobState.DatasetState> latestDatasetStates = reader.getLatestDatasetStatesByUrns(TEST_JOB_NAME);
+    Assert.assertEquals(latestDatasetStates.keySet(), datasetStatesByUrns.keySet());
+    JobState.DatasetState datasetState = reader.getLatestDatasetState(TEST_JOB_NAME, TEST_DATASET_URN_PREFIX + 3);
+    Assert.assertEquals(datasetState.getDatasetUrn(), TEST_DATASET_URN_PREFIX + 3);
+    Assert.assertEquals(datasetState.getState(), JobState.RunningState.COMMITTED);
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    Path rootDir = new Path(ROOT_DIR);
+    if (this.fs.exists(rootDir)) {
+      this.fs.delete(rootDir, true);
+    }
+  }
+}
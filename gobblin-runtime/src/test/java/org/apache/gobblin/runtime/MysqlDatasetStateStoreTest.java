@@ -18,7 +18,9 @@
 package org.apache.gobblin.runtime;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,7 +29,11 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Predicates;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import com.zaxxer.hikari.HikariDataSource;
 
 import org.apache.gobblin.config.ConfigBuilder;
@@ -38,6 +44,7 @@ import org.apache.gobblin.metastore.MysqlStateStore;
 import org.apache.gobblin.metastore.StateStore;
 import org.apache.gobblin.metastore.testing.ITestMetastoreDatabase;
 import org.apache.gobblin.metastore.testing.TestMetastoreDatabaseFactory;
+import org.apache.gobblin.metrics.GobblinMetrics;
 import org.apache.gobblin.util.ClassAliasResolver;
 
 
@@ -56,12 +63,14 @@ public class MysqlDatasetStateStoreTest {
   private static final String TEST_DATASET_URN = "TestDataset";
   private static final String TEST_DATASET_URN_LOWER = "testdataset";
   private static final String TEST_DATASET_URN2 = "TestDataset2";
+  private static final String TEST_BULK_JOB_NAME = "TestBulkJob";
 
   private StateStore<JobState> dbJobStateStore;
   private DatasetStateStore<JobState.DatasetState> dbDatasetStateStore;
   private long startTime = System.currentTimeMillis();
 
   private ITestMetastoreDatabase testMetastoreDatabase;
+  private HikariDataSource dataSource;
   private static final String TEST_USER = "testUser";
   private static final String TEST_PASSWORD = "testPassword";
 
@@ -70,7 +79,7 @@ public class MysqlDatasetStateStoreTest {
     testMetastoreDatabase = TestMetastoreDatabaseFactory.get();
     String jdbcUrl = testMetastoreDatabase.getJdbcUrl();
     ConfigBuilder configBuilder = ConfigBuilder.create();
-    HikariDataSource dataSource = new HikariDataSource();
+    dataSource = new HikariDataSource();
 
     dataSource.setDriverClassName(ConfigurationKeys.DEFAULT_STATE_STORE_DB_JDBC_DRIVER);
     dataSource.setAutoCommit(false);
@@ -96,6 +105,7 @@ public class MysqlDatasetStateStoreTest {
     dbDatasetStateStore.delete(TEST_JOB_NAME);
     dbJobStateStore.delete(TEST_JOB_NAME2);
     dbDatasetStateStore.delete(TEST_JOB_NAME2);
+    dbJobStateStore.delete(TEST_BULK_JOB_NAME);
   }
 
   @Test
@@ -328,9 +338,79 @@ public class MysqlDatasetStateStoreTest {
     Assert.assertNull(datasetState);
   }
 
+  @Test
+  public void testBulkOperationsWithCompressionCodecs() throws IOException {
+    MysqlStateStore<JobState> gzipStateStore =
+        new MysqlStateStore<>(dataSource, TEST_STATE_STORE, true, JobState.class);
+    MysqlStateStore<JobState> deflateStateStore =
+        new MysqlStateStore<>(dataSource, TEST_STATE_STORE, true, JobState.class);
+    deflateStateStore.setCompactStateFormat(MysqlStateStore.getCompactStateFormat(ConfigFactory.parseMap(
+        Collections.singletonMap(ConfigurationKeys.STATE_STORE_DB_COMPRESSION_CODEC_KEY, "deflate"))));
+    MetricRegistry metricRegistry = new MetricRegistry();
+    deflateStateStore.setMetricRegistry(metricRegistry);
+
+    // More tables than fit in a single statement, written by both stores
+    Map<String, List<JobState>> gzipStatesByTableNames = new HashMap<>();
+    Map<String, List<JobState>> deflateStatesByTableNames = new HashMap<>();
+    List<String> tableNames = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      JobState jobState = new JobState(TEST_BULK_JOB_NAME, TEST_JOB_ID + i);
+      jobState.setId(TEST_JOB_ID + i);
+      jobState.setProp("foo", "bar" + i);
+      String tableName = "table" + i + MysqlDatasetStateStore.DATASET_STATE_STORE_TABLE_SUFFIX;
+      (i % 2 == 0 ? gzipStatesByTableNames : deflateStatesByTableNames)
+          .put(tableName, Collections.singletonList(jobState));
+      tableNames.add(tableName);
+    }
+    gzipStateStore.putAll(TEST_BULK_JOB_NAME, gzipStatesByTableNames);
+    deflateStateStore.putAll(TEST_BULK_JOB_NAME, deflateStatesByTableNames);
+    tableNames.add("missing" + MysqlDatasetStateStore.DATASET_STATE_STORE_TABLE_SUFFIX);
+
+    // Both stores read values in both formats
+    for (MysqlStateStore<JobState> stateStore : new MysqlStateStore[] { gzipStateStore, deflateStateStore }) {
+      Map<String, List<JobState>> statesByTableNames = stateStore.getAll(TEST_BULK_JOB_NAME, tableNames);
+      Assert.assertEquals(statesByTableNames.size(), 250);
+      for (int i = 0; i < 250; i++) {
+        List<JobState> states = statesByTableNames.get(tableNames.get(i));
+        Assert.assertEquals(states.size(), 1);
+        Assert.assertEquals(states.get(0).getId(), TEST_JOB_ID + i);
+        Assert.assertEquals(states.get(0).getProp("foo"), "bar" + i);
+      }
+      Assert.assertEquals(stateStore.get(TEST_BULK_JOB_NAME, tableNames.get(1), TEST_JOB_ID + 1).getProp("foo"),
+          "bar1");
+      Assert.assertEquals(stateStore.getAll(TEST_BULK_JOB_NAME).size(), 250);
+    }
+
+    Assert.assertEquals(metricRegistry.timer(MysqlStateStore.METRICS_PREFIX + ".bulkPut").getCount(), 1);
+    Assert.assertEquals(metricRegistry.timer(MysqlStateStore.METRICS_PREFIX + ".bulkGet").getCount(), 1);
+  }
+
+  @Test
+  public void testMetricsInJobMetricContext() throws Exception {
+    GobblinMetrics jobMetrics = GobblinMetrics.get("MysqlDatasetStateStoreTestJob");
+    try {
+      Config config = ConfigBuilder.create()
+          .addPrimitive(ConfigurationKeys.STATE_STORE_DB_URL_KEY, testMetastoreDatabase.getJdbcUrl())
+          .addPrimitive(ConfigurationKeys.STATE_STORE_DB_USER_KEY, TEST_USER)
+          .addPrimitive(ConfigurationKeys.STATE_STORE_DB_PASSWORD_KEY, TEST_PASSWORD)
+          .addPrimitive(ConfigurationKeys.METRIC_CONTEXT_NAME_KEY, jobMetrics.getName())
+          .build();
+      DatasetStateStore<JobState.DatasetState> stateStore =
+          new MysqlDatasetStateStoreFactory().createStateStore(config);
+      stateStore.exists(TEST_JOB_NAME, TEST_DATASET_URN);
+
+      Timer existsTimer = jobMetrics.getMetricContext().getTimers().get(MysqlStateStore.METRICS_PREFIX + ".exists");
+      Assert.assertNotNull(existsTimer);
+      Assert.assertEquals(existsTimer.getCount(), 1);
+    } finally {
+      GobblinMetrics.remove(jobMetrics.getName());
+    }
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     dbJobStateStore.delete(TEST_JOB_NAME);
     dbDatasetStateStore.delete(TEST_JOB_NAME);
+    dbJobStateStore.delete(TEST_BULK_JOB_NAME);
   }
 }
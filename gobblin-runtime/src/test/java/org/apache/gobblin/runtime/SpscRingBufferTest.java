@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+
+/**
+ * Unit tests for {@link SpscRingBuffer} and {@link BoundedBlockingRecordQueue} backed by it.
+ */
+@Test(groups = { "gobblin.runtime" })
+public class SpscRingBufferTest {
+
+  @Test
+  public void testCapacityAndTimeout() throws InterruptedException {
+    SpscRingBuffer<Integer> ringBuffer = new SpscRingBuffer<>(3, SpscRingBuffer.WaitStrategy.PARK);
+    Assert.assertTrue(ringBuffer.offer(0, 10, TimeUnit.MILLISECONDS));
+    Assert.assertTrue(ringBuffer.offer(1, 10, TimeUnit.MILLISECONDS));
+    Assert.assertTrue(ringBuffer.offer(2, 10, TimeUnit.MILLISECONDS));
+    // The backing array has 4 slots but the capacity is 3
+    Assert.assertFalse(ringBuffer.offer(3, 10, TimeUnit.MILLISECONDS));
+    Assert.assertEquals(ringBuffer.size(), 3);
+
+    Assert.assertEquals(ringBuffer.poll(10, TimeUnit.MILLISECONDS), Integer.valueOf(0));
+    List<Integer> drained = Lists.newArrayList();
+    Assert.assertEquals(ringBuffer.drainTo(drained, 10, 10, TimeUnit.MILLISECONDS), 2);
+    Assert.assertEquals(drained, Lists.newArrayList(1, 2));
+    Assert.assertNull(ringBuffer.poll(10, TimeUnit.MILLISECONDS));
+    Assert.assertEquals(ringBuffer.producedCount(), 3);
+    Assert.assertEquals(ringBuffer.consumedCount(), 3);
+
+    Assert.assertTrue(ringBuffer.offer(3, 10, TimeUnit.MILLISECONDS));
+    ringBuffer.clear();
+    Assert.assertEquals(ringBuffer.size(), 0);
+  }
+
+  @Test
+  public void testConcurrentPutAndDrain() throws InterruptedException {
+    // SPIN is left out as it needs a dedicated core per thread to make progress quickly
+    for (SpscRingBuffer.WaitStrategy waitStrategy
+        : new SpscRingBuffer.WaitStrategy[] {SpscRingBuffer.WaitStrategy.YIELD, SpscRingBuffer.WaitStrategy.PARK}) {
+      final BoundedBlockingRecordQueue<Integer> queue = BoundedBlockingRecordQueue.<Integer>newBuilder()
+          .hasCapacity(16).useTimeout(1000).useTimeoutTimeUnit(TimeUnit.MILLISECONDS)
+          .useRingBuffer(waitStrategy).collectStats().build();
+      final int numRecords = 100000;
+
+      Thread producer = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 0; i < numRecords; i++) {
+              while (!queue.put(i)) { }
+            }
+          } catch (InterruptedException ie) {
+            throw new RuntimeException(ie);
+          }
+        }
+      });
+      producer.start();
+
+      List<Integer> consumed = Lists.newArrayListWithCapacity(numRecords);
+      while (consumed.size() < numRecords) {
+        queue.drainTo(consumed, 10);
+      }
+      producer.join();
+
+      for (int i = 0; i < numRecords; i++) {
+        Assert.assertEquals(consumed.get(i).intValue(), i);
+      }
+      Assert.assertNull(queue.get());
+      BoundedBlockingRecordQueue<Integer>.QueueStats stats = queue.stats().get();
+      Assert.assertEquals(stats.queueSize(), 0);
+      Assert.assertTrue(stats.putAttemptCount() >= numRecords);
+      Assert.assertTrue(stats.getAttemptCount() > numRecords);
+    }
+  }
+}
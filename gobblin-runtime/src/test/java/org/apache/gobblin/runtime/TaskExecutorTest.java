@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.runtime;
+
+import java.util.Properties;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.runtime.fork.Fork;
+import org.apache.gobblin.util.ExecutorsUtils;
+
+import static org.mockito.Mockito.*;
+
+
+/**
+ * Unit tests for {@link TaskExecutor}.
+ */
+@Test(groups = { "gobblin.runtime" })
+public class TaskExecutorTest {
+
+  @Test
+  public void testThreadPools() throws Exception {
+    TaskExecutor taskExecutor = new TaskExecutor(new Properties());
+    Assert.assertFalse(taskExecutor.isRunningOnVirtualThreads());
+    assertTaskAndForkThreads(taskExecutor, false);
+  }
+
+  /**
+   * Virtual threads are only used if the JVM supports them, tasks and forks run on the thread pools otherwise.
+   */
+  @Test
+  public void testVirtualThreadsFallBackToThreadPools() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty(ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_ENABLED_KEY, "true");
+    properties.setProperty(ConfigurationKeys.TASK_EXECUTOR_VIRTUAL_THREADS_MAX_CONCURRENCY_KEY, "2");
+    TaskExecutor taskExecutor = new TaskExecutor(properties);
+    Assert.assertEquals(taskExecutor.isRunningOnVirtualThreads(), ExecutorsUtils.isVirtualThreadSupported());
+    assertTaskAndForkThreads(taskExecutor, ExecutorsUtils.isVirtualThreadSupported());
+  }
+
+  private static void assertTaskAndForkThreads(TaskExecutor taskExecutor, boolean virtual) throws Exception {
+    taskExecutor.startAsync().awaitRunning();
+    try {
+      AtomicReference<Thread> taskThread = new AtomicReference<>();
+      Task task = mock(Task.class);
+      TaskContext taskContext = mock(TaskContext.class);
+      when(task.getTaskId()).thenReturn("task_0");
+      when(task.getTaskContext()).thenReturn(taskContext);
+      when(taskContext.getTaskState()).thenReturn(new TaskState());
+      doAnswer(invocation -> {
+        taskThread.set(Thread.currentThread());
+        return null;
+      }).when(task).run();
+
+      AtomicReference<Thread> forkThread = new AtomicReference<>();
+      Fork fork = mock(Fork.class);
+      doAnswer(invocation -> {
+        forkThread.set(Thread.currentThread());
+        return null;
+      }).when(fork).run();
+
+      Future<?> taskFuture = taskExecutor.submit(task);
+      Future<?> forkFuture = taskExecutor.submit(fork);
+      taskFuture.get();
+      forkFuture.get();
+
+      Assert.assertTrue(taskThread.get().getName().startsWith("TaskExecutor-"));
+      Assert.assertEquals(isVirtual(taskThread.get()), virtual);
+      Assert.assertTrue(forkThread.get().getName().startsWith("ForkExecutor-"));
+      Assert.assertEquals(isVirtual(forkThread.get()), virtual);
+    } finally {
+      taskExecutor.stopAsync().awaitTerminated();
+    }
+  }
+
+  /**
+   * {@link Thread#isVirtual()} is only available on JDK 21 or later.
+   */
+  private static boolean isVirtual(Thread thread) throws Exception {
+    try {
+      return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+}
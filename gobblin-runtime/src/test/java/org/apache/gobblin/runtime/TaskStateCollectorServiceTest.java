@@ -17,25 +17,34 @@
 
 package org.apache.gobblin.runtime;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
 import java.util.Properties;
 
 import org.apache.gobblin.metrics.event.EventSubmitter;
 import org.apache.gobblin.service.ServiceConfigKeys;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 
 import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.configuration.WorkUnitState;
 import org.apache.gobblin.metastore.FsStateStore;
 import org.apache.gobblin.runtime.troubleshooter.InMemoryIssueRepository;
 import org.apache.gobblin.util.JobLauncherUtils;
@@ -128,6 +137,174 @@ public class TaskStateCollectorServiceTest {
     return;
   }
 
+  @Test
+  public void testCollectTaskStateLogs() throws Exception {
+    String jobId = JobLauncherUtils.newJobId(JOB_NAME + "Log");
+    Properties props = new Properties();
+    props.setProperty(ConfigurationKeys.TASK_STATE_LOG_ENABLED, Boolean.TRUE.toString());
+    JobState logJobState = new JobState();
+    TaskStateCollectorService logCollectorService = new TaskStateCollectorService(props, logJobState, new EventBus(),
+        this.mockEventSubmitter, this.taskStateStore, new Path(this.outputTaskStateDir, jobId),
+        new InMemoryIssueRepository());
+    Path logDir = this.taskStateStore.getStorePath(jobId);
+
+    // The log of the first container rolls over after each append
+    State rollingState = new State();
+    rollingState.setProp(ConfigurationKeys.TASK_STATE_LOG_MAX_FILE_SIZE_BYTES, 1);
+    TaskStateLogWriter.append(this.localFs, logDir, "container_1", rollingState,
+        ImmutableList.of(newTaskState(jobId, 0), newTaskState(jobId, 1)));
+    TaskStateLogWriter.append(this.localFs, logDir, "container_2", new State(),
+        ImmutableList.of(newTaskState(jobId, 2)));
+
+    logCollectorService.runOneIteration();
+    Assert.assertEquals(logJobState.getTaskStates().size(), 3);
+    Assert.assertEquals(logCollectorService.getCollectedTaskStatesMeter().getCount(), 3);
+    Assert.assertEquals(logCollectorService.getCollectionLagMillis().getCount(), 3);
+    // The completed log of the first container is deleted
+    Assert.assertEquals(this.localFs.listStatus(logDir,
+        path -> path.getName().endsWith(TaskStateLogWriter.FILE_SUFFIX)).length, 1);
+
+    // Only new task states are read from the open log of the second container
+    TaskStateLogWriter.append(this.localFs, logDir, "container_2", new State(),
+        ImmutableList.of(newTaskState(jobId, 3)));
+    logCollectorService.runOneIteration();
+    Assert.assertEquals(logJobState.getTaskStates().size(), 4);
+    Assert.assertEquals(logJobState.getTaskStates().get(3).getTaskId(), JobLauncherUtils.newTaskId(jobId, 3));
+    Assert.assertEquals(logCollectorService.getCollectedTaskStatesMeter().getCount(), 4);
+
+    TaskStateLogWriter.close(logDir);
+    logCollectorService.runOneIteration();
+    Assert.assertEquals(logJobState.getTaskStates().size(), 4);
+    Assert.assertEquals(this.localFs.listStatus(logDir).length, 0);
+  }
+
+  @Test
+  public void testCollectPartialTaskStateLog() throws Exception {
+    String jobId = JobLauncherUtils.newJobId(JOB_NAME + "PartialLog");
+    Properties props = new Properties();
+    props.setProperty(ConfigurationKeys.TASK_STATE_LOG_ENABLED, Boolean.TRUE.toString());
+    JobState logJobState = new JobState();
+    TaskStateCollectorService logCollectorService = new TaskStateCollectorService(props, logJobState, new EventBus(),
+        this.mockEventSubmitter, this.taskStateStore, new Path(this.outputTaskStateDir, jobId),
+        new InMemoryIssueRepository());
+    Path logDir = this.taskStateStore.getStorePath(jobId);
+
+    FailingFileSystem failingFs = new FailingFileSystem(FileSystem.getLocal(new Configuration()).getRawFileSystem());
+    TaskStateLogWriter.append(failingFs, logDir, "container_1", new State(),
+        ImmutableList.of(newTaskState(jobId, 0)));
+    // The second batch fails after the length of its first record
+    failingFs.out.bytesBeforeFailure = 6;
+    Assert.assertThrows(IOException.class, () -> TaskStateLogWriter.append(failingFs, logDir, "container_1",
+        new State(), ImmutableList.of(newTaskState(jobId, 1), newTaskState(jobId, 2))));
+    Assert.assertEquals(this.localFs.listStatus(logDir,
+        path -> path.getName().endsWith(TaskStateLogWriter.PARTIAL_FILE_SUFFIX)).length, 1);
+
+    // The complete batch is collected and the partial log is deleted
+    logCollectorService.runOneIteration();
+    Assert.assertEquals(logJobState.getTaskStates().size(), 1);
+    Assert.assertEquals(logJobState.getTaskStates().get(0).getTaskId(), JobLauncherUtils.newTaskId(jobId, 0));
+    Assert.assertEquals(this.localFs.listStatus(logDir).length, 0);
+
+    // Later batches go to a new log file
+    TaskStateLogWriter.append(failingFs, logDir, "container_1", new State(),
+        ImmutableList.of(newTaskState(jobId, 3)));
+    TaskStateLogWriter.close(logDir);
+    logCollectorService.runOneIteration();
+    Assert.assertEquals(logJobState.getTaskStates().size(), 2);
+    Assert.assertEquals(this.localFs.listStatus(logDir).length, 0);
+  }
+
+  @Test
+  public void testCollectRetriedTaskStateLogs() throws Exception {
+    String jobId = JobLauncherUtils.newJobId(JOB_NAME + "RetriedLog");
+    Properties props = new Properties();
+    props.setProperty(ConfigurationKeys.TASK_STATE_LOG_ENABLED, Boolean.TRUE.toString());
+    JobState logJobState = new JobState();
+    TaskStateCollectorService logCollectorService = new TaskStateCollectorService(props, logJobState, new EventBus(),
+        this.mockEventSubmitter, this.taskStateStore, new Path(this.outputTaskStateDir, jobId),
+        new InMemoryIssueRepository());
+    Path logDir = this.taskStateStore.getStorePath(jobId);
+
+    // A task fails in the first container and is retried successfully in the second one
+    TaskState failedAttempt = newTaskState(jobId, 0);
+    failedAttempt.setWorkingState(WorkUnitState.WorkingState.FAILED);
+    TaskState successfulAttempt = newTaskState(jobId, 0);
+    successfulAttempt.setEndTime(failedAttempt.getEndTime() + 1000);
+    successfulAttempt.setWorkingState(WorkUnitState.WorkingState.SUCCESSFUL);
+    TaskStateLogWriter.append(this.localFs, logDir, "container_2", new State(), ImmutableList.of(successfulAttempt));
+    TaskStateLogWriter.append(this.localFs, logDir, "container_1", new State(), ImmutableList.of(failedAttempt));
+    TaskStateLogWriter.append(this.localFs, logDir, "container_3", new State(),
+        ImmutableList.of(newTaskState(jobId, 1)));
+
+    logCollectorService.runOneIteration();
+    Assert.assertEquals(logJobState.getTaskStates().size(), 2);
+    Assert.assertEquals(getTaskState(logJobState, JobLauncherUtils.newTaskId(jobId, 0)).getWorkingState(),
+        WorkUnitState.WorkingState.SUCCESSFUL);
+
+    // An earlier attempt read later does not replace the latest one either
+    TaskState earlierAttempt = newTaskState(jobId, 0);
+    earlierAttempt.setEndTime(failedAttempt.getEndTime() - 1000);
+    earlierAttempt.setWorkingState(WorkUnitState.WorkingState.FAILED);
+    TaskStateLogWriter.append(this.localFs, logDir, "container_4", new State(), ImmutableList.of(earlierAttempt));
+    TaskStateLogWriter.close(logDir);
+    logCollectorService.runOneIteration();
+    Assert.assertEquals(logJobState.getTaskStates().size(), 2);
+    Assert.assertEquals(getTaskState(logJobState, JobLauncherUtils.newTaskId(jobId, 0)).getWorkingState(),
+        WorkUnitState.WorkingState.SUCCESSFUL);
+  }
+
+  private static TaskState getTaskState(JobState jobState, String taskId) {
+    for (TaskState taskState : jobState.getTaskStates()) {
+      if (taskState.getTaskId().equals(taskId)) {
+        return taskState;
+      }
+    }
+    return null;
+  }
+
+  private static TaskState newTaskState(String jobId, int sequence) {
+    TaskState taskState = new TaskState();
+    taskState.setJobId(jobId);
+    taskState.setTaskId(JobLauncherUtils.newTaskId(jobId, sequence));
+    taskState.setEndTime(System.currentTimeMillis());
+    return taskState;
+  }
+
+  /**
+   * A {@link FileSystem} whose last created file fails to be written to after a number of bytes.
+   */
+  private static class FailingFileSystem extends FilterFileSystem {
+    private FailingOutputStream out;
+
+    FailingFileSystem(FileSystem fs) {
+      super(fs);
+    }
+
+    @Override
+    public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+        short replication, long blockSize, Progressable progress) throws IOException {
+      this.out = new FailingOutputStream(
+          super.create(f, permission, overwrite, bufferSize, replication, blockSize, progress));
+      return new FSDataOutputStream(this.out, null);
+    }
+  }
+
+  private static class FailingOutputStream extends FilterOutputStream {
+    private long bytesBeforeFailure = Long.MAX_VALUE;
+
+    FailingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (this.bytesBeforeFailure-- <= 0) {
+        throw new IOException("Injected write failure");
+      }
+      super.write(b);
+    }
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     if (this.localFs.exists(this.outputTaskStateDir)) {
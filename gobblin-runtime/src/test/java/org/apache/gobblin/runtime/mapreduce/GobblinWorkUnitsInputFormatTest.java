@@ -20,6 +20,7 @@ package org.apache.gobblin.runtime.mapreduce;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.net.URI;
 import java.util.List;
 import java.util.Set;
@@ -47,6 +48,13 @@ import org.testng.annotations.Test;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.source.workunit.MultiWorkUnit;
+import org.apache.gobblin.source.workunit.WorkUnit;
+import org.apache.gobblin.util.CompactStateFormat;
 
 
 public class GobblinWorkUnitsInputFormatTest {
@@ -175,4 +183,92 @@ public class GobblinWorkUnitsInputFormatTest {
     }
     return statuses;
   }
+
+  @Test
+  public void testGetSplitsWithPackedFiles() throws Exception {
+    File tmpDir = Files.createTempDir();
+    tmpDir.deleteOnExit();
+    Configuration configuration = new Configuration();
+    FileSystem fs = FileSystem.getLocal(configuration);
+    Path workUnitsDir = new Path(tmpDir.getAbsolutePath(), "workUnits");
+
+    // 2 packed files with 7 and 5 work units, the last one of the second file being a multi work unit of 2
+    int taskId = 0;
+    for (int file = 0; file < 2; file++) {
+      Path packedFile = new Path(workUnitsDir, "job_" + file + PackedWorkUnitFile.EXTENSION);
+      try (PackedWorkUnitFile.Writer writer = PackedWorkUnitFile.createWriter(fs, packedFile)) {
+        for (int i = 0; i < (file == 0 ? 7 : 4); i++) {
+          writer.append(createWorkUnit(taskId++));
+        }
+        if (file == 1) {
+          MultiWorkUnit multiWorkUnit = MultiWorkUnit.createEmpty();
+          multiWorkUnit.addWorkUnit(createWorkUnit(taskId++));
+          multiWorkUnit.addWorkUnit(createWorkUnit(taskId++));
+          writer.append(multiWorkUnit);
+        }
+      }
+    }
+
+    GobblinWorkUnitsInputFormat inputFormat = new GobblinWorkUnitsInputFormat();
+    Job job = Job.getInstance(configuration);
+    FileInputFormat.addInputPath(job, workUnitsDir);
+    GobblinWorkUnitsInputFormat.setMaxMappers(job, 3);
+
+    List<InputSplit> splits = inputFormat.getSplits(job);
+    Assert.assertEquals(splits.size(), 3);
+
+    Set<String> taskIds = Sets.newHashSet();
+    for (InputSplit split : splits) {
+      int numWorkUnits = 0;
+      for (String input : ((GobblinWorkUnitsInputFormat.GobblinSplit) split).getPaths()) {
+        Assert.assertTrue(PackedWorkUnitFile.Range.isRange(input));
+        PackedWorkUnitFile.Range range = PackedWorkUnitFile.Range.parse(input);
+        Assert.assertEquals(PackedWorkUnitFile.Range.parse(range.toString()), range);
+        numWorkUnits += range.getCount();
+        for (WorkUnit workUnit : PackedWorkUnitFile.loadFlattenedWorkUnits(fs, range)) {
+          taskIds.add(workUnit.getProp(ConfigurationKeys.TASK_ID_KEY));
+        }
+      }
+      Assert.assertEquals(numWorkUnits, 4);
+    }
+    Assert.assertEquals(taskIds.size(), taskId);
+    Assert.assertFalse(PackedWorkUnitFile.Range.isRange(new Path(workUnitsDir, "task_0.wu").toString()));
+  }
+
+  @Test
+  public void testPackedFileRangesAcrossSegments() throws Exception {
+    File tmpDir = Files.createTempDir();
+    tmpDir.deleteOnExit();
+    FileSystem fs = FileSystem.getLocal(new Configuration());
+    Path packedFile = new Path(tmpDir.getAbsolutePath(), "job_0" + PackedWorkUnitFile.EXTENSION);
+
+    State state = new State();
+    state.setProp(ConfigurationKeys.STATE_SERIALIZATION_COMPACT_ENABLED_KEY, true);
+    state.setProp(ConfigurationKeys.STATE_SERIALIZATION_COMPACT_CODEC_KEY, "deflate");
+    int numWorkUnits = 2 * PackedWorkUnitFile.SEGMENT_SIZE + 50;
+    try (PackedWorkUnitFile.Writer writer =
+        PackedWorkUnitFile.createWriter(fs, packedFile, CompactStateFormat.fromState(state).get())) {
+      for (int i = 0; i < numWorkUnits; i++) {
+        writer.append(createWorkUnit(i));
+      }
+    }
+    Assert.assertEquals(PackedWorkUnitFile.getCount(fs, packedFile), numWorkUnits);
+
+    // A range starting in the middle of a segment and ending in the next one
+    int first = PackedWorkUnitFile.SEGMENT_SIZE + 50;
+    List<WorkUnit> workUnits =
+        PackedWorkUnitFile.loadWorkUnits(fs, new PackedWorkUnitFile.Range(packedFile, first, 60));
+    Assert.assertEquals(workUnits.size(), 60);
+    for (int i = 0; i < workUnits.size(); i++) {
+      Assert.assertEquals(workUnits.get(i).getProp(ConfigurationKeys.TASK_ID_KEY), "task_" + (first + i));
+    }
+    Assert.assertEquals(PackedWorkUnitFile.loadWorkUnits(fs,
+        new PackedWorkUnitFile.Range(packedFile, 0, numWorkUnits)).size(), numWorkUnits);
+  }
+
+  private WorkUnit createWorkUnit(int taskId) {
+    WorkUnit workUnit = WorkUnit.createEmpty();
+    workUnit.setProp(ConfigurationKeys.TASK_ID_KEY, "task_" + taskId);
+    return workUnit;
+  }
 }
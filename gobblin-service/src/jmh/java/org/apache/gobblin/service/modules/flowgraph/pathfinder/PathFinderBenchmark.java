@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.service.modules.flowgraph.pathfinder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.runtime.api.FlowSpec;
+import org.apache.gobblin.runtime.api.JobTemplate;
+import org.apache.gobblin.runtime.api.SpecExecutor;
+import org.apache.gobblin.runtime.spec_executorInstance.InMemorySpecExecutor;
+import org.apache.gobblin.service.ServiceConfigKeys;
+import org.apache.gobblin.service.modules.dataset.DatasetDescriptor;
+import org.apache.gobblin.service.modules.dataset.FSDatasetDescriptor;
+import org.apache.gobblin.service.modules.flow.FlowGraphPath;
+import org.apache.gobblin.service.modules.flowgraph.BaseDataNode;
+import org.apache.gobblin.service.modules.flowgraph.BaseFlowEdge;
+import org.apache.gobblin.service.modules.flowgraph.BaseFlowGraph;
+import org.apache.gobblin.service.modules.flowgraph.DatasetDescriptorConfigKeys;
+import org.apache.gobblin.service.modules.flowgraph.FlowGraphConfigurationKeys;
+import org.apache.gobblin.service.modules.template.FlowTemplate;
+
+
+/**
+ * Measures finding a path in synthetic {@link BaseFlowGraph}s, with and without a {@link FlowGraphPathCache}.
+ *
+ * <p>
+ *   The graphs are made of layers of nodes, with an edge from every node of a layer to every node of the next one.
+ *   All edges accept any dataset, so a path from the first to the last layer takes one hop per layer, and a search
+ *   expands most edges of the graph before reaching the destination.
+ * </p>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1)
+@BenchmarkMode(value = Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PathFinderBenchmark {
+  private static final int NUM_LAYERS = 10;
+
+  @State(value = Scope.Benchmark)
+  public static class FlowGraphState {
+    // Number of nodes per layer, i.e. (NUM_LAYERS - 1) * layerWidth^2 edges
+    @Param({"10", "30"})
+    public int layerWidth;
+
+    @Param({"false", "true"})
+    public boolean pathCacheEnabled;
+
+    private BaseFlowGraph flowGraph;
+    private FlowSpec flowSpec;
+
+    @Setup
+    public void setup() throws Exception {
+      this.flowGraph = new BaseFlowGraph();
+      FlowTemplate flowTemplate = new AnyDatasetFlowTemplate();
+      List<SpecExecutor> specExecutors = Collections.singletonList(new InMemorySpecExecutor(ConfigFactory.empty()));
+      for (int layer = 0; layer < NUM_LAYERS; layer++) {
+        for (int i = 0; i < this.layerWidth; i++) {
+          this.flowGraph.addDataNode(new BaseDataNode(ConfigFactory.parseMap(
+              ImmutableMap.of(FlowGraphConfigurationKeys.DATA_NODE_ID_KEY, getNodeId(layer, i)))));
+        }
+      }
+      for (int layer = 0; layer < NUM_LAYERS - 1; layer++) {
+        for (int i = 0; i < this.layerWidth; i++) {
+          for (int j = 0; j < this.layerWidth; j++) {
+            String src = getNodeId(layer, i);
+            String dest = getNodeId(layer + 1, j);
+            String edgeId = src + "_" + dest;
+            Preconditions.checkState(this.flowGraph.addFlowEdge(new BaseFlowEdge(Lists.newArrayList(src, dest), edgeId,
+                flowTemplate, specExecutors, ConfigFactory.parseMap(ImmutableMap.of(FlowGraphConfigurationKeys.FLOW_EDGE_ID_KEY,
+                edgeId)), true)));
+          }
+        }
+      }
+      if (this.pathCacheEnabled) {
+        this.flowGraph.setPathCache(new FlowGraphPathCache(1000));
+      }
+
+      String datasetDescriptorPrefix = DatasetDescriptorConfigKeys.FLOW_INPUT_DATASET_DESCRIPTOR_PREFIX + ".";
+      String outputDatasetDescriptorPrefix = DatasetDescriptorConfigKeys.FLOW_OUTPUT_DATASET_DESCRIPTOR_PREFIX + ".";
+      Config flowConfig = ConfigFactory.parseMap(ImmutableMap.<String, Object>builder()
+          .put(ConfigurationKeys.FLOW_GROUP_KEY, "benchmarkGroup")
+          .put(ConfigurationKeys.FLOW_NAME_KEY, "benchmarkFlow")
+          .put(ConfigurationKeys.FLOW_APPLY_RETENTION, false)
+          .put(ServiceConfigKeys.FLOW_SOURCE_IDENTIFIER_KEY, getNodeId(0, 0))
+          .put(ServiceConfigKeys.FLOW_DESTINATION_IDENTIFIER_KEY, getNodeId(NUM_LAYERS - 1, this.layerWidth - 1))
+          .put(datasetDescriptorPrefix + DatasetDescriptorConfigKeys.CLASS_KEY, FSDatasetDescriptor.class.getName())
+          .put(datasetDescriptorPrefix + DatasetDescriptorConfigKeys.PLATFORM_KEY, "hdfs")
+          .put(datasetDescriptorPrefix + DatasetDescriptorConfigKeys.PATH_KEY, "/data/benchmark")
+          .put(outputDatasetDescriptorPrefix + DatasetDescriptorConfigKeys.CLASS_KEY, FSDatasetDescriptor.class.getName())
+          .put(outputDatasetDescriptorPrefix + DatasetDescriptorConfigKeys.PLATFORM_KEY, "hdfs")
+          .put(outputDatasetDescriptorPrefix + DatasetDescriptorConfigKeys.PATH_KEY, "/data/benchmark")
+          .build());
+      this.flowSpec = FlowSpec.builder(new URI("/benchmarkGroup/benchmarkFlow")).withConfig(flowConfig)
+          .withVersion(FlowSpec.Builder.DEFAULT_VERSION).withDescription("").build();
+      Preconditions.checkState(this.flowGraph.findPath(this.flowSpec) != null, "No path found");
+    }
+  }
+
+  @Benchmark
+  public FlowGraphPath findPath(FlowGraphState state) throws Exception {
+    return state.flowGraph.findPath(state.flowSpec);
+  }
+
+  private static String getNodeId(int layer, int index) {
+    return "node-" + layer + "-" + index;
+  }
+
+  /**
+   * A {@link FlowTemplate} moving any HDFS dataset, which builds its {@link DatasetDescriptor}s on each call like the
+   * templates loaded from a catalog.
+   */
+  private static class AnyDatasetFlowTemplate implements FlowTemplate {
+    private static final Config DATASET_DESCRIPTOR_CONFIG = ConfigFactory.parseMap(ImmutableMap.of(
+        DatasetDescriptorConfigKeys.CLASS_KEY, FSDatasetDescriptor.class.getName(),
+        DatasetDescriptorConfigKeys.PLATFORM_KEY, "hdfs"));
+
+    @Override
+    public URI getUri() {
+      return URI.create("FS:///benchmark/anyDataset");
+    }
+
+    @Override
+    public String getVersion() {
+      return "1";
+    }
+
+    @Override
+    public String getDescription() {
+      return "Moves any HDFS dataset";
+    }
+
+    @Override
+    public List<JobTemplate> getJobTemplates() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public Config getRawTemplateConfig() {
+      return DATASET_DESCRIPTOR_CONFIG;
+    }
+
+    @Override
+    public List<Pair<DatasetDescriptor, DatasetDescriptor>> getDatasetDescriptors(Config userConfig, boolean resolvable)
+        throws IOException {
+      return Collections.singletonList(Pair.of(new FSDatasetDescriptor(DATASET_DESCRIPTOR_CONFIG),
+          new FSDatasetDescriptor(DATASET_DESCRIPTOR_CONFIG)));
+    }
+
+    @Override
+    public HashMap<String, ArrayList<String>> tryResolving(Config userConfig, DatasetDescriptor inputDescriptor,
+        DatasetDescriptor outputDescriptor) {
+      return new HashMap<>();
+    }
+
+    @Override
+    public List<Config> getResolvedJobConfigs(Config userConfig, DatasetDescriptor inputDescriptor,
+        DatasetDescriptor outputDescriptor) {
+      return Collections.emptyList();
+    }
+  }
+}
@@ -433,6 +433,10 @@ public class GobblinServiceManager implements ApplicationLauncher, StandardMetri
     }
 
     this.eventBus.register(this);
+    if (this.configuration.isJobStatusMonitorEnabled()) {
+      // Job status events are handled by the DagManager when it is active, see DagManager#JOB_STATUS_EVENTS_ENABLED_KEY
+      this.jobStatusMonitor.setEventBus(this.eventBus);
+    }
     this.serviceLauncher.start();
 
     // Wait until spec consumer service is running to set scheduler to active
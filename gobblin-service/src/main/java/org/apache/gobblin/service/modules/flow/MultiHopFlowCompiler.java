@@ -64,6 +64,7 @@ import org.apache.gobblin.service.modules.flowgraph.DataNode;
 import org.apache.gobblin.service.modules.flowgraph.DatasetDescriptorConfigKeys;
 import org.apache.gobblin.service.modules.flowgraph.FlowGraph;
 import org.apache.gobblin.service.modules.flowgraph.FlowGraphMonitor;
+import org.apache.gobblin.service.modules.flowgraph.pathfinder.FlowGraphPathCache;
 import org.apache.gobblin.service.modules.flowgraph.pathfinder.PathFinder;
 import org.apache.gobblin.service.modules.restli.FlowConfigUtils;
 import org.apache.gobblin.service.modules.spec.JobExecutionPlan;
@@ -95,8 +96,13 @@ public class MultiHopFlowCompiler extends BaseFlowToJobSpecCompiler {
 
   private Map<String, String> dataNodeAliasMap = new HashMap<>();
 
+  private final long pathCacheMaxSize;
+
   // a map to hold aliases of data nodes, e.g. gobblin.service.datanode.aliases.map=node1-dev:node1,node1-stg:node1,node1-prod:node1
   public static final String DATA_NODE_ID_TO_ALIAS_MAP = ServiceConfigKeys.GOBBLIN_SERVICE_PREFIX + "datanode.aliases.map";
+  // Max number of paths cached across compilations; paths are not cached if 0
+  public static final String PATH_CACHE_MAX_SIZE = ServiceConfigKeys.GOBBLIN_SERVICE_PREFIX + "flowCompiler.pathCache.maxSize";
+  public static final long DEFAULT_PATH_CACHE_MAX_SIZE = 0L;
 
   public MultiHopFlowCompiler(Config config) {
     this(config, true);
@@ -114,6 +120,8 @@ public class MultiHopFlowCompiler extends BaseFlowToJobSpecCompiler {
     super(config, Optional.absent(), true);
     this.flowGraph = flowGraph;
     this.dataMovementAuthorizer = new NoopDataMovementAuthorizer(config);
+    this.pathCacheMaxSize = ConfigUtils.getLong(config, PATH_CACHE_MAX_SIZE, DEFAULT_PATH_CACHE_MAX_SIZE);
+    setPathCache(flowGraph.get());
   }
 
   public MultiHopFlowCompiler(Config config, Optional<Logger> log, boolean instrumentationEnabled) {
@@ -125,8 +133,10 @@ public class MultiHopFlowCompiler extends BaseFlowToJobSpecCompiler {
     } catch (RuntimeException e) {
       MultiHopFlowCompiler.log.warn("Exception reading data node alias map, ignoring it.", e);
     }
+    this.pathCacheMaxSize = ConfigUtils.getLong(config, PATH_CACHE_MAX_SIZE, DEFAULT_PATH_CACHE_MAX_SIZE);
     // Use atomic reference to avoid partial flowgraph upgrades during path compilation.
     this.flowGraph = new AtomicReference<>(new BaseFlowGraph(dataNodeAliasMap));
+    setPathCache(this.flowGraph.get());
 
     Optional<? extends UpdatableFSFlowTemplateCatalog> flowTemplateCatalog;
     if (config.hasPath(ServiceConfigKeys.TEMPLATE_CATALOGS_FULLY_QUALIFIED_PATH_KEY)
@@ -290,9 +300,32 @@ public class MultiHopFlowCompiler extends BaseFlowToJobSpecCompiler {
   }
 
   public void setFlowGraph(FlowGraph flowGraph) {
+    setFlowGraph(flowGraph, true);
+  }
+
+  /**
+   * Replace the {@link FlowGraph}. Unless the flow templates may have changed, the new {@link FlowGraph} keeps the
+   * cached paths of the current one which are not affected by the differences between the two.
+   * @param flowGraph the new {@link FlowGraph}
+   * @param templatesChanged whether the flow templates may have changed since the current {@link FlowGraph} was built.
+   */
+  public void setFlowGraph(FlowGraph flowGraph, boolean templatesChanged) {
+    FlowGraph currentFlowGraph = this.flowGraph.get();
+    if (!templatesChanged && this.pathCacheMaxSize > 0 && flowGraph instanceof BaseFlowGraph
+        && currentFlowGraph instanceof BaseFlowGraph) {
+      ((BaseFlowGraph) flowGraph).inheritPathCache((BaseFlowGraph) currentFlowGraph);
+    }
+    setPathCache(flowGraph);
     this.flowGraph.set(flowGraph);
   }
 
+  private void setPathCache(FlowGraph flowGraph) {
+    if (this.pathCacheMaxSize > 0 && flowGraph instanceof BaseFlowGraph
+        && !((BaseFlowGraph) flowGraph).getPathCache().isPresent()) {
+      ((BaseFlowGraph) flowGraph).setPathCache(new FlowGraphPathCache(this.pathCacheMaxSize));
+    }
+  }
+
   /**
    * If {@link FlowSpec} has {@link ConfigurationKeys#DATASET_SUBPATHS_KEY}, split it into multiple flowSpecs using a
    * provided base input and base output path to generate multiple source/destination paths.
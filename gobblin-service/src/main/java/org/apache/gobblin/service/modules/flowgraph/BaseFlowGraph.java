@@ -17,18 +17,29 @@
 
 package org.apache.gobblin.service.modules.flowgraph;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.gobblin.annotation.Alpha;
 import org.apache.gobblin.runtime.api.FlowSpec;
 import org.apache.gobblin.service.modules.flow.FlowGraphPath;
+import org.apache.gobblin.service.modules.flowgraph.pathfinder.AbstractPathFinder;
+import org.apache.gobblin.service.modules.flowgraph.pathfinder.FlowGraphPathCache;
 import org.apache.gobblin.service.modules.flowgraph.pathfinder.PathFinder;
 import org.apache.gobblin.util.ConfigUtils;
 import org.apache.gobblin.util.reflection.GobblinConstructorUtils;
@@ -41,6 +52,9 @@ import org.apache.gobblin.util.reflection.GobblinConstructorUtils;
  *   <p>flowEdgeMap - the mapping from a edge label to the {@link FlowEdge} instance</p>
  *
  *   Read/Write Access to the {@link FlowGraph} is synchronized via a {@link ReentrantReadWriteLock}.
+ *
+ *   If a {@link FlowGraphPathCache} is set, the paths found by {@link AbstractPathFinder}s are cached, and every change
+ *   to the {@link FlowGraph} invalidates the cached paths it may affect.
  */
 @Alpha
 @Slf4j
@@ -53,6 +67,9 @@ public class BaseFlowGraph implements FlowGraph {
   private final Map<String, FlowEdge> flowEdgeMap = new HashMap<>();
   private final Map<String, String> dataNodeAliasMap;
 
+  @Getter
+  private volatile Optional<FlowGraphPathCache> pathCache = Optional.absent();
+
   public BaseFlowGraph() {
     this(new HashMap<>());
   }
@@ -86,6 +103,7 @@ public class BaseFlowGraph implements FlowGraph {
       Set<FlowEdge> edges = this.nodesToEdges.getOrDefault(node, new HashSet<>());
       this.nodesToEdges.put(node, edges);
       this.dataNodeMap.put(node.getId(), node);
+      invalidatePaths(ImmutableSet.of(node.getId()), Collections.emptySet());
     } finally {
       rwLock.writeLock().unlock();
     }
@@ -120,6 +138,7 @@ public class BaseFlowGraph implements FlowGraph {
       this.nodesToEdges.put(dataNode, adjacentEdges);
       String edgeId = edge.getId();
       this.flowEdgeMap.put(edgeId, edge);
+      invalidatePaths(Collections.emptySet(), Collections.singleton(edge));
       return true;
     } finally {
       rwLock.writeLock().unlock();
@@ -161,6 +180,7 @@ public class BaseFlowGraph implements FlowGraph {
         flowEdgeMap.remove(edge.getId());
       }
       nodesToEdges.remove(node);
+      invalidatePaths(ImmutableSet.of(node.getId()), Collections.emptySet());
       return true;
 
     } finally {
@@ -201,6 +221,7 @@ public class BaseFlowGraph implements FlowGraph {
       }
       this.nodesToEdges.get(node).remove(edge);
       this.flowEdgeMap.remove(edge.getId());
+      invalidatePaths(Collections.emptySet(), Collections.singleton(edge));
       return true;
     } finally {
       rwLock.writeLock().unlock();
@@ -251,9 +272,73 @@ public class BaseFlowGraph implements FlowGraph {
       PathFinder pathFinder =
           (PathFinder) GobblinConstructorUtils.invokeLongestConstructor(pathFinderClass, this, flowSpec,
               dataNodeAliasMap);
+      if (this.pathCache.isPresent() && pathFinder instanceof AbstractPathFinder) {
+        ((AbstractPathFinder) pathFinder).setPathCache(this.pathCache.get());
+      }
       return pathFinder.findPath();
     } finally {
       rwLock.readLock().unlock();
     }
   }
+
+  public void setPathCache(FlowGraphPathCache pathCache) {
+    this.pathCache = Optional.of(pathCache);
+  }
+
+  /**
+   * Set a {@link FlowGraphPathCache} holding the paths cached for a previous version of this {@link FlowGraph}, except
+   * those affected by the nodes and edges that differ between the two versions. The cache of the previous version is
+   * left untouched, since it may still serve the compilations which started before this version replaced it.
+   */
+  public void inheritPathCache(BaseFlowGraph previousFlowGraph) {
+    if (!previousFlowGraph.getPathCache().isPresent()) {
+      return;
+    }
+    try {
+      previousFlowGraph.rwLock.readLock().lock();
+      rwLock.writeLock().lock();
+      Set<String> changedNodeIds = new HashSet<>();
+      for (String nodeId : Sets.union(previousFlowGraph.dataNodeMap.keySet(), this.dataNodeMap.keySet())) {
+        if (!isSameNode(previousFlowGraph.dataNodeMap.get(nodeId), this.dataNodeMap.get(nodeId))) {
+          changedNodeIds.add(nodeId);
+        }
+      }
+      List<FlowEdge> changedEdges = new ArrayList<>();
+      for (String edgeId : Sets.union(previousFlowGraph.flowEdgeMap.keySet(), this.flowEdgeMap.keySet())) {
+        FlowEdge previousEdge = previousFlowGraph.flowEdgeMap.get(edgeId);
+        FlowEdge edge = this.flowEdgeMap.get(edgeId);
+        if (!isSameEdge(previousEdge, edge)) {
+          changedEdges.add(edge != null ? edge : previousEdge);
+          if (edge != null && previousEdge != null && !previousEdge.getSrc().equals(edge.getSrc())) {
+            changedEdges.add(previousEdge);
+          }
+        }
+      }
+      FlowGraphPathCache cache = previousFlowGraph.getPathCache().get().copy();
+      cache.invalidate(this, changedNodeIds, changedEdges);
+      this.pathCache = Optional.of(cache);
+    } finally {
+      rwLock.writeLock().unlock();
+      previousFlowGraph.rwLock.readLock().unlock();
+    }
+  }
+
+  private void invalidatePaths(Set<String> nodeIds, Set<FlowEdge> edges) {
+    if (this.pathCache.isPresent()) {
+      this.pathCache.get().invalidate(this, nodeIds, edges);
+    }
+  }
+
+  private static boolean isSameNode(DataNode previousNode, DataNode node) {
+    return previousNode != null && node != null && previousNode.getClass().equals(node.getClass())
+        && previousNode.isActive() == node.isActive() && previousNode.getRawConfig().equals(node.getRawConfig());
+  }
+
+  private static boolean isSameEdge(FlowEdge previousEdge, FlowEdge edge) {
+    return previousEdge != null && edge != null && previousEdge.getClass().equals(edge.getClass())
+        && previousEdge.getSrc().equals(edge.getSrc()) && previousEdge.getDest().equals(edge.getDest())
+        && previousEdge.isActive() == edge.isActive() && previousEdge.getConfig().equals(edge.getConfig())
+        && previousEdge.getExecutors().equals(edge.getExecutors())
+        && Objects.equals(previousEdge.getFlowTemplate().getUri(), edge.getFlowTemplate().getUri());
+  }
 }
@@ -98,7 +98,7 @@ public class FSPathAlterationFlowGraphListener implements PathAlterationListener
     }
     FlowGraph newGraph = this.flowGraphHelper.generateFlowGraph();
     if (newGraph != null) {
-      this.compiler.setFlowGraph(newGraph);
+      this.compiler.setFlowGraph(newGraph, this.shouldMonitorTemplateCatalog);
     }
   }
 }
@@ -19,18 +19,24 @@ package org.apache.gobblin.service.modules.flowgraph.pathfinder;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigRenderOptions;
 import com.typesafe.config.ConfigValue;
 import com.typesafe.config.ConfigValueFactory;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -81,6 +87,14 @@ public abstract class AbstractPathFinder implements PathFinder {
   protected FlowSpec flowSpec;
   protected Config flowConfig;
 
+  private Optional<FlowGraphPathCache> pathCache = Optional.absent();
+
+  // Flow config keys identifying a flow or one of its executions, whose values are left out of the fingerprint of the
+  // flow so that the executions and copies of a flow share their cached paths
+  private static final Set<String> FINGERPRINT_EXCLUDED_VALUE_KEYS = ImmutableSet.of(ConfigurationKeys.FLOW_NAME_KEY,
+      ConfigurationKeys.FLOW_GROUP_KEY, ConfigurationKeys.FLOW_DESCRIPTION_KEY, ConfigurationKeys.FLOW_EXECUTION_ID_KEY,
+      ConfigurationKeys.JOB_SCHEDULE_KEY, ConfigurationKeys.FLOW_IS_REMINDER_EVENT_KEY);
+
   AbstractPathFinder(FlowGraph flowGraph, FlowSpec flowSpec) throws ReflectiveOperationException {
     this(flowGraph, flowSpec, new HashMap<>());
   }
@@ -164,6 +178,18 @@ public abstract class AbstractPathFinder implements PathFinder {
     this.destDatasetDescriptor = DatasetDescriptorUtils.constructDatasetDescriptor(destDatasetDescriptorConfig);
   }
 
+  /**
+   * Reuse and record the paths found by this {@link PathFinder} in a {@link FlowGraphPathCache}. Paths are cached by
+   * source and destination {@link DataNode}s and by a fingerprint of the flow made of this {@link PathFinder} class,
+   * the source and destination {@link DatasetDescriptor}s, the whitelisted edges and the keys and values of the flow
+   * config, which determine whether and how the templates of the edges resolve. The values of the keys identifying a
+   * flow or one of its executions, such as its name and execution id, are left out. Since a cached path is expanded
+   * again for each flow, it is always a valid path for the flow, even if edge templates use these values.
+   */
+  public void setPathCache(FlowGraphPathCache pathCache) {
+    this.pathCache = Optional.of(pathCache);
+  }
+
   public static Config getDefaultConfig(DataNode dataNode) {
     Config defaultConfig = ConfigFactory.empty();
 
@@ -199,81 +225,90 @@ public abstract class AbstractPathFinder implements PathFinder {
       if (!edgeIds.isEmpty() && !edgeIds.contains(flowEdge.getId())) {
         continue;
       }
-      try {
-        DataNode edgeDestination = this.flowGraph.getNode(flowEdge.getDest());
-        //Base condition: Skip this FLowEdge, if it is inactive or if the destination of this edge is inactive.
-        if (!edgeDestination.isActive() || !flowEdge.isActive()) {
-          continue;
-        }
+      addEdgeContexts(flowEdge, currentDatasetDescriptor, destDatasetDescriptor, numberOfHops, prioritizedEdgeList);
+    }
+    return prioritizedEdgeList;
+  }
 
-        boolean foundExecutor = false;
-        //Iterate over all executors for this edge. Find the first one that resolves the underlying flow template.
-        for (SpecExecutor specExecutor : flowEdge.getExecutors()) {
-          Config mergedConfig = getMergedConfig(flowEdge);
-          List<Pair<DatasetDescriptor, DatasetDescriptor>> datasetDescriptorPairs =
-              flowEdge.getFlowTemplate().getDatasetDescriptors(mergedConfig, false);
-          for (Pair<DatasetDescriptor, DatasetDescriptor> datasetDescriptorPair : datasetDescriptorPairs) {
-            DatasetDescriptor inputDatasetDescriptor = datasetDescriptorPair.getLeft();
-            DatasetDescriptor outputDatasetDescriptor = datasetDescriptorPair.getRight();
-
-            HashMap<String, ArrayList<String>> errors = flowEdge.getFlowTemplate().tryResolving(mergedConfig, datasetDescriptorPair.getLeft(), datasetDescriptorPair.getRight());
-            HashMap<String, HashMap<String, ArrayList<String>>> edgeErrors = new HashMap<>();
-            HashMap<String, HashMap<String, ArrayList<String>>> templateErrors = new HashMap<>();
-            ObjectMapper mapper = new ObjectMapper();
-            edgeErrors.put(flowEdge.getId(), errors);
-
-            if (errors.size() != 0) {
-              try {
-                flowSpec.addCompilationError(flowEdge.getSrc(), flowEdge.getDest(), mapper.writeValueAsString(edgeErrors));
-              }
-              catch (JsonProcessingException e) {
-                e.printStackTrace();
-              }
-              continue;
-            }
+  /**
+   * Add the {@link FlowEdgeContext}s of a {@link FlowEdge} whose input {@link DatasetDescriptor} is compatible with
+   * currentDatasetDescriptor to a prioritized list, as described in {@link #getNextEdges}.
+   */
+  private void addEdgeContexts(FlowEdge flowEdge, DatasetDescriptor currentDatasetDescriptor,
+      DatasetDescriptor destDatasetDescriptor, int numberOfHops, List<FlowEdgeContext> prioritizedEdgeList) {
+    try {
+      DataNode edgeDestination = this.flowGraph.getNode(flowEdge.getDest());
+      //Base condition: Skip this FLowEdge, if it is inactive or if the destination of this edge is inactive.
+      if (!edgeDestination.isActive() || !flowEdge.isActive()) {
+        return;
+      }
 
-            ArrayList<String> datasetDescriptorErrors = inputDatasetDescriptor.contains(currentDatasetDescriptor);
-            if (datasetDescriptorErrors.size() == 0) {
-              DatasetDescriptor edgeOutputDescriptor = makeOutputDescriptorSpecific(currentDatasetDescriptor, outputDatasetDescriptor);
-              FlowEdgeContext flowEdgeContext = new FlowEdgeContext(flowEdge, currentDatasetDescriptor, edgeOutputDescriptor, mergedConfig,
-                  specExecutor);
-
-              if (destDatasetDescriptor.getFormatConfig().contains(outputDatasetDescriptor.getFormatConfig()).size() == 0) {
-                /*
-                Add to the front of the edge list if platform-independent properties of the output descriptor is compatible
-                with those of destination dataset descriptor.
-                In other words, we prioritize edges that perform data transformations as close to the source as possible.
-                */
-                prioritizedEdgeList.add(0, flowEdgeContext);
-              } else {
-                prioritizedEdgeList.add(flowEdgeContext);
-              }
-              foundExecutor = true;
+      boolean foundExecutor = false;
+      //Iterate over all executors for this edge. Find the first one that resolves the underlying flow template.
+      for (SpecExecutor specExecutor : flowEdge.getExecutors()) {
+        Config mergedConfig = getMergedConfig(flowEdge);
+        List<Pair<DatasetDescriptor, DatasetDescriptor>> datasetDescriptorPairs =
+            flowEdge.getFlowTemplate().getDatasetDescriptors(mergedConfig, false);
+        for (Pair<DatasetDescriptor, DatasetDescriptor> datasetDescriptorPair : datasetDescriptorPairs) {
+          DatasetDescriptor inputDatasetDescriptor = datasetDescriptorPair.getLeft();
+          DatasetDescriptor outputDatasetDescriptor = datasetDescriptorPair.getRight();
+
+          HashMap<String, ArrayList<String>> errors = flowEdge.getFlowTemplate().tryResolving(mergedConfig, datasetDescriptorPair.getLeft(), datasetDescriptorPair.getRight());
+          HashMap<String, HashMap<String, ArrayList<String>>> edgeErrors = new HashMap<>();
+          HashMap<String, HashMap<String, ArrayList<String>>> templateErrors = new HashMap<>();
+          ObjectMapper mapper = new ObjectMapper();
+          edgeErrors.put(flowEdge.getId(), errors);
+
+          if (errors.size() != 0) {
+            try {
+              flowSpec.addCompilationError(flowEdge.getSrc(), flowEdge.getDest(), mapper.writeValueAsString(edgeErrors));
+            }
+            catch (JsonProcessingException e) {
+              e.printStackTrace();
             }
-            else {
-              HashMap<String, ArrayList<String>> templateError = new HashMap<>();
-              templateError.put("flowTemplateErrors", datasetDescriptorErrors);
-              templateErrors.put(flowEdge.getId(), templateError);
-              try {
-                flowSpec.addCompilationError(flowEdge.getSrc(), flowEdge.getDest(), mapper.writeValueAsString(templateErrors), numberOfHops);
-              }
-              catch (JsonProcessingException e) {
-                e.printStackTrace();
-              }
+            continue;
+          }
+
+          ArrayList<String> datasetDescriptorErrors = inputDatasetDescriptor.contains(currentDatasetDescriptor);
+          if (datasetDescriptorErrors.size() == 0) {
+            DatasetDescriptor edgeOutputDescriptor = makeOutputDescriptorSpecific(currentDatasetDescriptor, outputDatasetDescriptor);
+            FlowEdgeContext flowEdgeContext = new FlowEdgeContext(flowEdge, currentDatasetDescriptor, edgeOutputDescriptor, mergedConfig,
+                specExecutor);
+
+            if (destDatasetDescriptor.getFormatConfig().contains(outputDatasetDescriptor.getFormatConfig()).size() == 0) {
+              /*
+              Add to the front of the edge list if platform-independent properties of the output descriptor is compatible
+              with those of destination dataset descriptor.
+              In other words, we prioritize edges that perform data transformations as close to the source as possible.
+              */
+              prioritizedEdgeList.add(0, flowEdgeContext);
+            } else {
+              prioritizedEdgeList.add(flowEdgeContext);
             }
+            foundExecutor = true;
           }
-          // Found a SpecExecutor. Proceed to the next FlowEdge.
-          // TODO: Choose the min-cost executor for the FlowEdge as opposed to the first one that resolves.
-          if (foundExecutor) {
-            break;
+          else {
+            HashMap<String, ArrayList<String>> templateError = new HashMap<>();
+            templateError.put("flowTemplateErrors", datasetDescriptorErrors);
+            templateErrors.put(flowEdge.getId(), templateError);
+            try {
+              flowSpec.addCompilationError(flowEdge.getSrc(), flowEdge.getDest(), mapper.writeValueAsString(templateErrors), numberOfHops);
+            }
+            catch (JsonProcessingException e) {
+              e.printStackTrace();
+            }
           }
         }
-      } catch (IOException | ReflectiveOperationException | SpecNotFoundException | JobTemplate.TemplateException e) {
-        //Skip the edge; and continue
-        log.warn("Skipping edge {} with config {} due to exception: {}", flowEdge.getId(), flowConfig.toString(), e);
+        // Found a SpecExecutor. Proceed to the next FlowEdge.
+        // TODO: Choose the min-cost executor for the FlowEdge as opposed to the first one that resolves.
+        if (foundExecutor) {
+          break;
+        }
       }
+    } catch (IOException | ReflectiveOperationException | SpecNotFoundException | JobTemplate.TemplateException e) {
+      //Skip the edge; and continue
+      log.warn("Skipping edge {} with config {} due to exception: {}", flowEdge.getId(), flowConfig.toString(), e);
     }
-    return prioritizedEdgeList;
   }
 
   /**
@@ -377,7 +412,8 @@ public abstract class AbstractPathFinder implements PathFinder {
     // Path computation must be thread-safe to guarantee read consistency. In other words, we prevent concurrent read/write access to the
     // flow graph.
     for (DataNode destNode : this.destNodes) {
-      List<FlowEdgeContext> path = findPathUnicast(destNode);
+      List<FlowEdgeContext> path = this.pathCache.isPresent() ? findPathUnicastWithCache(destNode)
+          : findPathUnicast(destNode);
       if (path != null) {
         log.info("Path to destination node {} found for flow {}. Path - {}", destNode.getId(), flowSpec.getUri(), path);
         flowGraphPath.addPath(path);
@@ -391,4 +427,84 @@ public abstract class AbstractPathFinder implements PathFinder {
   }
 
   public abstract List<FlowEdgeContext> findPathUnicast(DataNode destNode) throws PathFinderException;
+
+  private List<FlowEdgeContext> findPathUnicastWithCache(DataNode destNode) throws PathFinderException {
+    FlowGraphPathCache.Key key = new FlowGraphPathCache.Key(this.srcNode.getId(), destNode.getId(), getFingerprint());
+    Optional<List<FlowGraphPathCache.Hop>> cachedPath = this.pathCache.get().get(key);
+    if (cachedPath.isPresent()) {
+      List<FlowEdgeContext> path = expandCachedPath(cachedPath.get(), destNode);
+      if (path != null) {
+        return path;
+      }
+      log.info("Cached path to destination node {} does not apply to flow {}, searching for a path", destNode.getId(),
+          this.flowSpec.getUri());
+    }
+    List<FlowEdgeContext> path = findPathUnicast(destNode);
+    if (path != null) {
+      this.pathCache.get().put(key, path);
+    }
+    return path;
+  }
+
+  private String getFingerprint() {
+    ConfigRenderOptions renderOptions = ConfigRenderOptions.concise();
+    return Joiner.on('\n').join(getClass().getName(),
+        this.srcDatasetDescriptor.getRawConfig().root().render(renderOptions),
+        this.destDatasetDescriptor.getRawConfig().root().render(renderOptions),
+        ConfigUtils.getStringList(this.flowConfig, ConfigurationKeys.WHITELISTED_EDGE_IDS),
+        this.flowConfig.entrySet().stream().sorted(Map.Entry.comparingByKey())
+            .map(entry -> FINGERPRINT_EXCLUDED_VALUE_KEYS.contains(entry.getKey()) ? entry.getKey()
+                : entry.getKey() + "=" + entry.getValue().render(renderOptions))
+            .collect(Collectors.joining(",")));
+  }
+
+  /**
+   * Expand the {@link FlowEdge}s of a cached path for this flow.
+   * @return the path, or null if one of its edges is missing, inactive or does not produce the same output
+   * {@link DatasetDescriptor} for this flow anymore.
+   */
+  private List<FlowEdgeContext> expandCachedPath(List<FlowGraphPathCache.Hop> hops, DataNode destNode) {
+    if (!this.srcNode.isActive() || !destNode.isActive()) {
+      return null;
+    }
+    List<FlowEdgeContext> path = new ArrayList<>(hops.size());
+    DatasetDescriptor currentDatasetDescriptor = this.srcDatasetDescriptor;
+    for (FlowGraphPathCache.Hop hop : hops) {
+      FlowEdge flowEdge = getEdge(hop.getSrcNodeId(), hop.getEdgeId());
+      if (flowEdge == null || this.flowGraph.getNode(flowEdge.getDest()) == null) {
+        return null;
+      }
+      List<FlowEdgeContext> flowEdgeContexts = new LinkedList<>();
+      addEdgeContexts(flowEdge, currentDatasetDescriptor, this.destDatasetDescriptor, path.size() + 1, flowEdgeContexts);
+      FlowEdgeContext flowEdgeContext = getFlowEdgeContext(flowEdgeContexts, hop.getOutputDatasetDescriptor());
+      if (flowEdgeContext == null) {
+        return null;
+      }
+      path.add(flowEdgeContext);
+      currentDatasetDescriptor = flowEdgeContext.getOutputDatasetDescriptor();
+    }
+    return path;
+  }
+
+  private static FlowEdgeContext getFlowEdgeContext(List<FlowEdgeContext> flowEdgeContexts,
+      DatasetDescriptor outputDatasetDescriptor) {
+    for (FlowEdgeContext flowEdgeContext : flowEdgeContexts) {
+      if (flowEdgeContext.getOutputDatasetDescriptor().equals(outputDatasetDescriptor)) {
+        return flowEdgeContext;
+      }
+    }
+    return null;
+  }
+
+  private FlowEdge getEdge(String srcNodeId, String edgeId) {
+    Collection<FlowEdge> edges = this.flowGraph.getEdges(srcNodeId);
+    if (edges != null) {
+      for (FlowEdge edge : edges) {
+        if (edge.getId().equals(edgeId)) {
+          return edge;
+        }
+      }
+    }
+    return null;
+  }
 }
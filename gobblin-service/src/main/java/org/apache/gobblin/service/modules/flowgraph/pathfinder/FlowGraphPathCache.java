@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.service.modules.flowgraph.pathfinder;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.gobblin.annotation.Alpha;
+import org.apache.gobblin.service.modules.dataset.DatasetDescriptor;
+import org.apache.gobblin.service.modules.flow.FlowEdgeContext;
+import org.apache.gobblin.service.modules.flowgraph.FlowEdge;
+import org.apache.gobblin.service.modules.flowgraph.FlowGraph;
+
+
+/**
+ * A bounded cache of the paths computed by an {@link AbstractPathFinder} on a {@link FlowGraph}, keyed by the source
+ * and destination {@link org.apache.gobblin.service.modules.flowgraph.DataNode}s and a fingerprint of the flow (see
+ * {@link AbstractPathFinder}). A cached path only records its {@link FlowEdge}s and the output
+ * {@link DatasetDescriptor} of each hop: on a hit, the path finder expands these edges again for the flow instead of
+ * searching the whole graph, and falls back to a search if any of them does not apply anymore.
+ *
+ * <p>
+ *   When the flow graph changes, {@link #invalidate(FlowGraph, Set, Collection)} only drops the paths the change may
+ *   affect: the paths going through a changed {@link org.apache.gobblin.service.modules.flowgraph.DataNode} or
+ *   {@link FlowEdge}, and the paths that a new or changed node or edge close enough to their source could shorten.
+ * </p>
+ */
+@Alpha
+@Slf4j
+public class FlowGraphPathCache {
+  private final long maxSize;
+  private final Cache<Key, List<Hop>> paths;
+
+  public FlowGraphPathCache(long maxSize) {
+    this.maxSize = maxSize;
+    this.paths = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+  }
+
+  Optional<List<Hop>> get(Key key) {
+    return Optional.fromNullable(this.paths.getIfPresent(key));
+  }
+
+  void put(Key key, List<FlowEdgeContext> path) {
+    this.paths.put(key, ImmutableList.copyOf(Lists.transform(path, Hop::new)));
+  }
+
+  public long size() {
+    return this.paths.size();
+  }
+
+  public CacheStats getStats() {
+    return this.paths.stats();
+  }
+
+  /**
+   * @return a new cache with the paths of this cache.
+   */
+  public FlowGraphPathCache copy() {
+    FlowGraphPathCache copy = new FlowGraphPathCache(this.maxSize);
+    copy.paths.putAll(this.paths.asMap());
+    return copy;
+  }
+
+  public void invalidateAll() {
+    this.paths.invalidateAll();
+  }
+
+  /**
+   * Drop the paths that may be affected by added, changed or removed nodes and edges of a {@link FlowGraph}. A path
+   * of n hops is dropped if one of the nodes is at most n hops away from its source, or if the source of one of the
+   * edges is at most n - 1 hops away from its source, which includes all the nodes and edges of the path itself.
+   * @param flowGraph the {@link FlowGraph} after the change.
+   * @param nodeIds the identifiers of the added, changed or removed nodes.
+   * @param edges the added, changed or removed edges.
+   */
+  public void invalidate(FlowGraph flowGraph, Set<String> nodeIds, Collection<FlowEdge> edges) {
+    if (nodeIds.isEmpty() && edges.isEmpty()) {
+      return;
+    }
+    Set<String> edgeIds = edges.stream().map(FlowEdge::getId).collect(Collectors.toSet());
+    int numInvalidated = 0;
+    for (Map.Entry<Key, List<Hop>> entry : this.paths.asMap().entrySet()) {
+      if (isAffected(flowGraph, entry.getKey(), entry.getValue(), nodeIds, edges, edgeIds)) {
+        this.paths.invalidate(entry.getKey());
+        numInvalidated++;
+      }
+    }
+    log.info("Invalidated {} cached paths for {} changed nodes and {} changed edges", numInvalidated, nodeIds.size(),
+        edges.size());
+  }
+
+  private static boolean isAffected(FlowGraph flowGraph, Key key, List<Hop> hops, Set<String> nodeIds,
+      Collection<FlowEdge> edges, Set<String> edgeIds) {
+    if (nodeIds.contains(key.getSrcNodeId())) {
+      return true;
+    }
+    for (Hop hop : hops) {
+      if (edgeIds.contains(hop.getEdgeId()) || nodeIds.contains(hop.getDestNodeId())) {
+        return true;
+      }
+    }
+    Map<String, Integer> distances = getDistances(flowGraph, key.getSrcNodeId(), hops.size());
+    for (String nodeId : nodeIds) {
+      if (distances.containsKey(nodeId)) {
+        return true;
+      }
+    }
+    for (FlowEdge edge : edges) {
+      Integer distance = distances.get(edge.getSrc());
+      if (distance != null && distance < hops.size()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the number of hops from the source node to the nodes at most maxDistance hops away from it, regardless of
+   * whether nodes and edges are active or usable for any particular flow.
+   */
+  private static Map<String, Integer> getDistances(FlowGraph flowGraph, String srcNodeId, int maxDistance) {
+    Map<String, Integer> distances = new HashMap<>();
+    Queue<String> queue = new ArrayDeque<>();
+    distances.put(srcNodeId, 0);
+    queue.add(srcNodeId);
+    while (!queue.isEmpty()) {
+      String nodeId = queue.poll();
+      int distance = distances.get(nodeId);
+      Collection<FlowEdge> edges = distance < maxDistance ? flowGraph.getEdges(nodeId) : null;
+      if (edges == null) {
+        continue;
+      }
+      for (FlowEdge edge : edges) {
+        if (!distances.containsKey(edge.getDest())) {
+          distances.put(edge.getDest(), distance + 1);
+          queue.add(edge.getDest());
+        }
+      }
+    }
+    return distances;
+  }
+
+  @AllArgsConstructor
+  @Data
+  static class Key {
+    private final String srcNodeId;
+    private final String destNodeId;
+    private final String fingerprint;
+  }
+
+  /**
+   * A {@link FlowEdge} of a cached path, with the output {@link DatasetDescriptor} it had in the path.
+   */
+  @Getter
+  static class Hop {
+    private final String edgeId;
+    private final String srcNodeId;
+    private final String destNodeId;
+    private final DatasetDescriptor outputDatasetDescriptor;
+
+    Hop(FlowEdgeContext flowEdgeContext) {
+      this.edgeId = flowEdgeContext.getEdge().getId();
+      this.srcNodeId = flowEdgeContext.getEdge().getSrc();
+      this.destNodeId = flowEdgeContext.getEdge().getDest();
+      this.outputDatasetDescriptor = flowEdgeContext.getOutputDatasetDescriptor();
+    }
+  }
+}
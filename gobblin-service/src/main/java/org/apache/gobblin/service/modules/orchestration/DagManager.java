@@ -20,6 +20,7 @@ package org.apache.gobblin.service.modules.orchestration;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -80,6 +81,7 @@ import org.apache.gobblin.service.modules.flowgraph.Dag.DagNode;
 import org.apache.gobblin.service.modules.spec.JobExecutionPlan;
 import org.apache.gobblin.service.monitoring.FlowStatusGenerator;
 import org.apache.gobblin.service.monitoring.JobStatus;
+import org.apache.gobblin.service.monitoring.JobStatusEvent;
 import org.apache.gobblin.service.monitoring.JobStatusRetriever;
 import org.apache.gobblin.service.monitoring.KillFlowEvent;
 import org.apache.gobblin.service.monitoring.ResumeFlowEvent;
@@ -108,6 +110,12 @@ import static org.apache.gobblin.service.ExecutionStatus.*;
  * for this flow. We need separate {@link BlockingQueue}s for each {@link DagManagerThread} because
  * cancellation needs the information which is stored only in the same {@link DagManagerThread}.
  *
+ * If {@link #JOB_STATUS_EVENTS_ENABLED_KEY} is set, the {@link DagManagerThread}s do not poll the {@link JobStatus}es of
+ * all running jobs at every run. Instead, the {@link JobStatusEvent}s posted by the
+ * {@link org.apache.gobblin.service.monitoring.KafkaJobStatusMonitor} are forwarded to the {@link DagManagerThread} of
+ * the flow, which polls the statuses of the jobs of that flow only, and all running jobs are polled at a longer
+ * interval in case an event is missed, e.g. because it was consumed by another instance.
+ *
  * The {@link DagManager} is active only in the leader mode. To ensure, each {@link Dag} managed by a {@link DagManager} is
  * checkpointed to a persistent location. On start up or leadership change,
  * the {@link DagManager} loads all the checkpointed {@link Dag}s and adds them to the {@link  BlockingQueue}.
@@ -139,6 +147,15 @@ public class DagManager extends AbstractIdleService {
   // Default job start SLA time if configured, measured in minutes. Default is 10 minutes
   private static final String JOB_START_SLA_TIME = DAG_MANAGER_PREFIX + ConfigurationKeys.GOBBLIN_JOB_START_SLA_TIME;
   private static final String JOB_START_SLA_UNITS = DAG_MANAGER_PREFIX + ConfigurationKeys.GOBBLIN_JOB_START_SLA_TIME_UNIT;
+  public static final String DAG_ADVANCE_LATENCY = ServiceMetricNames.GOBBLIN_SERVICE_PREFIX_WITH_DELIMITER + "dagManager.dagAdvanceLatency-%s";
+  // Advance dags on the job status events of the job status monitor instead of polling all running jobs
+  public static final String JOB_STATUS_EVENTS_ENABLED_KEY = DAG_MANAGER_PREFIX + "jobStatusEvents.enabled";
+  // How often the DagManagerThreads process the events in event-driven mode
+  public static final String JOB_STATUS_EVENTS_POLLING_INTERVAL_MILLIS_KEY = DAG_MANAGER_PREFIX + "jobStatusEvents.pollingIntervalMillis";
+  private static final long DEFAULT_JOB_STATUS_EVENTS_POLLING_INTERVAL_MILLIS = 1000L;
+  // How often all running jobs are still polled in event-driven mode, in seconds. SLAs are only checked then
+  public static final String JOB_STATUS_EVENTS_FULL_POLLING_INTERVAL_KEY = DAG_MANAGER_PREFIX + "jobStatusEvents.fullPollingInterval";
+  private static final int DEFAULT_JOB_STATUS_EVENTS_FULL_POLLING_INTERVAL = 60;
   private static final int MAX_HOUSEKEEPING_THREAD_DELAY = 180;
   private static final int INITIAL_HOUSEKEEPING_THREAD_DELAY = 2;
   /**
@@ -191,6 +208,7 @@ public class DagManager extends AbstractIdleService {
   private final BlockingQueue<Dag<JobExecutionPlan>>[] runQueue;
   private final BlockingQueue<DagId>[] cancelQueue;
   private final BlockingQueue<DagId>[] resumeQueue;
+  private final BlockingQueue<JobStatusEvent>[] jobStatusEventQueue;
   DagManagerThread[] dagManagerThreads;
 
   private final ScheduledExecutorService scheduledExecutorPool;
@@ -203,6 +221,9 @@ public class DagManager extends AbstractIdleService {
   private final Integer numThreads;
   private final Integer pollingInterval;
   private final Integer retentionPollingInterval;
+  private final boolean jobStatusEventsEnabled;
+  private final long jobStatusEventsPollingIntervalMillis;
+  private final long fullPollingIntervalMillis;
   protected final Long defaultJobStartSlaTimeMillis;
   @Getter
   private final JobStatusRetriever jobStatusRetriever;
@@ -228,9 +249,15 @@ public class DagManager extends AbstractIdleService {
     this.runQueue = (BlockingQueue<Dag<JobExecutionPlan>>[]) initializeDagQueue(this.numThreads);
     this.cancelQueue = (BlockingQueue<DagId>[]) initializeDagQueue(this.numThreads);
     this.resumeQueue = (BlockingQueue<DagId>[]) initializeDagQueue(this.numThreads);
+    this.jobStatusEventQueue = (BlockingQueue<JobStatusEvent>[]) initializeDagQueue(this.numThreads);
     this.scheduledExecutorPool = Executors.newScheduledThreadPool(numThreads);
     this.pollingInterval = ConfigUtils.getInt(config, JOB_STATUS_POLLING_INTERVAL_KEY, DEFAULT_JOB_STATUS_POLLING_INTERVAL);
     this.retentionPollingInterval = ConfigUtils.getInt(config, FAILED_DAG_POLLING_INTERVAL, DEFAULT_FAILED_DAG_POLLING_INTERVAL);
+    this.jobStatusEventsEnabled = ConfigUtils.getBoolean(config, JOB_STATUS_EVENTS_ENABLED_KEY, false);
+    this.jobStatusEventsPollingIntervalMillis = ConfigUtils.getLong(config, JOB_STATUS_EVENTS_POLLING_INTERVAL_MILLIS_KEY,
+        DEFAULT_JOB_STATUS_EVENTS_POLLING_INTERVAL_MILLIS);
+    this.fullPollingIntervalMillis = TimeUnit.SECONDS.toMillis(
+        ConfigUtils.getInt(config, JOB_STATUS_EVENTS_FULL_POLLING_INTERVAL_KEY, DEFAULT_JOB_STATUS_EVENTS_FULL_POLLING_INTERVAL));
     MetricContext metricContext = Instrumented.getMetricContext(ConfigUtils.configToState(ConfigFactory.empty()), getClass());
     this.eventSubmitter = new EventSubmitter.Builder(metricContext, "org.apache.gobblin.service").build();
     this.dagManagerMetrics = new DagManagerMetrics();
@@ -390,6 +417,19 @@ public class DagManager extends AbstractIdleService {
     handleResumeFlowRequest(resumeFlowEvent.getFlowGroup(), resumeFlowEvent.getFlowName(), resumeFlowEvent.getFlowExecutionId());
   }
 
+  /**
+   * Forward a {@link JobStatusEvent} to the {@link DagManagerThread} of its flow in event-driven mode.
+   */
+  @Subscribe
+  public void handleJobStatusEvent(JobStatusEvent jobStatusEvent) {
+    if (isActive && this.jobStatusEventsEnabled) {
+      int queueId = DagManagerUtils.getDagQueueId(jobStatusEvent.getFlowExecutionId(), this.numThreads);
+      if (!this.jobStatusEventQueue[queueId].offer(jobStatusEvent)) {
+        log.warn("Could not add job status event {} to queue", jobStatusEvent);
+      }
+    }
+  }
+
   public synchronized void setTopologySpecMap(Map<URI, TopologySpec> topologySpecMap) {
     this.topologySpecMap = topologySpecMap;
   }
@@ -427,10 +467,17 @@ public class DagManager extends AbstractIdleService {
         this.dagManagerThreads = new DagManagerThread[numThreads];
         for (int i = 0; i < numThreads; i++) {
           DagManagerThread dagManagerThread = new DagManagerThread(jobStatusRetriever, dagStateStore, failedDagStateStore, dagActionStore,
-              runQueue[i], cancelQueue[i], resumeQueue[i], failedDagIds, this.dagManagerMetrics,
-              this.defaultJobStartSlaTimeMillis, quotaManager, i);
+              runQueue[i], cancelQueue[i], resumeQueue[i],
+              this.jobStatusEventsEnabled ? Optional.of(jobStatusEventQueue[i]) : Optional.absent(),
+              failedDagIds, this.dagManagerMetrics, this.defaultJobStartSlaTimeMillis, this.fullPollingIntervalMillis,
+              quotaManager, i);
           this.dagManagerThreads[i] = dagManagerThread;
-          this.scheduledExecutorPool.scheduleAtFixedRate(dagManagerThread, 0, this.pollingInterval, TimeUnit.SECONDS);
+          if (this.jobStatusEventsEnabled) {
+            this.scheduledExecutorPool.scheduleAtFixedRate(dagManagerThread, 0, this.jobStatusEventsPollingIntervalMillis,
+                TimeUnit.MILLISECONDS);
+          } else {
+            this.scheduledExecutorPool.scheduleAtFixedRate(dagManagerThread, 0, this.pollingInterval, TimeUnit.SECONDS);
+          }
         }
         FailedDagRetentionThread failedDagRetentionThread = new FailedDagRetentionThread(failedDagStateStore, failedDagIds, failedDagRetentionTime);
         this.scheduledExecutorPool.scheduleAtFixedRate(failedDagRetentionThread, 0, retentionPollingInterval, TimeUnit.MINUTES);
@@ -487,6 +534,8 @@ public class DagManager extends AbstractIdleService {
    *   are part of the dequed {@link Dag} will be managed this thread. </li>
    *   <li> Polls the job status store for the current job statuses of all the running jobs it manages.</li>
    * </ol>
+   * With a {@link JobStatusEvent} queue, the second step polls only the jobs of the dags that received an event since
+   * the last run, except every full polling interval.
    */
   public static class DagManagerThread implements Runnable {
     private final Map<DagNode<JobExecutionPlan>, Dag<JobExecutionPlan>> jobToDag = new HashMap<>();
@@ -512,6 +561,14 @@ public class DagManager extends AbstractIdleService {
     private final Long defaultJobStartSlaTimeMillis;
     private final Optional<DagActionStore> dagActionStore;
     private final Meter dagManagerThreadHeartbeat;
+    private final Timer dagAdvanceLatencyTimer;
+    private final Optional<BlockingQueue<JobStatusEvent>> jobStatusEventQueue;
+    private final long fullPollingIntervalMillis;
+    private long nextFullPollTimeMillis = 0L;
+    // Whether the current run polls all running jobs, or only those of the dags with job status events
+    private boolean fullPoll = true;
+    private final Set<String> dagIdsWithStatusEvents = new HashSet<>();
+
     /**
      * Constructor.
      */
@@ -519,6 +576,19 @@ public class DagManager extends AbstractIdleService {
         Optional<DagActionStore> dagActionStore, BlockingQueue<Dag<JobExecutionPlan>> queue, BlockingQueue<DagId> cancelQueue,
         BlockingQueue<DagId> resumeQueue, Set<String> failedDagIds, DagManagerMetrics dagManagerMetrics,
         Long defaultJobStartSla, UserQuotaManager quotaManager, int dagMangerThreadId) {
+      this(jobStatusRetriever, dagStateStore, failedDagStateStore, dagActionStore, queue, cancelQueue, resumeQueue,
+          Optional.absent(), failedDagIds, dagManagerMetrics, defaultJobStartSla, 0L, quotaManager, dagMangerThreadId);
+    }
+
+    /**
+     * Constructor of a thread which only polls the jobs of the dags with {@link JobStatusEvent}s from the given queue,
+     * and all running jobs every full polling interval.
+     */
+    DagManagerThread(JobStatusRetriever jobStatusRetriever, DagStateStore dagStateStore, DagStateStore failedDagStateStore,
+        Optional<DagActionStore> dagActionStore, BlockingQueue<Dag<JobExecutionPlan>> queue, BlockingQueue<DagId> cancelQueue,
+        BlockingQueue<DagId> resumeQueue, Optional<BlockingQueue<JobStatusEvent>> jobStatusEventQueue,
+        Set<String> failedDagIds, DagManagerMetrics dagManagerMetrics, Long defaultJobStartSla,
+        long fullPollingIntervalMillis, UserQuotaManager quotaManager, int dagMangerThreadId) {
       this.jobStatusRetriever = jobStatusRetriever;
       this.dagStateStore = dagStateStore;
       this.failedDagStateStore = failedDagStateStore;
@@ -526,6 +596,8 @@ public class DagManager extends AbstractIdleService {
       this.queue = queue;
       this.cancelQueue = cancelQueue;
       this.resumeQueue = resumeQueue;
+      this.jobStatusEventQueue = jobStatusEventQueue;
+      this.fullPollingIntervalMillis = fullPollingIntervalMillis;
       this.dagManagerMetrics = dagManagerMetrics;
       this.defaultJobStartSlaTimeMillis = defaultJobStartSla;
       this.quotaManager = quotaManager;
@@ -537,6 +609,7 @@ public class DagManager extends AbstractIdleService {
           orchestrationDelay::get);
       this.metricContext.register(orchestrationDelayMetric);
       this.dagManagerThreadHeartbeat = this.metricContext.contextAwareMeter(String.format(DAG_MANAGER_HEARTBEAT, dagMangerThreadId));
+      this.dagAdvanceLatencyTimer = this.metricContext.timer(String.format(DAG_ADVANCE_LATENCY, dagMangerThreadId));
     }
 
     /**
@@ -572,6 +645,8 @@ public class DagManager extends AbstractIdleService {
           beginResumingDag(dagId);
         }
 
+        collectJobStatusEvents();
+
         finishResumingDags();
 
         log.debug("Polling job statuses..");
@@ -588,6 +663,29 @@ public class DagManager extends AbstractIdleService {
       }
     }
 
+    /**
+     * Decide whether this run polls all running jobs and collect the dags with new {@link JobStatusEvent}s.
+     */
+    private void collectJobStatusEvents() {
+      this.dagIdsWithStatusEvents.clear();
+      long currentTime = System.currentTimeMillis();
+      this.fullPoll = !this.jobStatusEventQueue.isPresent() || currentTime >= this.nextFullPollTimeMillis;
+      if (this.fullPoll) {
+        this.nextFullPollTimeMillis = currentTime + this.fullPollingIntervalMillis;
+      }
+      if (this.jobStatusEventQueue.isPresent()) {
+        JobStatusEvent event;
+        while ((event = this.jobStatusEventQueue.get().poll()) != null) {
+          this.dagIdsWithStatusEvents.add(DagManagerUtils.generateDagId(event.getFlowGroup(), event.getFlowName(),
+              event.getFlowExecutionId()).toString());
+        }
+      }
+    }
+
+    private boolean shouldPollDag(String dagId) {
+      return this.fullPoll || this.dagIdsWithStatusEvents.contains(dagId);
+    }
+
     private void removeDagActionFromStore(DagId dagId, DagActionStore.FlowActionType flowActionType) throws IOException {
       if (this.dagActionStore.isPresent()) {
         this.dagActionStore.get().deleteDagAction(
@@ -643,6 +741,9 @@ public class DagManager extends AbstractIdleService {
      */
     private void finishResumingDags() throws IOException {
       for (Map.Entry<String, Dag<JobExecutionPlan>> dag : this.resumingDags.entrySet()) {
+        if (!shouldPollDag(dag.getKey())) {
+          continue;
+        }
         java.util.Optional<JobStatus> flowStatus = DagManagerUtils.pollFlowStatus(dag.getValue(), this.jobStatusRetriever, this.jobStatusPolledTimer);
         if (!flowStatus.filter(fs -> fs.getEventName().equals(PENDING_RESUME.name())).isPresent()) {
           continue;
@@ -780,7 +881,19 @@ public class DagManager extends AbstractIdleService {
       Map<String, Set<DagNode<JobExecutionPlan>>> nextSubmitted = Maps.newHashMap();
       List<DagNode<JobExecutionPlan>> nodesToCleanUp = Lists.newArrayList();
 
-      for (DagNode<JobExecutionPlan> node : this.jobToDag.keySet()) {
+      Collection<DagNode<JobExecutionPlan>> nodesToPoll;
+      if (this.fullPoll) {
+        nodesToPoll = this.jobToDag.keySet();
+      } else {
+        nodesToPoll = new ArrayList<>();
+        for (String dagId : this.dagIdsWithStatusEvents) {
+          if (this.dagToJobs.containsKey(dagId)) {
+            nodesToPoll.addAll(this.dagToJobs.get(dagId));
+          }
+        }
+      }
+
+      for (DagNode<JobExecutionPlan> node : nodesToPoll) {
         try {
           boolean slaKilled = slaKillIfNeeded(node);
 
@@ -792,6 +905,13 @@ public class DagManager extends AbstractIdleService {
 
           JobExecutionPlan jobExecutionPlan = DagManagerUtils.getJobExecutionPlan(node);
 
+          if (FlowStatusGenerator.FINISHED_STATUSES.contains(status.name()) && jobStatus.isPresent()
+              && jobStatus.get().getEndTime() > 0) {
+            // Time from the end of the job until the dag advances past it
+            this.dagAdvanceLatencyTimer.update(Math.max(0L, System.currentTimeMillis() - jobStatus.get().getEndTime()),
+                TimeUnit.MILLISECONDS);
+          }
+
           switch (status) {
             case COMPLETE:
               jobExecutionPlan.setExecutionStatus(COMPLETE);
@@ -1109,6 +1229,9 @@ public class DagManager extends AbstractIdleService {
       // Only clean up dags after the job status monitor processed the flow event
       for (Iterator<String> dagIdIterator = this.dagIdstoClean.iterator(); dagIdIterator.hasNext();) {
         String dagId = dagIdIterator.next();
+        if (!shouldPollDag(dagId)) {
+          continue;
+        }
         Dag<JobExecutionPlan> dag = this.dags.get(dagId);
         java.util.Optional<JobStatus> flowStatus = DagManagerUtils.pollFlowStatus(dag, this.jobStatusRetriever, this.jobStatusPolledTimer);
         if (flowStatus.filter(fs -> FlowStatusGenerator.FINISHED_STATUSES.contains(fs.getEventName())).isPresent()) {
@@ -105,7 +105,8 @@ public class GitFlowGraphMonitor extends GitMonitoringService implements FlowGra
       throws GitAPIException, IOException {
     // Pulls repository to latest and grabs changes
     List<DiffEntry> changes = this.gitRepo.getChanges();
-    if (flowTemplateCatalog.isPresent() && flowTemplateCatalog.get().getAndSetShouldRefreshFlowGraph(false)) {
+    boolean templatesChanged = flowTemplateCatalog.isPresent() && flowTemplateCatalog.get().getAndSetShouldRefreshFlowGraph(false);
+    if (templatesChanged) {
       log.info("Change to template catalog detected, refreshing FlowGraph");
       this.gitRepo.initRepository();
     } else if (changes.isEmpty()) {
@@ -115,7 +116,7 @@ public class GitFlowGraphMonitor extends GitMonitoringService implements FlowGra
 
     FlowGraph newGraph = this.flowGraphHelper.generateFlowGraph();
     if (newGraph != null) {
-      this.multihopFlowCompiler.setFlowGraph(newGraph);
+      this.multihopFlowCompiler.setFlowGraph(newGraph, templatesChanged);
     }
     // Noop if flowgraph is already initialized
     this.initComplete.countDown();
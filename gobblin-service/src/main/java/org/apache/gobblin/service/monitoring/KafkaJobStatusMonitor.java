@@ -37,6 +37,8 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.eventbus.EventBus;
+import com.google.common.primitives.Longs;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
@@ -109,6 +111,7 @@ public abstract class KafkaJobStatusMonitor extends HighLevelConsumer<byte[], by
   private final JobIssueEventHandler jobIssueEventHandler;
   private final Retryer<Void> persistJobStatusRetryer;
   private final GaaSObservabilityEventProducer eventProducer;
+  private volatile EventBus eventBus;
 
 
   public KafkaJobStatusMonitor(String topic, Config config, int numThreads, JobIssueEventHandler jobIssueEventHandler,
@@ -165,6 +168,14 @@ public abstract class KafkaJobStatusMonitor extends HighLevelConsumer<byte[], by
      }
   }
 
+  /**
+   * Post a {@link JobStatusEvent} to the given {@link EventBus} whenever a job status is persisted, so that the
+   * {@link org.apache.gobblin.service.modules.orchestration.DagManager} does not need to poll for it.
+   */
+  public void setEventBus(EventBus eventBus) {
+    this.eventBus = eventBus;
+  }
+
   @Override
   protected void createMetrics() {
     super.createMetrics();
@@ -192,6 +203,7 @@ public abstract class KafkaJobStatusMonitor extends HighLevelConsumer<byte[], by
           try (Timer.Context context = getMetricContext().timer(GET_AND_SET_JOB_STATUS).time()) {
             addJobStatusToStateStore(jobStatus, this.stateStore, this.eventProducer);
           }
+          postJobStatusEvent(jobStatus);
         }
         return null;
       });
@@ -213,6 +225,18 @@ public abstract class KafkaJobStatusMonitor extends HighLevelConsumer<byte[], by
     }
   }
 
+  private void postJobStatusEvent(org.apache.gobblin.configuration.State jobStatus) {
+    EventBus eventBus = this.eventBus;
+    Long flowExecutionId = Longs.tryParse(jobStatus.getProp(TimingEvent.FlowEventConstants.FLOW_EXECUTION_ID_FIELD, ""));
+    if (eventBus != null && flowExecutionId != null) {
+      eventBus.post(new JobStatusEvent(jobStatus.getProp(TimingEvent.FlowEventConstants.FLOW_GROUP_FIELD),
+          jobStatus.getProp(TimingEvent.FlowEventConstants.FLOW_NAME_FIELD), flowExecutionId,
+          jobStatus.getProp(TimingEvent.FlowEventConstants.JOB_GROUP_FIELD),
+          jobStatus.getProp(TimingEvent.FlowEventConstants.JOB_NAME_FIELD),
+          jobStatus.getProp(JobStatusRetriever.EVENT_NAME_FIELD)));
+    }
+  }
+
   /**
    * Persist job status to the underlying {@link StateStore}.
    * It fills missing fields in job status and also merge the fields with the
@@ -55,6 +55,7 @@ import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.typesafe.config.ConfigParseOptions;
 import com.typesafe.config.ConfigSyntax;
+import com.typesafe.config.ConfigValueFactory;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -76,6 +77,7 @@ import org.apache.gobblin.service.modules.flowgraph.FlowEdge;
 import org.apache.gobblin.service.modules.flowgraph.FlowEdgeFactory;
 import org.apache.gobblin.service.modules.flowgraph.FlowGraph;
 import org.apache.gobblin.service.modules.flowgraph.FlowGraphConfigurationKeys;
+import org.apache.gobblin.service.modules.flowgraph.pathfinder.FlowGraphPathCache;
 import org.apache.gobblin.service.modules.orchestration.AzkabanProjectConfig;
 import org.apache.gobblin.service.modules.spec.JobExecutionPlan;
 import org.apache.gobblin.service.modules.template_catalog.FSFlowTemplateCatalog;
@@ -94,8 +96,21 @@ public class MultiHopFlowCompilerTest {
   @BeforeClass
   public void setUp()
       throws URISyntaxException, IOException, ReflectiveOperationException, FlowEdgeFactory.FlowEdgeCreationException {
+    this.flowGraph = new AtomicReference<>(buildFlowGraph());
+    this.specCompiler = new MultiHopFlowCompiler(getCompilerConfig(), this.flowGraph);
+  }
+
+  private Config getCompilerConfig() throws URISyntaxException {
+    URI flowTemplateCatalogUri = this.getClass().getClassLoader().getResource("template_catalog").toURI();
+    Properties properties = new Properties();
+    properties.put(ServiceConfigKeys.TEMPLATE_CATALOGS_FULLY_QUALIFIED_PATH_KEY, flowTemplateCatalogUri.toString());
+    return ConfigFactory.parseProperties(properties);
+  }
+
+  private FlowGraph buildFlowGraph()
+      throws URISyntaxException, IOException, ReflectiveOperationException, FlowEdgeFactory.FlowEdgeCreationException {
     //Create a FlowGraph
-    this.flowGraph = new AtomicReference<>(new BaseFlowGraph());
+    FlowGraph flowGraph = new BaseFlowGraph();
 
     //Add DataNodes to the graph from the node properties files
     URI dataNodesUri = MultiHopFlowCompilerTest.class.getClassLoader().getResource("flowgraph/datanodes").toURI();
@@ -111,7 +126,7 @@ public class MultiHopFlowCompilerTest {
         Class dataNodeClass = Class.forName(ConfigUtils
             .getString(nodeConfig, FlowGraphConfigurationKeys.DATA_NODE_CLASS, FlowGraphConfigurationKeys.DEFAULT_DATA_NODE_CLASS));
         DataNode dataNode = (DataNode) GobblinConstructorUtils.invokeLongestConstructor(dataNodeClass, nodeConfig);
-        this.flowGraph.get().addDataNode(dataNode);
+        flowGraph.addDataNode(dataNode);
       }
     }
 
@@ -119,10 +134,7 @@ public class MultiHopFlowCompilerTest {
     Map<URI, TopologySpec> topologySpecMap = buildTopologySpecMap(specExecutorCatalogUri);
 
     //Create a FSFlowTemplateCatalog instance
-    URI flowTemplateCatalogUri = this.getClass().getClassLoader().getResource("template_catalog").toURI();
-    Properties properties = new Properties();
-    properties.put(ServiceConfigKeys.TEMPLATE_CATALOGS_FULLY_QUALIFIED_PATH_KEY, flowTemplateCatalogUri.toString());
-    Config config = ConfigFactory.parseProperties(properties);
+    Config config = getCompilerConfig();
     Config templateCatalogCfg = config
         .withValue(ConfigurationKeys.JOB_CONFIG_FILE_GENERAL_PATH_KEY,
             config.getValue(ServiceConfigKeys.TEMPLATE_CATALOGS_FULLY_QUALIFIED_PATH_KEY));
@@ -145,10 +157,10 @@ public class MultiHopFlowCompilerTest {
           specExecutors.add(topologySpecMap.get(new URI(specExecutorName)).getSpecExecutor());
         }
         FlowEdge edge = flowEdgeFactory.createFlowEdge(flowEdgeConfig, flowCatalog, specExecutors);
-        this.flowGraph.get().addFlowEdge(edge);
+        flowGraph.addFlowEdge(edge);
       }
     }
-    this.specCompiler = new MultiHopFlowCompiler(config, this.flowGraph);
+    return flowGraph;
   }
 
   /**
@@ -667,6 +679,80 @@ public class MultiHopFlowCompilerTest {
     spec.getCompilationErrors().stream().anyMatch(s -> s.errorMessage.contains("Flowgraph does not have a node with id"));
   }
 
+  @Test
+  public void testCompileFlowWithPathCache() throws Exception {
+    Config config = getCompilerConfig()
+        .withValue(MultiHopFlowCompiler.PATH_CACHE_MAX_SIZE, ConfigValueFactory.fromAnyRef(100));
+    AtomicReference<FlowGraph> cachingFlowGraph = new AtomicReference<>(buildFlowGraph());
+    MultiHopFlowCompiler compiler = new MultiHopFlowCompiler(config, cachingFlowGraph);
+    FlowGraphPathCache pathCache = ((BaseFlowGraph) cachingFlowGraph.get()).getPathCache().get();
+
+    // The second compilation of the flow reuses the path found by the first one
+    assertFirstHop(compiler.compileFlow(createFlowSpec("flow/flow1.conf", "LocalFS-1", "ADLS-1", false, false)), "HDFS-1");
+    Assert.assertEquals(pathCache.size(), 1);
+    assertFirstHop(compiler.compileFlow(createFlowSpec("flow/flow1.conf", "LocalFS-1", "ADLS-1", false, false)), "HDFS-1");
+    Assert.assertEquals(pathCache.getStats().hitCount(), 1);
+
+    // Deleting an edge of the path invalidates it
+    cachingFlowGraph.get().deleteFlowEdge("HDFS-1_HDFS-1_hdfsConvertToJsonAndEncrypt");
+    Assert.assertEquals(pathCache.size(), 0);
+    assertFirstHop(compiler.compileFlow(createFlowSpec("flow/flow1.conf", "LocalFS-1", "ADLS-1", false, false)), "HDFS-2");
+
+    // A new flow graph adding the edge back does not keep the path, since the edge can shorten it
+    compiler.setFlowGraph(buildFlowGraph(), false);
+    pathCache = ((BaseFlowGraph) cachingFlowGraph.get()).getPathCache().get();
+    Assert.assertEquals(pathCache.size(), 0);
+    assertFirstHop(compiler.compileFlow(createFlowSpec("flow/flow1.conf", "LocalFS-1", "ADLS-1", false, false)), "HDFS-1");
+
+    // A new flow graph with the same nodes and edges keeps it
+    compiler.setFlowGraph(buildFlowGraph(), false);
+    pathCache = ((BaseFlowGraph) cachingFlowGraph.get()).getPathCache().get();
+    Assert.assertEquals(pathCache.size(), 1);
+    assertFirstHop(compiler.compileFlow(createFlowSpec("flow/flow1.conf", "LocalFS-1", "ADLS-1", false, false)), "HDFS-1");
+    Assert.assertEquals(pathCache.getStats().hitCount(), 1);
+
+    // Unless the templates may have changed
+    compiler.setFlowGraph(buildFlowGraph(), true);
+    Assert.assertEquals(((BaseFlowGraph) cachingFlowGraph.get()).getPathCache().get().size(), 0);
+  }
+
+  @Test
+  public void testPathCacheKeyedByFlowConfigValues() throws Exception {
+    Config config = getCompilerConfig()
+        .withValue(MultiHopFlowCompiler.PATH_CACHE_MAX_SIZE, ConfigValueFactory.fromAnyRef(100));
+    AtomicReference<FlowGraph> cachingFlowGraph = new AtomicReference<>(buildFlowGraph());
+    MultiHopFlowCompiler compiler = new MultiHopFlowCompiler(config, cachingFlowGraph);
+    FlowGraphPathCache pathCache = ((BaseFlowGraph) cachingFlowGraph.get()).getPathCache().get();
+
+    FlowSpec spec = createFlowSpec("flow/flow1.conf", "LocalFS-1", "ADLS-1", false, false);
+    assertFirstHop(compiler.compileFlow(spec), "HDFS-1");
+
+    // A flow that only differs by its name shares the path
+    assertFirstHop(compiler.compileFlow(withFlowConfigValue(spec, ConfigurationKeys.FLOW_NAME_KEY, "otherFlowName")),
+        "HDFS-1");
+    Assert.assertEquals(pathCache.getStats().hitCount(), 1);
+
+    // A flow with another value that edge templates may resolve with does not
+    assertFirstHop(compiler.compileFlow(withFlowConfigValue(spec, "user.to.proxy", "otherUser")), "HDFS-1");
+    Assert.assertEquals(pathCache.getStats().hitCount(), 1);
+    Assert.assertEquals(pathCache.size(), 2);
+  }
+
+  private static FlowSpec withFlowConfigValue(FlowSpec spec, String key, String value) {
+    return FlowSpec.builder(spec.getUri())
+        .withConfig(spec.getConfig().withValue(key, ConfigValueFactory.fromAnyRef(value)))
+        .withDescription(spec.getDescription())
+        .withVersion(spec.getVersion())
+        .build();
+  }
+
+  private static void assertFirstHop(Dag<JobExecutionPlan> jobDag, String firstHopDestination) {
+    Assert.assertEquals(jobDag.getNodes().size(), 4);
+    String jobName = jobDag.getStartNodes().get(0).getValue().getJobSpec().getConfig().getString(ConfigurationKeys.JOB_NAME_KEY);
+    Assert.assertTrue(jobName.startsWith(Joiner.on(JobExecutionPlan.Factory.JOB_NAME_COMPONENT_SEPARATION_CHAR)
+        .join("testFlowGroup", "testFlowName", "Distcp", "LocalFS-1", firstHopDestination, "localToHdfs")));
+  }
+
   private String formNodeFilePath(File flowGraphDir, String groupDir, String fileName) {
     return flowGraphDir.getName() + SystemUtils.FILE_SEPARATOR + groupDir + SystemUtils.FILE_SEPARATOR + fileName;
   }
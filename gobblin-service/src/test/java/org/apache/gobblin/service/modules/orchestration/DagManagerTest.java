@@ -33,6 +33,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 import org.mockito.Mockito;
@@ -64,6 +65,7 @@ import org.apache.gobblin.service.modules.flowgraph.Dag.DagNode;
 import org.apache.gobblin.service.modules.spec.JobExecutionPlan;
 import org.apache.gobblin.service.modules.spec.JobExecutionPlanDagFactory;
 import org.apache.gobblin.service.monitoring.JobStatus;
+import org.apache.gobblin.service.monitoring.JobStatusEvent;
 import org.apache.gobblin.service.monitoring.JobStatusRetriever;
 import org.apache.gobblin.util.ConfigUtils;
 
@@ -1334,6 +1336,58 @@ public class DagManagerTest {
 
   }
 
+  /**
+   * In event-driven mode, only the dags with job status events are polled between full polls.
+   */
+  @Test
+  public void testJobStatusEventsDrivePolling() throws URISyntaxException, IOException {
+    long flowExecutionId = System.currentTimeMillis();
+    String flowGroup = "group8";
+    String flowName = "flow8";
+    JobStatusRetriever jobStatusRetriever = Mockito.mock(JobStatusRetriever.class);
+    DagStateStore dagStateStore = new InMemoryDagStateStore();
+    LinkedBlockingQueue<Dag<JobExecutionPlan>> dagQueue = new LinkedBlockingQueue<>();
+    LinkedBlockingQueue<JobStatusEvent> jobStatusEventQueue = new LinkedBlockingQueue<>();
+    DagManager.DagManagerThread dagManagerThread = new DagManager.DagManagerThread(jobStatusRetriever, dagStateStore,
+        new InMemoryDagStateStore(), Optional.absent(), dagQueue, new LinkedBlockingQueue<>(), new LinkedBlockingQueue<>(),
+        Optional.of(jobStatusEventQueue), new HashSet<>(), this._dagManagerMetrics, START_SLA_DEFAULT,
+        TimeUnit.HOURS.toMillis(1), new InMemoryUserQuotaManager(ConfigFactory.empty()), 1);
+
+    Dag<JobExecutionPlan> dag = buildDag("8", flowExecutionId, "FINISH_RUNNING", 1);
+    Mockito.when(jobStatusRetriever.getJobStatusesForFlowExecution(Mockito.anyString(), Mockito.anyString(),
+        Mockito.anyLong(), Mockito.anyString(), Mockito.anyString()))
+        .thenReturn(getMockJobStatus(flowName, flowGroup, flowExecutionId, flowGroup, "job0", String.valueOf(ExecutionStatus.RUNNING)))
+        .thenReturn(getMockJobStatus(flowName, flowGroup, flowExecutionId, flowGroup, "job0", String.valueOf(ExecutionStatus.COMPLETE)))
+        .thenReturn(getMockFlowStatus(flowName, flowGroup, flowExecutionId, String.valueOf(ExecutionStatus.COMPLETE)));
+
+    // The first run polls all running jobs
+    dagQueue.offer(dag);
+    dagManagerThread.run();
+    Mockito.verify(jobStatusRetriever, Mockito.times(1)).getJobStatusesForFlowExecution(Mockito.anyString(),
+        Mockito.anyString(), Mockito.anyLong(), Mockito.anyString(), Mockito.anyString());
+
+    // No polling without events
+    dagManagerThread.run();
+    Mockito.verify(jobStatusRetriever, Mockito.times(1)).getJobStatusesForFlowExecution(Mockito.anyString(),
+        Mockito.anyString(), Mockito.anyLong(), Mockito.anyString(), Mockito.anyString());
+    Assert.assertEquals(dagStateStore.getDags().size(), 1);
+
+    // An event for an unrelated flow does not poll the job either
+    jobStatusEventQueue.offer(new JobStatusEvent(flowGroup, flowName, flowExecutionId + 1, flowGroup, "job0",
+        String.valueOf(ExecutionStatus.COMPLETE)));
+    dagManagerThread.run();
+    Mockito.verify(jobStatusRetriever, Mockito.times(1)).getJobStatusesForFlowExecution(Mockito.anyString(),
+        Mockito.anyString(), Mockito.anyLong(), Mockito.anyString(), Mockito.anyString());
+
+    // The event of the job completes the dag, and the flow status is polled to clean it up
+    jobStatusEventQueue.offer(new JobStatusEvent(flowGroup, flowName, flowExecutionId, flowGroup, "job0",
+        String.valueOf(ExecutionStatus.COMPLETE)));
+    dagManagerThread.run();
+    Mockito.verify(jobStatusRetriever, Mockito.times(3)).getJobStatusesForFlowExecution(Mockito.anyString(),
+        Mockito.anyString(), Mockito.anyLong(), Mockito.anyString(), Mockito.anyString());
+    Assert.assertEquals(dagStateStore.getDags().size(), 0);
+  }
+
   @AfterClass
   public void cleanUp() throws Exception {
     FileUtils.deleteDirectory(new File(this.dagStateStoreDir));
@@ -260,11 +260,15 @@ public class AvroUtils {
    * Given a GenericRecord, this method will return the field specified by the path parameter. The fieldLocation
    * parameter is an ordered string specifying the location of the nested field to retrieve. For example,
    * field1.nestedField1 takes the the value of the field "field1", and retrieves the field "nestedField1" from it.
+   * An {@link EncodedGenericRecord} is not decoded to retrieve a field that is only nested in records.
    * @param record is the record to retrieve the field from
    * @param fieldLocation is the location of the field
    * @return the value of the field
    */
   public static Optional<Object> getFieldValue(GenericRecord record, String fieldLocation) {
+    if (record instanceof EncodedGenericRecord) {
+      return ((EncodedGenericRecord) record).getFieldValue(fieldLocation);
+    }
     Map<String, Object> ret = getMultiFieldValue(record, fieldLocation);
     return Optional.fromNullable(ret.get(fieldLocation));
   }
@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.CompressionInputStream;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+import lombok.Getter;
+
+import org.apache.gobblin.configuration.CompactStateInput;
+import org.apache.gobblin.configuration.CompactStateOutput;
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.State;
+
+
+/**
+ * A versioned binary file format for sequences of {@link State}s (work units, task states, dataset states).
+ *
+ * <p>
+ *   A file starts with the {@link #MAGIC} bytes, a version byte and the class name of the {@link CompressionCodec}
+ *   used for the blocks (empty if uncompressed). It is followed by blocks of the form
+ *   {@code int rawLength, int payloadLength, byte[payloadLength]}. The concatenation of the decompressed blocks is a
+ *   sequence of {@code varint 1, string id, state} records terminated by a {@code varint 0}, where states are
+ *   dictionary-encoded by {@link CompactStateOutput} with one key dictionary for the whole file.
+ * </p>
+ *
+ * <p>
+ *   Files written in the legacy format (the raw {@link State#write(java.io.DataOutput)} output or a Hadoop
+ *   {@link org.apache.hadoop.io.SequenceFile}) never start with {@link #MAGIC}, so readers can use
+ *   {@link #isCompactFormat(InputStream)} to fall back to the legacy format.
+ * </p>
+ */
+public class CompactStateFormat {
+
+  // The first byte is neither a valid leading byte of a legacy entry count nor of a Text length
+  public static final byte[] MAGIC = new byte[] {(byte) 0xC7, 'G', 'S', 'F'};
+  public static final int VERSION = 1;
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  @Getter
+  private final Optional<CompressionCodec> codec;
+  @Getter
+  private final int blockSize;
+
+  public CompactStateFormat(Optional<CompressionCodec> codec, int blockSize) {
+    Preconditions.checkArgument(blockSize > 0, "Block size must be positive");
+    this.codec = codec;
+    this.blockSize = blockSize;
+  }
+
+  public CompactStateFormat() {
+    this(Optional.<CompressionCodec>absent(), DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Get the {@link CompactStateFormat} configured in a {@link State} through
+   * {@link ConfigurationKeys#STATE_SERIALIZATION_COMPACT_ENABLED_KEY} and
+   * {@link ConfigurationKeys#STATE_SERIALIZATION_COMPACT_CODEC_KEY}.
+   *
+   * @return the configured {@link CompactStateFormat} or {@link Optional#absent()} if the legacy format should be used
+   */
+  public static Optional<CompactStateFormat> fromState(State state) {
+    if (!state.getPropAsBoolean(ConfigurationKeys.STATE_SERIALIZATION_COMPACT_ENABLED_KEY,
+        ConfigurationKeys.DEFAULT_STATE_SERIALIZATION_COMPACT_ENABLED)) {
+      return Optional.absent();
+    }
+
+    String codecName = state.getProp(ConfigurationKeys.STATE_SERIALIZATION_COMPACT_CODEC_KEY,
+        ConfigurationKeys.DEFAULT_STATE_SERIALIZATION_COMPACT_CODEC);
+    Optional<CompressionCodec> codec = Optional.absent();
+    if (!ConfigurationKeys.DEFAULT_STATE_SERIALIZATION_COMPACT_CODEC.equalsIgnoreCase(codecName)) {
+      CompressionCodec compressionCodec = new CompressionCodecFactory(new Configuration()).getCodecByName(codecName);
+      Preconditions.checkArgument(compressionCodec != null, "Unknown compression codec " + codecName);
+      codec = Optional.of(compressionCodec);
+    }
+    return Optional.of(new CompactStateFormat(codec,
+        state.getPropAsInt(ConfigurationKeys.STATE_SERIALIZATION_COMPACT_BLOCK_SIZE_KEY, DEFAULT_BLOCK_SIZE)));
+  }
+
+  /**
+   * Check whether a stream starts with the {@link #MAGIC} bytes without consuming them.
+   *
+   * @param in an {@link InputStream} that supports {@link InputStream#mark(int)}
+   */
+  public static boolean isCompactFormat(InputStream in) throws IOException {
+    Preconditions.checkArgument(in.markSupported(), "Input stream must support mark/reset");
+    in.mark(MAGIC.length);
+    try {
+      byte[] header = new byte[MAGIC.length];
+      return ByteStreams.read(in, header, 0, header.length) == header.length && Arrays.equals(header, MAGIC);
+    } finally {
+      in.reset();
+    }
+  }
+
+  /**
+   * Create a {@link Writer} that writes to the given stream. The stream is closed when the {@link Writer} is closed.
+   */
+  public Writer createWriter(OutputStream out) throws IOException {
+    return new Writer(out);
+  }
+
+  /**
+   * Create a {@link Reader} for a stream written by a {@link Writer}.
+   */
+  public static Reader createReader(InputStream in, Configuration conf) throws IOException {
+    return new Reader(in, conf);
+  }
+
+  /**
+   * Writes {@link State}s in the compact format, buffering up to one block in memory.
+   */
+  public class Writer implements Closeable {
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private final CompactStateOutput stateOutput = new CompactStateOutput(this.block);
+    @Getter
+    private long bytesWritten;
+
+    private Writer(OutputStream out) throws IOException {
+      this.out = new DataOutputStream(out);
+      this.out.write(MAGIC);
+      this.out.writeByte(VERSION);
+      this.out.writeUTF(CompactStateFormat.this.codec.isPresent()
+          ? CompactStateFormat.this.codec.get().getClass().getName() : "");
+      this.bytesWritten = this.out.size();
+    }
+
+    /**
+     * Append a {@link State} with the given id.
+     */
+    public void append(String id, State state) throws IOException {
+      this.stateOutput.writeVarInt(1);
+      this.stateOutput.writeString(Strings.nullToEmpty(id));
+      state.write(this.stateOutput);
+      if (this.block.size() >= CompactStateFormat.this.blockSize) {
+        flushBlock();
+      }
+    }
+
+    private void flushBlock() throws IOException {
+      if (this.block.size() == 0) {
+        return;
+      }
+      byte[] raw = this.block.toByteArray();
+      this.block.reset();
+
+      byte[] payload = raw;
+      if (CompactStateFormat.this.codec.isPresent()) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (CompressionOutputStream compressionOut = CompactStateFormat.this.codec.get().createOutputStream(compressed)) {
+          compressionOut.write(raw);
+          compressionOut.finish();
+        }
+        payload = compressed.toByteArray();
+      }
+
+      this.out.writeInt(raw.length);
+      this.out.writeInt(payload.length);
+      this.out.write(payload);
+      this.bytesWritten += 8 + payload.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        this.stateOutput.writeVarInt(0);
+        flushBlock();
+      } finally {
+        this.out.close();
+      }
+    }
+  }
+
+  /**
+   * Reads {@link State}s written by a {@link Writer}, decoding one block at a time.
+   */
+  public static class Reader implements Closeable {
+    private final DataInputStream in;
+    private final Optional<CompressionCodec> codec;
+    private final CompactStateInput stateInput;
+    private boolean done = false;
+
+    private Reader(InputStream in, Configuration conf) throws IOException {
+      this.in = new DataInputStream(in);
+      byte[] header = new byte[MAGIC.length];
+      this.in.readFully(header);
+      if (!Arrays.equals(header, MAGIC)) {
+        throw new IOException("Not a compact state file");
+      }
+      int version = this.in.readUnsignedByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported compact state file version " + version);
+      }
+      String codecClassName = this.in.readUTF();
+      if (codecClassName.isEmpty()) {
+        this.codec = Optional.absent();
+      } else {
+        try {
+          this.codec = Optional.of(org.apache.hadoop.util.ReflectionUtils.newInstance(
+              Class.forName(codecClassName).asSubclass(CompressionCodec.class), conf));
+        } catch (ClassNotFoundException cnfe) {
+          throw new IOException("Compression codec not found: " + codecClassName, cnfe);
+        }
+      }
+      this.stateInput = new CompactStateInput(new BlockInputStream());
+    }
+
+    /**
+     * Read the next {@link State} into the given instance.
+     *
+     * @param state an empty {@link State} to read into
+     * @return the id of the {@link State} read or {@code null} if there are no more {@link State}s
+     */
+    public String next(State state) throws IOException {
+      if (this.done) {
+        return null;
+      }
+      if (this.stateInput.readVarInt() == 0) {
+        this.done = true;
+        return null;
+      }
+      String id = this.stateInput.readString();
+      state.readFields(this.stateInput);
+      return id;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.in.close();
+    }
+
+    /**
+     * An {@link InputStream} over the concatenation of the decompressed blocks.
+     */
+    private class BlockInputStream extends InputStream {
+      private byte[] current = new byte[0];
+      private int position = 0;
+
+      private boolean ensureAvailable() throws IOException {
+        while (this.position >= this.current.length) {
+          int rawLength;
+          try {
+            rawLength = Reader.this.in.readInt();
+          } catch (EOFException eofe) {
+            return false;
+          }
+          byte[] payload = new byte[Reader.this.in.readInt()];
+          Reader.this.in.readFully(payload);
+          if (Reader.this.codec.isPresent()) {
+            byte[] raw = new byte[rawLength];
+            try (CompressionInputStream compressionIn =
+                Reader.this.codec.get().createInputStream(new ByteArrayInputStream(payload))) {
+              ByteStreams.readFully(compressionIn, raw);
+            }
+            this.current = raw;
+          } else {
+            this.current = payload;
+          }
+          this.position = 0;
+        }
+        return true;
+      }
+
+      @Override
+      public int read() throws IOException {
+        return ensureAvailable() ? this.current[this.position++] & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+          return 0;
+        }
+        if (!ensureAvailable()) {
+          return -1;
+        }
+        int toRead = Math.min(len, this.current.length - this.position);
+        System.arraycopy(this.current, this.position, b, off, toRead);
+        this.position += toRead;
+        return toRead;
+      }
+    }
+  }
+}
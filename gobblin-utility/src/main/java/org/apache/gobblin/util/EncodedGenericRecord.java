@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+
+
+/**
+ * A {@link GenericRecord} backed by its Avro binary encoding, which is only decoded when one of its fields is accessed.
+ *
+ * <p>
+ *   This allows pass-through pipelines to move records from a source to a writer without paying for decoding and
+ *   re-encoding them: a writer can append {@link #getEncoded()} as is, e.g. with
+ *   {@link org.apache.avro.file.DataFileWriter#appendEncoded(ByteBuffer)}. As soon as the record is decoded, e.g. by a
+ *   converter or a row level policy reading a field, its encoding is dropped, because the decoded fields may be
+ *   modified through the returned values, and the record behaves like a regular {@link GenericData.Record}.
+ * </p>
+ *
+ * <p>
+ *   {@link #getFieldValue(String)}, which {@link AvroUtils#getFieldValue(GenericRecord, String)} uses, reads a nested
+ *   field of a record that has not been decoded without decoding it: the fields before it are skipped in the encoding
+ *   and only the value of the field itself is decoded. This lets partitioners and filters which only look at a few
+ *   fields, e.g. a timestamp, keep the record encoded.
+ * </p>
+ *
+ * <p>
+ *   Like {@link GenericData.Record}, this class is not thread safe.
+ * </p>
+ */
+public class EncodedGenericRecord implements GenericRecord, Comparable<GenericRecord> {
+
+  private static final Splitter FIELD_LOCATION_SPLITTER =
+      Splitter.on(AvroUtils.FIELD_LOCATION_DELIMITER).omitEmptyStrings().trimResults();
+
+  private final Schema schema;
+  private ByteBuffer encoded;
+  private GenericData.Record decoded;
+
+  /**
+   * @param schema the schema the record was encoded with.
+   * @param encoded the binary encoding of the record, from its position to its limit. It must not be modified later.
+   */
+  public EncodedGenericRecord(Schema schema, ByteBuffer encoded) {
+    Preconditions.checkArgument(schema.getType() == Schema.Type.RECORD, "Schema must be a record schema: " + schema);
+    this.schema = schema;
+    this.encoded = encoded.slice();
+  }
+
+  /**
+   * @return the binary encoding of the record if it has not been decoded yet.
+   */
+  public Optional<ByteBuffer> getEncoded() {
+    return this.encoded == null ? Optional.<ByteBuffer>absent() : Optional.of(this.encoded.duplicate());
+  }
+
+  public boolean isDecoded() {
+    return this.decoded != null;
+  }
+
+  @Override
+  public Schema getSchema() {
+    return this.schema;
+  }
+
+  @Override
+  public void put(String key, Object v) {
+    decode().put(key, v);
+  }
+
+  @Override
+  public Object get(String key) {
+    return decode().get(key);
+  }
+
+  @Override
+  public void put(int i, Object v) {
+    decode().put(i, v);
+  }
+
+  @Override
+  public Object get(int i) {
+    return decode().get(i);
+  }
+
+  /**
+   * Get the value of a field the same way as {@link AvroUtils#getFieldValue(GenericRecord, String)}, without decoding
+   * the record if the field is only nested in records.
+   */
+  public Optional<Object> getFieldValue(String fieldLocation) {
+    List<String> path = FIELD_LOCATION_SPLITTER.splitToList(fieldLocation);
+    if (this.decoded != null || path.isEmpty()) {
+      return AvroUtils.getFieldValue(decode(), fieldLocation);
+    }
+    try {
+      Decoder decoder = createDecoder();
+      Schema recordSchema = this.schema;
+      for (int i = 0; ; i++) {
+        Schema.Field field = recordSchema.getField(path.get(i));
+        if (field == null) {
+          return Optional.absent();
+        }
+        for (Schema.Field skipped : recordSchema.getFields().subList(0, field.pos())) {
+          GenericDatumReader.skip(skipped.schema(), decoder);
+        }
+        Schema fieldSchema = field.schema();
+        while (fieldSchema.getType() == Schema.Type.UNION) {
+          fieldSchema = fieldSchema.getTypes().get(decoder.readIndex());
+        }
+        if (i == path.size() - 1) {
+          return Optional.fromNullable(new GenericDatumReader<Object>(fieldSchema).read(null, decoder));
+        }
+        if (fieldSchema.getType() == Schema.Type.NULL) {
+          return Optional.absent();
+        }
+        if (fieldSchema.getType() != Schema.Type.RECORD) {
+          // Array indices and map keys need the decoded values
+          return AvroUtils.getFieldValue(decode(), fieldLocation);
+        }
+        recordSchema = fieldSchema;
+      }
+    } catch (IOException e) {
+      throw new AvroRuntimeException(
+          "Failed to read field " + fieldLocation + " of schema " + this.schema.getFullName(), e);
+    }
+  }
+
+  /**
+   * Decode the record if needed, after which the record no longer has an encoding.
+   */
+  public GenericData.Record decode() {
+    if (this.decoded == null) {
+      try {
+        this.decoded = new GenericDatumReader<GenericData.Record>(this.schema).read(null, createDecoder());
+      } catch (IOException e) {
+        throw new AvroRuntimeException("Failed to decode record of schema " + this.schema.getFullName(), e);
+      }
+      this.encoded = null;
+    }
+    return this.decoded;
+  }
+
+  private BinaryDecoder createDecoder() {
+    ByteBuffer buffer = this.encoded;
+    if (buffer.hasArray()) {
+      return DecoderFactory.get()
+          .binaryDecoder(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), null);
+    }
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return DecoderFactory.get().binaryDecoder(bytes, null);
+  }
+
+  @Override
+  public int compareTo(GenericRecord that) {
+    return GenericData.get().compare(this, that, this.schema);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (o instanceof EncodedGenericRecord) {
+      return decode().equals(((EncodedGenericRecord) o).decode());
+    }
+    return decode().equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return decode().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return decode().toString();
+  }
+}
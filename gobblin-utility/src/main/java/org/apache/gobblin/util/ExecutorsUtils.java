@@ -17,6 +17,8 @@
 
 package org.apache.gobblin.util;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -118,6 +120,100 @@ public class ExecutorsUtils {
         Optional.<String>absent());
   }
 
+  /**
+   * Check whether the running JVM supports virtual threads (JDK 21 or later).
+   *
+   * @return {@code true} if {@link #newVirtualThreadFactory(Optional, String)} can create virtual threads
+   */
+  public static boolean isVirtualThreadSupported() {
+    return VirtualThreads.SUPPORTED;
+  }
+
+  /**
+   * Get a new {@link ThreadFactory} that creates virtual threads named with the given prefix followed by a counter and
+   * uses a {@link LoggingUncaughtExceptionHandler} to handle uncaught exceptions.
+   *
+   * <p>
+   *   Virtual threads are only available on JDK 21 or later. They are looked up reflectively so this class can still
+   *   be compiled and run on older JDKs, in which case {@link Optional#absent()} is returned.
+   * </p>
+   *
+   * @param logger an {@link Optional} wrapping the {@link Logger} that the
+   *               {@link LoggingUncaughtExceptionHandler} uses to log uncaught exceptions thrown in threads
+   * @param namePrefix thread name prefix
+   * @return an {@link Optional} wrapping the new {@link ThreadFactory}, absent if virtual threads are not supported
+   */
+  public static Optional<ThreadFactory> newVirtualThreadFactory(Optional<Logger> logger, String namePrefix) {
+    if (!VirtualThreads.SUPPORTED) {
+      return Optional.absent();
+    }
+    try {
+      Object builder = VirtualThreads.OF_VIRTUAL.invoke(null);
+      builder = VirtualThreads.NAME.invoke(builder, namePrefix, 0L);
+      builder = VirtualThreads.UNCAUGHT_EXCEPTION_HANDLER.invoke(builder, new LoggingUncaughtExceptionHandler(logger));
+      return Optional.of((ThreadFactory) VirtualThreads.FACTORY.invoke(builder));
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Failed to create a virtual thread factory", e);
+    }
+  }
+
+  /**
+   * Get a new {@link ExecutorService} that starts a new virtual thread for each task, as created by
+   * {@link #newVirtualThreadFactory(Optional, String)}.
+   *
+   * @return an {@link Optional} wrapping the new {@link ExecutorService}, absent if virtual threads are not supported
+   */
+  public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor(Optional<Logger> logger, String namePrefix) {
+    Optional<ThreadFactory> threadFactory = newVirtualThreadFactory(logger, namePrefix);
+    if (!threadFactory.isPresent()) {
+      return Optional.absent();
+    }
+    try {
+      return Optional.of(
+          (ExecutorService) VirtualThreads.NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory.get()));
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Failed to create a virtual thread per task executor", e);
+    }
+  }
+
+  /**
+   * Reflective handles on the JDK 21 virtual thread API.
+   */
+  private static class VirtualThreads {
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method UNCAUGHT_EXCEPTION_HANDLER;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+    private static final boolean SUPPORTED;
+
+    static {
+      Method ofVirtual = null;
+      Method name = null;
+      Method uncaughtExceptionHandler = null;
+      Method factory = null;
+      Method newThreadPerTaskExecutor = null;
+      try {
+        // Methods are looked up on the public Thread.Builder interface as the builder implementations are not public
+        Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+        ofVirtual = Thread.class.getMethod("ofVirtual");
+        name = builderClass.getMethod("name", String.class, long.class);
+        uncaughtExceptionHandler =
+            builderClass.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class);
+        factory = builderClass.getMethod("factory");
+        newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      } catch (ClassNotFoundException | NoSuchMethodException e) {
+        ofVirtual = null;
+      }
+      OF_VIRTUAL = ofVirtual;
+      NAME = name;
+      UNCAUGHT_EXCEPTION_HANDLER = uncaughtExceptionHandler;
+      FACTORY = factory;
+      NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+      SUPPORTED = ofVirtual != null;
+    }
+  }
+
   private static ThreadFactory newThreadFactory(ThreadFactoryBuilder builder, Optional<Logger> logger,
       Optional<String> nameFormat) {
     if (nameFormat.isPresent()) {
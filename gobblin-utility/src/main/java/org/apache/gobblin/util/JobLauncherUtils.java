@@ -239,8 +239,11 @@ public class JobLauncherUtils {
         }
       }
 
+      // With manifest based commits, the output directory is a job attempt directory in the final output directory
+      // shared by all tasks of the job. Later publishes delete it if it was not committed, and delete the files the
+      // job did not commit from it otherwise
       Path outputPath = WriterUtils.getWriterOutputDir(state, numBranches, branchId);
-      if (fs.exists(outputPath)) {
+      if (!WriterUtils.isManifestCommitEnabled(state) && fs.exists(outputPath)) {
         logger.info("Cleaning up output directory " + outputPath.toUri().getPath());
         if (!fs.delete(outputPath, true)) {
           throw new IOException("Clean up output directory " + outputPath.toUri().getPath() + " failed");
@@ -279,8 +282,11 @@ public class JobLauncherUtils {
         parallelRunner.deletePath(stagingPath, true);
       }
 
+      // With manifest based commits, the output directory is a job attempt directory in the final output directory
+      // shared by all tasks of the job. Later publishes delete it if it was not committed, and delete the files the
+      // job did not commit from it otherwise
       Path outputPath = WriterUtils.getWriterOutputDir(state, numBranches, branchId);
-      if (fs.exists(outputPath)) {
+      if (!WriterUtils.isManifestCommitEnabled(state) && fs.exists(outputPath)) {
         logger.info("Cleaning up output directory " + outputPath.toUri().getPath());
         parallelRunner.deletePath(outputPath, true);
       }
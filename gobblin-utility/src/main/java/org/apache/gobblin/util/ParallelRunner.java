@@ -161,6 +161,36 @@ public class ParallelRunner implements Closeable {
     }), "Serialize state to " + outputFilePath));
   }
 
+  /**
+   * Serialize a {@link State} object into a file using the given {@link CompactStateFormat}, or the legacy format if
+   * it is absent.
+   *
+   * <p>
+   *   This method submits a task to serialize the {@link State} object and returns immediately
+   *   after the task is submitted.
+   * </p>
+   *
+   * @param state the {@link State} object to be serialized
+   * @param outputFilePath the file to write the serialized {@link State} object to
+   * @param format the {@link CompactStateFormat} to use
+   * @param <T> the {@link State} object type
+   */
+  public <T extends State> void serializeToFile(final T state, final Path outputFilePath,
+      final Optional<CompactStateFormat> format) {
+    if (!format.isPresent()) {
+      serializeToFile(state, outputFilePath);
+      return;
+    }
+    this.futures.add(new NamedFuture(this.executor.submit(new Callable<Void>() {
+
+      @Override
+      public Void call() throws Exception {
+        SerializationUtils.serializeState(ParallelRunner.this.fs, outputFilePath, state, format.get());
+        return null;
+      }
+    }), "Serialize state to " + outputFilePath));
+  }
+
   /**
    * Deserialize a {@link State} object from a file.
    *
@@ -17,6 +17,7 @@
 
 package org.apache.gobblin.util;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
@@ -27,6 +28,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
@@ -161,6 +163,23 @@ public class SerializationUtils {
     }
   }
 
+  /**
+   * Serialize a {@link State} instance to a file in the given {@link CompactStateFormat}.
+   *
+   * @param fs the {@link FileSystem} instance for creating the file
+   * @param stateFilePath the path to the file
+   * @param state the {@link State} to serialize
+   * @param format the {@link CompactStateFormat} to write
+   * @param <T> the {@link State} object type
+   * @throws IOException if it fails to serialize the {@link State} instance
+   */
+  public static <T extends State> void serializeState(FileSystem fs, Path stateFilePath, T state,
+      CompactStateFormat format) throws IOException {
+    try (CompactStateFormat.Writer writer = format.createWriter(fs.create(stateFilePath))) {
+      writer.append(state.getId(), state);
+    }
+  }
+
   /**
    * Deserialize/read a {@link State} instance from a file.
    *
@@ -180,13 +199,26 @@ public class SerializationUtils {
   /**
    * Deserialize/read a {@link State} instance from a file.
    *
+   * <p>
+   *   Both the legacy format and the {@link CompactStateFormat} are supported.
+   * </p>
+   *
    * @param is {@link InputStream} containing the state.
    * @param state an empty {@link State} instance to deserialize into
    * @param <T> the {@link State} object type
    * @throws IOException if it fails to deserialize the {@link State} instance
    */
   public static <T extends State> void deserializeStateFromInputStream(InputStream is, T state) throws IOException {
-    try (DataInputStream dis = (new DataInputStream(is))) {
+    InputStream bufferedIs = is.markSupported() ? is : new BufferedInputStream(is);
+    if (CompactStateFormat.isCompactFormat(bufferedIs)) {
+      try (CompactStateFormat.Reader reader = CompactStateFormat.createReader(bufferedIs, new Configuration())) {
+        if (reader.next(state) == null) {
+          throw new IOException("No state found in compact state stream");
+        }
+      }
+      return;
+    }
+    try (DataInputStream dis = (new DataInputStream(bufferedIs))) {
       state.readFields(dis);
     }
   }
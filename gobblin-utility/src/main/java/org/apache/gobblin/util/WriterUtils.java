@@ -61,6 +61,10 @@ public class WriterUtils {
 
   public static final Config NO_RETRY_CONFIG = ConfigFactory.empty();
 
+  // Prefix of the job attempt directories writers write to when manifest based commits are enabled. Such hidden
+  // directories are skipped by readers that do not read manifests, e.g. Hadoop input formats and Hive
+  public static final String MANIFEST_ATTEMPT_DIR_PREFIX = "_attempt_";
+
   public enum WriterFilePathType {
     /**
      * Write records into namespace/table folder. If namespace has multiple components, each component will be
@@ -109,13 +113,18 @@ public class WriterUtils {
   /**
    * Get the {@link Path} corresponding the to the directory a given {@link org.apache.gobblin.writer.DataWriter} should be writing
    * its output data. The output data directory is determined by combining the
-   * {@link ConfigurationKeys#WRITER_OUTPUT_DIR} and the {@link ConfigurationKeys#WRITER_FILE_PATH}.
+   * {@link ConfigurationKeys#WRITER_OUTPUT_DIR} and the {@link ConfigurationKeys#WRITER_FILE_PATH}, or is the
+   * {@link #getManifestAttemptDir(State, int, int)} if manifest based commits are enabled.
    * @param state is the {@link State} corresponding to a specific {@link org.apache.gobblin.writer.DataWriter}.
    * @param numBranches is the total number of branches for the given {@link State}.
    * @param branchId is the id for the specific branch that the {@link org.apache.gobblin.writer.DataWriter} will write to.
    * @return a {@link Path} specifying the directory where the {@link org.apache.gobblin.writer.DataWriter} will write to.
    */
   public static Path getWriterOutputDir(State state, int numBranches, int branchId) {
+    if (isManifestCommitEnabled(state)) {
+      return getManifestAttemptDir(state, numBranches, branchId);
+    }
+
     String writerOutputDirKey =
         ForkOperatorUtils.getPropertyNameForBranch(ConfigurationKeys.WRITER_OUTPUT_DIR, numBranches, branchId);
     Preconditions.checkArgument(state.contains(writerOutputDirKey), "Missing required property " + writerOutputDirKey);
@@ -123,6 +132,28 @@ public class WriterUtils {
     return new Path(state.getProp(writerOutputDirKey), WriterUtils.getWriterFilePath(state, numBranches, branchId));
   }
 
+  /**
+   * Whether {@link ConfigurationKeys#DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED} is set, in which case writers write their
+   * output data directly under the final output directory and the publisher commits it with a manifest.
+   */
+  public static boolean isManifestCommitEnabled(State state) {
+    return state.getPropAsBoolean(ConfigurationKeys.DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED,
+        ConfigurationKeys.DEFAULT_DATA_PUBLISHER_MANIFEST_COMMIT_ENABLED);
+  }
+
+  /**
+   * Get the job attempt directory a given {@link org.apache.gobblin.writer.DataWriter} writes its output data to when
+   * manifest based commits are enabled. It is a directory named after the job id right under the
+   * {@link #getDataPublisherFinalDir(State, int, int)}, so that publishing its data does not need to move it. As its
+   * name starts with {@link #MANIFEST_ATTEMPT_DIR_PREFIX}, only readers of the manifests see the committed data.
+   */
+  public static Path getManifestAttemptDir(State state, int numBranches, int branchId) {
+    Preconditions.checkArgument(state.contains(ConfigurationKeys.JOB_ID_KEY),
+        "Missing required property " + ConfigurationKeys.JOB_ID_KEY);
+    return new Path(getDataPublisherFinalDir(state, numBranches, branchId),
+        MANIFEST_ATTEMPT_DIR_PREFIX + state.getProp(ConfigurationKeys.JOB_ID_KEY));
+  }
+
   /**
    * Get the {@link Path} corresponding the to the directory a given {@link org.apache.gobblin.publisher.BaseDataPublisher} should
    * commits its output data. The final output data directory is determined by combining the
@@ -86,6 +86,13 @@ public class MeteredInputStream extends FilterInputStream implements MeteredStre
     return readBytes;
   }
 
+  /**
+   * Mark bytes read from the underlying {@link InputStream} without going through this stream.
+   */
+  void markBytesRead(long bytes) {
+    this.meter.mark(bytes);
+  }
+
   @Override
   public Meter getBytesProcessedMeter() {
     return this.meter.getUnderlyingMeter();
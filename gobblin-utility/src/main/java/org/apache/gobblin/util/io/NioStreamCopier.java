@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.io;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import com.codahale.metrics.Meter;
+import com.google.common.collect.Lists;
+
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * Copies an {@link InputStream} to an {@link OutputStream} like {@link StreamCopier}, avoiding intermediate buffer
+ * copies when the streams allow it.
+ *
+ * <p>
+ *   The source is unwrapped through any {@link ThrottledInputStream}s and {@link MeteredInputStream}s:
+ *   <ul>
+ *     <li>If it is backed by a file descriptor (a {@link FileInputStream}, or an {@link FSDataInputStream} of a raw
+ *     local file system) and the target is a {@link FileOutputStream}, bytes are moved with
+ *     {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.</li>
+ *     <li>If it is backed by a file descriptor or is {@link ByteBufferReadable} (e.g. HDFS, including short-circuit
+ *     reads), bytes are read directly into the copy buffer.</li>
+ *     <li>Otherwise, including when the source is wrapped in any other {@link FilterInputStream}, bytes are read from
+ *     the source stream into a single heap buffer.</li>
+ *   </ul>
+ *   Unlike {@link StreamCopier}, no {@link java.nio.channels.Channel} adapters (and their internal buffers) are placed
+ *   around the streams.
+ * </p>
+ *
+ * <p>
+ *   Bytes are always written through the target {@link OutputStream}, except for a bare {@link FileOutputStream}, so
+ *   file system checksums (HDFS, {@link org.apache.hadoop.fs.ChecksumFileSystem}) and any encoding done by the target
+ *   are preserved. Bytes read without going through the source stream are still marked in its
+ *   {@link MeteredInputStream}s and throttled by its {@link ThrottledInputStream}s, one buffer at a time.
+ * </p>
+ */
+@Slf4j
+@NotThreadSafe
+public class NioStreamCopier {
+
+  private final InputStream inputStream;
+  private final OutputStream outputStream;
+  private final Long maxBytes;
+  private int bufferSize = StreamCopier.DEFAULT_BUFFER_SIZE;
+  private Meter copySpeedMeter;
+
+  private final List<MeteredInputStream> meteredStreams = Lists.newArrayList();
+  private final List<ThrottledInputStream> throttledStreams = Lists.newArrayList();
+  private FSDataInputStream byteBufferReadableSource;
+  private FSDataInputStream seekableSource;
+  // Referenced for the lifetime of the copier, as finalizing a stream may close a descriptor shared with the source
+  private FileInputStream fileSource;
+  private FileChannel sourceChannel;
+
+  private volatile boolean copied = false;
+
+  public NioStreamCopier(InputStream inputStream, OutputStream outputStream) {
+    this(inputStream, outputStream, null);
+  }
+
+  public NioStreamCopier(InputStream inputStream, OutputStream outputStream, Long maxBytes) {
+    this.inputStream = inputStream;
+    this.outputStream = outputStream;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Set the size in bytes of the buffer used to copy. This is also the granularity of metering and throttling.
+   */
+  public NioStreamCopier withBufferSize(int bufferSize) {
+    this.bufferSize = bufferSize;
+    return this;
+  }
+
+  /**
+   * Set a {@link Meter} where copy speed will be reported.
+   */
+  public NioStreamCopier withCopySpeedMeter(Meter copySpeedMeter) {
+    this.copySpeedMeter = copySpeedMeter;
+    return this;
+  }
+
+  /**
+   * Execute the copy of bytes from the input to the output stream. If maxBytes is specified, limits the number of
+   * bytes copied to maxBytes.
+   * Note: this method should only be called once. Further calls will throw a {@link IllegalStateException}.
+   * @return Number of bytes copied.
+   */
+  public synchronized long copy() throws IOException {
+
+    if (this.copied) {
+      throw new IllegalStateException(String.format("%s already copied.", NioStreamCopier.class.getName()));
+    }
+    this.copied = true;
+
+    resolveSource();
+    FileChannel targetChannel =
+        this.outputStream instanceof FileOutputStream ? ((FileOutputStream) this.outputStream).getChannel() : null;
+
+    if (this.sourceChannel != null && targetChannel != null) {
+      return transferFileChannels(targetChannel);
+    } else if (this.sourceChannel != null || this.byteBufferReadableSource != null) {
+      return copyThroughBuffer(targetChannel);
+    } else {
+      return copyThroughStream();
+    }
+  }
+
+  /**
+   * Walk the {@link FilterInputStream} chain of the source to find the streams to meter and throttle and a source that
+   * can be read without going through the chain. If any other stream is found in the chain, the copy will read from
+   * the source stream.
+   */
+  private void resolveSource() throws IOException {
+    InputStream current = this.inputStream;
+    while (true) {
+      if (current instanceof FSDataInputStream) {
+        FSDataInputStream fsDataInputStream = (FSDataInputStream) current;
+        FileDescriptor fd = fsDataInputStream.getFileDescriptor();
+        if (fd != null) {
+          this.fileSource = new FileInputStream(fd);
+          this.sourceChannel = this.fileSource.getChannel();
+          this.seekableSource = fsDataInputStream;
+        } else if (fsDataInputStream.getWrappedStream() instanceof ByteBufferReadable) {
+          this.byteBufferReadableSource = fsDataInputStream;
+        }
+        return;
+      } else if (current instanceof FileInputStream) {
+        this.fileSource = (FileInputStream) current;
+        this.sourceChannel = this.fileSource.getChannel();
+        return;
+      } else if (current instanceof ThrottledInputStream) {
+        this.throttledStreams.add((ThrottledInputStream) current);
+      } else if (current instanceof MeteredInputStream) {
+        this.meteredStreams.add((MeteredInputStream) current);
+      } else {
+        return;
+      }
+
+      try {
+        current = FilterStreamUnpacker.unpackFilterInputStream((FilterInputStream) current);
+      } catch (IllegalAccessException iae) {
+        log.warn("Cannot unpack input stream due to SecurityManager.", iae);
+        return;
+      }
+    }
+  }
+
+  private long transferFileChannels(FileChannel targetChannel) throws IOException {
+    long position = sourcePosition();
+    long totalBytes = 0;
+    long numBytes;
+    while ((numBytes = this.sourceChannel.transferTo(position, nextChunkSize(totalBytes), targetChannel)) > 0) {
+      position += numBytes;
+      totalBytes += numBytes;
+      markBytesRead(numBytes);
+    }
+    setSourcePosition(position);
+    return totalBytes;
+  }
+
+  private long copyThroughBuffer(FileChannel targetChannel) throws IOException {
+    // Only a file channel target can consume a direct buffer without copying it to the heap first
+    ByteBuffer buffer =
+        targetChannel == null ? ByteBuffer.allocate(this.bufferSize) : ByteBuffer.allocateDirect(this.bufferSize);
+    long position = this.sourceChannel == null ? 0 : sourcePosition();
+    long totalBytes = 0;
+    int numBytes;
+    while (true) {
+      buffer.clear();
+      buffer.limit((int) nextChunkSize(totalBytes));
+      if (buffer.limit() == 0) {
+        break;
+      }
+      numBytes = this.sourceChannel == null ? this.byteBufferReadableSource.read(buffer)
+          : this.sourceChannel.read(buffer, position);
+      if (numBytes < 0) {
+        break;
+      }
+      buffer.flip();
+      if (targetChannel == null) {
+        this.outputStream.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
+      } else {
+        while (buffer.hasRemaining()) {
+          targetChannel.write(buffer);
+        }
+      }
+      position += numBytes;
+      totalBytes += numBytes;
+      markBytesRead(numBytes);
+    }
+    if (this.sourceChannel != null) {
+      setSourcePosition(position);
+    }
+    return totalBytes;
+  }
+
+  private long copyThroughStream() throws IOException {
+    byte[] buffer = new byte[this.bufferSize];
+    long totalBytes = 0;
+    int numBytes;
+    int chunkSize;
+    while ((chunkSize = (int) nextChunkSize(totalBytes)) > 0
+        && (numBytes = this.inputStream.read(buffer, 0, chunkSize)) != -1) {
+      this.outputStream.write(buffer, 0, numBytes);
+      totalBytes += numBytes;
+      if (this.copySpeedMeter != null) {
+        this.copySpeedMeter.mark(numBytes);
+      }
+    }
+    return totalBytes;
+  }
+
+  private long nextChunkSize(long totalBytes) {
+    return this.maxBytes == null ? this.bufferSize : Math.min(this.bufferSize, this.maxBytes - totalBytes);
+  }
+
+  /**
+   * Account for bytes that were read from the source without going through the source stream.
+   */
+  private void markBytesRead(long numBytes) {
+    for (MeteredInputStream meteredStream : this.meteredStreams) {
+      meteredStream.markBytesRead(numBytes);
+    }
+    for (ThrottledInputStream throttledStream : this.throttledStreams) {
+      throttledStream.blockUntilPermitsAvailable();
+    }
+    if (this.copySpeedMeter != null) {
+      this.copySpeedMeter.mark(numBytes);
+    }
+  }
+
+  private long sourcePosition() throws IOException {
+    return this.seekableSource != null ? this.seekableSource.getPos() : this.sourceChannel.position();
+  }
+
+  /**
+   * Leave the source stream positioned after the copied bytes, as if they had been read through it.
+   */
+  private void setSourcePosition(long position) throws IOException {
+    if (this.seekableSource != null) {
+      this.seekableSource.seek(position);
+    } else {
+      this.sourceChannel.position(position);
+    }
+  }
+}
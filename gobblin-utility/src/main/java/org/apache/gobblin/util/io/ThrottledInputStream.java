@@ -80,7 +80,11 @@ public class ThrottledInputStream extends FilterInputStream {
     this.prevCount = this.meter.getBytesProcessedMeter().getCount();
   }
 
-  private void blockUntilPermitsAvailable() {
+  /**
+   * Acquire permits for all bytes marked in the {@link MeteredInputStream} since the last call. Also used by
+   * {@link NioStreamCopier} for bytes read from the underlying source without going through this stream.
+   */
+  void blockUntilPermitsAvailable() {
     try {
       long currentCount = this.meter.getBytesProcessedMeter().getCount();
       long permitsNeeded = currentCount - this.prevCount;
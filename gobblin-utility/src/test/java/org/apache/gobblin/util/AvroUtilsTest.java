@@ -21,6 +21,7 @@ import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -656,4 +657,44 @@ public class AvroUtilsTest {
 
     }
   }
+
+  /**
+   * Fields only nested in records are read from an {@link EncodedGenericRecord} without decoding it.
+   */
+  @Test
+  public void testGetFieldValueOfEncodedRecord() throws IOException {
+    Schema headerSchema = SchemaBuilder.record("header").fields()
+        .requiredString("id")
+        .requiredLong("time")
+        .endRecord();
+    Schema schema = SchemaBuilder.record("event").fields()
+        .name("tags").type().array().items().stringType().noDefault()
+        .name("header").type().optional().type(headerSchema)
+        .optionalString("key")
+        .endRecord();
+    GenericRecord header = new GenericData.Record(headerSchema);
+    header.put("id", "abc");
+    header.put("time", 1234L);
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("tags", Lists.newArrayList("tag0", "tag1"));
+    record.put("header", header);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Encoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(schema).write(record, encoder);
+    encoder.flush();
+    EncodedGenericRecord encodedRecord = new EncodedGenericRecord(schema, ByteBuffer.wrap(out.toByteArray()));
+
+    Assert.assertEquals(AvroUtils.getFieldValue(encodedRecord, "header.time").get(), 1234L);
+    Assert.assertEquals(AvroUtils.getFieldValue(encodedRecord, "header.id").get().toString(), "abc");
+    Assert.assertFalse(AvroUtils.getFieldValue(encodedRecord, "key").isPresent());
+    Assert.assertFalse(AvroUtils.getFieldValue(encodedRecord, "header.missing").isPresent());
+    Assert.assertFalse(encodedRecord.isDecoded());
+
+    // Array elements need the record to be decoded
+    Assert.assertEquals(AvroUtils.getFieldValue(encodedRecord, "tags.1").get().toString(), "tag1");
+    Assert.assertTrue(encodedRecord.isDecoded());
+    Assert.assertFalse(encodedRecord.getEncoded().isPresent());
+    Assert.assertEquals(AvroUtils.getFieldValue(encodedRecord, "header.time").get(), 1234L);
+  }
 }
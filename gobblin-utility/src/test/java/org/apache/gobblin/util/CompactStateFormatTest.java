@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+
+import org.apache.gobblin.configuration.ConfigurationKeys;
+import org.apache.gobblin.configuration.State;
+import org.apache.gobblin.source.workunit.Extract;
+import org.apache.gobblin.source.workunit.MultiWorkUnit;
+import org.apache.gobblin.source.workunit.WorkUnit;
+
+
+/**
+ * Unit tests for {@link CompactStateFormat}.
+ */
+@Test(groups = { "gobblin.util" })
+public class CompactStateFormatTest {
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    testRoundTrip(new CompactStateFormat());
+  }
+
+  @Test
+  public void testRoundTripWithCompressionAndSmallBlocks() throws IOException {
+    CompressionCodec codec = ReflectionUtils.newInstance(DefaultCodec.class, new Configuration());
+    testRoundTrip(new CompactStateFormat(Optional.of(codec), 64));
+  }
+
+  private void testRoundTrip(CompactStateFormat format) throws IOException {
+    Extract extract = new Extract(Extract.TableType.APPEND_ONLY, "namespace", "table");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (CompactStateFormat.Writer writer = format.createWriter(bytes)) {
+      for (int i = 0; i < 100; i++) {
+        WorkUnit workUnit = WorkUnit.create(extract);
+        workUnit.setProp("common", "shared");
+        workUnit.setProp("index", i);
+        writer.append("wu" + i, workUnit);
+      }
+      MultiWorkUnit multiWorkUnit = MultiWorkUnit.createEmpty();
+      WorkUnit child = WorkUnit.create(extract);
+      child.setProp("child", "value");
+      multiWorkUnit.addWorkUnit(child);
+      writer.append("mwu", multiWorkUnit);
+    }
+
+    BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    Assert.assertTrue(CompactStateFormat.isCompactFormat(in));
+    try (CompactStateFormat.Reader reader = CompactStateFormat.createReader(in, new Configuration())) {
+      for (int i = 0; i < 100; i++) {
+        WorkUnit workUnit = WorkUnit.createEmpty();
+        Assert.assertEquals(reader.next(workUnit), "wu" + i);
+        Assert.assertEquals(workUnit.getProp("common"), "shared");
+        Assert.assertEquals(workUnit.getPropAsInt("index"), i);
+        Assert.assertEquals(workUnit.getExtract().getTable(), "table");
+      }
+      MultiWorkUnit multiWorkUnit = MultiWorkUnit.createEmpty();
+      Assert.assertEquals(reader.next(multiWorkUnit), "mwu");
+      Assert.assertEquals(multiWorkUnit.getWorkUnits().size(), 1);
+      Assert.assertEquals(multiWorkUnit.getWorkUnits().get(0).getProp("child"), "value");
+      Assert.assertNull(reader.next(WorkUnit.createEmpty()));
+    }
+  }
+
+  @Test
+  public void testLegacyFormatIsNotDetected() throws IOException {
+    State state = new State();
+    state.setProp("foo", "bar");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      state.write(out);
+    }
+    Assert.assertFalse(CompactStateFormat.isCompactFormat(
+        new BufferedInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+  }
+
+  @Test
+  public void testFromState() {
+    State state = new State();
+    Assert.assertFalse(CompactStateFormat.fromState(state).isPresent());
+
+    state.setProp(ConfigurationKeys.STATE_SERIALIZATION_COMPACT_ENABLED_KEY, true);
+    Optional<CompactStateFormat> format = CompactStateFormat.fromState(state);
+    Assert.assertTrue(format.isPresent());
+    Assert.assertFalse(format.get().getCodec().isPresent());
+
+    state.setProp(ConfigurationKeys.STATE_SERIALIZATION_COMPACT_CODEC_KEY, "deflate");
+    Assert.assertTrue(CompactStateFormat.fromState(state).get().getCodec().isPresent());
+  }
+}
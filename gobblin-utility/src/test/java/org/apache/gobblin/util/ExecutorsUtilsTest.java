@@ -19,7 +19,10 @@ package org.apache.gobblin.util;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
@@ -129,4 +132,26 @@ public class ExecutorsUtilsTest {
 
     ExecutorsUtils.parallelize(nums, sleepAndMultiply, 2, 1, Optional.<Logger> absent());
   }
+
+  @Test
+  public void testNewVirtualThreadPerTaskExecutor() throws Exception {
+    Optional<ExecutorService> executor =
+        ExecutorsUtils.newVirtualThreadPerTaskExecutor(Optional.<Logger>absent(), "virtual-");
+    Assert.assertEquals(executor.isPresent(), ExecutorsUtils.isVirtualThreadSupported());
+    if (!executor.isPresent()) {
+      return;
+    }
+
+    try {
+      Future<String> threadName = executor.get().submit(new Callable<String>() {
+        @Override
+        public String call() {
+          return Thread.currentThread().getName();
+        }
+      });
+      Assert.assertTrue(threadName.get().startsWith("virtual-"));
+    } finally {
+      ExecutorsUtils.shutdownExecutorService(executor.get(), Optional.<Logger>absent());
+    }
+  }
 }
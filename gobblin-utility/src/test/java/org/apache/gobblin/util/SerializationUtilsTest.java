@@ -77,6 +77,21 @@ public class SerializationUtilsTest {
     Assert.assertEquals(workUnit2.getPropAsInt("b"), 20);
   }
 
+  @Test
+  public void testSerializeStateCompact() throws IOException {
+    WorkUnit workUnit = WorkUnit.createEmpty();
+    workUnit.setProp("foo", "bar");
+    workUnit.setProp("a", 10);
+    Path path = new Path(this.outputPath, "wu-compact");
+    SerializationUtils.serializeState(this.fs, path, workUnit, new CompactStateFormat());
+
+    WorkUnit deserialized = WorkUnit.createEmpty();
+    SerializationUtils.deserializeState(this.fs, path, deserialized);
+    Assert.assertEquals(deserialized.getPropertyNames().size(), 2);
+    Assert.assertEquals(deserialized.getProp("foo"), "bar");
+    Assert.assertEquals(deserialized.getPropAsInt("a"), 10);
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     if (this.fs != null && this.outputPath != null) {
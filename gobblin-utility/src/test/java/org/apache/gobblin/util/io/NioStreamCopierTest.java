@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gobblin.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import org.apache.gobblin.util.limiter.CountBasedLimiter;
+
+
+public class NioStreamCopierTest {
+
+  private File tmpDir;
+  private File source;
+  private String content;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    this.tmpDir = Files.createTempDir();
+    this.source = new File(this.tmpDir, "source");
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      builder.append("testString");
+    }
+    this.content = builder.toString();
+    Files.write(this.content, this.source, Charsets.UTF_8);
+  }
+
+  @AfterClass
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(this.tmpDir);
+  }
+
+  @Test
+  public void testStreamCopy() throws Exception {
+    ByteArrayInputStream inputStream = new ByteArrayInputStream(this.content.getBytes(Charsets.UTF_8));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    long numBytes = new NioStreamCopier(inputStream, outputStream).withBufferSize(100).copy();
+
+    Assert.assertEquals(numBytes, this.content.length());
+    Assert.assertEquals(new String(outputStream.toByteArray(), Charsets.UTF_8), this.content);
+  }
+
+  @Test
+  public void testFileChannelTransfer() throws Exception {
+    File target = new File(this.tmpDir, "transferTarget");
+    Meter meter = new MetricRegistry().meter("my.meter");
+    MeteredInputStream meteredInputStream =
+        MeteredInputStream.builder().in(new FileInputStream(this.source)).updateFrequency(1).build();
+    InputStream throttled =
+        new ThrottledInputStream(meteredInputStream, new CountBasedLimiter(this.content.length()), meteredInputStream);
+
+    try (InputStream is = throttled; FileOutputStream os = new FileOutputStream(target)) {
+      new NioStreamCopier(is, os).withBufferSize(100).withCopySpeedMeter(meter).copy();
+    }
+
+    Assert.assertEquals(Files.toString(target, Charsets.UTF_8), this.content);
+    Assert.assertEquals(meteredInputStream.getBytesProcessedMeter().getCount(), this.content.length());
+    Assert.assertEquals(meter.getCount(), this.content.length());
+  }
+
+  @Test
+  public void testThrottlingOutsideOfStream() throws Exception {
+    MeteredInputStream meteredInputStream =
+        MeteredInputStream.builder().in(new FileInputStream(this.source)).updateFrequency(1).build();
+    InputStream throttled =
+        new ThrottledInputStream(meteredInputStream, new CountBasedLimiter(100), meteredInputStream);
+
+    try (InputStream is = throttled; ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+      new NioStreamCopier(is, os).withBufferSize(100).copy();
+      Assert.fail();
+    } catch (RuntimeException re) {
+      // Expected, more bytes were read than the limiter allows
+    }
+  }
+
+  @Test
+  public void testSeekedFsDataInputStreamWithMaxBytes() throws Exception {
+    FileSystem fs = FileSystem.getLocal(new Configuration()).getRaw();
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    try (FSDataInputStream inputStream = fs.open(new Path(this.source.getAbsolutePath()))) {
+      inputStream.seek(10);
+      long numBytes = new NioStreamCopier(MeteredInputStream.builder().in(inputStream).build(), outputStream, 25L)
+          .withBufferSize(10).copy();
+
+      Assert.assertEquals(numBytes, 25);
+      Assert.assertEquals(inputStream.getPos(), 35);
+    }
+    Assert.assertEquals(new String(outputStream.toByteArray(), Charsets.UTF_8), this.content.substring(10, 35));
+  }
+}